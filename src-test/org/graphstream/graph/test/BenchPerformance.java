@@ -42,6 +42,7 @@ import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.NeighborCursor;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.junit.Ignore;
 
@@ -54,8 +55,8 @@ public class BenchPerformance {
 	long start, end;
 
 	static enum Measures {
-		MEMORY, NODE_BY_ID, EDGE_BY_ID, GRAPH_NODE_IT, GRAPH_EDGE_IT, 
-		NODE_EDGE_IT, NODE_ENTERING_EDGE_IT, NODE_LEAVING_EDGE_IT, NODE_NEIGHBOR_IT, NODE_GET_EDGE, 
+		MEMORY, BYTES_PER_EDGE, NODE_BY_ID, EDGE_BY_ID, GRAPH_NODE_IT, GRAPH_EDGE_IT, 
+		NODE_EDGE_IT, NODE_ENTERING_EDGE_IT, NODE_LEAVING_EDGE_IT, NODE_NEIGHBOR_IT, NODE_NEIGHBOR_CURSOR, NODE_GET_EDGE, 
 		BFS_IT, DFS_IT, EDGE_BETWEEN, EDGE_FROM, EDGE_TOWARD, TRIANGLE, 
 		ADD_NODE, ADD_EDGE, REMOVE_NODE, REMOVE_EDGE
 	}
@@ -96,6 +97,8 @@ public class BenchPerformance {
 		long used2 = r.totalMemory() - r.freeMemory();
 		measureValues = new EnumMap<Measures, Long>(Measures.class);
 		measureValues.put(Measures.MEMORY, used2 - used1);
+		measureValues.put(Measures.BYTES_PER_EDGE,
+				(used2 - used1) / Math.max(1, g.getEdgeCount()));
 
 		nodeIds = new ArrayList<String>(g.getNodeCount());
 		for (Node n : g)
@@ -225,6 +228,22 @@ public class BenchPerformance {
 		end = System.currentTimeMillis();
 		measureValues.put(Measures.NODE_NEIGHBOR_IT, end - start);
 
+		// Same with a reusable cursor, no allocation per node
+		if (g instanceof AdjacencyListGraph) {
+			start = System.currentTimeMillis();
+			NeighborCursor cursor = new NeighborCursor();
+			for (Node n : g) {
+				cursor.reset(n);
+				while (cursor.next()) {
+					Node neighbor = cursor.getNode();
+					if (neighbor.hasAttribute("foo"))
+						foo++;
+				}
+			}
+			end = System.currentTimeMillis();
+			measureValues.put(Measures.NODE_NEIGHBOR_CURSOR, end - start);
+		}
+
 		// For each node n, iterating on all edges of n using n.getEdge(i)
 		start = System.currentTimeMillis();
 		nodeIt = g.getNodeIterator();
@@ -429,7 +448,7 @@ public class BenchPerformance {
 				double val = t.measureValues.get(m);
 				if (m == Measures.MEMORY)
 					val /= 1 << 20;
-				else
+				else if (m != Measures.BYTES_PER_EDGE)
 					val /= 1000;
 				ps.printf("& %10.3f ", val);
 			}
@@ -446,7 +465,7 @@ public class BenchPerformance {
 		int gCount = 2;
 		Graph[] graphs = new Graph[gCount];
 		graphs[0] = new SingleGraph("Single");
-		graphs[2] = new AdjacencyListGraph("Adj");
+		graphs[1] = new AdjacencyListGraph("Adj");
 
 		BenchPerformance[] tests = new BenchPerformance[gCount];
 		for (int i = 0; i < gCount; i++) {
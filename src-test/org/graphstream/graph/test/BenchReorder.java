@@ -0,0 +1,156 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.NodeOrdering;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Ignore;
+
+/**
+ * Measures the traversal time of a graph read from a file, with nodes in
+ * random order, in file order and in each {@link NodeOrdering}. The file is
+ * given as first argument, the default being the Dorogovtsev-Mendes graph of
+ * the test data.
+ */
+@Ignore
+public class BenchReorder {
+	static final String DEFAULT_FILE = "src-test/org/graphstream/ui/viewer/test/data/dorogovtsev_mendes6000.dgs";
+	static final int PASSES = 20;
+
+	/**
+	 * Keeps the results of the traversals alive.
+	 */
+	static volatile long sink;
+
+	public static void main(String[] args) throws Exception {
+		String fileName = args.length > 0 ? args[0] : DEFAULT_FILE;
+		AdjacencyListGraph file = new SingleGraph("file");
+
+		file.read(fileName);
+		System.out.printf("%s: %d nodes, %d edges%n", fileName,
+				file.getNodeCount(), file.getEdgeCount());
+		System.out.printf("%-24s %12s %12s %10s%n", "order", "neighbors",
+				"bfs", "bandwidth");
+
+		measure("random", shuffle(file));
+		measure("file", file);
+
+		for (NodeOrdering ordering : NodeOrdering.values()) {
+			AdjacencyListGraph g = shuffle(file);
+			g.reorder(ordering);
+			measure(ordering.name().toLowerCase(), g);
+		}
+	}
+
+	/**
+	 * Copy of a graph whose nodes and edges are inserted in random order.
+	 */
+	static AdjacencyListGraph shuffle(AdjacencyListGraph g) {
+		AdjacencyListGraph copy = new SingleGraph("shuffled");
+		ArrayList<Node> nodes = new ArrayList<Node>(g.getNodeSet());
+		ArrayList<Edge> edges = new ArrayList<Edge>(g.getEdgeSet());
+		Random random = new Random(0);
+
+		Collections.shuffle(nodes, random);
+		Collections.shuffle(edges, random);
+
+		for (Node n : nodes)
+			copy.addNode(n.getId());
+
+		for (Edge e : edges)
+			copy.addEdge(e.getId(), e.getSourceNode().getId(), e
+					.getTargetNode().getId(), e.isDirected());
+
+		return copy;
+	}
+
+	static void measure(String name, AdjacencyListGraph g) {
+		long sum = 0;
+
+		// warm up
+		sum += neighbors(g) + bfs(g);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < PASSES; i++)
+			sum += neighbors(g);
+		long neighbors = (System.nanoTime() - start) / PASSES;
+
+		start = System.nanoTime();
+		for (int i = 0; i < PASSES; i++)
+			sum += bfs(g);
+		long bfs = (System.nanoTime() - start) / PASSES;
+
+		int bandwidth = 0;
+
+		for (Edge e : g.getEachEdge())
+			bandwidth = Math.max(bandwidth, Math.abs(e.getNode0().getIndex()
+					- e.getNode1().getIndex()));
+
+		sink = sum;
+		System.out.printf("%-24s %10dus %10dus %10d%n", name,
+				neighbors / 1000, bfs / 1000, bandwidth);
+	}
+
+	/**
+	 * Visits the neighbors of all the nodes, reading each of them.
+	 */
+	static long neighbors(AdjacencyListGraph g) {
+		long sum = 0;
+
+		for (int i = 0; i < g.getNodeCount(); i++) {
+			Node n = g.getNode(i);
+
+			for (int j = 0; j < n.getDegree(); j++)
+				sum += n.getEdge(j).getOpposite(n).getDegree();
+		}
+
+		return sum;
+	}
+
+	static long bfs(AdjacencyListGraph g) {
+		long sum = 0;
+		Iterator<Node> it = g.getNode(0).getBreadthFirstIterator();
+
+		while (it.hasNext())
+			sum += it.next().getIndex();
+
+		return sum;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AdjacencySnapshot;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestAdjacencySnapshot {
+	@Test
+	public void testStructure() {
+		testStructure(new AdjacencyListGraph("alg"));
+		testStructure(new SingleGraph("sg"));
+		testStructure(new MultiGraph("mg"));
+	}
+
+	public void testStructure(AdjacencyListGraph graph) {
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addNode("D");
+		graph.addEdge("AB", "A", "B");
+		graph.addEdge("BC", "B", "C", true);
+		graph.addEdge("CA", "C", "A", true);
+		graph.addEdge("CD", "C", "D");
+		graph.addEdge("DD", "D", "D", true);
+
+		AdjacencySnapshot s = graph.snapshot();
+
+		assertEquals(graph.getNodeCount(), s.getNodeCount());
+		assertEquals(graph.getEdgeCount(), s.getEdgeCount());
+
+		for (Node n : graph) {
+			int i = n.getIndex();
+
+			assertEquals(n.getDegree(), s.getDegree(i));
+			assertEquals(n.getInDegree(), s.getInDegree(i));
+			assertEquals(n.getOutDegree(), s.getOutDegree(i));
+
+			HashSet<Integer> expected = new HashSet<Integer>();
+			HashSet<Integer> found = new HashSet<Integer>();
+
+			for (Edge e : n.getEachEnteringEdge())
+				expected.add(e.getIndex());
+			for (int p = s.getEnteringBegin(i); p < s.getEnteringEnd(i); p++) {
+				Edge e = graph.getEdge(s.getEdge(p));
+				assertEquals(e.getOpposite(n).getIndex(), s.getNeighbor(p));
+				found.add(e.getIndex());
+			}
+			assertEquals(expected, found);
+
+			expected.clear();
+			found.clear();
+
+			for (Edge e : n.getEachLeavingEdge())
+				expected.add(e.getIndex());
+			for (int p = s.getLeavingBegin(i); p < s.getLeavingEnd(i); p++)
+				found.add(s.getEdge(p));
+			assertEquals(expected, found);
+		}
+
+		for (Edge e : graph.getEachEdge()) {
+			int i = e.getIndex();
+
+			assertEquals(e.getSourceNode().getIndex(), s.getSource(i));
+			assertEquals(e.getTargetNode().getIndex(), s.getTarget(i));
+			assertEquals(e.isDirected(), s.isDirected(i));
+		}
+
+		// The snapshot is a copy.
+
+		int degree = s.getDegree(graph.getNode("A").getIndex());
+		graph.addEdge("AD", "A", "D");
+		assertEquals(degree, s.getDegree(graph.getNode("A").getIndex()));
+	}
+
+	@Test
+	public void testEmpty() {
+		AdjacencySnapshot s = new SingleGraph("empty").snapshot();
+
+		assertEquals(0, s.getNodeCount());
+		assertEquals(0, s.getEdgeCount());
+		assertEquals(0, s.getSize());
+	}
+
+	@Test
+	public void testLoop() {
+		MultiGraph graph = new MultiGraph("g");
+		graph.addNode("A");
+		graph.addEdge("AA", "A", "A", true);
+
+		AdjacencySnapshot s = graph.snapshot();
+
+		assertEquals(1, s.getDegree(0));
+		assertEquals(0, s.getNeighbor(s.getNeighborsBegin(0)));
+		assertTrue(s.isDirected(0));
+		assertFalse(s.getEnteringBegin(0) == s.getEnteringEnd(0));
+		assertFalse(s.getLeavingBegin(0) == s.getLeavingEnd(0));
+	}
+}
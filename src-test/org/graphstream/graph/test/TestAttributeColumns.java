@@ -0,0 +1,178 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.SinkAdapter;
+import org.junit.Test;
+
+public class TestAttributeColumns {
+	@Test
+	public void testAccess() {
+		AdjacencyListGraph graph = new SingleGraph("g");
+		graph.declareNodeAttribute("x", AttributeColumns.Type.DOUBLE);
+		graph.declareNodeAttribute("n", AttributeColumns.Type.INT);
+		graph.declareNodeAttribute("label", AttributeColumns.Type.OBJECT);
+
+		Node a = graph.addNode("A");
+
+		assertFalse(a.hasAttribute("x"));
+		assertEquals(0, a.getAttributeCount());
+
+		a.addAttribute("x", 1.5);
+		a.addAttribute("n", 3);
+		a.addAttribute("label", "a");
+		a.addAttribute("other", "o");
+
+		assertEquals(1.5, a.getNumber("x"), 0);
+		assertEquals(3, a.getNumber("n"), 0);
+		assertEquals(1.5, (Double) a.getAttribute("x"), 0);
+		assertEquals(Integer.valueOf(3), a.getAttribute("n", Integer.class));
+		assertEquals("a", a.getLabel("label"));
+		assertTrue(a.hasNumber("x"));
+		assertEquals(4, a.getAttributeCount());
+
+		HashSet<String> keys = new HashSet<String>(a.getAttributeKeySet());
+		assertEquals(4, keys.size());
+		assertTrue(keys.contains("x"));
+		assertTrue(keys.contains("other"));
+
+		assertEquals(1.5, graph.getNodeAttributeColumns().getNumber("x",
+				a.getIndex()), 0);
+
+		// A value of another type keeps its class.
+		a.addAttribute("x", 2);
+		assertEquals(Integer.valueOf(2), a.getAttribute("x"));
+		assertEquals(4, a.getAttributeCount());
+		a.addAttribute("x", 2.5);
+		assertEquals(2.5, (Double) a.getAttribute("x"), 0);
+		assertEquals(4, a.getAttributeCount());
+
+		a.removeAttribute("x");
+		assertFalse(a.hasAttribute("x"));
+		assertTrue(Double.isNaN(a.getNumber("x")));
+
+		a.clearAttributes();
+		assertEquals(0, a.getAttributeCount());
+		assertNull(a.getAttribute("label"));
+	}
+
+	@Test
+	public void testEvents() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		graph.declareEdgeAttribute("weight", AttributeColumns.Type.DOUBLE);
+
+		final ArrayList<String> events = new ArrayList<String>();
+
+		graph.addSink(new SinkAdapter() {
+			@Override
+			public void edgeAttributeAdded(String sourceId, long timeId,
+					String edgeId, String attribute, Object value) {
+				events.add("add " + attribute + " " + value);
+			}
+
+			@Override
+			public void edgeAttributeChanged(String sourceId, long timeId,
+					String edgeId, String attribute, Object oldValue,
+					Object newValue) {
+				events.add("change " + attribute + " " + oldValue + " "
+						+ newValue);
+			}
+
+			@Override
+			public void edgeAttributeRemoved(String sourceId, long timeId,
+					String edgeId, String attribute) {
+				events.add("remove " + attribute);
+			}
+		});
+
+		graph.addNode("A");
+		graph.addNode("B");
+		Edge e = graph.addEdge("AB", "A", "B");
+
+		e.addAttribute("weight", 1.0);
+		e.changeAttribute("weight", 2.0);
+		e.removeAttribute("weight");
+
+		assertEquals(3, events.size());
+		assertEquals("add weight 1.0", events.get(0));
+		assertEquals("change weight 1.0 2.0", events.get(1));
+		assertEquals("remove weight", events.get(2));
+	}
+
+	@Test
+	public void testRemoval() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+
+		for (int i = 0; i < 100; i++) {
+			Node n = graph.addNode("N" + i);
+			n.addAttribute("x", (double) i);
+		}
+
+		// Values already set are moved to the column.
+		graph.declareNodeAttribute("x", AttributeColumns.Type.DOUBLE);
+
+		for (int i = 0; i < 100; i += 3) {
+			Node n = graph.removeNode("N" + i);
+
+			// A removed node keeps its values.
+			assertEquals(i, n.getNumber("x"), 0);
+		}
+
+		for (Node n : graph) {
+			int i = Integer.parseInt(n.getId().substring(1));
+			assertEquals(i, n.getNumber("x"), 0);
+			assertEquals(1, n.getAttributeCount());
+		}
+
+		Node n = graph.addNode("M");
+		assertFalse(n.hasAttribute("x"));
+
+		graph.clear();
+		n = graph.addNode("P");
+		assertFalse(n.hasAttribute("x"));
+		n.addAttribute("x", 4.0);
+		assertEquals(4, n.getNumber("x"), 0);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.EdgeRejectedException;
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.IdAlreadyInUseException;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.BulkBuilder;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.SinkAdapter;
+import org.junit.Test;
+
+public class TestBulkBuilder {
+	@Test
+	public void testLoad() {
+		testLoad(new AdjacencyListGraph("alg"));
+		testLoad(new SingleGraph("sg"));
+		testLoad(new MultiGraph("mg"));
+	}
+
+	public void testLoad(AdjacencyListGraph graph) {
+		int n = 1000;
+		String[] ids = new String[n];
+		int[] src = new int[2 * n];
+		int[] dst = new int[2 * n];
+
+		for (int i = 0; i < n; i++) {
+			ids[i] = "N" + i;
+			src[2 * i] = i;
+			dst[2 * i] = (i + 1) % n;
+			src[2 * i + 1] = i;
+			dst[2 * i + 1] = (i + 7) % n;
+		}
+
+		final ArrayList<String> events = new ArrayList<String>();
+
+		graph.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAdded(String sourceId, long timeId, String nodeId) {
+				events.add(nodeId);
+			}
+
+			@Override
+			public void edgeAdded(String sourceId, long timeId,
+					String edgeId, String fromNodeId, String toNodeId,
+					boolean directed) {
+				events.add(edgeId);
+			}
+		});
+
+		BulkBuilder bulk = graph.bulk();
+
+		assertEquals(0, bulk.addNodes(ids));
+		assertEquals(0, bulk.addEdges(null, src, dst, true));
+		assertTrue(events.isEmpty());
+
+		assertEquals(n, graph.getNodeCount());
+		assertEquals(2 * n, graph.getEdgeCount());
+
+		for (int i = 0; i < n; i++) {
+			Node node = graph.getNode(i);
+
+			assertEquals("N" + i, node.getId());
+			assertEquals(4, node.getDegree());
+			assertEquals(2, node.getOutDegree());
+			assertEquals(2, node.getInDegree());
+
+			Edge e = node.getEdgeToward("N" + ((i + 1) % n));
+			assertNotNull(e);
+			assertEquals("N" + i + "_N" + ((i + 1) % n), e.getId());
+		}
+
+		bulk.sendEvents();
+		assertEquals(3 * n, events.size());
+		assertEquals("N0", events.get(0));
+		assertEquals("N0_N1", events.get(n));
+
+		// Normal operations still work.
+		graph.removeNode("N0");
+		graph.addEdge("X", "N1", "N3");
+		assertEquals(n - 1, graph.getNodeCount());
+		assertEquals(2 * n - 4 + 1, graph.getEdgeCount());
+
+		assertEquals(3 * n + 1, events.size());
+
+		// Nothing is sent twice.
+		bulk.sendEvents();
+		assertEquals(3 * n + 1, events.size());
+	}
+
+	@Test(expected = IdAlreadyInUseException.class)
+	public void testDuplicate() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		graph.addNode("A");
+		graph.bulk().addNodes("B", "A");
+	}
+
+	@Test
+	public void testNonStrict() {
+		SingleGraph graph = new SingleGraph("g", false, false);
+		BulkBuilder bulk = graph.bulk();
+
+		bulk.addNodes("A", "B", "A");
+		assertEquals(2, graph.getNodeCount());
+
+		// The second edge between A and B is rejected by the single graph.
+		bulk.addEdges(new String[] { "AB", "BA" }, new int[] { 0, 1 },
+				new int[] { 1, 0 }, false);
+		assertEquals(1, graph.getEdgeCount());
+		assertTrue(graph.getNode("A").hasEdgeBetween("B"));
+	}
+
+	@Test
+	public void testStrictNodeFailure() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		BulkBuilder bulk = graph.bulk();
+
+		bulk.addNodes("A");
+
+		// A failed call leaves the graph as it was.
+		try {
+			bulk.addNodes("B", "C", "A");
+			fail();
+		} catch (IdAlreadyInUseException e) {
+		}
+
+		try {
+			bulk.addNodes("B", "C", "B");
+			fail();
+		} catch (IdAlreadyInUseException e) {
+		}
+
+		assertEquals(1, graph.getNodeCount());
+		assertNull(graph.getNode("B"));
+
+		assertEquals(1, bulk.addNodes("B", "C"));
+		assertEquals(3, graph.getNodeCount());
+		assertEquals(2, graph.getNode("C").getIndex());
+	}
+
+	@Test
+	public void testStrictFailure() {
+		SingleGraph graph = new SingleGraph("g");
+		BulkBuilder bulk = graph.bulk();
+
+		bulk.addNodes("A", "B", "C");
+		graph.addEdge("CA", "C", "A");
+
+		// A failed call leaves the graph as it was.
+		try {
+			bulk.addEdges(new String[] { "AB", "BC", "CA" },
+					new int[] { 0, 1, 2 }, new int[] { 1, 2, 0 }, false);
+			fail();
+		} catch (IdAlreadyInUseException e) {
+		}
+
+		try {
+			bulk.addEdges(new String[] { "AB", "BC", "AC" },
+					new int[] { 0, 1, 0 }, new int[] { 1, 2, 2 }, false);
+			fail();
+		} catch (EdgeRejectedException e) {
+		}
+
+		assertEquals(1, graph.getEdgeCount());
+		assertEquals(1, graph.getNode("A").getDegree());
+		assertEquals(0, graph.getNode("B").getDegree());
+		assertNull(graph.getEdge("AB"));
+		assertFalse(graph.getNode("A").hasEdgeBetween("B"));
+
+		bulk.addEdges(new String[] { "AB", "BC" }, new int[] { 0, 1 },
+				new int[] { 1, 2 }, false);
+		assertEquals(3, graph.getEdgeCount());
+		assertEquals(2, graph.getNode("B").getDegree());
+	}
+
+	@Test(expected = ElementNotFoundException.class)
+	public void testBadIndex() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		graph.bulk().addNodes("A");
+		graph.bulk().addEdges(null, new int[] { 0 }, new int[] { 1 }, false);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.CompactAttributeMap;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestCompactAttributeMap {
+	@Test
+	public void testBasic() {
+		CompactAttributeMap map = new CompactAttributeMap();
+
+		assertTrue(map.isEmpty());
+		assertNull(map.put("a", 1));
+		assertNull(map.put(new String("b"), 2));
+		assertNull(map.put("c", null));
+		assertEquals(1, map.put("a", 3));
+
+		assertEquals(3, map.size());
+		assertEquals(3, map.get("a"));
+		assertEquals(2, map.get("b"));
+		assertEquals(2, map.get(new String("b")));
+		assertTrue(map.containsKey("c"));
+		assertNull(map.get("c"));
+		assertFalse(map.containsKey("d"));
+
+		// Insertion order is kept.
+		ArrayList<String> keys = new ArrayList<String>(map.keySet());
+		assertEquals("a", keys.get(0));
+		assertEquals("b", keys.get(1));
+		assertEquals("c", keys.get(2));
+
+		assertEquals(2, map.remove("b"));
+		assertEquals(2, map.size());
+		assertFalse(map.containsKey("b"));
+
+		Iterator<String> it = map.keySet().iterator();
+		it.next();
+		it.remove();
+		assertEquals(1, map.size());
+		assertTrue(map.containsKey("c"));
+
+		map.clear();
+		assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void testPromotion() {
+		CompactAttributeMap map = new CompactAttributeMap();
+		HashMap<String, Object> expected = new HashMap<String, Object>();
+		int n = CompactAttributeMap.THRESHOLD * 2 + 1;
+
+		for (int i = 0; i < n; i++) {
+			map.put("k" + i, i);
+			expected.put("k" + i, i);
+			assertEquals(i > CompactAttributeMap.THRESHOLD - 1,
+					map.isPromoted());
+		}
+
+		assertEquals(expected, map);
+		assertEquals(map, expected);
+		assertEquals(expected.hashCode(), map.hashCode());
+
+		for (Map.Entry<String, Object> e : map.entrySet())
+			assertEquals(expected.get(e.getKey()), e.getValue());
+	}
+
+	@Test
+	public void testOrder() {
+		CompactAttributeMap map = new CompactAttributeMap();
+		int n = CompactAttributeMap.THRESHOLD * 2 + 1;
+
+		for (int i = 0; i < n; i++) {
+			map.put("k" + i, i);
+			map.put("k0", -1);
+
+			// Keys stay in insertion order across the promotion.
+			int j = 0;
+
+			for (String key : map.keySet())
+				assertEquals("k" + j++, key);
+
+			assertEquals(i + 1, j);
+		}
+
+		CompactAttributeMap small = new CompactAttributeMap();
+
+		for (int i = 0; i < CompactAttributeMap.THRESHOLD; i++)
+			small.put("k" + i, i);
+
+		Iterator<String> keys = small.keySet().iterator();
+		keys.next();
+		small.put("promoted", true);
+
+		try {
+			keys.hasNext();
+			fail();
+		} catch (ConcurrentModificationException e) {
+		}
+	}
+
+	@Test
+	public void testElement() {
+		SingleGraph graph = new SingleGraph("g");
+		Node a = graph.addNode("A");
+
+		for (int i = 0; i < 20; i++)
+			a.addAttribute("k" + i, i);
+
+		assertEquals(20, a.getAttributeCount());
+		assertEquals(20, a.getAttributeKeySet().size());
+
+		for (int i = 0; i < 20; i++)
+			assertEquals(i, a.getNumber("k" + i), 0);
+
+		for (int i = 0; i < 20; i += 2)
+			a.removeAttribute("k" + i);
+
+		assertEquals(10, a.getAttributeCount());
+		assertFalse(a.hasAttribute("k0"));
+		assertTrue(a.hasAttribute("k1"));
+	}
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.ConcurrentGraph;
+import org.graphstream.stream.SinkAdapter;
+import org.junit.Test;
+
+public class TestConcurrentGraph {
+	static final int THREADS = 4;
+	static final int NODES = 200;
+
+	@Test
+	public void testBasic() {
+		ConcurrentGraph graph = new ConcurrentGraph("g");
+
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addEdge("AB", "A", "B");
+		graph.addEdge("BC", "B", "C", true);
+		graph.getNode("A").addAttribute("x", 1);
+
+		assertEquals(3, graph.getNodeCount());
+		assertEquals(2, graph.getEdgeCount());
+		assertEquals(2, graph.getNode("B").getDegree());
+		assertNotNull(graph.getNode("B").getEdgeToward("C"));
+		assertNull(graph.getNode("C").getEdgeToward("B"));
+		assertEquals(1, graph.getNode("A").getNumber("x"), 0);
+
+		graph.removeNode("B");
+		assertEquals(2, graph.getNodeCount());
+		assertEquals(0, graph.getEdgeCount());
+		assertEquals(0, graph.getNode("A").getDegree());
+
+		graph.clear();
+		assertEquals(0, graph.getNodeCount());
+	}
+
+	@Test
+	public void testParallelInsertion() throws InterruptedException {
+		final ConcurrentGraph graph = new ConcurrentGraph("g");
+		final ArrayList<Long> timeIds = new ArrayList<Long>();
+		final HashSet<String> nodes = new HashSet<String>();
+		final AtomicReference<String> error = new AtomicReference<String>();
+
+		graph.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAdded(String sourceId, long timeId, String nodeId) {
+				timeIds.add(timeId);
+				nodes.add(nodeId);
+			}
+
+			@Override
+			public void edgeAdded(String sourceId, long timeId,
+					String edgeId, String fromNodeId, String toNodeId,
+					boolean directed) {
+				timeIds.add(timeId);
+
+				if (!nodes.contains(fromNodeId) || !nodes.contains(toNodeId))
+					error.set("Edge " + edgeId + " before its nodes");
+			}
+
+			@Override
+			public void nodeAttributeAdded(String sourceId, long timeId,
+					String nodeId, String attribute, Object value) {
+				timeIds.add(timeId);
+			}
+		});
+
+		for (int i = 0; i < NODES; i++)
+			graph.addNode("N" + i);
+
+		Thread[] threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			final int id = t;
+
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < NODES; i++) {
+						for (int j = i + 1; j < NODES; j++) {
+							if ((i + j) % THREADS == id)
+								graph.addEdge(i + "_" + j, "N" + i, "N" + j);
+						}
+
+						if (i % THREADS == id) {
+							Node n = graph.addNode("M" + i);
+							n.addAttribute("i", i);
+						}
+					}
+				}
+			};
+
+			threads[t].start();
+		}
+
+		for (Thread t : threads)
+			t.join();
+
+		assertNull(error.get());
+		assertEquals(2 * NODES, graph.getNodeCount());
+		assertEquals(NODES * (NODES - 1) / 2, graph.getEdgeCount());
+
+		for (int i = 0; i < NODES; i++)
+			assertEquals(NODES - 1, graph.getNode("N" + i).getDegree());
+
+		HashSet<Integer> indices = new HashSet<Integer>();
+
+		for (Edge e : graph.getEachEdge())
+			assertTrue(indices.add(e.getIndex()));
+
+		assertEquals(2 * NODES + NODES * (NODES - 1) / 2 + NODES,
+				timeIds.size());
+
+		for (int i = 1; i < timeIds.size(); i++)
+			assertTrue(timeIds.get(i - 1) < timeIds.get(i));
+	}
+
+	@Test
+	public void testParallelNumbers() throws InterruptedException {
+		final ConcurrentGraph graph = new ConcurrentGraph("g");
+		final ArrayList<Long> timeIds = new ArrayList<Long>();
+
+		for (int i = 0; i < NODES; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 1; i < NODES; i++)
+			graph.addEdge("E" + i, "N0", "N" + i);
+
+		graph.addSink(new SinkAdapter() {
+			@Override
+			public void graphAttributeAdded(String sourceId, long timeId,
+					String attribute, Object value) {
+				timeIds.add(timeId);
+			}
+
+			@Override
+			public void graphAttributeChanged(String sourceId, long timeId,
+					String attribute, Object oldValue, Object newValue) {
+				timeIds.add(timeId);
+			}
+
+			@Override
+			public void nodeAttributeAdded(String sourceId, long timeId,
+					String nodeId, String attribute, Object value) {
+				timeIds.add(timeId);
+			}
+
+			@Override
+			public void nodeAttributeChanged(String sourceId, long timeId,
+					String nodeId, String attribute, Object oldValue,
+					Object newValue) {
+				timeIds.add(timeId);
+			}
+
+			@Override
+			public void edgeAttributeAdded(String sourceId, long timeId,
+					String edgeId, String attribute, Object value) {
+				timeIds.add(timeId);
+			}
+
+			@Override
+			public void edgeAttributeChanged(String sourceId, long timeId,
+					String edgeId, String attribute, Object oldValue,
+					Object newValue) {
+				timeIds.add(timeId);
+			}
+		});
+
+		Thread[] threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			final int id = t;
+
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 1; i < NODES; i++) {
+						graph.getNode("N" + i).setNumber("t" + id, i);
+						graph.getEdge("E" + i).setNumbers("t" + id, i, id);
+						graph.setNumber("t" + id, i);
+					}
+				}
+			};
+
+			threads[t].start();
+		}
+
+		for (Thread t : threads)
+			t.join();
+
+		for (int i = 1; i < NODES; i++)
+			for (int t = 0; t < THREADS; t++) {
+				assertEquals(i, graph.getNode("N" + i).getNumber("t" + t), 0);
+				double[] values = graph.getEdge("E" + i).getAttribute("t" + t);
+				assertEquals(t, values[1], 0);
+			}
+
+		assertEquals(3 * THREADS * (NODES - 1), timeIds.size());
+
+		for (int i = 1; i < timeIds.size(); i++)
+			assertTrue(timeIds.get(i - 1) < timeIds.get(i));
+	}
+
+	@Test(timeout = 60000)
+	public void testSinkModifications() throws InterruptedException {
+		final ConcurrentGraph graph = new ConcurrentGraph("g");
+		final ArrayList<Long> timeIds = new ArrayList<Long>();
+		final HashSet<String> edges = new HashSet<String>();
+		final AtomicReference<String> error = new AtomicReference<String>();
+
+		for (int i = 0; i < NODES; i++) {
+			graph.addNode("N" + i);
+			graph.addNode("M" + i);
+		}
+
+		// The sink mirrors the edges between other nodes, taking other
+		// stripe locks while the event lock is held.
+		graph.addSink(new SinkAdapter() {
+			@Override
+			public void edgeAdded(String sourceId, long timeId,
+					String edgeId, String fromNodeId, String toNodeId,
+					boolean directed) {
+				timeIds.add(timeId);
+
+				if (!edges.add(edgeId))
+					error.set("Edge " + edgeId + " added twice");
+
+				if (edgeId.startsWith("e")) {
+					int i = Math.abs(edgeId.hashCode()) % NODES;
+					graph.addEdge("m" + edgeId, "M" + i, "M"
+							+ ((i + 7) % NODES));
+				}
+			}
+
+			@Override
+			public void edgeRemoved(String sourceId, long timeId,
+					String edgeId) {
+				timeIds.add(timeId);
+
+				if (!edges.remove(edgeId))
+					error.set("Edge " + edgeId + " removed before added");
+
+				if (edgeId.startsWith("e"))
+					graph.removeEdge("m" + edgeId);
+			}
+		});
+
+		Thread[] threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			final int id = t;
+
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < NODES; i++) {
+						String e = "e" + id + "_" + i;
+						graph.addEdge(e, "N" + i, "N" + ((i + id + 1) % NODES));
+
+						if (i % 2 == 0)
+							graph.removeEdge(e);
+					}
+				}
+			};
+
+			threads[t].start();
+		}
+
+		for (Thread t : threads)
+			t.join();
+
+		assertNull(error.get());
+		assertEquals(THREADS * NODES, graph.getEdgeCount());
+		assertEquals(graph.getEdgeCount(), edges.size());
+
+		for (int i = 1; i < timeIds.size(); i++)
+			assertTrue(timeIds.get(i - 1) < timeIds.get(i));
+	}
+
+	@Test
+	public void testAttributeKeySet() {
+		ConcurrentGraph graph = new ConcurrentGraph("g");
+		Node node = graph.addNode("A");
+
+		node.addAttribute("x", 1);
+		Collection<String> keys = node.getAttributeKeySet();
+		node.addAttribute("y", 2);
+		node.removeAttribute("x");
+
+		// The key set is a copy, it does not change with the node.
+		assertEquals(1, keys.size());
+		assertTrue(keys.contains("x"));
+		assertEquals(1, node.getAttributeKeySet().size());
+		assertNull(graph.getAttributeKeyIterator());
+	}
+
+	@Test
+	public void testParallelRemoval() throws InterruptedException {
+		final ConcurrentGraph graph = new ConcurrentGraph("g", false, false);
+
+		for (int i = 0; i < NODES; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 0; i < NODES; i++)
+			for (int j = i + 1; j < NODES; j += 3)
+				graph.addEdge(i + "_" + j, "N" + i, "N" + j);
+
+		Thread[] threads = new Thread[THREADS];
+
+		for (int t = 0; t < THREADS; t++) {
+			final int id = t;
+
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < NODES; i++) {
+						if (i % THREADS == id && i % 2 == 0)
+							graph.removeNode("N" + i);
+						else if (i % THREADS == id)
+							graph.addEdge("X" + i, "N" + i, "N"
+									+ ((i + 2) % NODES));
+					}
+				}
+			};
+
+			threads[t].start();
+		}
+
+		for (Thread t : threads)
+			t.join();
+
+		assertEquals(NODES / 2, graph.getNodeCount());
+
+		int degrees = 0;
+
+		for (Node n : graph) {
+			degrees += n.getDegree();
+
+			for (Edge e : n.getEachEdge()) {
+				assertNotNull(graph.getNode(e.getOpposite(n).getId()));
+				assertEquals(e, graph.getEdge(e.getId()));
+			}
+		}
+
+		assertEquals(2 * graph.getEdgeCount(), degrees);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+/**
+ * Checks the edge look ups of high degree nodes against a linear scan.
+ */
+public class TestEdgeIndex {
+	@Test
+	public void testHub() {
+		Random random = new Random(7);
+		AdjacencyListGraph graph = new AdjacencyListGraph("g", false, false);
+		int n = 300;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		Node hub = graph.getNode(0);
+		int id = 0;
+
+		for (int i = 0; i < 2000; i++) {
+			Node other = graph.getNode(random.nextInt(n));
+
+			if (random.nextBoolean())
+				graph.addEdge("E" + id++, hub, other, random.nextBoolean());
+			else
+				graph.addEdge("E" + id++, other, hub, true);
+		}
+
+		check(graph, hub);
+
+		// Remove edges until the hub falls below the threshold, looking up
+		// edges along the way.
+		while (hub.getDegree() > 0) {
+			graph.removeEdge(hub.getEdge(random.nextInt(hub.getDegree())));
+
+			if (hub.getDegree() % 97 == 0 || hub.getDegree() < 40)
+				check(graph, hub);
+
+			if (random.nextInt(4) == 0) {
+				Node other = graph.getNode(random.nextInt(n));
+				graph.addEdge("E" + id++, other, hub, random.nextBoolean());
+			}
+		}
+
+		check(graph, hub);
+	}
+
+	protected void check(AdjacencyListGraph graph, Node hub) {
+		for (Node other : graph) {
+			assertSame(scan(hub, other, true, true), hub.getEdgeBetween(other));
+			assertSame(scan(hub, other, false, true), hub.getEdgeToward(other));
+			assertSame(scan(hub, other, true, false), hub.getEdgeFrom(other));
+		}
+
+		int degree = 0;
+
+		for (Edge e : hub.getEachEdge()) {
+			assertSame(hub, e.getOpposite(e.getOpposite(hub)));
+			degree++;
+		}
+
+		assertEquals(hub.getDegree(), degree);
+	}
+
+	/**
+	 * First edge of a linear scan, entering or leaving edges, undirected edges
+	 * being both.
+	 */
+	protected Edge scan(Node hub, Node other, boolean entering, boolean leaving) {
+		for (int i = 0; i < hub.getDegree(); i++) {
+			Edge e = hub.getEdge(i);
+
+			if (e.getOpposite(hub) != other)
+				continue;
+
+			boolean undirected = !e.isDirected() || e.isLoop();
+
+			if (entering && (undirected || e.getTargetNode() == hub))
+				return e;
+
+			if (leaving && (undirected || e.getSourceNode() == hub))
+				return e;
+		}
+
+		return null;
+	}
+}
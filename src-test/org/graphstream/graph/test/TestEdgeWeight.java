@@ -0,0 +1,161 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Path;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.NeighborCursor;
+import org.graphstream.graph.implementations.NodeOrdering;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestEdgeWeight {
+	protected AdjacencyListGraph chain(int n) {
+		AdjacencyListGraph g = new AdjacencyListGraph("g");
+
+		for (int i = 0; i < n; i++)
+			g.addNode("N" + i);
+
+		for (int i = 1; i < n; i++)
+			g.addEdge("E" + i, "N" + (i - 1), "N" + i).addAttribute("weight",
+					(double) i);
+
+		return g;
+	}
+
+	@Test
+	public void testLiveWeights() {
+		AdjacencyListGraph g = chain(4);
+
+		g.setWeightAttribute("weight");
+		assertEquals("weight", g.getWeightAttribute());
+
+		for (int i = 1; i < 4; i++)
+			assertEquals(i, g.edgeWeight(g.getEdge("E" + i).getIndex()), 0);
+
+		g.getEdge("E2").setAttribute("weight", 10.0);
+		assertEquals(10, g.edgeWeight(g.getEdge("E2").getIndex()), 0);
+
+		g.getEdge("E3").setNumber("weight", 7);
+		assertEquals(7, g.edgeWeight(g.getEdge("E3").getIndex()), 0);
+
+		g.getEdge("E1").removeAttribute("weight");
+		assertEquals(1, g.edgeWeight(g.getEdge("E1").getIndex()), 0);
+
+		// Edges added after the declaration are stored in the column too.
+		g.addEdge("E4", "N0", "N3").addAttribute("weight", 4.0);
+		assertEquals(4, g.edgeWeight(g.getEdge("E4").getIndex()), 0);
+	}
+
+	@Test
+	public void testRemovalAndReorder() {
+		AdjacencyListGraph g = chain(6);
+
+		g.setWeightAttribute("weight");
+		g.removeEdge("E1");
+		g.removeNode("N3");
+
+		for (Edge e : g.getEachEdge())
+			assertEquals((Double) e.getAttribute("weight"),
+					g.edgeWeight(e.getIndex()), 0);
+
+		g.reorder(NodeOrdering.BREADTH_FIRST);
+
+		for (Edge e : g.getEachEdge())
+			assertEquals((Double) e.getAttribute("weight"),
+					g.edgeWeight(e.getIndex()), 0);
+	}
+
+	@Test
+	public void testFallback() {
+		SingleGraph g = new SingleGraph("g");
+
+		g.addNode("A");
+		g.addNode("B");
+		g.addNode("C");
+		g.addEdge("AB", "A", "B").addAttribute("weight", 3);
+		g.addEdge("BC", "B", "C");
+
+		assertEquals(1, g.edgeWeight(0), 0);
+
+		g.setWeightAttribute("weight");
+		assertEquals(3, g.edgeWeight(g.getEdge("AB").getIndex()), 0);
+		assertEquals(1, g.edgeWeight(g.getEdge("BC").getIndex()), 0);
+
+		g.setWeightAttribute(null);
+		assertEquals(1, g.edgeWeight(g.getEdge("AB").getIndex()), 0);
+
+		// A column of objects declared before may hold other values.
+		g.declareEdgeAttribute("cost", AttributeColumns.Type.OBJECT);
+		g.getEdge("AB").addAttribute("cost", "high");
+		g.getEdge("BC").addAttribute("cost", 2);
+		g.setWeightAttribute("cost");
+		assertEquals(1, g.edgeWeight(g.getEdge("AB").getIndex()), 0);
+		assertEquals(2, g.edgeWeight(g.getEdge("BC").getIndex()), 0);
+	}
+
+	@Test
+	public void testPathAndCursor() {
+		AdjacencyListGraph g = chain(4);
+
+		g.setWeightAttribute("weight");
+
+		Path path = new Path();
+		path.setRoot(g.getNode("N0"));
+		path.add(g.getEdge("E1"));
+		path.add(g.getEdge("E2"));
+		path.add(g.getEdge("E3"));
+
+		assertEquals(6, path.getPathWeight("weight"), 0);
+
+		g.getEdge("E2").setNumber("weight", 0.5);
+		assertEquals(4.5, path.getPathWeight("weight"), 0);
+
+		NeighborCursor cursor = new NeighborCursor();
+		double sum = 0;
+
+		cursor.reset(g.getNode("N1"));
+
+		while (cursor.next()) {
+			assertEquals(cursor.getEdge().getNumber("weight"),
+					cursor.getWeight(), 0);
+			sum += cursor.getWeight();
+		}
+
+		assertTrue(sum == 1.5);
+	}
+}
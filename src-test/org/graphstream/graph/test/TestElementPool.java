@@ -0,0 +1,308 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AbstractElement;
+import org.graphstream.graph.implementations.AbstractNode;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.ElementPool;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestElementPool {
+	@Test
+	public void testSlidingWindow() {
+		testSlidingWindow(new SingleGraph("sg"));
+		testSlidingWindow(new MultiGraph("mg"));
+		testSlidingWindow(new AdjacencyListGraph("alg"));
+	}
+
+	public void testSlidingWindow(AdjacencyListGraph graph) {
+		ElementPool pool = new ElementPool(1000, 16, true);
+		graph.setElementPool(pool);
+
+		int n = 50, window = 200;
+		Random random = new Random(5);
+		LinkedList<String> edges = new LinkedList<String>();
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 0; i < 5000; i++) {
+			String from = "N" + random.nextInt(n);
+			String to = "N" + random.nextInt(n);
+
+			if (graph.getNode(from).hasEdgeBetween(to))
+				continue;
+
+			Edge e = graph.addEdge("E" + i, from, to, i % 2 == 0);
+			assertNull(e.getAttribute("w"));
+			e.addAttribute("w", i);
+			edges.add(e.getId());
+
+			if (edges.size() > window)
+				graph.removeEdge(edges.removeFirst());
+		}
+
+		assertEquals(window, graph.getEdgeCount());
+		assertTrue(pool.getReusedCount() > 4000);
+		assertTrue(pool.getCreatedCount() < 2 * window + n);
+
+		for (Edge e : graph.getEachEdge()) {
+			assertEquals(e.getId().substring(1), e.getAttribute("w")
+					.toString());
+			assertSame(e, e.getSourceNode().getEdgeToward(e.getTargetNode()));
+		}
+
+		int degrees = 0;
+
+		for (Node node : graph)
+			degrees += node.getDegree();
+
+		assertTrue(degrees <= 2 * window);
+	}
+
+	@Test
+	public void testNodeReuse() {
+		SingleGraph graph = new SingleGraph("g");
+		graph.setElementPool(new ElementPool());
+
+		Node a = graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addEdge("AB", "A", "B");
+		graph.addEdge("AC", "A", "C");
+		a.addAttribute("color", "red");
+
+		int generation = ((AbstractElement) a).getGeneration();
+
+		graph.removeNode("A");
+		assertEquals(1, graph.getElementPool().getNodeCount());
+		assertEquals(2, graph.getElementPool().getEdgeCount());
+		assertEquals(generation + 1, ((AbstractElement) a).getGeneration());
+
+		Node d = graph.addNode("D");
+
+		assertSame(a, d);
+		assertEquals("D", d.getId());
+		assertSame(d, graph.getNode("D"));
+		assertNull(graph.getNode("A"));
+		assertFalse(d.hasAttribute("color"));
+		assertEquals(0, d.getDegree());
+		assertNull(d.getEdgeBetween("B"));
+
+		graph.addEdge("DB", "D", "B");
+		assertEquals(1, d.getDegree());
+		assertNotNull(d.getEdgeBetween("B"));
+
+		// The pool is not used anymore.
+		graph.setElementPool(null);
+		graph.removeNode("D");
+		assertNotSame(d, graph.addNode("E"));
+	}
+
+	@Test
+	public void testRemoveNode() {
+		testRemoveNode(new SingleGraph("sg"));
+		testRemoveNode(new MultiGraph("mg"));
+		testRemoveNode(new AdjacencyListGraph("alg"));
+	}
+
+	public void testRemoveNode(AdjacencyListGraph graph) {
+		graph.setElementPool(new ElementPool(1000, 16, true));
+
+		// more than EDGE_INDEX_THRESHOLD edges on the hub
+		int n = 100;
+		graph.addNode("hub");
+
+		for (int i = 0; i < n; i++) {
+			graph.addNode("N" + i);
+			graph.addEdge("E" + i, "hub", "N" + i);
+		}
+
+		graph.addEdge("N0N1", "N0", "N1");
+		graph.removeNode("hub");
+
+		assertEquals(n, graph.getNodeCount());
+		assertEquals(1, graph.getEdgeCount());
+		assertEquals(n, graph.getElementPool().getEdgeCount());
+
+		for (int i = 0; i < n; i++)
+			assertEquals(i < 2 ? 1 : 0, graph.getNode("N" + i).getDegree());
+
+		Node hub = graph.addNode("hub");
+
+		for (int i = 0; i < n; i++) {
+			assertFalse(hub.hasEdgeBetween("N" + i));
+			graph.addEdge("F" + i, "N" + i, "hub");
+		}
+
+		assertEquals(n, hub.getDegree());
+		assertEquals(0, graph.getElementPool().getEdgeCount());
+
+		for (int i = 0; i < n; i++)
+			assertSame(graph.getEdge("F" + i), hub.getEdgeBetween("N" + i));
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		testIteratorRemove(new SingleGraph("sg"));
+		testIteratorRemove(new MultiGraph("mg"));
+		testIteratorRemove(new AdjacencyListGraph("alg"));
+	}
+
+	public void testIteratorRemove(AdjacencyListGraph graph) {
+		graph.setElementPool(new ElementPool(1000, 16, true));
+
+		int n = 100;
+		Node hub = graph.addNode("hub");
+
+		for (int i = 0; i < n; i++) {
+			graph.addNode("N" + i);
+			graph.addEdge("E" + i, "hub", "N" + i);
+		}
+
+		Iterator<Edge> it = hub.getEdgeIterator();
+
+		while (it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+
+		assertEquals(0, hub.getDegree());
+		assertEquals(0, graph.getEdgeCount());
+		assertEquals(n, graph.getElementPool().getEdgeCount());
+
+		for (int i = 0; i < n; i++) {
+			Node node = graph.getNode("N" + i);
+			assertEquals(0, node.getDegree());
+			assertFalse(hub.hasEdgeBetween(node));
+			assertFalse(node.hasEdgeBetween(hub));
+		}
+
+		for (int i = 0; i < n; i++)
+			graph.addEdge("F" + i, "N" + i, "hub");
+
+		assertEquals(n, hub.getDegree());
+
+		for (int i = 0; i < n; i++)
+			assertSame(graph.getEdge("F" + i), hub.getEdgeBetween("N" + i));
+	}
+
+	@Test
+	public void testStaleReference() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		ElementPool pool = new ElementPool(10, 16, true);
+		graph.setElementPool(pool);
+
+		Node a = graph.addNode("A");
+		int generation = ((AbstractElement) a).getGeneration();
+
+		pool.check(a, generation);
+		graph.removeNode(a);
+
+		try {
+			pool.check(a, generation);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		// Elements released beyond the capacity are dropped.
+		for (int i = 0; i < 20; i++)
+			graph.addNode("N" + i);
+
+		graph.clear();
+		assertEquals(10, pool.getNodeCount());
+	}
+
+	@Test
+	public void testDoubleRelease() {
+		ReleasingGraph graph = new ReleasingGraph("g");
+		ElementPool pool = new ElementPool(1, 16, true);
+		graph.setElementPool(pool);
+
+		Node a = graph.addNode("A");
+		Node b = graph.addNode("B");
+		graph.removeNode(a);
+		graph.removeNode(b);
+
+		assertEquals(1, pool.getNodeCount());
+
+		// B was not kept by the full pool, but is still tracked.
+		try {
+			graph.releaseAgain(b);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		try {
+			graph.releaseAgain(a);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		// Elements dropped by clear() are tracked as well.
+		pool.clear();
+
+		try {
+			graph.releaseAgain(a);
+			fail();
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	static class ReleasingGraph extends AdjacencyListGraph {
+		ReleasingGraph(String id) {
+			super(id);
+		}
+
+		void releaseAgain(Node node) {
+			releaseNode((AbstractNode) node);
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AbstractNode;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.Graphs;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.graph.implementations.VersionedGraph;
+import org.junit.Test;
+
+public class TestGraphsCopy {
+	@Test
+	public void testClone() {
+		testClone(new AdjacencyListGraph("alg"));
+		testClone(new SingleGraph("sg"));
+		testClone(new MultiGraph("mg"));
+		testClone(new VersionedGraph("vg"));
+	}
+
+	public void testClone(Graph graph) {
+		fill(graph, 5000);
+		graph.addAttribute("name", "g");
+
+		Graph copy = Graphs.clone(graph);
+
+		assertSame(graph.getClass(), copy.getClass());
+		assertEquals("g", copy.getAttribute("name"));
+		assertEquals(graph.getNodeCount(), copy.getNodeCount());
+		assertEquals(graph.getEdgeCount(), copy.getEdgeCount());
+
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			Node n = graph.getNode(i);
+			Node c = copy.getNode(n.getId());
+
+			assertNotNull(c);
+			assertEquals(n.getAttribute("x"), c.getAttribute("x"));
+			assertArrayEquals((double[]) n.getAttribute("xyz"),
+					(double[]) c.getAttribute("xyz"), 0);
+			assertNotSame(n.getAttribute("xyz"), c.getAttribute("xyz"));
+			assertEquals(n.getAttributeCount(), c.getAttributeCount());
+		}
+
+		for (int i = 0; i < graph.getEdgeCount(); i++) {
+			Edge e = graph.getEdge(i);
+			Edge c = copy.getEdge(e.getId());
+
+			assertNotNull(c);
+			assertEquals(e.isDirected(), c.isDirected());
+			assertEquals(e.getSourceNode().getId(), c.getSourceNode().getId());
+			assertEquals(e.getTargetNode().getId(), c.getTargetNode().getId());
+			assertEquals(e.getAttribute("w"), c.getAttribute("w"));
+		}
+
+		// The two graphs are independent.
+		copy.getNode(0).setAttribute("x", -1);
+		copy.removeNode(1);
+		assertEquals(0, graph.getNode(0).getAttribute("x"));
+		assertEquals(graph.getNodeCount() - 1, copy.getNodeCount());
+	}
+
+	/**
+	 * Graph keeping a state updated by a callback.
+	 */
+	public static class CountingGraph extends SingleGraph {
+		public int nodes;
+
+		public CountingGraph(String id) {
+			super(id);
+		}
+
+		@Override
+		protected void addNodeCallback(AbstractNode node) {
+			super.addNodeCallback(node);
+			nodes++;
+		}
+	}
+
+	@Test
+	public void testCallbacks() {
+		CountingGraph graph = new CountingGraph("cg");
+		fill(graph, 100);
+
+		CountingGraph copy = (CountingGraph) Graphs.clone(graph);
+
+		assertEquals(graph.getNodeCount(), copy.nodes);
+		assertEquals(graph.nodes, copy.nodes);
+	}
+
+	@Test
+	public void testShareValues() {
+		Graph graph = new AdjacencyListGraph("alg");
+		fill(graph, 100);
+
+		Graph copy = Graphs.clone(graph, true);
+
+		for (int i = 0; i < graph.getNodeCount(); i++)
+			assertSame(graph.getNode(i).getAttribute("xyz"), copy.getNode(i)
+					.getAttribute("xyz"));
+	}
+
+	@Test
+	public void testColumns() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("alg");
+		graph.declareNodeAttribute("x", AttributeColumns.Type.INT);
+		graph.declareNodeAttribute("xyz", AttributeColumns.Type.OBJECT);
+		graph.declareEdgeAttribute("w", AttributeColumns.Type.DOUBLE);
+		fill(graph, 3000);
+		graph.getNode(2).removeAttribute("x");
+
+		AdjacencyListGraph copy = (AdjacencyListGraph) Graphs.clone(graph);
+
+		assertEquals(AttributeColumns.Type.INT, copy.getNodeAttributeColumns()
+				.getType("x"));
+		assertFalse(copy.getNode(2).hasAttribute("x"));
+
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			Node n = graph.getNode(i);
+			Node c = copy.getNode(i);
+
+			assertEquals(n.getId(), c.getId());
+			assertEquals(n.getAttribute("x"), c.getAttribute("x"));
+			assertNotSame(n.getAttribute("xyz"), c.getAttribute("xyz"));
+			assertArrayEquals((double[]) n.getAttribute("xyz"),
+					(double[]) c.getAttribute("xyz"), 0);
+		}
+
+		for (int i = 0; i < graph.getEdgeCount(); i++)
+			assertEquals(graph.getEdge(i).getAttribute("w"), copy.getEdge(i)
+					.getAttribute("w"));
+
+		// Columns of the copy are not shared with the original.
+		copy.getNode(0).setAttribute("x", 42);
+		assertEquals(0, graph.getNode(0).getAttribute("x"));
+	}
+
+	@Test
+	public void testMerge() {
+		Graph a = new MultiGraph("a");
+		Graph b = new MultiGraph("b");
+
+		a.addNode("A").addAttribute("color", "red");
+		a.addNode("B");
+		a.addEdge("AB", "A", "B", true).addAttribute("w", 1.0);
+
+		b.addNode("B").addAttribute("color", "blue");
+		b.addNode("C");
+		b.addEdge("BC", "B", "C");
+		b.addEdge("AB", "B", "C").addAttribute("label", "ab");
+
+		Graph merge = Graphs.merge(a, b);
+
+		assertSame(MultiGraph.class, merge.getClass());
+		assertEquals(3, merge.getNodeCount());
+		assertEquals(2, merge.getEdgeCount());
+		assertEquals("red", merge.getNode("A").getAttribute("color"));
+		assertEquals("blue", merge.getNode("B").getAttribute("color"));
+		assertNull(merge.getNode("C").getAttribute("color"));
+
+		Edge ab = merge.getEdge("AB");
+		assertTrue(ab.isDirected());
+		assertEquals("A", ab.getSourceNode().getId());
+		assertEquals(1.0, ab.getAttribute("w"));
+		assertEquals("ab", ab.getAttribute("label"));
+		assertFalse(merge.getEdge("BC").isDirected());
+	}
+
+	protected void fill(Graph graph, int n) {
+		for (int i = 0; i < n; i++) {
+			Node node = graph.addNode("N" + i);
+			node.addAttribute("x", i);
+			node.addAttribute("xyz", new double[] { i, 2 * i, 3 * i });
+		}
+
+		for (int i = 0; i < n; i++) {
+			Edge e = graph.addEdge("E" + i, "N" + i, "N" + ((i + 1) % n),
+					i % 3 == 0);
+			e.addAttribute("w", i / 2.0);
+		}
+	}
+}
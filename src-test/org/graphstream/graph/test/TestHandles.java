@@ -0,0 +1,122 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestHandles {
+	@Test
+	public void testAccess() {
+		AdjacencyListGraph graph = new SingleGraph("g");
+
+		int a = graph.addNodeHandle("A");
+		int b = graph.addNodeHandle("B");
+		int c = graph.addNodeHandle("C");
+		int ab = graph.addEdgeHandle("AB", a, b, false);
+		int bc = graph.addEdgeHandle("BC", b, c, true);
+
+		assertEquals(a, graph.getNodeHandle("A"));
+		assertEquals(-1, graph.getNodeHandle("Z"));
+		assertEquals(ab, graph.getEdgeHandle(graph.getEdge("AB")));
+		assertSame(graph.getNode("C"), graph.getNodeByHandle(c));
+
+		assertEquals(1, graph.degree(a));
+		assertEquals(2, graph.degree(b));
+		assertEquals(ab, graph.edgeBetween(a, b));
+		assertEquals(ab, graph.edgeBetween(b, a));
+		assertEquals(bc, graph.edgeBetween(b, c));
+		assertEquals(-1, graph.edgeBetween(a, c));
+		assertEquals(b, graph.opposite(ab, a));
+		assertEquals(a, graph.opposite(ab, b));
+		assertEquals(-1, graph.opposite(ab, c));
+	}
+
+	@Test
+	public void testStability() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+
+		// Nodes added before the first use of handles.
+		for (int i = 0; i < 50; i++)
+			graph.addNode("N" + i);
+
+		int[] handles = new int[100];
+		HashSet<Integer> used = new HashSet<Integer>();
+
+		for (int i = 0; i < 50; i++)
+			handles[i] = graph.getNodeHandle("N" + i);
+		for (int i = 50; i < 100; i++)
+			handles[i] = graph.addNodeHandle("N" + i);
+
+		for (int i = 0; i < 100; i++)
+			assertTrue(used.add(handles[i]));
+
+		for (int i = 0; i < 100; i += 2)
+			graph.removeNode("N" + i);
+
+		for (int i = 0; i < 100; i++) {
+			Node n = graph.getNodeByHandle(handles[i]);
+
+			if (i % 2 == 0)
+				assertNull(n);
+			else
+				assertEquals("N" + i, n.getId());
+		}
+
+		// Freed handles are reused.
+		int h = graph.addNodeHandle("M");
+		assertTrue(used.contains(h));
+		assertEquals("M", graph.getNodeByHandle(h).getId());
+
+		graph.clear();
+		assertNull(graph.getNodeByHandle(h));
+		assertEquals(0, graph.addNodeHandle("P"));
+	}
+
+	@Test(expected = ElementNotFoundException.class)
+	public void testUnusedHandle() {
+		AdjacencyListGraph graph = new AdjacencyListGraph("g");
+		int a = graph.addNodeHandle("A");
+		graph.removeNode("A");
+		graph.degree(a);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graphstream.graph.implementations.MemoryReport;
+import org.graphstream.graph.implementations.MemoryReport.Category;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestMemoryReport {
+	@Test
+	public void testReport() {
+		SingleGraph graph = new SingleGraph("g");
+
+		for (int i = 0; i < 100; i++)
+			graph.addNode("N" + i);
+		for (int i = 0; i < 99; i++)
+			graph.addEdge("E" + i, i, i + 1);
+
+		MemoryReport report = graph.getMemoryReport();
+
+		assertEquals(100 * MemoryReport.shallowSize(graph.getNode(0)
+				.getClass()), report.get(Category.NODES));
+		assertEquals(99 * MemoryReport.shallowSize(graph.getEdge(0)
+				.getClass()), report.get(Category.EDGES));
+		assertTrue(report.get(Category.IDS) > 0);
+		assertTrue(report.get(Category.INDEX) > 0);
+		assertTrue(report.get(Category.SINKS) > 0);
+
+		// Nodes of degree 1 or 2 leave most of their edge array unused.
+		assertTrue(report.get(Category.EDGE_ARRAY_SLACK) > 0);
+		assertTrue(report.get(Category.EDGE_ARRAY_SLACK) < report
+				.get(Category.EDGE_ARRAYS));
+
+		long total = 0;
+		for (Category c : Category.values())
+			if (c != Category.EDGE_ARRAY_SLACK)
+				total += report.get(c);
+		assertEquals(total, report.getTotal());
+
+		// Attributes are accounted.
+		for (int i = 0; i < 100; i++)
+			graph.getNode(i).addAttribute("weight", (double) i);
+
+		MemoryReport after = graph.getMemoryReport();
+		assertTrue(after.get(Category.ATTRIBUTES) > report
+				.get(Category.ATTRIBUTES));
+		assertEquals(report.get(Category.NODES), after.get(Category.NODES));
+
+		after.store(graph);
+		assertEquals(after.getTotal(), graph.getNumber("memory.total"), 0);
+		assertEquals(after.get(Category.EDGE_ARRAY_SLACK),
+				graph.getNumber("memory.edge_array_slack"), 0);
+	}
+}
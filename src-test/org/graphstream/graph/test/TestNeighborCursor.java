@@ -0,0 +1,151 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.NeighborCursor;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestNeighborCursor {
+	@Test
+	public void testMultiGraph() {
+		Graph graph = new MultiGraph("g");
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addNode("D");
+		graph.addEdge("AB1", "A", "B");
+		graph.addEdge("AB2", "A", "B", true);
+		graph.addEdge("BA", "B", "A", true);
+		graph.addEdge("AC", "A", "C", true);
+		graph.addEdge("DA", "D", "A", true);
+		graph.addEdge("AA", "A", "A");
+
+		NeighborCursor cursor = new NeighborCursor();
+
+		assertNeighbors(cursor.reset(graph.getNode("A")), "A", "B", "C", "D");
+		assertNeighbors(cursor.resetLeaving(graph.getNode("A")), "A", "B",
+				"C");
+		assertNeighbors(cursor.resetEntering(graph.getNode("A")), "A", "B",
+				"D");
+		assertNeighbors(cursor.reset(graph.getNode("B")), "A");
+		assertNeighbors(cursor.resetLeaving(graph.getNode("C")));
+
+		// Same result as the iterator.
+		for (Node node : graph) {
+			HashSet<Node> expected = new HashSet<Node>();
+			Iterator<Node> it = node.getNeighborNodeIterator();
+
+			while (it.hasNext())
+				expected.add(it.next());
+
+			cursor.reset(node);
+
+			while (cursor.next())
+				assertTrue(expected.remove(cursor.<Node> getNode()));
+
+			assertTrue(expected.isEmpty());
+		}
+	}
+
+	@Test
+	public void testSingleGraph() {
+		Graph graph = new SingleGraph("g");
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addEdge("AB", "A", "B", true);
+		graph.addEdge("BA", "B", "A", true);
+		graph.addEdge("AC", "A", "C");
+
+		NeighborCursor cursor = new NeighborCursor();
+
+		assertNeighbors(cursor.reset(graph.getNode("A")), "B", "C");
+		assertNeighbors(cursor.resetLeaving(graph.getNode("A")), "B", "C");
+		assertNeighbors(cursor.resetEntering(graph.getNode("A")), "B", "C");
+	}
+
+	@Test
+	public void testNested() {
+		Graph graph = new MultiGraph("g");
+		int n = 50;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 0; i < n; i++)
+			for (int j = 1; j <= 3; j++) {
+				graph.addEdge(i + "_" + j, "N" + i, "N" + ((i + j) % n));
+				graph.addEdge(i + "_" + j + "'", "N" + i, "N" + ((i + j) % n));
+			}
+
+		NeighborCursor outer = new NeighborCursor();
+		NeighborCursor inner = new NeighborCursor();
+		int pairs = 0;
+
+		for (Node node : graph) {
+			outer.reset(node);
+
+			while (outer.next()) {
+				inner.reset(outer.getNode());
+
+				while (inner.next())
+					pairs++;
+			}
+		}
+
+		assertEquals(n * 6 * 6, pairs);
+	}
+
+	protected void assertNeighbors(NeighborCursor cursor, String... ids) {
+		HashSet<String> expected = new HashSet<String>();
+
+		for (String id : ids)
+			expected.add(id);
+
+		while (cursor.next())
+			assertTrue(expected.remove(cursor.getNode().getId()));
+
+		assertTrue(expected.isEmpty());
+		assertFalse(cursor.next());
+	}
+}
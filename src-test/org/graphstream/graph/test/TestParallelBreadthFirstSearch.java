@@ -0,0 +1,128 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.graph.BreadthFirstIterator;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.ParallelBreadthFirstSearch;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestParallelBreadthFirstSearch {
+	@Test
+	public void testSmall() {
+		Graph graph = new SingleGraph("g");
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addNode("D");
+		graph.addNode("E");
+		graph.addEdge("AB", "A", "B", true);
+		graph.addEdge("BC", "B", "C");
+		graph.addEdge("DC", "D", "C", true);
+		graph.addEdge("CE", "C", "E", true);
+
+		ParallelBreadthFirstSearch bfs = new ParallelBreadthFirstSearch(
+				graph.getNode("A"));
+		bfs.compute();
+
+		assertEquals(0, bfs.getDepthOf(graph.getNode("A")));
+		assertEquals(1, bfs.getDepthOf(graph.getNode("B")));
+		assertEquals(2, bfs.getDepthOf(graph.getNode("C")));
+		assertEquals(-1, bfs.getDepthOf(graph.getNode("D")));
+		assertEquals(3, bfs.getDepthOf(graph.getNode("E")));
+		assertFalse(bfs.tabu(graph.getNode("D")));
+		assertEquals(3, bfs.getDepthMax());
+		assertEquals(4, bfs.getVisitedCount());
+
+		bfs = new ParallelBreadthFirstSearch(graph.getNode("A"), false);
+		bfs.compute();
+
+		assertEquals(3, bfs.getDepthOf(graph.getNode("D")));
+		assertEquals(5, bfs.getVisitedCount());
+	}
+
+	@Test
+	public void testAgainstIterator() {
+		Random random = new Random(42);
+		AdjacencyListGraph graph = new MultiGraph("g");
+		int n = 20000;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 0; i < 5 * n; i++)
+			graph.addEdge("E" + i, random.nextInt(n), random.nextInt(n),
+					random.nextInt(4) == 0);
+
+		Node source = graph.getNode(0);
+
+		for (boolean directed : new boolean[] { true, false }) {
+			BreadthFirstIterator<Node> it = new BreadthFirstIterator<Node>(
+					source, directed);
+
+			while (it.hasNext())
+				it.next();
+
+			// Default thresholds, mostly top-down and mostly bottom-up.
+			int[][] thresholds = { { 14, 24 }, { 1, 1 },
+					{ Integer.MAX_VALUE, Integer.MAX_VALUE } };
+
+			for (int[] t : thresholds) {
+				ParallelBreadthFirstSearch bfs = new ParallelBreadthFirstSearch(
+						source, directed);
+				bfs.setThresholds(t[0], t[1]);
+				bfs.compute();
+
+				for (Node node : graph)
+					assertEquals(it.getDepthOf(node), bfs.getDepthOf(node));
+
+				assertEquals(it.getDepthMax(), bfs.getDepthMax());
+			}
+		}
+
+		ParallelBreadthFirstSearch bfs = new ParallelBreadthFirstSearch(source,
+				false);
+		bfs.compute();
+		assertTrue(bfs.getBottomUpSteps() > 0);
+		assertTrue(bfs.getTopDownSteps() > 0);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
+import org.graphstream.stream.PrimitiveAttributeSink;
+import org.graphstream.stream.SinkAdapter;
+import org.graphstream.stream.binary.ByteEncoder;
+import org.graphstream.stream.file.FileSinkDGS;
+import org.graphstream.stream.netstream.NetStreamEncoder;
+import org.graphstream.ui.graphicGraph.GraphicGraph;
+import org.graphstream.ui.graphicGraph.GraphicNode;
+import org.junit.Test;
+
+public class TestPrimitiveAttributes {
+	/**
+	 * Sink recording the numbers it receives without boxing.
+	 */
+	static class NumberRecorder extends SinkAdapter implements
+			PrimitiveAttributeSink {
+		ArrayList<String> numbers = new ArrayList<String>();
+		int objects;
+
+		@Override
+		public void nodeAttributeAdded(String sourceId, long timeId,
+				String nodeId, String attribute, Object value) {
+			objects++;
+		}
+
+		@Override
+		public void nodeAttributeChanged(String sourceId, long timeId,
+				String nodeId, String attribute, Object oldValue,
+				Object newValue) {
+			objects++;
+		}
+
+		public void graphAttributeAdded(String sourceId, long timeId,
+				String attribute, double value) {
+			numbers.add("+" + attribute + "=" + value);
+		}
+
+		public void graphAttributeChanged(String sourceId, long timeId,
+				String attribute, double oldValue, double newValue) {
+			numbers.add(attribute + "=" + oldValue + ">" + newValue);
+		}
+
+		public void nodeAttributeAdded(String sourceId, long timeId,
+				String nodeId, String attribute, double value) {
+			numbers.add("+" + nodeId + "." + attribute + "=" + value);
+		}
+
+		public void nodeAttributeChanged(String sourceId, long timeId,
+				String nodeId, String attribute, double oldValue,
+				double newValue) {
+			numbers.add(nodeId + "." + attribute + "=" + oldValue + ">"
+					+ newValue);
+		}
+
+		public void edgeAttributeAdded(String sourceId, long timeId,
+				String edgeId, String attribute, double value) {
+			numbers.add("+" + edgeId + "." + attribute + "=" + value);
+		}
+
+		public void edgeAttributeChanged(String sourceId, long timeId,
+				String edgeId, String attribute, double oldValue,
+				double newValue) {
+			numbers.add(edgeId + "." + attribute + "=" + oldValue + ">"
+					+ newValue);
+		}
+	}
+
+	@Test
+	public void testSetNumber() {
+		AdjacencyListGraph graph = new SingleGraph("g");
+		graph.declareNodeAttribute("x", AttributeColumns.Type.DOUBLE);
+
+		NumberRecorder recorder = new NumberRecorder();
+		EventBatch events = new EventBatch();
+		graph.addSink(recorder);
+		graph.addSink(events);
+
+		Node a = graph.addNode("A");
+		a.setNumber("x", 1);
+		a.setNumber("x", 2.5);
+		a.setNumber("y", 3);
+
+		assertEquals(2.5, a.getNumber("x"), 0);
+		assertEquals(Double.valueOf(3), a.getAttribute("y"));
+		assertEquals(Arrays.asList("+A.x=1.0", "A.x=1.0>2.5"), recorder.numbers);
+		assertEquals(1, recorder.objects);
+
+		// Other sinks see boxed values.
+
+		assertEquals(4, events.size());
+		assertEquals(EventType.NODE_ATTRIBUTE_ADDED, events.getType(1));
+		assertEquals(1.0, events.getValue(1));
+		assertEquals(EventType.NODE_ATTRIBUTE_CHANGED, events.getType(2));
+		assertEquals(2.5, events.getValue(2));
+
+		a.setNumbers("xyz", 1, 2, 3);
+		assertTrue(a.getAttribute("xyz") instanceof double[]);
+		assertArrayEquals(new double[] { 1, 2, 3 },
+				(double[]) a.getAttribute("xyz"), 0);
+	}
+
+	@Test
+	public void testGraphicGraph() {
+		AdjacencyListGraph graph = new SingleGraph("g");
+		graph.declareNodeAttribute("x", AttributeColumns.Type.DOUBLE);
+		GraphicGraph gg = new GraphicGraph("gg");
+		graph.addSink(gg);
+
+		Node a = graph.addNode("A");
+		a.setNumber("x", 4);
+		a.setNumber("x", 5);
+
+		assertEquals(5, gg.getNode("A").getNumber("x"), 0);
+		assertEquals(5, ((GraphicNode) gg.getNode("A")).getX(), 0);
+	}
+
+	@Test
+	public void testFileSinkDGS() throws Exception {
+		AdjacencyListGraph graph = new SingleGraph("g");
+		graph.declareNodeAttribute("x", AttributeColumns.Type.DOUBLE);
+		Node a = graph.addNode("A");
+
+		FileSinkDGS dgs = new FileSinkDGS();
+		StringWriter writer = new StringWriter();
+		graph.addSink(dgs);
+		dgs.begin(writer);
+
+		a.setNumber("x", 0.25);
+		a.setAttribute("y", 0.25);
+		dgs.end();
+
+		String[] lines = writer.toString().split("\\r?\\n");
+		String x = lines[lines.length - 2], y = lines[lines.length - 1];
+
+		assertEquals("cn \"A\"  \"x\":0.250000", x);
+		assertEquals(y.replace("\"y\"", "\"x\""), x);
+	}
+
+	@Test
+	public void testNetStream() {
+		final ArrayList<byte[]> messages = new ArrayList<byte[]>();
+		NetStreamEncoder encoder = new NetStreamEncoder(
+				new ByteEncoder.Transport() {
+					public void send(ByteBuffer buffer) {
+						byte[] bytes = new byte[buffer.remaining()];
+						buffer.get(bytes);
+						messages.add(bytes);
+					}
+				});
+
+		encoder.nodeAttributeChanged("g", 1, "A", "x", 1.0, 2.0);
+		encoder.nodeAttributeChanged("g", 1, "A", "x", (Object) 1.0,
+				(Object) 2.0);
+		encoder.edgeAttributeAdded("g", 2, "AB", "w", 3.0);
+		encoder.edgeAttributeAdded("g", 2, "AB", "w", (Object) 3.0);
+		encoder.graphAttributeChanged("g", 3, "t", 4.0, 5.0);
+		encoder.graphAttributeChanged("g", 3, "t", (Object) 4.0, (Object) 5.0);
+
+		assertEquals(6, messages.size());
+
+		for (int i = 0; i < 6; i += 2)
+			assertArrayEquals(messages.get(i + 1), messages.get(i));
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.NodeOrdering;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.graph.implementations.SubGraphView;
+import org.graphstream.util.Filter;
+import org.junit.Test;
+
+public class TestReorder {
+	@Test
+	public void testStructure() {
+		for (NodeOrdering ordering : NodeOrdering.values()) {
+			testStructure(new SingleGraph("sg"), ordering);
+			testStructure(new MultiGraph("mg"), ordering);
+		}
+	}
+
+	public void testStructure(AdjacencyListGraph graph, NodeOrdering ordering) {
+		Random random = new Random(3);
+		int n = 500;
+
+		graph.declareNodeAttribute("x", AttributeColumns.Type.INT);
+		graph.declareEdgeAttribute("w", AttributeColumns.Type.DOUBLE);
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i).addAttribute("x", i);
+
+		for (int i = 0; i < 4 * n; i++) {
+			String from = "N" + random.nextInt(n);
+			String to = i % 10 == 0 ? "N0" : "N" + random.nextInt(n);
+
+			if (graph.getNode(from).hasEdgeBetween(to))
+				continue;
+
+			graph.addEdge("E" + i, from, to, i % 3 == 0).addAttribute("w",
+					i / 2.0);
+		}
+
+		// Some removals scatter the indices.
+		for (int i = 0; i < n / 10; i++)
+			graph.removeNode(random.nextInt(graph.getNodeCount()));
+
+		HashMap<String, String> endpoints = new HashMap<String, String>();
+		HashMap<String, Integer> degrees = new HashMap<String, Integer>();
+
+		for (Edge e : graph.getEachEdge())
+			endpoints.put(e.getId(), e.getSourceNode().getId() + " "
+					+ e.getTargetNode().getId() + " " + e.isDirected());
+
+		for (Node node : graph)
+			degrees.put(node.getId(), node.getDegree());
+
+		int handle = graph.getNodeHandle("N0");
+		Filter<Node> odd = new Filter<Node>() {
+			public boolean isAvailable(Node e) {
+				return e.<Integer> getAttribute("x") % 2 == 1;
+			}
+		};
+		SubGraphView view = new SubGraphView("view", graph, odd);
+		int viewEdges = view.getEdgeCount();
+
+		graph.reorder(ordering, view);
+
+		assertSame(graph.getNode("N0"), graph.getNodeByHandle(handle));
+		assertEquals(endpoints.size(), graph.getEdgeCount());
+		assertEquals(viewEdges, view.getEdgeCount());
+
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			Node node = graph.getNode(i);
+
+			assertEquals(i, node.getIndex());
+			assertEquals(degrees.get(node.getId()).intValue(),
+					node.getDegree());
+			assertEquals("N" + node.getAttribute("x"), node.getId());
+			assertEquals(odd.isAvailable(node), view.contains(node));
+
+			int previous = -1;
+			Iterator<Edge> it = node.getLeavingEdgeIterator();
+
+			while (it.hasNext()) {
+				Edge e = it.next();
+
+				if (!e.isDirected() || e.getSourceNode() == e.getTargetNode())
+					continue;
+
+				int opposite = e.getOpposite(node).getIndex();
+				assertTrue(opposite >= previous);
+				previous = opposite;
+			}
+		}
+
+		for (int i = 0; i < graph.getEdgeCount(); i++) {
+			Edge e = graph.getEdge(i);
+
+			assertEquals(i, e.getIndex());
+			assertEquals(endpoints.get(e.getId()), e.getSourceNode().getId()
+					+ " " + e.getTargetNode().getId() + " " + e.isDirected());
+			assertEquals(Double.valueOf(e.getId().substring(1)) / 2,
+					e.getAttribute("w"));
+			assertSame(e, e.getSourceNode().getEdgeBetween(e.getTargetNode()));
+
+			if (i > 0) {
+				Edge p = graph.getEdge(i - 1);
+				assertTrue(Math.min(p.getNode0().getIndex(), p.getNode1()
+						.getIndex()) <= Math.min(e.getNode0().getIndex(), e
+						.getNode1().getIndex()));
+			}
+		}
+
+		assertNotNull(graph.getNode("N0").getEdgeBetween(
+				graph.getNode("N0").getEdge(0).getOpposite(graph.getNode("N0"))));
+		view.close();
+	}
+
+	@Test
+	public void testBandwidth() {
+		// A grid numbered in random order.
+		int side = 30;
+		AdjacencyListGraph graph = new SingleGraph("grid");
+		Random random = new Random(11);
+		int[] ids = new int[side * side];
+
+		for (int i = 0; i < ids.length; i++)
+			ids[i] = i;
+
+		for (int i = ids.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1), t = ids[i];
+			ids[i] = ids[j];
+			ids[j] = t;
+		}
+
+		for (int id : ids)
+			graph.addNode(String.valueOf(id));
+
+		for (int i = 0; i < side; i++)
+			for (int j = 0; j < side; j++) {
+				int k = i * side + j;
+
+				if (j + 1 < side)
+					graph.addEdge(k + "_r", String.valueOf(k),
+							String.valueOf(k + 1));
+				if (i + 1 < side)
+					graph.addEdge(k + "_d", String.valueOf(k),
+							String.valueOf(k + side));
+			}
+
+		int before = bandwidth(graph);
+
+		graph.reorder(NodeOrdering.REVERSE_CUTHILL_MCKEE);
+
+		int after = bandwidth(graph);
+
+		assertTrue(after <= 2 * side);
+		assertTrue(after < before);
+
+		graph.reorder(NodeOrdering.DEGREE);
+
+		for (int i = 1; i < graph.getNodeCount(); i++)
+			assertTrue(graph.getNode(i - 1).getDegree() >= graph.getNode(i)
+					.getDegree());
+	}
+
+	protected int bandwidth(AdjacencyListGraph graph) {
+		int b = 0;
+
+		for (Edge e : graph.getEachEdge())
+			b = Math.max(b, Math.abs(e.getNode0().getIndex()
+					- e.getNode1().getIndex()));
+
+		return b;
+	}
+}
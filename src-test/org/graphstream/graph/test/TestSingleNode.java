@@ -0,0 +1,131 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.EdgeRejectedException;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+/**
+ * Checks the neighbor table of single nodes against a map.
+ */
+public class TestSingleNode {
+	@Test
+	public void testNeighborTable() {
+		Random random = new Random(3);
+		SingleGraph graph = new SingleGraph("g", false, false);
+		int n = 200;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		Node hub = graph.getNode(0);
+		HashMap<String, Edge> edges = new HashMap<String, Edge>();
+
+		for (int step = 0; step < 5000; step++) {
+			Node other = graph.getNode(1 + random.nextInt(n - 1));
+			boolean out = random.nextBoolean();
+			String id = out ? hub.getId() + other.getId() : other.getId()
+					+ hub.getId();
+
+			if (edges.containsKey(id)) {
+				graph.removeEdge(edges.remove(id));
+			} else {
+				Edge e = out ? graph.addEdge(id, hub, other, true) : graph
+						.addEdge(id, other, hub, true);
+				edges.put(id, e);
+			}
+
+			if (step % 250 == 0)
+				check(graph, hub, edges);
+		}
+
+		check(graph, hub, edges);
+	}
+
+	@Test(expected = EdgeRejectedException.class)
+	public void testRejected() {
+		SingleGraph graph = new SingleGraph("g");
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addEdge("AB", "A", "B", true);
+
+		try {
+			graph.addEdge("AB'", "A", "B");
+		} finally {
+			// The rejected edge must not be left in the table.
+			assertSame(graph.getEdge("AB"), graph.getNode("B").getEdgeFrom(
+					"A"));
+			assertNull(graph.getNode("B").getEdgeToward("A"));
+			assertNull(graph.getNode("A").getEdgeFrom("B"));
+		}
+	}
+
+	protected void check(SingleGraph graph, Node hub, HashMap<String, Edge> edges) {
+		HashSet<Node> expected = new HashSet<Node>();
+
+		for (Node other : graph) {
+			if (other == hub)
+				continue;
+
+			Edge out = edges.get(hub.getId() + other.getId());
+			Edge in = edges.get(other.getId() + hub.getId());
+
+			assertSame(out, hub.getEdgeToward(other));
+			assertSame(in, hub.getEdgeFrom(other));
+			assertSame(in == null ? out : in, hub.getEdgeBetween(other));
+
+			if (in != null || out != null)
+				expected.add(other);
+		}
+
+		Iterator<Node> it = hub.getNeighborNodeIterator();
+
+		while (it.hasNext())
+			assertTrue(expected.remove(it.next()));
+
+		assertTrue(expected.isEmpty());
+		assertEquals(edges.size(), hub.getDegree());
+	}
+}
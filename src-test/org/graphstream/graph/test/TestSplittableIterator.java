@@ -0,0 +1,152 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.ParallelAggregation;
+import org.graphstream.graph.SplittableIterator;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.ConcurrentGraph;
+import org.graphstream.graph.implementations.Graphs;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.junit.Test;
+
+public class TestSplittableIterator {
+	protected static final ParallelAggregation<Node, Long> DEGREES = new ParallelAggregation<Node, Long>() {
+		@Override
+		protected Long identity() {
+			return 0L;
+		}
+
+		@Override
+		protected Long accumulate(Long sum, Node node) {
+			return sum + node.getDegree();
+		}
+
+		@Override
+		protected Long combine(Long a, Long b) {
+			return a + b;
+		}
+	};
+
+	@Test
+	public void testSplit() {
+		Graph graph = new AdjacencyListGraph("g");
+
+		for (int i = 0; i < 101; i++)
+			graph.addNode("N" + i);
+
+		SplittableIterator<Node> nodes = graph.nodes();
+		SplittableIterator<Node> prefix = nodes.trySplit();
+
+		assertEquals(50, prefix.getRemaining());
+		assertEquals(51, nodes.getRemaining());
+
+		HashSet<Node> seen = new HashSet<Node>();
+
+		while (prefix.hasNext())
+			assertTrue(seen.add(prefix.next()));
+
+		nodes.next();
+		SplittableIterator<Node> quarter = nodes.trySplit();
+		assertEquals(25, quarter.getRemaining());
+
+		while (quarter.hasNext())
+			assertTrue(seen.add(quarter.next()));
+
+		while (nodes.hasNext())
+			assertTrue(seen.add(nodes.next()));
+
+		assertEquals(100, seen.size());
+		assertNull(nodes.trySplit());
+	}
+
+	@Test
+	public void testAggregation() {
+		DEGREES.setGrain(16);
+
+		testAggregation(new MultiGraph("mg"));
+		testAggregation(new ConcurrentGraph("cg"));
+		testAggregation(Graphs.synchronizedGraph(new MultiGraph("sg")));
+	}
+
+	protected void testAggregation(Graph graph) {
+		int n = 5000;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i);
+
+		for (int i = 0; i < n; i++) {
+			graph.addEdge("A" + i, "N" + i, "N" + ((i + 1) % n));
+			graph.addEdge("B" + i, "N" + i, "N" + ((i * 7) % n), true);
+		}
+
+		long loops = new ParallelAggregation<Edge, Long>() {
+			@Override
+			protected Long identity() {
+				return 0L;
+			}
+
+			@Override
+			protected Long accumulate(Long count, Edge edge) {
+				return edge.isLoop() ? count + 1 : count;
+			}
+
+			@Override
+			protected Long combine(Long a, Long b) {
+				return a + b;
+			}
+		}.compute(graph.<Edge> edges());
+
+		assertEquals(2, loops);
+
+		// Loops are counted once in the degree of their node.
+		assertEquals(2L * graph.getEdgeCount() - loops,
+				(long) DEGREES.compute(graph.<Node> nodes()));
+
+		Node node = graph.getNode("N1");
+		SplittableIterator<Node> neighbors = node.neighborNodes();
+		SplittableIterator<Edge> edges = node.edges();
+		assertEquals(node.getDegree(), neighbors.getRemaining());
+
+		while (neighbors.hasNext())
+			assertEquals(edges.next().getOpposite(node), neighbors.next());
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AdjacencySnapshot;
+import org.graphstream.graph.implementations.AdjacencyListGraph.IndexRemapper;
+import org.graphstream.graph.implementations.AdjacencyListGraph.IndexRemapping;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.MemoryReport.Category;
+import org.graphstream.graph.implementations.NodeOrdering;
+import org.graphstream.graph.implementations.SubGraphView;
+import org.graphstream.util.Filter;
+import org.junit.Test;
+
+public class TestStableIndices {
+	protected AdjacencyListGraph chain(int n) {
+		AdjacencyListGraph g = new AdjacencyListGraph("g");
+
+		g.setStableIndices(true);
+
+		for (int i = 0; i < n; i++)
+			g.addNode("N" + i).addAttribute("x", (double) i);
+
+		for (int i = 1; i < n; i++)
+			g.addEdge("E" + i, "N" + (i - 1), "N" + i);
+
+		return g;
+	}
+
+	@Test
+	public void testRemovalKeepsIndices() {
+		AdjacencyListGraph g = chain(5);
+
+		g.removeNode("N1");
+
+		// The counts are the bounds of the indices, holes included.
+		assertEquals(5, g.getNodeCount());
+		assertEquals(4, g.getLiveNodeCount());
+		assertEquals(5, g.getNodeIndexBound());
+		assertEquals(4, g.getEdgeCount());
+		assertEquals(2, g.getLiveEdgeCount());
+		assertNull(g.getNode(1));
+		assertNull(g.getEdge(0));
+
+		for (int i = 0; i < 5; i++)
+			if (i != 1)
+				assertEquals(i, g.getNode("N" + i).getIndex());
+
+		assertEquals(2, g.getEdge("E3").getIndex());
+
+		// Iterations skip the holes.
+		int count = 0;
+		for (Node n : g.getEachNode()) {
+			assertEquals("N" + n.getIndex(), n.getId());
+			count++;
+		}
+		assertEquals(4, count);
+
+		count = 0;
+		SplittableIterator<Edge> edges = g.edges();
+		assertEquals(2, edges.getRemaining());
+		while (edges.hasNext()) {
+			edges.next();
+			count++;
+		}
+		assertEquals(2, count);
+
+		// Loops over the indices reach the last elements.
+		count = 0;
+		for (int i = 0; i < g.getNodeCount(); i++)
+			if (g.getNode(i) != null)
+				count++;
+		assertEquals(4, count);
+		assertEquals("N4", g.getNode(g.getNodeCount() - 1).getId());
+
+		// Removing the last elements lowers the bound.
+		g.removeNode("N4");
+		assertEquals(4, g.getNodeIndexBound());
+		assertEquals(3, g.getEdgeIndexBound());
+
+		// New elements are added after the bound.
+		assertEquals(4, g.addNode("N5").getIndex());
+	}
+
+	@Test
+	public void testSnapshot() {
+		AdjacencyListGraph g = chain(5);
+
+		g.removeNode("N1");
+
+		// Both builds see the whole index range and the same holes.
+		AdjacencySnapshot a = g.snapshot();
+		AdjacencySnapshot b = new AdjacencySnapshot((Graph) g);
+
+		assertEquals(5, b.getNodeCount());
+		assertEquals(4, b.getEdgeCount());
+		assertEquals(0, b.getDegree(1));
+		assertEquals(1, b.getDegree(4));
+		assertEquals(-1, b.getSource(0));
+
+		for (int i = 0; i < 5; i++)
+			assertEquals(a.getDegree(i), b.getDegree(i));
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(a.getSource(i), b.getSource(i));
+			assertEquals(a.getTarget(i), b.getTarget(i));
+		}
+	}
+
+	@Test
+	public void testIteratorRemove() {
+		AdjacencyListGraph g = chain(6);
+		Iterator<Node> it = g.getNodeIterator();
+		HashSet<String> seen = new HashSet<String>();
+
+		while (it.hasNext()) {
+			Node n = it.next();
+			seen.add(n.getId());
+
+			if (n.getIndex() % 2 == 0)
+				it.remove();
+		}
+
+		assertEquals(6, seen.size());
+		assertEquals(3, g.getLiveNodeCount());
+		assertEquals(0, g.getLiveEdgeCount());
+	}
+
+	@Test
+	public void testCompact() {
+		AdjacencyListGraph g = chain(5);
+		AttributeColumns.Type type = AttributeColumns.Type.DOUBLE;
+
+		g.declareNodeAttribute("x", type);
+		int h3 = g.getNodeHandle("N3");
+
+		g.removeNode("N1");
+		g.removeEdge("E4");
+
+		final int[][] seen = new int[2][];
+		IndexRemapping r = g.compact(new IndexRemapper() {
+			public void remap(int[] nodePositions, int[] edgePositions) {
+				seen[0] = nodePositions;
+				seen[1] = edgePositions;
+			}
+		});
+
+		assertArrayEquals(new int[] { 0, -1, 1, 2, 3 }, r.getNodePositions());
+		assertArrayEquals(new int[] { -1, -1, 0 }, r.getEdgePositions());
+		assertSame(r.getNodePositions(), seen[0]);
+		assertEquals(2, r.getNodeIndex(3));
+		assertEquals(0, r.getEdgeIndex(2));
+
+		assertEquals(4, g.getNodeIndexBound());
+		assertEquals(1, g.getEdgeIndexBound());
+
+		for (int i = 0; i < g.getNodeCount(); i++) {
+			Node n = g.getNode(i);
+			assertEquals(i, n.getIndex());
+			assertEquals(Double.parseDouble(n.getId().substring(1)),
+					n.getNumber("x"), 0);
+		}
+
+		assertEquals("E3", g.getEdge(0).getId());
+		assertSame(g.getNode("N3"), g.getNodeByHandle(h3));
+	}
+
+	@Test
+	public void testCompactShrinksStorage() {
+		AdjacencyListGraph g = new AdjacencyListGraph("g");
+		int n = 10 * AdjacencyListGraph.DEFAULT_NODE_CAPACITY;
+
+		g.setStableIndices(true);
+
+		for (int i = 0; i < n; i++)
+			g.addNode("N" + i);
+
+		for (int i = 0; i < n; i += 2)
+			g.removeNode("N" + i);
+
+		long before = g.getMemoryReport().get(Category.INDEX);
+
+		for (int i = n / 2 + 1; i < n; i += 2)
+			g.removeNode("N" + i);
+
+		g.compact();
+
+		assertTrue(g.getMemoryReport().get(Category.INDEX) < before);
+
+		for (int i = 1; i < n / 2; i += 2)
+			assertSame(g.getNode("N" + i), g.getNode(i / 2));
+	}
+
+	@Test
+	public void testReorderAndViews() {
+		AdjacencyListGraph g = chain(6);
+		SubGraphView view = new SubGraphView("v", g, new Filter<Node>() {
+			public boolean isAvailable(Node node) {
+				return node.getNumber("x") >= 2;
+			}
+		});
+
+		g.removeNode("N4");
+		assertEquals(3, view.getNodeCount());
+		assertTrue(view.contains((Node) g.getNode("N5")));
+
+		g.reorder(NodeOrdering.BREADTH_FIRST, view);
+		assertEquals(5, g.getNodeIndexBound());
+		assertEquals(3, view.getNodeCount());
+
+		for (String id : new String[] { "N2", "N3", "N5" })
+			assertTrue(view.contains((Node) g.getNode(id)));
+
+		assertFalse(view.contains((Node) g.getNode("N1")));
+
+		g.setStableIndices(false);
+		g.removeNode("N0");
+		assertEquals(g.getNodeCount(), g.getNodeIndexBound());
+	}
+}
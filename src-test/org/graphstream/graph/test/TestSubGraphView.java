@@ -0,0 +1,284 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.graph.implementations.SubGraphView;
+import org.graphstream.util.Filter;
+import org.graphstream.util.Filters;
+import org.junit.Test;
+
+public class TestSubGraphView {
+	@Test
+	public void testFilter() {
+		Graph graph = new SingleGraph("g");
+
+		for (int i = 0; i < 10; i++)
+			graph.addNode("N" + i).addAttribute("even", i % 2 == 0);
+
+		for (int i = 0; i < 10; i++)
+			graph.addEdge("E" + i, "N" + i, "N" + ((i + 2) % 10), true);
+
+		graph.addEdge("X", "N0", "N1");
+
+		Filter<Node> even = Filters.byAttributeFilter("even", true);
+		SubGraphView view = new SubGraphView("view", graph, even);
+
+		assertEquals(5, view.getNodeCount());
+		assertEquals(5, view.getEdgeCount());
+		assertSame(graph.getNode("N2"), view.getNode("N2"));
+		assertNull(view.getNode("N1"));
+		assertNull(view.getEdge("X"));
+
+		Node n0 = graph.getNode("N0");
+		assertEquals(3, n0.getDegree());
+		assertEquals(2, view.getDegree(n0));
+		assertEquals(1, view.getInDegree(n0));
+		assertEquals(1, view.getOutDegree(n0));
+
+		HashSet<String> neighbors = new HashSet<String>();
+		Iterator<Node> it = view.getNeighborNodeIterator(n0);
+
+		while (it.hasNext())
+			neighbors.add(it.next().getId());
+
+		assertEquals(2, neighbors.size());
+		assertTrue(neighbors.contains("N2"));
+		assertTrue(neighbors.contains("N8"));
+
+		for (int i = 0; i < view.getNodeCount(); i++)
+			assertEquals("N" + 2 * i, view.getNode(i).getId());
+
+		int count = 0;
+
+		for (Node n : view) {
+			assertTrue(view.contains(n));
+			count++;
+		}
+
+		assertEquals(5, count);
+		view.close();
+	}
+
+	@Test
+	public void testUpdates() {
+		Graph graph = new SingleGraph("g");
+
+		for (int i = 0; i < 4; i++)
+			graph.addNode("N" + i).addAttribute("in", true);
+
+		graph.addEdge("AB", "N0", "N1");
+		graph.addEdge("BC", "N1", "N2");
+
+		Filter<Edge> light = new Filter<Edge>() {
+			public boolean isAvailable(Edge e) {
+				return !e.hasAttribute("heavy");
+			}
+		};
+
+		SubGraphView view = new SubGraphView("view", graph,
+				Filters.<Node> byAttributeFilter("in", true), light);
+
+		assertEquals(4, view.getNodeCount());
+		assertEquals(2, view.getEdgeCount());
+
+		// A node leaving the view takes its edges.
+		graph.getNode("N1").setAttribute("in", false);
+		assertEquals(3, view.getNodeCount());
+		assertEquals(0, view.getEdgeCount());
+
+		graph.getNode("N1").setAttribute("in", true);
+		assertEquals(2, view.getEdgeCount());
+
+		graph.getEdge("AB").addAttribute("heavy");
+		assertEquals(1, view.getEdgeCount());
+		assertNull(view.getEdge("AB"));
+
+		graph.addNode("N4").addAttribute("in", true);
+		graph.addNode("N5");
+		graph.addEdge("CD", "N2", "N4");
+		assertEquals(5, view.getNodeCount());
+		assertEquals(2, view.getEdgeCount());
+
+		view.close();
+		graph.addNode("N6").addAttribute("in", true);
+		assertEquals(5, view.getNodeCount());
+	}
+
+	@Test
+	public void testAttributeRemoval() {
+		Graph graph = new SingleGraph("g");
+
+		for (int i = 0; i < 3; i++)
+			graph.addNode("N" + i);
+
+		graph.addEdge("AB", "N0", "N1");
+		graph.addEdge("BC", "N1", "N2");
+
+		Filter<Node> on = new Filter<Node>() {
+			public boolean isAvailable(Node n) {
+				return !n.hasAttribute("off");
+			}
+		};
+
+		Filter<Edge> light = new Filter<Edge>() {
+			public boolean isAvailable(Edge e) {
+				return !e.hasAttribute("heavy");
+			}
+		};
+
+		graph.getNode("N0").addAttribute("off");
+		graph.getEdge("BC").addAttribute("heavy");
+
+		SubGraphView view = new SubGraphView("view", graph, on, light);
+
+		assertEquals(2, view.getNodeCount());
+		assertEquals(0, view.getEdgeCount());
+
+		// The parent sends the event before removing the attribute.
+		graph.getNode("N0").removeAttribute("off");
+		assertEquals(3, view.getNodeCount());
+		assertEquals(1, view.getEdgeCount());
+
+		graph.getEdge("BC").removeAttribute("heavy");
+		graph.getNode("N2").addAttribute("off");
+		assertEquals(2, view.getNodeCount());
+		assertEquals(1, view.getEdgeCount());
+
+		graph.getNode("N2").removeAttribute("off");
+		graph.removeNode("N0");
+		assertEquals(2, view.getNodeCount());
+		assertEquals(1, view.getEdgeCount());
+		assertNotNull(view.getEdge("BC"));
+
+		view.close();
+	}
+
+	@Test
+	public void testRemovals() {
+		Graph graph = new MultiGraph("g");
+		Random random = new Random(7);
+		int n = 300;
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("N" + i).addAttribute("w", random.nextInt(3));
+
+		for (int i = 0; i < 3 * n; i++)
+			graph.addEdge("E" + i, "N" + random.nextInt(n),
+					"N" + random.nextInt(n)).addAttribute("w",
+					random.nextInt(3));
+
+		Filter<Node> nodes = new Filter<Node>() {
+			public boolean isAvailable(Node e) {
+				return e.<Integer> getAttribute("w") > 0;
+			}
+		};
+
+		Filter<Edge> edges = new Filter<Edge>() {
+			public boolean isAvailable(Edge e) {
+				return e.hasAttribute("w") && e.<Integer> getAttribute("w") > 0;
+			}
+		};
+
+		SubGraphView view = new SubGraphView("view", graph, nodes, edges);
+
+		for (int k = 0; k < 200; k++) {
+			switch (random.nextInt(4)) {
+			case 0:
+				graph.removeNode(random.nextInt(graph.getNodeCount()));
+				break;
+			case 1:
+				graph.removeEdge(random.nextInt(graph.getEdgeCount()));
+				break;
+			case 2:
+				graph.getNode(random.nextInt(graph.getNodeCount()))
+						.setAttribute("w", random.nextInt(3));
+				break;
+			default:
+				graph.addEdge("F" + k,
+						random.nextInt(graph.getNodeCount()),
+						random.nextInt(graph.getNodeCount())).addAttribute(
+						"w", random.nextInt(3));
+			}
+
+			check(graph, view, nodes, edges);
+		}
+
+		view.close();
+	}
+
+	protected void check(Graph graph, SubGraphView view, Filter<Node> nodes,
+			Filter<Edge> edges) {
+		int nodeCount = 0, edgeCount = 0;
+
+		for (Node n : graph) {
+			boolean in = nodes.isAvailable(n);
+			assertEquals(in, view.contains(n));
+
+			if (in)
+				nodeCount++;
+		}
+
+		for (Edge e : graph.getEachEdge()) {
+			boolean in = edges.isAvailable(e) && nodes.isAvailable(e.getNode0())
+					&& nodes.isAvailable(e.getNode1());
+			assertEquals(in, view.contains(e));
+
+			if (in)
+				edgeCount++;
+		}
+
+		assertEquals(nodeCount, view.getNodeCount());
+		assertEquals(edgeCount, view.getEdgeCount());
+
+		for (int i = 0; i < edgeCount; i++)
+			assertTrue(view.contains(view.<Edge> getEdge(i)));
+
+		for (Node n : view)
+			assertFalse(n.getIndex() < 0);
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
+import org.junit.Test;
+
+public class TestTransaction {
+	/**
+	 * Sink recording the batches it receives.
+	 */
+	static class BatchRecorder extends EventBatch implements BatchSink {
+		ArrayList<EventBatch> batches = new ArrayList<EventBatch>();
+
+		public void batchReceived(EventBatch batch) {
+			batches.add(batch);
+		}
+	}
+
+	@Test
+	public void testAttributeCoalescing() {
+		Graph graph = new SingleGraph("g");
+		Node a = graph.addNode("A");
+		a.addAttribute("y", 0);
+
+		EventBatch events = new EventBatch();
+		graph.addSink(events);
+
+		graph.beginTransaction();
+		a.addAttribute("x", 1);
+		a.changeAttribute("x", 2);
+		a.changeAttribute("x", 3);
+		a.changeAttribute("y", 1);
+		a.changeAttribute("y", 2);
+		graph.addAttribute("z", "a");
+		graph.removeAttribute("z");
+		assertEquals(0, events.size());
+		graph.commit();
+
+		assertEquals(2, events.size());
+		assertEquals(EventType.NODE_ATTRIBUTE_ADDED, events.getType(0));
+		assertEquals("x", events.getAttribute(0));
+		assertEquals(3, events.getValue(0));
+		assertEquals(EventType.NODE_ATTRIBUTE_CHANGED, events.getType(1));
+		assertEquals("y", events.getAttribute(1));
+		assertEquals(2, events.getValue(1));
+		assertTrue(events.getTimeId(0) < events.getTimeId(1));
+
+		// Removed then added again becomes a change.
+
+		events.clear();
+		graph.beginTransaction();
+		a.removeAttribute("y");
+		a.addAttribute("y", 5);
+		graph.commit();
+
+		assertEquals(1, events.size());
+		assertEquals(EventType.NODE_ATTRIBUTE_CHANGED, events.getType(0));
+		assertEquals(5, events.getValue(0));
+	}
+
+	@Test
+	public void testCancellation() {
+		Graph graph = new MultiGraph("g");
+		graph.addNode("A");
+
+		EventBatch events = new EventBatch();
+		graph.addSink(events);
+
+		graph.beginTransaction();
+		Node b = graph.addNode("B");
+		b.addAttribute("x", 1);
+		Edge ab = graph.addEdge("AB", "A", "B");
+		ab.addAttribute("w", 2.0);
+		graph.getNode("A").addAttribute("x", 1);
+		graph.removeNode("B");
+		graph.getNode("A").removeAttribute("x");
+		graph.commit();
+
+		assertEquals(0, events.size());
+		assertNull(graph.getNode("B"));
+
+		// Attribute events of removed elements are dropped, a node removed
+		// then added again is sent twice.
+
+		graph.beginTransaction();
+		graph.getNode("A").addAttribute("x", 1);
+		graph.removeNode("A");
+		graph.addNode("A");
+		graph.getNode("A").addAttribute("x", 2);
+		graph.commit();
+
+		assertEquals(3, events.size());
+		assertEquals(EventType.NODE_REMOVED, events.getType(0));
+		assertEquals(EventType.NODE_ADDED, events.getType(1));
+		assertEquals(EventType.NODE_ATTRIBUTE_ADDED, events.getType(2));
+		assertEquals(2, events.getValue(2));
+	}
+
+	@Test
+	public void testReplica() {
+		Graph graph = new SingleGraph("g");
+		Graph replica = new SingleGraph("r");
+		graph.addSink(replica);
+
+		for (int i = 0; i < 10; i++)
+			graph.addNode("n" + i).addAttribute("v", i);
+
+		graph.beginTransaction();
+
+		for (int i = 0; i < 10; i++) {
+			graph.addEdge("e" + i, "n" + i, "n" + ((i + 1) % 10));
+			graph.getNode("n" + i).changeAttribute("v", i * 10);
+		}
+
+		graph.addNode("tmp");
+		graph.addEdge("tmp", "tmp", "n0");
+		graph.removeEdge("e3");
+		graph.removeNode("n5");
+		graph.removeNode("tmp");
+		graph.commit();
+
+		assertEquals(graph.getNodeCount(), replica.getNodeCount());
+		assertEquals(graph.getEdgeCount(), replica.getEdgeCount());
+
+		for (Node n : graph) {
+			Node r = replica.getNode(n.getId());
+			assertNotNull(r);
+			assertEquals(n.getAttribute("v"), r.getAttribute("v"));
+		}
+
+		for (Edge e : graph.getEachEdge())
+			assertNotNull(replica.getEdge(e.getId()));
+	}
+
+	@Test
+	public void testBatchSink() {
+		Graph graph = new SingleGraph("g");
+		BatchRecorder recorder = new BatchRecorder();
+		EventBatch events = new EventBatch();
+		graph.addSink(recorder);
+		graph.addSink(events);
+
+		graph.addNode("A");
+		assertEquals(1, recorder.size());
+		assertEquals(0, recorder.batches.size());
+
+		graph.beginTransaction();
+		graph.addNode("B");
+		graph.beginTransaction();
+		graph.addEdge("AB", "A", "B");
+		graph.commit();
+		assertNotNull(graph.getEdge("AB"));
+		assertEquals(1, events.size());
+		graph.stepBegins(1);
+		graph.commit();
+
+		assertEquals(1, recorder.size());
+		assertEquals(1, recorder.batches.size());
+
+		EventBatch batch = recorder.batches.get(0);
+		assertEquals(3, batch.size());
+		assertEquals(EventType.NODE_ADDED, batch.getType(0));
+		assertEquals(EventType.EDGE_ADDED, batch.getType(1));
+		assertEquals(EventType.STEP_BEGINS, batch.getType(2));
+		assertEquals("g", batch.getSourceId(1));
+
+		assertEquals(4, events.size());
+		assertEquals("B", events.getElementId(1));
+		assertEquals("AB", events.getElementId(2));
+
+		try {
+			graph.commit();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		assertEquals(1, recorder.batches.size());
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AttributeColumns;
+import org.graphstream.graph.implementations.GraphSnapshot;
+import org.graphstream.graph.implementations.VersionedGraph;
+import org.junit.Test;
+
+public class TestVersionedGraph {
+	@Test
+	public void testIsolation() {
+		VersionedGraph graph = new VersionedGraph("g");
+
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addEdge("AB", "A", "B");
+		graph.addEdge("BC", "B", "C", true);
+		graph.getNode("A").addAttribute("x", 1);
+		graph.addAttribute("title", "v1");
+
+		GraphSnapshot s1 = graph.openSnapshot();
+
+		graph.getNode("A").addAttribute("x", 2);
+		graph.getNode("A").addAttribute("y", 3);
+		graph.addEdge("CA", "C", "A", true);
+		graph.removeNode("B");
+		graph.addNode("D");
+		graph.addAttribute("title", "v2");
+
+		GraphSnapshot s2 = graph.openSnapshot();
+
+		assertTrue(s2.getVersion() > s1.getVersion());
+
+		// First snapshot unchanged.
+		assertEquals(3, s1.getNodeCount());
+		assertEquals(2, s1.getEdgeCount());
+		assertEquals("v1", s1.getAttribute("title"));
+		Node a = s1.getNode("A");
+		assertEquals(1, a.getNumber("x"), 0);
+		assertFalse(a.hasAttribute("y"));
+		assertEquals(1, a.getDegree());
+		assertNotNull(s1.getNode("B"));
+		assertNull(s1.getNode("D"));
+		assertEquals(2, s1.getNode("B").getDegree());
+		assertNotNull(s1.getNode("B").getEdgeToward("C"));
+		assertNull(s1.getNode("C").getEdgeToward("B"));
+		assertSame(s1.getNode("A"), s1.getEdge("AB").getOpposite(
+				s1.getNode("B")));
+
+		// Second snapshot sees the changes.
+		assertEquals(3, s2.getNodeCount());
+		assertEquals(1, s2.getEdgeCount());
+		assertEquals("v2", s2.getAttribute("title"));
+		a = s2.getNode("A");
+		assertEquals(2, a.getNumber("x"), 0);
+		assertEquals(3, a.getNumber("y"), 0);
+		assertEquals(1, a.getDegree());
+		assertEquals(1, a.getInDegree());
+		assertEquals(0, a.getOutDegree());
+		assertNull(s2.getNode("B"));
+		assertNotNull(s2.getNode("D"));
+
+		// Indices are dense.
+		HashSet<Integer> indices = new HashSet<Integer>();
+
+		for (Node n : s2) {
+			assertSame(n, s2.getNode(n.getIndex()));
+			indices.add(n.getIndex());
+		}
+
+		assertEquals(3, indices.size());
+
+		for (Edge e : s1.getEachEdge())
+			assertSame(e, s1.getEdge(e.getIndex()));
+
+		s1.close();
+		assertTrue(s1.isClosed());
+	}
+
+	@Test
+	public void testAttributes() {
+		VersionedGraph graph = new VersionedGraph("g");
+		Node a = graph.addNode("A");
+		Node b = graph.addNode("B");
+		Edge ab = graph.addEdge("AB", "A", "B");
+
+		a.addAttribute("x", 1);
+		a.addAttribute("y", 2);
+		ab.addAttribute("w", 3);
+
+		GraphSnapshot s1 = graph.openSnapshot();
+
+		a.removeAttribute("x");
+		a.addAttribute("y", 4);
+		ab.clearAttributes();
+
+		assertFalse(a.hasAttribute("x"));
+		assertEquals(4, a.getNumber("y"), 0);
+		assertEquals(1, a.getAttributeCount());
+		assertEquals(0, ab.getAttributeCount());
+
+		assertEquals(1, s1.getNode("A").getNumber("x"), 0);
+		assertEquals(2, s1.getNode("A").getNumber("y"), 0);
+		assertEquals(3, s1.getEdge("AB").getNumber("w"), 0);
+
+		// Removed elements keep their attributes, without sharing them with
+		// the snapshots.
+		b.addAttribute("z", 5);
+		GraphSnapshot s2 = graph.openSnapshot();
+		graph.removeNode(b);
+
+		assertEquals(5, b.getNumber("z"), 0);
+		b.addAttribute("z", 6);
+		assertEquals(5, s2.getNode("B").getNumber("z"), 0);
+
+		a.addAttribute("z", 7);
+		graph.clear();
+		assertEquals(7, a.getNumber("z"), 0);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNoColumns() {
+		new VersionedGraph("g").declareNodeAttribute("x",
+				AttributeColumns.Type.DOUBLE);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnly() {
+		VersionedGraph graph = new VersionedGraph("g");
+		graph.addNode("A");
+		graph.openSnapshot().getNode("A").addAttribute("x", 1);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnlyStructure() {
+		VersionedGraph graph = new VersionedGraph("g");
+		graph.openSnapshot().addNode("A");
+	}
+
+	@Test
+	public void testConcurrentReader() throws InterruptedException {
+		final VersionedGraph graph = new VersionedGraph("g");
+		final int n = 2000;
+
+		graph.addNode("N0");
+
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 1; i < n; i++) {
+					graph.addNode("N" + i);
+					graph.addEdge("E" + i, "N" + (i - 1), "N" + i);
+					graph.getNode("N" + i).addAttribute("i", i);
+
+					if (i % 10 == 0)
+						graph.removeNode("N" + (i - 5));
+				}
+			}
+		};
+
+		writer.start();
+
+		while (writer.isAlive()) {
+			GraphSnapshot s = graph.openSnapshot();
+			int degrees = 0;
+
+			for (Node node : s) {
+				degrees += node.getDegree();
+
+				for (Edge e : node.getEachEdge())
+					assertNotNull(s.getNode(e.getOpposite(node).getId()));
+			}
+
+			assertEquals(2 * s.getEdgeCount(), degrees);
+			s.close();
+		}
+
+		writer.join();
+
+		GraphSnapshot s = graph.openSnapshot();
+		assertEquals(graph.getNodeCount(), s.getNodeCount());
+		assertEquals(graph.getEdgeCount(), s.getEdgeCount());
+
+		for (Node node : graph)
+			if (!node.getId().equals("N0"))
+				assertEquals(node.getNumber("i"), s.getNode(node.getId())
+						.getNumber("i"), 0);
+	}
+}
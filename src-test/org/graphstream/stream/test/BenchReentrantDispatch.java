@@ -0,0 +1,126 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.graphstream.stream.SinkAdapter;
+import org.graphstream.stream.SourceBase;
+import org.junit.Ignore;
+
+/**
+ * Measures the cost of reentrant dispatch in {@link SourceBase}: for each
+ * event sent by the source, a sink sends back a given number of events that
+ * are queued and delivered once the first event has been handled. The time
+ * and, when the JVM can measure it, the memory allocated per queued event are
+ * printed for several fan-outs.
+ */
+@Ignore
+public class BenchReentrantDispatch {
+	static final int EVENTS = 200000;
+	static final int PASSES = 10;
+	static final int[] FANOUTS = { 1, 4, 16, 256 };
+
+	/**
+	 * Keeps the results alive.
+	 */
+	static volatile long sink;
+
+	public static void main(String[] args) {
+		System.out.printf("%8s %14s %14s%n", "fan-out", "ns/event",
+				"bytes/event");
+
+		for (int fanout : FANOUTS)
+			measure(fanout);
+	}
+
+	static void measure(final int fanout) {
+		final SourceBase source = new SourceBase("bench") {
+		};
+		final Double value = 1.0;
+		final long[] count = new long[1];
+
+		// Answers each "x" change by fanout "y" changes.
+		source.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAttributeChanged(String sourceId, long timeId,
+					String nodeId, String attribute, Object oldValue,
+					Object newValue) {
+				count[0]++;
+
+				if (attribute == "x")
+					for (int i = 0; i < fanout; i++)
+						source.sendNodeAttributeChanged(sourceId, timeId,
+								nodeId, "y", value, value);
+			}
+		});
+
+		int events = EVENTS / fanout;
+
+		// warm up
+		run(source, events, value);
+
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		long bytes = allocatedBytes(mx);
+		long start = System.nanoTime();
+
+		for (int i = 0; i < PASSES; i++)
+			run(source, events, value);
+
+		long time = System.nanoTime() - start;
+		long allocated = allocatedBytes(mx) - bytes;
+		long queued = (long) PASSES * events * fanout;
+
+		sink = count[0];
+		System.out.printf("%8d %14.1f %14s%n", fanout, time / (double) queued,
+				allocated < 0 ? "n/a" : String.format("%.2f", allocated
+						/ (double) queued));
+	}
+
+	static void run(SourceBase source, int events, Double value) {
+		for (int i = 0; i < events; i++)
+			source.sendNodeAttributeChanged("bench", i, "n", "x", value, value);
+	}
+
+	/**
+	 * Bytes allocated by the current thread, or a negative value if the JVM
+	 * does not give this information.
+	 */
+	static long allocatedBytes(ThreadMXBean mx) {
+		if (mx instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) mx)
+					.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+		return -1;
+	}
+}
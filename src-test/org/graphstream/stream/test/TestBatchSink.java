@@ -0,0 +1,289 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.graphstream.stream.AttributePredicate;
+import org.graphstream.stream.AttributePipe;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
+import org.graphstream.stream.PipeBase;
+import org.graphstream.stream.binary.ByteEncoder;
+import org.graphstream.stream.file.FileSinkDGS;
+import org.graphstream.stream.netstream.NetStreamDecoder;
+import org.graphstream.stream.netstream.NetStreamEncoder;
+import org.graphstream.stream.thread.ThreadProxyPipe;
+import org.junit.Test;
+
+public class TestBatchSink {
+	/**
+	 * Sink recording copies of the batches it receives.
+	 */
+	static class BatchRecorder extends EventBatch implements BatchSink {
+		ArrayList<EventBatch> batches = new ArrayList<EventBatch>();
+
+		public void batchReceived(EventBatch batch) {
+			batches.add(new EventBatch(batch));
+		}
+	}
+
+	protected static EventBatch sampleBatch() {
+		EventBatch batch = new EventBatch();
+
+		batch.nodeAdded("s", 1, "A");
+		batch.nodeAdded("s", 2, "B");
+		batch.edgeAdded("s", 3, "AB", "A", "B", true);
+		batch.nodeAttributeAdded("s", 4, "A", "x", 1.0);
+		batch.nodeAttributeAdded("s", 5, "A", "y", "a");
+		batch.stepBegins("s", 6, 2.0);
+
+		return batch;
+	}
+
+	protected static void assertSameEvents(EventBatch expected,
+			EventBatch actual) {
+		assertEquals(expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.getType(i), actual.getType(i));
+			assertEquals(expected.getSourceId(i), actual.getSourceId(i));
+			assertEquals(expected.getTimeId(i), actual.getTimeId(i));
+			assertEquals(expected.getElementId(i), actual.getElementId(i));
+			assertEquals(expected.getAttribute(i), actual.getAttribute(i));
+			assertEquals(expected.getValue(i), actual.getValue(i));
+		}
+	}
+
+	@Test
+	public void testChunkedDelivery() {
+		PipeBase source = new PipeBase();
+		BatchRecorder batchSink = new BatchRecorder();
+		EventBatch legacySink = new EventBatch();
+
+		source.addSink(batchSink);
+		source.addSink(legacySink);
+		source.setChunkSize(4);
+		assertEquals(4, source.getChunkSize());
+
+		for (int i = 0; i < 9; i++)
+			source.nodeAdded("s", i, "N" + i);
+
+		assertEquals(2, batchSink.batches.size());
+		assertEquals(8, legacySink.size());
+
+		source.flushChunk();
+
+		assertEquals(3, batchSink.batches.size());
+		assertEquals(1, batchSink.batches.get(2).size());
+		assertEquals(9, legacySink.size());
+
+		for (int i = 0; i < 9; i++) {
+			EventBatch chunk = batchSink.batches.get(i / 4);
+			assertEquals("N" + i, chunk.getElementId(i % 4));
+			assertEquals("N" + i, legacySink.getElementId(i));
+			assertEquals(i, legacySink.getTimeId(i));
+		}
+
+		// Attribute events keep their order among element events.
+
+		legacySink.clear();
+		source.nodeAttributeAdded("s", 10, "N0", "x", 1);
+		source.nodeRemoved("s", 11, "N0");
+		source.setChunkSize(1);
+
+		assertEquals(1, source.getChunkSize());
+		assertEquals(2, legacySink.size());
+		assertEquals(EventType.NODE_ATTRIBUTE_ADDED, legacySink.getType(0));
+		assertEquals(EventType.NODE_REMOVED, legacySink.getType(1));
+
+		source.nodeAdded("s", 12, "N0");
+		assertEquals(3, legacySink.size());
+	}
+
+	@Test
+	public void testPipeForwarding() {
+		PipeBase first = new PipeBase();
+		PipeBase second = new PipeBase() {
+			@Override
+			protected boolean forwardsBatches() {
+				return true;
+			}
+		};
+		BatchRecorder sink = new BatchRecorder();
+		EventBatch batch = sampleBatch();
+
+		first.addSink(second);
+		second.addSink(sink);
+		first.sendBatch(batch);
+
+		assertEquals(1, sink.batches.size());
+		assertSameEvents(batch, sink.batches.get(0));
+		assertEquals(0, sink.size());
+
+		// By default, a pipe replays the events of batches.
+
+		PipeBase plain = new PipeBase();
+		BatchRecorder replayed = new BatchRecorder();
+
+		first.removeSink(second);
+		first.addSink(plain);
+		plain.addSink(replayed);
+		first.sendBatch(batch);
+
+		assertEquals(0, replayed.batches.size());
+		assertEquals(batch.size(), replayed.size());
+		first.removeSink(plain);
+
+		// A subclass refining the event methods sees the events of batches.
+
+		final ArrayList<String> nodes = new ArrayList<String>();
+		PipeBase refined = new PipeBase() {
+			@Override
+			public void nodeAdded(String sourceId, long timeId, String nodeId) {
+				nodes.add(nodeId);
+				super.nodeAdded(sourceId, timeId, nodeId + "'");
+			}
+		};
+		EventBatch events = new EventBatch();
+
+		first.addSink(refined);
+		refined.addSink(events);
+		first.sendBatch(batch);
+
+		assertEquals(2, nodes.size());
+		assertEquals(batch.size(), events.size());
+		assertEquals("A'", events.getElementId(0));
+		assertEquals("B'", events.getElementId(1));
+	}
+
+	@Test
+	public void testAttributePipe() {
+		AttributePipe pipe = new AttributePipe();
+		EventBatch sink = new EventBatch();
+
+		pipe.setNodeAttributeFilter(new AttributePredicate() {
+			public boolean matches(String attributeName, Object attributeValue) {
+				return attributeName.equals("x");
+			}
+		});
+
+		pipe.addSink(sink);
+		pipe.batchReceived(sampleBatch());
+
+		assertEquals(5, sink.size());
+
+		for (int i = 0; i < sink.size(); i++)
+			assertEquals(false, "x".equals(sink.getAttribute(i)));
+	}
+
+	@Test
+	public void testThreadProxyPipe() {
+		ThreadProxyPipe proxy = new ThreadProxyPipe();
+		BatchRecorder sink = new BatchRecorder();
+		EventBatch batch = sampleBatch();
+		EventBatch expected = new EventBatch(batch);
+
+		proxy.addSink(sink);
+		proxy.batchReceived(batch);
+		batch.clear();
+
+		assertEquals(0, sink.batches.size());
+		proxy.pump();
+
+		assertEquals(1, sink.batches.size());
+		assertSameEvents(expected, sink.batches.get(0));
+	}
+
+	@Test
+	public void testNetStream() {
+		final ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+		NetStreamEncoder encoder = new NetStreamEncoder(
+				new ByteEncoder.Transport() {
+					public void send(ByteBuffer buffer) {
+						ByteBuffer copy = ByteBuffer.allocate(buffer
+								.remaining());
+						copy.put(buffer);
+						copy.flip();
+						buffers.add(copy);
+					}
+				});
+
+		EventBatch batch = sampleBatch();
+		encoder.batchReceived(batch);
+
+		assertEquals(1, buffers.size());
+
+		NetStreamDecoder decoder = new NetStreamDecoder();
+		EventBatch decoded = new EventBatch();
+
+		decoder.addSink(decoded);
+		decoder.decode(buffers.get(0));
+
+		assertSameEvents(batch, decoded);
+	}
+
+	@Test
+	public void testFileSink() throws Exception {
+		StringWriter expected = new StringWriter();
+		StringWriter actual = new StringWriter();
+		FileSinkDGS events = new FileSinkDGS();
+		FileSinkDGS batches = new FileSinkDGS();
+		EventBatch batch = sampleBatch();
+
+		events.begin(expected);
+		batch.replay(events);
+		events.end();
+
+		batches.begin(actual);
+		batches.batchReceived(batch);
+		batches.end();
+
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	@Test
+	public void testCopy() {
+		EventBatch batch = sampleBatch();
+		EventBatch copy = new EventBatch(batch);
+
+		batch.clear();
+		assertSameEvents(sampleBatch(), copy);
+		assertSame(EventType.STEP_BEGINS, copy.getType(5));
+	}
+}
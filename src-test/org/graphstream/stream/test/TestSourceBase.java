@@ -39,6 +39,7 @@ import java.util.LinkedList;
 import java.util.Random;
 
 import org.graphstream.stream.Sink;
+import org.graphstream.stream.SinkAdapter;
 import org.graphstream.stream.SourceBase;
 import org.junit.Test;
 
@@ -145,6 +146,36 @@ public class TestSourceBase {
 			events.get(i).assertEventEquals(stack.get(i));
 	}
 
+	@Test
+	public void testReentrantEvents() {
+		final LinkedList<Event> events = generateEventList(1000);
+		final SourceBase source = new TestSource();
+		EventStack stack = new EventStack();
+
+		// Events sent by a sink are queued and delivered after the current
+		// event, in order.
+		source.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAdded(String sourceId, long timeId, String nodeId) {
+				if (nodeId.equals("echo"))
+					for (Event e : events)
+						send(source, e);
+			}
+		});
+		source.addSink(stack);
+
+		for (int pass = 0; pass < 2; pass++) {
+			stack.clear();
+			source.sendNodeAdded("echo", pass, "echo");
+
+			assertEquals(events.size() + 1, stack.size());
+			assertEquals("echo", stack.removeFirst().args[0]);
+
+			for (int i = 0; i < events.size(); i++)
+				events.get(i).assertEventEquals(stack.get(i));
+		}
+	}
+
 	protected void send(SourceBase base, Event e) {
 		switch (e.type) {
 		case AN:
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream.thread.test;
+
+import org.graphstream.stream.ProxyPipe;
+import org.graphstream.stream.SinkAdapter;
+import org.graphstream.stream.thread.RingBufferProxyPipe;
+import org.graphstream.stream.thread.RingBufferProxyPipe.Producers;
+import org.graphstream.stream.thread.RingBufferProxyPipe.WaitStrategy;
+import org.graphstream.stream.thread.ThreadProxyPipe;
+import org.junit.Ignore;
+
+/**
+ * Measures the throughput of proxy pipes between an input thread sending
+ * attribute changes and a sink thread pumping them.
+ */
+@Ignore
+public class BenchProxyPipes {
+	static final int EVENTS = 2000000;
+	static final int PASSES = 5;
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.printf("%-24s %14s%n", "pipe", "events/s");
+
+		for (int pass = 0; pass < 2; pass++) {
+			boolean print = pass > 0;
+
+			measure("ThreadProxyPipe", new ThreadProxyPipe(), print);
+			measure("ring, single, park", new RingBufferProxyPipe(
+					RingBufferProxyPipe.DEFAULT_CAPACITY, Producers.SINGLE,
+					WaitStrategy.PARK), print);
+			measure("ring, single, spin", new RingBufferProxyPipe(
+					RingBufferProxyPipe.DEFAULT_CAPACITY, Producers.SINGLE,
+					WaitStrategy.SPIN), print);
+			measure("ring, multiple, park", new RingBufferProxyPipe(
+					RingBufferProxyPipe.DEFAULT_CAPACITY, Producers.MULTIPLE,
+					WaitStrategy.PARK), print);
+		}
+	}
+
+	static void measure(String name, final ProxyPipe pipe, boolean print)
+			throws InterruptedException {
+		final long[] count = new long[1];
+		final Double value = 1.0;
+
+		pipe.addSink(new SinkAdapter() {
+			@Override
+			public void nodeAttributeChanged(String sourceId, long timeId,
+					String nodeId, String attribute, Object oldValue,
+					Object newValue) {
+				count[0]++;
+			}
+		});
+
+		long time = 0;
+
+		for (int p = 0; p < PASSES; p++) {
+			count[0] = 0;
+
+			Thread input = new Thread() {
+				public void run() {
+					for (int i = 0; i < EVENTS; i++)
+						pipe.nodeAttributeChanged("bench", i, "n", "x", value,
+								value);
+				}
+			};
+
+			long start = System.nanoTime();
+			input.start();
+
+			while (count[0] < EVENTS)
+				pipe.blockingPump(100);
+
+			time += System.nanoTime() - start;
+			input.join();
+		}
+
+		if (print)
+			System.out.printf("%-24s %14.0f%n", name, PASSES * (double) EVENTS
+					/ (time / 1e9));
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream.thread.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
+import org.graphstream.stream.thread.RingBufferProxyPipe;
+import org.graphstream.stream.thread.RingBufferProxyPipe.Producers;
+import org.graphstream.stream.thread.RingBufferProxyPipe.WaitStrategy;
+import org.junit.Test;
+
+public class TestRingBufferProxyPipe {
+	protected static Thread producer(final RingBufferProxyPipe pipe,
+			final String sourceId, final int events) {
+		Thread t = new Thread() {
+			public void run() {
+				for (int i = 0; i < events; i++)
+					pipe.nodeAdded(sourceId, i, sourceId + i);
+			}
+		};
+
+		t.setDaemon(true);
+		t.start();
+		return t;
+	}
+
+	protected static void pumpUntil(RingBufferProxyPipe pipe,
+			EventBatch received, int events) throws InterruptedException {
+		long end = System.currentTimeMillis() + 10000;
+
+		while (received.size() < events) {
+			assertTrue("events lost", System.currentTimeMillis() < end);
+			pipe.blockingPump(100);
+		}
+	}
+
+	protected void testProducers(Producers producers, WaitStrategy wait,
+			int threads) throws InterruptedException {
+		int events = 20000;
+		RingBufferProxyPipe pipe = new RingBufferProxyPipe(16, producers, wait);
+		EventBatch received = new EventBatch();
+
+		pipe.addSink(received);
+
+		Thread[] t = new Thread[threads];
+
+		for (int i = 0; i < threads; i++)
+			t[i] = producer(pipe, "s" + i, events);
+
+		pumpUntil(pipe, received, threads * events);
+
+		for (int i = 0; i < threads; i++)
+			t[i].join();
+
+		pipe.pump();
+		assertEquals(threads * events, received.size());
+
+		// Events of each producer are received in order.
+
+		long[] expected = new long[threads];
+
+		for (int i = 0; i < received.size(); i++) {
+			int s = Integer.parseInt(received.getSourceId(i).substring(1));
+
+			assertEquals(EventType.NODE_ADDED, received.getType(i));
+			assertEquals(expected[s], received.getTimeId(i));
+			assertEquals("s" + s + expected[s], received.getElementId(i));
+			expected[s]++;
+		}
+	}
+
+	@Test
+	public void testSingleProducer() throws InterruptedException {
+		testProducers(Producers.SINGLE, WaitStrategy.PARK, 1);
+		testProducers(Producers.SINGLE, WaitStrategy.SPIN, 1);
+	}
+
+	@Test
+	public void testMultipleProducers() throws InterruptedException {
+		testProducers(Producers.MULTIPLE, WaitStrategy.PARK, 4);
+		testProducers(Producers.MULTIPLE, WaitStrategy.SPIN, 4);
+	}
+
+	@Test
+	public void testGraphToGraph() {
+		Graph source = new MultiGraph("g1");
+		Graph target = new MultiGraph("g2");
+
+		source.addNode("A");
+		source.addNode("B");
+		source.addEdge("AB", "A", "B", true);
+		source.getNode("A").addAttribute("x", 1);
+
+		RingBufferProxyPipe pipe = new RingBufferProxyPipe();
+		pipe.addSink(target);
+		pipe.init(source);
+
+		source.addNode("C");
+		source.getEdge("AB").addAttribute("w", 2.0);
+		source.getNode("A").changeAttribute("x", 3);
+		source.addAttribute("title", "t");
+		source.stepBegins(4);
+
+		assertEquals(0, target.getNodeCount());
+		assertTrue(pipe.hasPostRemaining());
+
+		pipe.pump();
+
+		assertFalse(pipe.hasPostRemaining());
+		assertEquals(3, target.getNodeCount());
+		assertEquals(1, target.getEdgeCount());
+		assertTrue(target.getEdge("AB").isDirected());
+		assertEquals(2.0, target.getEdge("AB").getNumber("w"), 0);
+		assertEquals(3, target.getNode("A").getAttribute("x"));
+		assertEquals("t", target.getAttribute("title"));
+		assertEquals(4, target.getStep(), 0);
+
+		source.removeNode("B");
+		pipe.pump();
+		assertEquals(0, target.getEdgeCount());
+
+		pipe.unregisterFromSource();
+		source.addNode("D");
+		pipe.pump();
+
+		assertEquals(3, source.getNodeCount());
+		assertEquals(2, target.getNodeCount());
+	}
+
+	@Test
+	public void testBlockingPumpTimeout() throws InterruptedException {
+		RingBufferProxyPipe pipe = new RingBufferProxyPipe(8,
+				Producers.SINGLE, WaitStrategy.PARK);
+		EventBatch received = new EventBatch();
+
+		pipe.addSink(received);
+
+		long start = System.currentTimeMillis();
+		pipe.blockingPump(50);
+
+		assertTrue(System.currentTimeMillis() - start >= 40);
+		assertEquals(0, received.size());
+		assertEquals(8, pipe.getCapacity());
+	}
+
+	@Test
+	public void testBatch() {
+		RingBufferProxyPipe pipe = new RingBufferProxyPipe();
+		final EventBatch[] received = new EventBatch[1];
+
+		class Recorder extends EventBatch implements BatchSink {
+			public void batchReceived(EventBatch batch) {
+				received[0] = new EventBatch(batch);
+			}
+		}
+
+		pipe.addSink(new Recorder());
+
+		EventBatch batch = new EventBatch();
+		batch.nodeAdded("s", 1, "A");
+		batch.nodeAttributeAdded("s", 2, "A", "x", 1);
+		pipe.batchReceived(batch);
+		batch.clear();
+
+		pipe.pump();
+
+		assertNotNull(received[0]);
+		assertEquals(2, received[0].size());
+		assertEquals("A", received[0].getElementId(1));
+	}
+}
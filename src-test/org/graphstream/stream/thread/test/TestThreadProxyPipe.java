@@ -39,6 +39,8 @@ import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.AdjacencyListGraph;
 import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
 import org.graphstream.stream.file.FileSinkDGS;
 import org.graphstream.stream.thread.ThreadProxyPipe;
 import org.junit.Assert;
@@ -154,6 +156,127 @@ public class TestThreadProxyPipe {
 		}
 	}
 
+	@Test
+	public void testCoalescing() {
+		Graph source = new MultiGraph("g1");
+		EventBatch received = new EventBatch();
+		ThreadProxyPipe pipe = new ThreadProxyPipe();
+
+		pipe.setCoalescing(true);
+		pipe.init(source);
+		pipe.addSink(received);
+
+		Node a = source.addNode("A");
+		a.setAttribute("x", 0);
+
+		for (int i = 1; i <= 1000; i++) {
+			a.setAttribute("x", i);
+			a.setAttribute("y", -i);
+		}
+
+		pipe.pump();
+
+		Assert.assertEquals(5, received.size());
+		Assert.assertEquals(EventType.NODE_ADDED, received.getType(0));
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_ADDED, received.getType(1));
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_CHANGED,
+				received.getType(2));
+		Assert.assertEquals("x", received.getAttribute(2));
+		Assert.assertEquals(1000, received.getValue(2));
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_ADDED, received.getType(3));
+		Assert.assertEquals("y", received.getAttribute(3));
+		Assert.assertEquals(-1000, received.getValue(4));
+
+		// Changes are not merged across a removal of the attribute.
+
+		received.clear();
+		a.setAttribute("x", 1);
+		a.removeAttribute("x");
+		a.setAttribute("x", 2);
+		a.setAttribute("x", 3);
+		a.setAttribute("x", 4);
+		pipe.pump();
+
+		Assert.assertEquals(4, received.size());
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_CHANGED,
+				received.getType(0));
+		Assert.assertEquals(1, received.getValue(0));
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_REMOVED,
+				received.getType(1));
+		Assert.assertEquals(EventType.NODE_ATTRIBUTE_ADDED, received.getType(2));
+		Assert.assertEquals(4, received.getValue(3));
+
+		// Nor across the removal of the element.
+
+		received.clear();
+		a.setAttribute("y", 1);
+		source.removeNode(a);
+		source.addNode("A").setAttribute("y", 2);
+		source.getNode("A").setAttribute("y", 3);
+		pipe.pump();
+
+		Assert.assertEquals(5, received.size());
+		Assert.assertEquals(1, received.getValue(0));
+		Assert.assertEquals(3, received.getValue(4));
+
+		// Nor across steps.
+
+		received.clear();
+		a = source.getNode("A");
+		a.setAttribute("y", 4);
+		source.stepBegins(1);
+		a.setAttribute("y", 5);
+		a.setAttribute("y", 6);
+		pipe.pump();
+
+		Assert.assertEquals(3, received.size());
+		Assert.assertEquals(4, received.getValue(0));
+		Assert.assertEquals(6, received.getValue(2));
+	}
+
+	@Test
+	public void testCoalescingState() throws IOException {
+		Graph source = new MultiGraph("g");
+		Graph target = new MultiGraph("g");
+		ThreadProxyPipe pipe = new ThreadProxyPipe();
+		String[] attributes = { "x", "y", "z" };
+
+		generateRandom(source, 100);
+
+		pipe.setCoalescing(true);
+		pipe.init(source);
+		pipe.addSink(target);
+
+		for (int i = 0; i < 10000; i++) {
+			Node n = source.getNode(ri(source.getNodeCount()));
+
+			switch (ri(20)) {
+			case 0:
+				n.removeAttribute(attributes[ri(attributes.length)]);
+				break;
+			case 1:
+				source.removeNode(n);
+				source.addNode(n.getId()).setAttribute("x", rv());
+				break;
+			default:
+				n.setAttribute(attributes[ri(attributes.length)], rv());
+			}
+
+			if (ri(100) == 0)
+				pipe.pump();
+		}
+
+		pipe.pump();
+
+		StringWriter w1 = new StringWriter();
+		StringWriter w2 = new StringWriter();
+
+		new FileSinkDGS().writeAll(source, w1);
+		new FileSinkDGS().writeAll(target, w2);
+
+		Assert.assertEquals(w1.toString(), w2.toString());
+	}
+
 	public void testOne() throws IOException {
 		Graph g = new AdjacencyListGraph("g");
 		ThreadProxyPipe tpp = new ThreadProxyPipe();
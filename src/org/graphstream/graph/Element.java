@@ -333,6 +333,32 @@ public interface Element {
 	 */
 	void setAttribute(String attribute, Object... values);
 
+	/**
+	 * Add or replace a numeric attribute. The value is stored as a
+	 * {@link Double}, as would {@code setAttribute(attribute, value)} do, but
+	 * when the attribute is stored in a column of numbers the value is neither
+	 * boxed nor passed as an object to the sinks supporting
+	 * {@link org.graphstream.stream.PrimitiveAttributeSink}.
+	 * 
+	 * @param attribute
+	 *            The attribute name.
+	 * @param value
+	 *            The attribute value.
+	 */
+	void setNumber(String attribute, double value);
+
+	/**
+	 * Add or replace an attribute made of several numbers, for example a
+	 * position. The array itself is stored and sent to the sinks, its values
+	 * are not boxed.
+	 * 
+	 * @param attribute
+	 *            The attribute name.
+	 * @param values
+	 *            The attribute values.
+	 */
+	void setNumbers(String attribute, double... values);
+
 	/**
 	 * Add or replace each attribute found in attributes. Existing attributes
 	 * are overwritten silently. All classes inheriting from Number can be
@@ -328,6 +328,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedNode. If no left part exists, method
 	 * will just return a Node.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned node has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param id
 	 *            The unique identifier of the node to remove.
@@ -465,6 +470,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedEdge. If no left part exists, method
 	 * will just return an Edge.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned edge has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param from
 	 *            The origin node identifier to select the edge.
@@ -497,6 +507,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedEdge. If no left part exists, method
 	 * will just return an Edge.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned edge has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param id
 	 *            Identifier of the edge to remove.
@@ -527,6 +542,31 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 */
 	void stepBegins(double time);
 
+	/**
+	 * Start a transaction. Until the matching {@link #commit()}, the graph is
+	 * modified as usual but its events are not sent. They are merged instead:
+	 * successive changes of the same attribute become a single change, and
+	 * elements or attributes added then removed are forgotten. On commit, the
+	 * net effect is sent in one pass, as a single
+	 * {@link org.graphstream.stream.EventBatch} for sinks implementing
+	 * {@link org.graphstream.stream.BatchSink}.
+	 * 
+	 * <p>
+	 * Transactions can be nested, only the outermost commit sends the events.
+	 * </p>
+	 * 
+	 * @see org.graphstream.stream.EventCoalescer
+	 */
+	void beginTransaction();
+
+	/**
+	 * End the transaction opened by {@link #beginTransaction()}.
+	 * 
+	 * @throws IllegalStateException
+	 *             If no transaction is open.
+	 */
+	void commit();
+
 	// Source
 	// XXX do we put the iterable attributeSinks and elementSinks in Source ?
 
@@ -683,6 +723,26 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 */
 	<T extends Edge> T getEdge(int index) throws IndexOutOfBoundsException;
 
+	/**
+	 * Splittable iterator on the set of nodes, in index order. The iterator can
+	 * be split in parts processed by different threads, for instance with a
+	 * {@link ParallelAggregation}. The graph must not be modified while the
+	 * iterator or one of its parts is in use.
+	 * 
+	 * @return An iterator over all the nodes.
+	 * @see ParallelAggregation
+	 */
+	<T extends Node> SplittableIterator<T> nodes();
+
+	/**
+	 * Splittable iterator on the set of edges, in index order. The graph must
+	 * not be modified while the iterator or one of its parts is in use.
+	 * 
+	 * @return An iterator over all the edges.
+	 * @see #nodes()
+	 */
+	<T extends Edge> SplittableIterator<T> edges();
+
 	/**
 	 * Like {@link #addEdge(String, String, String)} but the nodes are
 	 * identified by their indices.
@@ -795,6 +855,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedEdge edge. If no left part exists,
 	 * method will just return an Edge.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned edge has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param index
 	 *            The index of the edge to be removed.
@@ -858,6 +923,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedEdge. If no left part exists, method
 	 * will just return an Edge.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned edge has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * 
 	 * 
@@ -886,6 +956,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedNode. If no left part exists, method
 	 * will just return a Node.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned node has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param index
 	 *            The index of the node to be removed
@@ -915,6 +990,11 @@ public interface Graph extends Element, Pipe, Iterable<Node>, Structure {
 	 * the method will return an ExtendedNode. If no left part exists, method
 	 * will just return a Node.
 	 * </p>
+	 * <p>
+	 * When the graph recycles its removed elements through an element pool,
+	 * the returned node has no attributes anymore and may later be reused
+	 * with another identifier. It must not be used after the call.
+	 * </p>
 	 * 
 	 * @param node
 	 *            The node to be removed
@@ -265,6 +265,26 @@ public interface Node extends Element, Iterable<Edge> {
 	 */
 	<T extends Node> Iterator<T> getNeighborNodeIterator();
 
+	/**
+	 * Splittable iterator on the set of edges incident to this node, in the
+	 * order of {@link #getEdge(int)}. The iterator can be split in parts
+	 * processed by different threads, which is useful for nodes of very high
+	 * degree.
+	 * 
+	 * @return An iterator over all the entering, leaving and undirected edges.
+	 * @see ParallelAggregation
+	 */
+	<T extends Edge> SplittableIterator<T> edges();
+
+	/**
+	 * Splittable iterator on the neighbors of this node, in the order of
+	 * {@link #edges()}. As for {@link #getNeighborNodeIterator()}, a node
+	 * connected by several edges is given several times.
+	 * 
+	 * @return An iterator over the opposite node of each incident edge.
+	 */
+	<T extends Node> SplittableIterator<T> neighborNodes();
+
 	/**
 	 * I-th edge. Edges are stored in no given order.
 	 * <p>
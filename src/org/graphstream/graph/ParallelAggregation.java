@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * A reduction of a set of elements computed in parallel by the threads of a
+ * fork/join pool.
+ * </p>
+ * 
+ * <p>
+ * The elements are given by a {@link SplittableIterator}, which is split until
+ * each part is small enough. Each part is reduced by one task starting from
+ * {@link #identity()} and calling {@link #accumulate(Object, Object)} for each
+ * of its elements, then the partial results are merged two by two with
+ * {@link #combine(Object, Object)}. The order in which elements are
+ * accumulated and results combined is not specified, so these operations must
+ * be associative and should not have side effects. For instance the sum of the
+ * degrees of the nodes is computed by:
+ * </p>
+ * 
+ * <pre>
+ * long degrees = new ParallelAggregation&lt;Node, Long&gt;() {
+ * 	protected Long identity() {
+ * 		return 0L;
+ * 	}
+ * 
+ * 	protected Long accumulate(Long sum, Node node) {
+ * 		return sum + node.getDegree();
+ * 	}
+ * 
+ * 	protected Long combine(Long a, Long b) {
+ * 		return a + b;
+ * 	}
+ * }.compute(graph.&lt;Node&gt; nodes());
+ * </pre>
+ * 
+ * @param <T>
+ *            The type of the elements.
+ * @param <R>
+ *            The type of the result.
+ */
+public abstract class ParallelAggregation<T, R> {
+	/**
+	 * Default number of elements below which a part is not split anymore.
+	 */
+	public static final int DEFAULT_GRAIN = 1024;
+
+	/**
+	 * Pool used when none is given.
+	 */
+	private static ForkJoinPool defaultPool;
+
+	/**
+	 * Number of elements below which a part is not split anymore.
+	 */
+	protected int grain = DEFAULT_GRAIN;
+
+	/**
+	 * Result of the reduction of no element.
+	 * 
+	 * @return A new neutral result.
+	 */
+	protected abstract R identity();
+
+	/**
+	 * Adds an element to a partial result.
+	 * 
+	 * @param result
+	 *            The partial result.
+	 * @param element
+	 *            The element to add.
+	 * @return The new partial result.
+	 */
+	protected abstract R accumulate(R result, T element);
+
+	/**
+	 * Merges two partial results.
+	 * 
+	 * @param a
+	 *            Result of the first elements.
+	 * @param b
+	 *            Result of the following elements.
+	 * @return The merged result.
+	 */
+	protected abstract R combine(R a, R b);
+
+	/**
+	 * Sets the number of elements below which a part is reduced by a single
+	 * task.
+	 * 
+	 * @param grain
+	 *            A strictly positive number of elements.
+	 */
+	public void setGrain(int grain) {
+		if (grain <= 0)
+			throw new IllegalArgumentException("The grain must be positive");
+
+		this.grain = grain;
+	}
+
+	/**
+	 * Reduces all the remaining elements of an iterator using a pool shared by
+	 * all the aggregations.
+	 * 
+	 * @param elements
+	 *            The elements.
+	 * @return The result of the reduction.
+	 */
+	public R compute(SplittableIterator<? extends T> elements) {
+		return compute(elements, defaultPool());
+	}
+
+	/**
+	 * Reduces all the remaining elements of an iterator.
+	 * 
+	 * @param elements
+	 *            The elements.
+	 * @param pool
+	 *            The pool running the tasks.
+	 * @return The result of the reduction.
+	 */
+	public R compute(SplittableIterator<? extends T> elements,
+			ForkJoinPool pool) {
+		if (elements.getRemaining() <= grain)
+			return reduce(elements);
+
+		return pool.invoke(new Part(elements));
+	}
+
+	private R reduce(SplittableIterator<? extends T> elements) {
+		R result = identity();
+
+		while (elements.hasNext())
+			result = accumulate(result, elements.next());
+
+		return result;
+	}
+
+	private static synchronized ForkJoinPool defaultPool() {
+		if (defaultPool == null)
+			defaultPool = new ForkJoinPool();
+
+		return defaultPool;
+	}
+
+	private class Part extends RecursiveTask<R> {
+		private static final long serialVersionUID = 1L;
+
+		final SplittableIterator<? extends T> elements;
+
+		Part(SplittableIterator<? extends T> elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		protected R compute() {
+			if (elements.getRemaining() > grain) {
+				SplittableIterator<? extends T> prefix = elements.trySplit();
+
+				if (prefix != null) {
+					Part left = new Part(prefix);
+					left.fork();
+					R right = compute();
+					return combine(left.join(), right);
+				}
+			}
+
+			return reduce(elements);
+		}
+	}
+}
@@ -0,0 +1,578 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.graphstream.graph.implementations.AdjacencySnapshot;
+
+/**
+ * <p>
+ * A parallel breadth first search computing the depth of every node reachable
+ * from a source node.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link BreadthFirstIterator}, this class does not give the nodes one
+ * by one but explores the whole graph level by level, each level being
+ * expanded by several threads of a {@link ForkJoinPool}. The search works on
+ * node indices only, over an {@link AdjacencySnapshot} of the graph. The set
+ * of visited nodes is a bitset and depths are stored in an {@code int} array.
+ * </p>
+ * 
+ * <p>
+ * The search is direction optimizing. While the frontier is small, each
+ * frontier node checks its neighbors ("top-down" step). When the frontier
+ * becomes large, that is when the edges leaving it are more than a fraction
+ * {@code 1 / alpha} of the edges still unexplored, each unvisited node looks
+ * instead for a parent in the frontier ("bottom-up" step) and stops at the
+ * first one found. The search comes back to top-down steps when the frontier
+ * holds less than a fraction {@code 1 / beta} of the nodes. On graphs with a
+ * small diameter this avoids checking most of the edges during the few huge
+ * levels.
+ * </p>
+ * 
+ * <pre>
+ * ParallelBreadthFirstSearch bfs = new ParallelBreadthFirstSearch(source);
+ * bfs.compute();
+ * 
+ * for (Node node : graph)
+ * 	System.out.println(node.getId() + &quot; at depth &quot; + bfs.getDepthOf(node));
+ * </pre>
+ * 
+ * <p>
+ * The graph must not be modified while the search runs. Depths computed before
+ * a modification remain valid for the indices the nodes had at that time.
+ * </p>
+ */
+public class ParallelBreadthFirstSearch {
+	/**
+	 * Default threshold to switch from top-down to bottom-up steps.
+	 */
+	public static final int DEFAULT_ALPHA = 14;
+
+	/**
+	 * Default threshold to switch from bottom-up back to top-down steps.
+	 */
+	public static final int DEFAULT_BETA = 24;
+
+	/**
+	 * Number of frontier nodes processed by one task during a top-down step.
+	 */
+	protected static final int TOP_DOWN_GRAIN = 512;
+
+	/**
+	 * Number of nodes processed by one task during a bottom-up step. Must be a
+	 * multiple of 64 so that each task owns whole words of the bitsets.
+	 */
+	protected static final int BOTTOM_UP_GRAIN = 4096;
+
+	/**
+	 * Pool used when none is given.
+	 */
+	private static ForkJoinPool defaultPool;
+
+	/**
+	 * The adjacency explored.
+	 */
+	protected final AdjacencySnapshot adjacency;
+
+	/**
+	 * Index of the source node.
+	 */
+	protected final int source;
+
+	/**
+	 * Follow only leaving edges ?
+	 */
+	protected final boolean directed;
+
+	/**
+	 * The pool running the tasks.
+	 */
+	protected ForkJoinPool pool;
+
+	/**
+	 * Switching thresholds.
+	 */
+	protected int alpha = DEFAULT_ALPHA, beta = DEFAULT_BETA;
+
+	/**
+	 * Depth of each node, -1 for nodes not reached.
+	 */
+	protected int[] depth;
+
+	/**
+	 * One bit per node, set when the node is reached.
+	 */
+	protected AtomicLongArray visited;
+
+	/**
+	 * Results of the last computation.
+	 */
+	protected int depthMax, visitedCount, topDownSteps, bottomUpSteps;
+
+	// *** Constructors ***
+
+	/**
+	 * New search from a node.
+	 * 
+	 * @param startNode
+	 *            The source of the search.
+	 * @param directed
+	 *            If true, only leaving edges are followed.
+	 */
+	public ParallelBreadthFirstSearch(Node startNode, boolean directed) {
+		this(snapshotOf(startNode.getGraph()), startNode.getIndex(), directed);
+	}
+
+	/**
+	 * New search from a node, following only leaving edges.
+	 * 
+	 * @param startNode
+	 *            The source of the search.
+	 */
+	public ParallelBreadthFirstSearch(Node startNode) {
+		this(startNode, true);
+	}
+
+	/**
+	 * New search over an existing snapshot. Several searches can share the
+	 * same snapshot.
+	 * 
+	 * @param adjacency
+	 *            The structure to explore.
+	 * @param source
+	 *            Index of the source node.
+	 * @param directed
+	 *            If true, only leaving edges are followed.
+	 */
+	public ParallelBreadthFirstSearch(AdjacencySnapshot adjacency, int source,
+			boolean directed) {
+		if (source < 0 || source >= adjacency.getNodeCount())
+			throw new IndexOutOfBoundsException("Node " + source
+					+ " does not exist");
+
+		this.adjacency = adjacency;
+		this.source = source;
+		this.directed = directed;
+	}
+
+	private static AdjacencySnapshot snapshotOf(Graph graph) {
+		if (graph instanceof AdjacencyListGraph)
+			return ((AdjacencyListGraph) graph).snapshot();
+
+		return new AdjacencySnapshot(graph);
+	}
+
+	private static synchronized ForkJoinPool defaultPool() {
+		if (defaultPool == null)
+			defaultPool = new ForkJoinPool();
+
+		return defaultPool;
+	}
+
+	// *** Parameters ***
+
+	/**
+	 * Sets the pool used to run the search. By default, a pool shared by all
+	 * the searches and using all the available processors is used.
+	 * 
+	 * @param pool
+	 *            The pool, or null to use the default one.
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Sets the switching thresholds. A bottom-up step is done as soon as the
+	 * edges leaving the frontier are more than {@code 1 / alpha} of the
+	 * unexplored edges. Top-down steps are resumed when the frontier holds
+	 * less than {@code 1 / beta} of the nodes.
+	 * 
+	 * @param alpha
+	 *            Top-down to bottom-up threshold.
+	 * @param beta
+	 *            Bottom-up to top-down threshold.
+	 */
+	public void setThresholds(int alpha, int beta) {
+		if (alpha <= 0 || beta <= 0)
+			throw new IllegalArgumentException("Thresholds must be positive");
+
+		this.alpha = alpha;
+		this.beta = beta;
+	}
+
+	// *** Computation ***
+
+	/**
+	 * Runs the search.
+	 * 
+	 * @complexity O(n + m) work with n the number of nodes and m the number of
+	 *             edges, usually much less edges are checked on graphs with a
+	 *             small diameter.
+	 */
+	public void compute() {
+		ForkJoinPool pool = this.pool == null ? defaultPool() : this.pool;
+		int n = adjacency.getNodeCount();
+
+		depth = new int[n];
+		visited = new AtomicLongArray((n + 63) >> 6);
+		depthMax = 0;
+		visitedCount = 1;
+		topDownSteps = 0;
+		bottomUpSteps = 0;
+
+		Arrays.fill(depth, -1);
+		depth[source] = 0;
+		visited.set(source >> 6, 1L << source);
+
+		Frontier frontier = new Frontier(new int[] { source }, 1,
+				outDegree(source), null);
+		long unexplored = adjacency.getSize() - frontier.edges;
+		boolean bottomUp = false;
+
+		for (int level = 1; frontier.size > 0; level++) {
+			if (!bottomUp)
+				bottomUp = frontier.edges > unexplored / alpha;
+			else
+				bottomUp = frontier.size >= n / beta;
+
+			if (bottomUp) {
+				long[] bits = frontier.bits;
+
+				if (bits == null) {
+					bits = new long[visited.length()];
+
+					for (int i = 0; i < frontier.size; i++) {
+						int u = frontier.nodes[i];
+						bits[u >> 6] |= 1L << u;
+					}
+				}
+
+				frontier = pool.invoke(new BottomUpStep(bits,
+						new long[bits.length], level, 0, n));
+				bottomUpSteps++;
+			} else {
+				frontier = pool.invoke(new TopDownStep(frontier.nodes, level,
+						0, frontier.size));
+				topDownSteps++;
+			}
+
+			unexplored -= frontier.edges;
+			visitedCount += frontier.size;
+
+			if (frontier.size > 0)
+				depthMax = level;
+		}
+	}
+
+	// *** Access methods ***
+
+	/**
+	 * Depth of a node, that is its distance to the source in number of edges.
+	 * 
+	 * @param node
+	 *            A node of the graph.
+	 * @return The depth of the node or -1 if it is not reachable.
+	 */
+	public int getDepthOf(Node node) {
+		return getDepthOf(node.getIndex());
+	}
+
+	/**
+	 * Depth of a node given by its index.
+	 * 
+	 * @param index
+	 *            Index of a node.
+	 * @return The depth of the node or -1 if it is not reachable.
+	 */
+	public int getDepthOf(int index) {
+		checkComputed();
+		return depth[index];
+	}
+
+	/**
+	 * Greatest depth of a reachable node.
+	 * 
+	 * @return The number of levels minus one.
+	 */
+	public int getDepthMax() {
+		checkComputed();
+		return depthMax;
+	}
+
+	/**
+	 * Tests if a node has been reached.
+	 * 
+	 * @param node
+	 *            A node of the graph.
+	 * @return True if the node is reachable from the source.
+	 */
+	public boolean tabu(Node node) {
+		return getDepthOf(node) != -1;
+	}
+
+	/**
+	 * Number of nodes reachable from the source, the source included.
+	 * 
+	 * @return The number of visited nodes.
+	 */
+	public int getVisitedCount() {
+		checkComputed();
+		return visitedCount;
+	}
+
+	/**
+	 * Number of levels expanded top-down during the last computation.
+	 * 
+	 * @return The number of top-down steps.
+	 */
+	public int getTopDownSteps() {
+		return topDownSteps;
+	}
+
+	/**
+	 * Number of levels expanded bottom-up during the last computation.
+	 * 
+	 * @return The number of bottom-up steps.
+	 */
+	public int getBottomUpSteps() {
+		return bottomUpSteps;
+	}
+
+	public boolean isDirected() {
+		return directed;
+	}
+
+	// *** Helpers ***
+
+	private void checkComputed() {
+		if (depth == null)
+			throw new IllegalStateException("The search has not been computed");
+	}
+
+	private long outDegree(int node) {
+		return directed ? adjacency.getOutDegree(node) : adjacency
+				.getDegree(node);
+	}
+
+	/**
+	 * Atomically marks a node as visited.
+	 * 
+	 * @return True if the node was not visited yet.
+	 */
+	private boolean claim(int node) {
+		int w = node >> 6;
+		long bit = 1L << node;
+
+		for (;;) {
+			long word = visited.get(w);
+
+			if ((word & bit) != 0)
+				return false;
+
+			if (visited.compareAndSet(w, word, word | bit))
+				return true;
+		}
+	}
+
+	/**
+	 * The nodes reached at some level and the number of edges leaving them.
+	 * Bottom-up steps also give the frontier as a bitset.
+	 */
+	private static class Frontier {
+		final int[] nodes;
+		final int size;
+		final long edges;
+		final long[] bits;
+
+		Frontier(int[] nodes, int size, long edges, long[] bits) {
+			this.nodes = nodes;
+			this.size = size;
+			this.edges = edges;
+			this.bits = bits;
+		}
+
+		Frontier merge(Frontier other) {
+			if (size == 0)
+				return other;
+			if (other.size == 0)
+				return this;
+
+			int[] all = new int[size + other.size];
+			System.arraycopy(nodes, 0, all, 0, size);
+			System.arraycopy(other.nodes, 0, all, size, other.size);
+
+			return new Frontier(all, all.length, edges + other.edges, bits);
+		}
+	}
+
+	/**
+	 * Expands a range of the current frontier by scanning the edges leaving
+	 * each of its nodes.
+	 */
+	private class TopDownStep extends RecursiveTask<Frontier> {
+		private static final long serialVersionUID = 1L;
+
+		final int[] frontier;
+		final int level, lo, hi;
+
+		TopDownStep(int[] frontier, int level, int lo, int hi) {
+			this.frontier = frontier;
+			this.level = level;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Frontier compute() {
+			if (hi - lo > TOP_DOWN_GRAIN) {
+				int mid = (lo + hi) >>> 1;
+				TopDownStep left = new TopDownStep(frontier, level, lo, mid);
+				left.fork();
+				Frontier right = new TopDownStep(frontier, level, mid, hi)
+						.compute();
+				return left.join().merge(right);
+			}
+
+			int[] next = new int[16];
+			int size = 0;
+			long edges = 0;
+
+			for (int i = lo; i < hi; i++) {
+				int u = frontier[i];
+				int begin = directed ? adjacency.getLeavingBegin(u)
+						: adjacency.getNeighborsBegin(u);
+				int end = adjacency.getNeighborsEnd(u);
+
+				for (int p = begin; p < end; p++) {
+					int v = adjacency.getNeighbor(p);
+
+					if (depth[v] == -1 && claim(v)) {
+						depth[v] = level;
+						edges += outDegree(v);
+
+						if (size == next.length)
+							next = Arrays.copyOf(next, size * 2);
+
+						next[size++] = v;
+					}
+				}
+			}
+
+			return new Frontier(next, size, edges, null);
+		}
+	}
+
+	/**
+	 * Looks for a parent in the frontier for each unvisited node of a range.
+	 * Ranges are aligned on 64 nodes so that each task owns the words of the
+	 * bitsets it modifies.
+	 */
+	private class BottomUpStep extends RecursiveTask<Frontier> {
+		private static final long serialVersionUID = 1L;
+
+		final long[] frontier, next;
+		final int level, lo, hi;
+
+		BottomUpStep(long[] frontier, long[] next, int level, int lo, int hi) {
+			this.frontier = frontier;
+			this.next = next;
+			this.level = level;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Frontier compute() {
+			if (hi - lo > BOTTOM_UP_GRAIN) {
+				int mid = ((lo + hi) >>> 1) & ~63;
+				BottomUpStep left = new BottomUpStep(frontier, next, level,
+						lo, mid);
+				left.fork();
+				Frontier right = new BottomUpStep(frontier, next, level, mid,
+						hi).compute();
+				return left.join().merge(right);
+			}
+
+			int[] found = new int[16];
+			int size = 0;
+			long edges = 0;
+
+			for (int w = lo >> 6, wEnd = (hi + 63) >> 6; w < wEnd; w++) {
+				long seen = visited.get(w);
+				long added = 0;
+
+				if (seen == -1L)
+					continue;
+
+				for (int v = w << 6, vEnd = Math.min(v + 64, hi); v < vEnd; v++) {
+					if ((seen & (1L << v)) != 0)
+						continue;
+
+					int begin = adjacency.getEnteringBegin(v);
+					int end = directed ? adjacency.getEnteringEnd(v)
+							: adjacency.getNeighborsEnd(v);
+
+					for (int p = begin; p < end; p++) {
+						int u = adjacency.getNeighbor(p);
+
+						if ((frontier[u >> 6] & (1L << u)) != 0) {
+							depth[v] = level;
+							added |= 1L << v;
+							edges += outDegree(v);
+
+							if (size == found.length)
+								found = Arrays.copyOf(found, size * 2);
+
+							found[size++] = v;
+							break;
+						}
+					}
+				}
+
+				if (added != 0) {
+					next[w] = added;
+					visited.set(w, seen | added);
+				}
+			}
+
+			return new Frontier(found, size, edges, next);
+		}
+	}
+}
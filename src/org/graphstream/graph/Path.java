@@ -174,7 +174,10 @@ public class Path implements Structure {
 	public Double getPathWeight(String characteristic) {
 		double d = 0;
 		for (Edge l : edgePath) {
-			d += (Double) l.getAttribute(characteristic, Number.class);
+			if (l.hasNumber(characteristic))
+				d += l.getNumber(characteristic);
+			else
+				d += (Double) l.getAttribute(characteristic, Number.class);
 		}
 		return d;
 	}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * An iterator over a range of indices that can be split in two halves, so that
+ * the elements can be processed by several threads.
+ * </p>
+ * 
+ * <p>
+ * The number of remaining elements is always known exactly, for the iterator
+ * and for every part obtained by splitting it. This is what allows
+ * {@link ParallelAggregation} to share work evenly between the threads of a
+ * fork/join pool. A split iterator is meant to be consumed by one thread, and
+ * the underlying graph must not be modified while it is in use.
+ * </p>
+ * 
+ * <pre>
+ * SplittableIterator&lt;Node&gt; nodes = graph.nodes();
+ * SplittableIterator&lt;Node&gt; half = nodes.trySplit();
+ * 
+ * // half and nodes can now be consumed concurrently.
+ * </pre>
+ * 
+ * @param <T>
+ *            The type of the elements.
+ * @see Graph#nodes()
+ * @see Node#edges()
+ */
+public abstract class SplittableIterator<T> implements Iterator<T> {
+	/**
+	 * Index of the next element and end of the range (exclusive).
+	 */
+	protected int index, end;
+
+	/**
+	 * New iterator over the range {@code [begin, end)}.
+	 * 
+	 * @param begin
+	 *            Index of the first element.
+	 * @param end
+	 *            Index after the last element.
+	 */
+	protected SplittableIterator(int begin, int end) {
+		this.index = begin;
+		this.end = end;
+	}
+
+	/**
+	 * Element at a given index.
+	 * 
+	 * @param index
+	 *            An index in the range of this iterator.
+	 * @return The element.
+	 */
+	protected abstract T get(int index);
+
+	/**
+	 * Creates an iterator of the same kind over another range of the same
+	 * elements.
+	 * 
+	 * @param begin
+	 *            Index of the first element.
+	 * @param end
+	 *            Index after the last element.
+	 * @return The new iterator.
+	 */
+	protected abstract SplittableIterator<T> range(int begin, int end);
+
+	/**
+	 * Splits the remaining elements in two halves. The first half is given to
+	 * a new iterator and this iterator keeps the second half.
+	 * 
+	 * @return An iterator over the first half of the remaining elements or
+	 *         null if less than two elements remain.
+	 */
+	public SplittableIterator<T> trySplit() {
+		int mid = (index + end) >>> 1;
+
+		if (mid <= index)
+			return null;
+
+		SplittableIterator<T> prefix = range(index, mid);
+		index = mid;
+		return prefix;
+	}
+
+	/**
+	 * Number of elements not consumed yet.
+	 * 
+	 * @return The exact number of remaining elements.
+	 */
+	public int getRemaining() {
+		return end - index;
+	}
+
+	public boolean hasNext() {
+		return index < end;
+	}
+
+	public T next() {
+		if (index >= end)
+			throw new NoSuchElementException();
+
+		return get(index++);
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException(
+				"This iterator does not support remove");
+	}
+
+	/**
+	 * Splittable iterator over a range of an array.
+	 * 
+	 * @param <T>
+	 *            The type of the elements.
+	 */
+	public static class OfArray<T> extends SplittableIterator<T> {
+		protected final Object[] array;
+
+		/**
+		 * New iterator over the range {@code [begin, end)} of an array. The
+		 * array is not copied.
+		 * 
+		 * @param array
+		 *            The elements.
+		 * @param begin
+		 *            Index of the first element.
+		 * @param end
+		 *            Index after the last element.
+		 */
+		public OfArray(Object[] array, int begin, int end) {
+			super(begin, end);
+			this.array = array;
+		}
+
+		/**
+		 * New iterator over a whole array.
+		 * 
+		 * @param array
+		 *            The elements.
+		 */
+		public OfArray(Object[] array) {
+			this(array, 0, array.length);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected T get(int index) {
+			return (T) array[index];
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new OfArray<T>(array, begin, end);
+		}
+	}
+}
@@ -98,15 +98,43 @@ public class AbstractEdge extends AbstractElement implements Edge {
 		this.graph = (AbstractGraph) source.getGraph();
 	}
 
+	/**
+	 * Reuses a released edge.
+	 */
+	void recycle(String id, AbstractNode source, AbstractNode target,
+			boolean directed) {
+		recycle(id);
+		this.source = source;
+		this.target = target;
+		this.directed = directed;
+		this.graph = (AbstractGraph) source.getGraph();
+	}
+
 	// *** Inherited from AbstractElement ***
 
+	@Override
+	protected void release() {
+		super.release();
+		source = target = null;
+	}
+
 	@Override
 	protected void attributeChanged(AttributeChangeEvent event,
 			String attribute, Object oldValue, Object newValue) {
+		graph.attributeChangedCallback(this, event, attribute, oldValue,
+				newValue);
 		graph.listeners.sendAttributeChangedEvent(id, ElementType.EDGE,
 				attribute, event, oldValue, newValue);
 	}
 
+	@Override
+	protected void numberChanged(AttributeChangeEvent event, String attribute,
+			double oldValue, double newValue) {
+		graph.numberChangedCallback(this, event, attribute, oldValue, newValue);
+		graph.listeners.sendNumberChangedEvent(id, ElementType.EDGE, attribute,
+				event, oldValue, newValue);
+	}
+
 	/**
 	 * This implementation calls the corresponding method of the parent graph
 	 * 
@@ -117,6 +145,16 @@ public class AbstractEdge extends AbstractElement implements Edge {
 		return graph.nullAttributesAreErrors();
 	}
 
+	/**
+	 * This implementation returns the edge columns of the parent graph
+	 * 
+	 * @see org.graphstream.graph.implementations.AbstractElement#getAttributeColumns()
+	 */
+	@Override
+	protected AttributeColumns getAttributeColumns() {
+		return graph.edgeColumns;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s[%s-%s%s]", getId(), source, directed ? ">"
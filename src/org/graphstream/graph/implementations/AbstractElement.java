@@ -66,18 +66,24 @@ public abstract class AbstractElement implements Element {
 	/**
 	 * Tag of this element.
 	 */
-	protected final String id;
+	protected String id;
 
 	/**
 	 * The index of this element.
 	 */
 	private int index;
 
+	/**
+	 * Number of times this element has been released for reuse.
+	 */
+	private int generation;
+
 	/**
 	 * Attributes map. This map is created only when needed. It contains pairs
 	 * (key,value) where the key is the attribute name and the value an Object.
+	 * By default it is a {@link CompactAttributeMap}.
 	 */
-	protected HashMap<String, Object> attributes = null;
+	protected Map<String, Object> attributes = null;
 
 	/**
 	 * Vector used when removing attributes to avoid recursive removing.
@@ -117,6 +123,195 @@ public abstract class AbstractElement implements Element {
 		this.index = index;
 	}
 
+	/**
+	 * Number of times this object has been removed from its graph and
+	 * released for reuse by an {@link ElementPool}. A reference to an element
+	 * recorded with its generation is stale once the generation changes.
+	 * 
+	 * @return The generation of this element.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Prepares a removed element for its reuse by an {@link ElementPool}. Its
+	 * attributes are dropped without event, the map being kept, and its
+	 * generation is incremented.
+	 */
+	protected void release() {
+		if (attributes != null)
+			attributes.clear();
+
+		attributesBeingRemoved = null;
+		index = -1;
+		generation++;
+	}
+
+	/**
+	 * Gives a new identifier to a released element.
+	 */
+	void recycle(String id) {
+		this.id = id;
+	}
+
+	/**
+	 * Creates the map storing the attributes of this element. It is called
+	 * the first time an attribute is stored in the map.
+	 * 
+	 * @param expectedSize
+	 *            The expected number of attributes.
+	 * @return A new empty map, by default a {@link CompactAttributeMap}.
+	 */
+	protected Map<String, Object> createAttributeMap(int expectedSize) {
+		return new CompactAttributeMap(expectedSize);
+	}
+
+	// Column storage
+
+	/**
+	 * Column storage shared by this element and the other elements of the
+	 * same kind in the graph, if any. Attributes whose key is declared in
+	 * these columns are stored there instead of in the map of this element.
+	 * 
+	 * @return The columns, or null if this element only uses its map.
+	 * @see AttributeColumns
+	 */
+	protected AttributeColumns getAttributeColumns() {
+		return null;
+	}
+
+	/**
+	 * The columns of this element, if it currently owns its index in them.
+	 */
+	private AttributeColumns columns() {
+		AttributeColumns columns = getAttributeColumns();
+
+		if (columns != null && columns.owns(this))
+			return columns;
+
+		return null;
+	}
+
+	/**
+	 * Value of an attribute, looked up first in the columns then in the map.
+	 */
+	private Object lookup(String key) {
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(key);
+
+			if (c != null && c.isSet(index))
+				return c.get(index);
+		}
+
+		if (attributes != null)
+			return attributes.get(key);
+
+		return null;
+	}
+
+	/**
+	 * Checks if an attribute exists, in the columns or in the map.
+	 */
+	private boolean contains(String key) {
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(key);
+
+			if (c != null && c.isSet(index))
+				return true;
+		}
+
+		return attributes != null && attributes.containsKey(key);
+	}
+
+	/**
+	 * Stores the value of an attribute, in its column if it exists and
+	 * accepts the value, in the map else. A previous value stored at the
+	 * other place is dropped.
+	 * 
+	 * @return The previous value.
+	 */
+	private Object store(String key, Object value) {
+		AttributeColumns columns = columns();
+		Object oldValue = null;
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(key);
+
+			if (c != null) {
+				if (c.isSet(index))
+					oldValue = c.get(index);
+
+				if (c.accepts(value)) {
+					c.set(index, value);
+
+					if (attributes != null && attributes.containsKey(key))
+						oldValue = attributes.remove(key);
+
+					return oldValue;
+				}
+
+				c.unset(index);
+			}
+		}
+
+		if (attributes == null)
+			attributes = createAttributeMap(1);
+
+		Object o = attributes.put(key, value);
+		return o != null ? o : oldValue;
+	}
+
+	/**
+	 * Stores the value of an attribute without generating any event, for the
+	 * copy of a graph into another.
+	 */
+	void storeWithNoEvent(String key, Object value) {
+		store(key, value);
+	}
+
+	/**
+	 * Removes an attribute from the columns and from the map.
+	 */
+	private void drop(String key) {
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(key);
+
+			if (c != null)
+				c.unset(index);
+		}
+
+		if (attributes != null)
+			attributes.remove(key);
+	}
+
+	/**
+	 * Keys of the attributes of this element, column keys first.
+	 */
+	private Collection<String> keys() {
+		AttributeColumns columns = columns();
+
+		if (columns == null || columns.count(index) == 0)
+			return attributes != null ? attributes.keySet() : null;
+
+		ArrayList<String> keys = new ArrayList<String>();
+
+		for (String key : columns.getKeys())
+			if (columns.get(key).isSet(index))
+				keys.add(key);
+
+		if (attributes != null)
+			keys.addAll(attributes.keySet());
+
+		return keys;
+	}
+
 	// XXX UGLY. how to create events in the abstract element ?
 	// XXX The various methods that add and remove attributes will propagate an
 	// event
@@ -152,6 +347,30 @@ public abstract class AbstractElement implements Element {
 	protected abstract void attributeChanged(AttributeChangeEvent event,
 			String attribute, Object oldValue, Object newValue);
 
+	/**
+	 * Called instead of
+	 * {@link #attributeChanged(AttributeChangeEvent, String, Object, Object)}
+	 * when a number is added or changed by {@link #setNumber(String, double)}
+	 * in a column of numbers. The default implementation boxes the values and
+	 * calls attributeChanged().
+	 * 
+	 * @param event
+	 *            The type of event, ADD or CHANGE.
+	 * @param attribute
+	 *            The attribute name that changed.
+	 * @param oldValue
+	 *            The old value of the attribute, NaN if the attribute was
+	 *            added.
+	 * @param newValue
+	 *            The new value of the attribute.
+	 */
+	protected void numberChanged(AttributeChangeEvent event, String attribute,
+			double oldValue, double newValue) {
+		attributeChanged(event, attribute,
+				event == AttributeChangeEvent.ADD ? null : (Object) oldValue,
+				newValue);
+	}
+
 	/**
 	 * @complexity O(log(n)) with n being the number of attributes of this
 	 *             element.
@@ -159,12 +378,10 @@ public abstract class AbstractElement implements Element {
 	// public Object getAttribute( String key )
 	@SuppressWarnings("all")
 	public <T> T getAttribute(String key) {
-		if (attributes != null) {
-			T value = (T) attributes.get(key);
+		T value = (T) lookup(key);
 
-			if (value != null)
-				return value;
-		}
+		if (value != null)
+			return value;
 
 		if (nullAttributesAreErrors())
 			throw new NullAttributeException(key);
@@ -181,13 +398,11 @@ public abstract class AbstractElement implements Element {
 	public <T> T getFirstAttributeOf(String... keys) {
 		Object o = null;
 
-		if (attributes != null) {
-			for (String key : keys) {
-				o = attributes.get(key);
+		for (String key : keys) {
+			o = lookup(key);
 
-				if (o != null)
-					return (T) o;
-			}
+			if (o != null)
+				return (T) o;
 		}
 
 		if (o == null && nullAttributesAreErrors())
@@ -203,12 +418,10 @@ public abstract class AbstractElement implements Element {
 	// public Object getAttribute( String key, Class<?> clazz )
 	@SuppressWarnings("all")
 	public <T> T getAttribute(String key, Class<T> clazz) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && clazz.isInstance(o))
-				return (T) o;
-		}
+		if (o != null && clazz.isInstance(o))
+			return (T) o;
 
 		if (nullAttributesAreErrors())
 			throw new NullAttributeException(key);
@@ -225,11 +438,8 @@ public abstract class AbstractElement implements Element {
 	public <T> T getFirstAttributeOf(Class<T> clazz, String... keys) {
 		Object o = null;
 
-		if (attributes == null)
-			return null;
-
 		for (String key : keys) {
-			o = attributes.get(key);
+			o = lookup(key);
 
 			if (o != null && clazz.isInstance(o))
 				return (T) o;
@@ -246,12 +456,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public String getLabel(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && o instanceof CharSequence)
-				return o.toString();
-		}
+		if (o != null && o instanceof CharSequence)
+			return o.toString();
 
 		if (nullAttributesAreErrors())
 			throw new NullAttributeException(key);
@@ -264,24 +472,31 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public double getNumber(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
-
-			if (o != null) {
-				if (o instanceof Number)
-					return ((Number) o).doubleValue();
-
-				if (o instanceof String) {
-					try {
-						return Double.parseDouble((String) o);
-					} catch (NumberFormatException e) {
-					}
-				} else if (o instanceof CharSequence) {
-					try {
-						return Double
-								.parseDouble(((CharSequence) o).toString());
-					} catch (NumberFormatException e) {
-					}
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(key);
+
+			if (c != null && c.isSet(index) && c.type() != AttributeColumns.Type.OBJECT)
+				return c.getNumber(index);
+		}
+
+		Object o = lookup(key);
+
+		if (o != null) {
+			if (o instanceof Number)
+				return ((Number) o).doubleValue();
+
+			if (o instanceof String) {
+				try {
+					return Double.parseDouble((String) o);
+				} catch (NumberFormatException e) {
+				}
+			} else if (o instanceof CharSequence) {
+				try {
+					return Double
+							.parseDouble(((CharSequence) o).toString());
+				} catch (NumberFormatException e) {
 				}
 			}
 		}
@@ -298,12 +513,10 @@ public abstract class AbstractElement implements Element {
 	 */
 	@SuppressWarnings("unchecked")
 	public ArrayList<? extends Number> getVector(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && o instanceof ArrayList)
-				return ((ArrayList<? extends Number>) o);
-		}
+		if (o != null && o instanceof ArrayList)
+			return ((ArrayList<? extends Number>) o);
 
 		if (nullAttributesAreErrors())
 			throw new NullAttributeException(key);
@@ -316,12 +529,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public Object[] getArray(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && o instanceof Object[])
-				return ((Object[]) o);
-		}
+		if (o != null && o instanceof Object[])
+			return ((Object[]) o);
 
 		if (nullAttributesAreErrors())
 			throw new NullAttributeException(key);
@@ -334,15 +545,13 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public HashMap<?, ?> getHash(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null) {
-				if (o instanceof HashMap<?, ?>)
-					return ((HashMap<?, ?>) o);
-				if (o instanceof CompoundAttribute)
-					return ((CompoundAttribute) o).toHashMap();
-			}
+		if (o != null) {
+			if (o instanceof HashMap<?, ?>)
+				return ((HashMap<?, ?>) o);
+			if (o instanceof CompoundAttribute)
+				return ((CompoundAttribute) o).toHashMap();
 		}
 
 		if (nullAttributesAreErrors())
@@ -356,10 +565,7 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasAttribute(String key) {
-		if (attributes != null)
-			return attributes.containsKey(key);
-
-		return false;
+		return contains(key);
 	}
 
 	/**
@@ -367,12 +573,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasAttribute(String key, Class<?> clazz) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null)
-				return (clazz.isInstance(o));
-		}
+		if (o != null)
+			return (clazz.isInstance(o));
 
 		return false;
 	}
@@ -382,12 +586,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasLabel(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null)
-				return (o instanceof CharSequence);
-		}
+		if (o != null)
+			return (o instanceof CharSequence);
 
 		return false;
 	}
@@ -397,12 +599,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasNumber(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null)
-				return (o instanceof Number);
-		}
+		if (o != null)
+			return (o instanceof Number);
 
 		return false;
 	}
@@ -412,12 +612,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasVector(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && o instanceof ArrayList<?>)
-				return true;
-		}
+		if (o != null && o instanceof ArrayList<?>)
+			return true;
 
 		return false;
 	}
@@ -427,12 +625,10 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasArray(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null && o instanceof Object[])
-				return true;
-		}
+		if (o != null && o instanceof Object[])
+			return true;
 
 		return false;
 	}
@@ -442,20 +638,20 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public boolean hasHash(String key) {
-		if (attributes != null) {
-			Object o = attributes.get(key);
+		Object o = lookup(key);
 
-			if (o != null
-					&& (o instanceof HashMap<?, ?> || o instanceof CompoundAttribute))
-				return true;
-		}
+		if (o != null
+				&& (o instanceof HashMap<?, ?> || o instanceof CompoundAttribute))
+			return true;
 
 		return false;
 	}
 
 	public Iterator<String> getAttributeKeyIterator() {
-		if (attributes != null)
-			return attributes.keySet().iterator();
+		Collection<String> keys = keys();
+
+		if (keys != null)
+			return keys.iterator();
 
 		return null;
 	}
@@ -465,9 +661,11 @@ public abstract class AbstractElement implements Element {
 	}
 
 	public Collection<String> getAttributeKeySet() {
-		if (attributes != null)
+		Collection<String> keys = keys();
+
+		if (keys != null)
 			return (Collection<String>) Collections
-					.unmodifiableCollection(attributes.keySet());
+					.unmodifiableCollection(keys);
 
 		return Collections.emptySet();
 	}
@@ -494,15 +692,32 @@ public abstract class AbstractElement implements Element {
 	}
 
 	public int getAttributeCount() {
+		AttributeColumns columns = columns();
+		int count = columns != null ? columns.count(index) : 0;
+
 		if (attributes != null)
-			return attributes.size();
+			count += attributes.size();
 
-		return 0;
+		return count;
 	}
 
 	// Command
 
 	public void clearAttributes() {
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			for (String key : columns.getKeys()) {
+				AttributeColumns.Column c = columns.get(key);
+
+				if (c.isSet(index)) {
+					attributeChanged(AttributeChangeEvent.REMOVE, key,
+							c.get(index), null);
+					c.unset(index);
+				}
+			}
+		}
+
 		if (attributes != null) {
 			for (Map.Entry<String, Object> entry : attributes.entrySet())
 				attributeChanged(AttributeChangeEvent.REMOVE, entry.getKey(),
@@ -513,6 +728,12 @@ public abstract class AbstractElement implements Element {
 	}
 
 	protected void clearAttributesWithNoEvent() {
+		AttributeColumns columns = columns();
+
+		if (columns != null)
+			for (String key : columns.getKeys())
+				columns.get(key).unset(index);
+
 		if (attributes != null)
 			attributes.clear();
 	}
@@ -522,10 +743,6 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public void addAttribute(String attribute, Object... values) {
-		if (attributes == null)
-			attributes = new HashMap<String, Object>(1);
-
-		Object oldValue;
 		Object value;
 
 		if (values.length == 0)
@@ -535,12 +752,19 @@ public abstract class AbstractElement implements Element {
 		else
 			value = values;
 
+		put(attribute, value);
+	}
+
+	/**
+	 * Stores an attribute and sends the corresponding event.
+	 */
+	private void put(String attribute, Object value) {
 		AttributeChangeEvent event = AttributeChangeEvent.ADD;
 
-		if (attributes.containsKey(attribute)) // In case the value is null,
+		if (contains(attribute)) // In case the value is null,
 			event = AttributeChangeEvent.CHANGE; // but the attribute exists.
 
-		oldValue = attributes.put(attribute, value);
+		Object oldValue = store(attribute, value);
 		attributeChanged(event, attribute, oldValue, value);
 	}
 
@@ -560,13 +784,55 @@ public abstract class AbstractElement implements Element {
 		addAttribute(attribute, values);
 	}
 
+	/**
+	 * If the attribute is stored in a column of numbers, the value is written
+	 * in place and sent with {@link #numberChanged}, without boxing.
+	 * Otherwise the value is boxed and stored as with
+	 * {@link #setAttribute(String, Object...)}.
+	 * 
+	 * @complexity O(1) if the attribute is stored in a column of numbers.
+	 */
+	public void setNumber(String attribute, double value) {
+		AttributeColumns columns = columns();
+
+		if (columns != null) {
+			AttributeColumns.Column c = columns.get(attribute);
+
+			if (c != null && c.type() == AttributeColumns.Type.DOUBLE
+					&& (attributes == null || !attributes.containsKey(attribute))) {
+				if (c.isSet(index)) {
+					double oldValue = c.getNumber(index);
+					c.setNumber(index, value);
+					numberChanged(AttributeChangeEvent.CHANGE, attribute,
+							oldValue, value);
+				} else {
+					c.setNumber(index, value);
+					numberChanged(AttributeChangeEvent.ADD, attribute,
+							Double.NaN, value);
+				}
+
+				return;
+			}
+		}
+
+		put(attribute, Double.valueOf(value));
+	}
+
+	/**
+	 * @complexity O(log(n)) with n being the number of attributes of this
+	 *             element.
+	 */
+	public void setNumbers(String attribute, double... values) {
+		put(attribute, values);
+	}
+
 	/**
 	 * @complexity O(log(n)) with n being the number of attributes of this
 	 *             element.
 	 */
 	public void addAttributes(Map<String, Object> attributes) {
-		if (this.attributes == null)
-			this.attributes = new HashMap<String, Object>(attributes.size());
+		if (this.attributes == null && getAttributeColumns() == null)
+			this.attributes = createAttributeMap(attributes.size());
 
 		Iterator<String> i = attributes.keySet().iterator();
 		Iterator<Object> j = attributes.values().iterator();
@@ -580,7 +846,7 @@ public abstract class AbstractElement implements Element {
 	 *             element.
 	 */
 	public void removeAttribute(String attribute) {
-		if (attributes != null) {
+		if (attributes != null || columns() != null) {
 			//
 			// 'attributesBeingRemoved' is created only if this is required.
 			//
@@ -590,16 +856,16 @@ public abstract class AbstractElement implements Element {
 			//
 			// Avoid recursive calls when synchronizing graphs.
 			//
-			if (attributes.containsKey(attribute)
+			if (contains(attribute)
 					&& !attributesBeingRemoved.contains(attribute)) {
 				attributesBeingRemoved.add(attribute);
 
 				attributeChanged(AttributeChangeEvent.REMOVE, attribute,
-						attributes.get(attribute), null);
+						lookup(attribute), null);
 
 				attributesBeingRemoved
 						.remove(attributesBeingRemoved.size() - 1);
-				attributes.remove(attribute);
+				drop(attribute);
 			}
 		}
 	}
@@ -39,6 +39,7 @@ import org.graphstream.graph.Graph;
 import org.graphstream.graph.IdAlreadyInUseException;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.NodeFactory;
+import org.graphstream.graph.SplittableIterator;
 import org.graphstream.stream.AttributeSink;
 import org.graphstream.stream.ElementSink;
 import org.graphstream.stream.GraphParseException;
@@ -90,6 +91,10 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 	private boolean strictChecking;
 	private boolean autoCreate;
 	GraphListeners listeners;
+	AttributeColumns nodeColumns;
+	AttributeColumns edgeColumns;
+	String weightAttribute;
+	AttributeColumns.Column weightColumn;
 	private NodeFactory<? extends AbstractNode> nodeFactory;
 	private EdgeFactory<? extends AbstractEdge> edgeFactory;
 
@@ -133,6 +138,7 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 	@Override
 	protected void attributeChanged(AttributeChangeEvent event,
 			String attribute, Object oldValue, Object newValue) {
+		attributeChangedCallback(this, event, attribute, oldValue, newValue);
 		listeners.sendAttributeChangedEvent(id, SourceBase.ElementType.GRAPH,
 				attribute, event, oldValue, newValue);
 	}
@@ -228,6 +234,26 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 		};
 	}
 
+	/**
+	 * This implementation splits the range of indices and uses
+	 * {@link #getNode(int)}.
+	 * 
+	 * @see org.graphstream.graph.Graph#nodes()
+	 */
+	public <T extends Node> SplittableIterator<T> nodes() {
+		return new NodeRange<T>(0, getNodeCount());
+	}
+
+	/**
+	 * This implementation splits the range of indices and uses
+	 * {@link #getEdge(int)}.
+	 * 
+	 * @see org.graphstream.graph.Graph#edges()
+	 */
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new EdgeRange<T>(0, getEdgeCount());
+	}
+
 	/**
 	 * This implementation returns {@link #getNodeIterator()}
 	 * 
@@ -288,6 +314,14 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 		this.step = time;
 	}
 
+	public void beginTransaction() {
+		listeners.beginTransaction();
+	}
+
+	public void commit() {
+		listeners.commit();
+	}
+
 	// adding and removing elements
 
 	/*
@@ -556,6 +590,21 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 		return removeEdge(edge);
 	}
 
+	// *** Memory ***
+
+	/**
+	 * Estimates the heap retained by this graph, split by category: element
+	 * objects, identifiers, indices, edge arrays, attributes and sinks.
+	 * 
+	 * @return A new report.
+	 * @complexity O(n + m + a) with n the number of nodes, m the number of
+	 *             edges and a the number of attributes.
+	 * @see MemoryReport
+	 */
+	public MemoryReport getMemoryReport() {
+		return new MemoryReport(this);
+	}
+
 	// *** Sinks, sources etc. ***
 
 	/*
@@ -840,12 +889,152 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 	 */
 	protected abstract void removeEdgeCallback(AbstractEdge edge);
 
+	/**
+	 * This method is called once a node has been completely removed, that is
+	 * after all the callbacks and events concerning its removal. Subclasses
+	 * recycling their elements can reuse the node from here on. The default
+	 * implementation does nothing.
+	 * 
+	 * @param node
+	 *            the removed node
+	 */
+	protected void releaseNode(AbstractNode node) {
+	}
+
+	/**
+	 * This method is called once an edge has been completely removed, that is
+	 * after the callbacks of the graph and of both its end nodes. Subclasses
+	 * recycling their elements can reuse the edge from here on. The default
+	 * implementation does nothing.
+	 * 
+	 * @param edge
+	 *            the removed edge
+	 */
+	protected void releaseEdge(AbstractEdge edge) {
+	}
+
 	/**
 	 * This method is automatically called when the graph is cleared. Subclasses
 	 * must remove all the nodes and all the edges from their data structures.
 	 */
 	protected abstract void clearCallback();
 
+	/**
+	 * This method is automatically called when an attribute of this graph, of
+	 * one of its nodes or of one of its edges is added, changed or removed,
+	 * before the corresponding event is sent. Subclasses keeping their own
+	 * copy of the attributes can use it. The default implementation does
+	 * nothing.
+	 * 
+	 * @param element
+	 *            the graph, node or edge whose attribute changed
+	 * @param event
+	 *            the kind of change
+	 * @param attribute
+	 *            the attribute key
+	 * @param oldValue
+	 *            the previous value, null for an addition
+	 * @param newValue
+	 *            the new value, null for a removal
+	 */
+	protected void attributeChangedCallback(AbstractElement element,
+			AttributeChangeEvent event, String attribute, Object oldValue,
+			Object newValue) {
+	}
+
+	/**
+	 * Like
+	 * {@link #attributeChangedCallback(AbstractElement, AttributeChangeEvent, String, Object, Object)}
+	 * for the numbers set in a column by
+	 * {@link AbstractElement#setNumber(String, double)}. The default
+	 * implementation does nothing, subclasses overriding
+	 * attributeChangedCallback() should override this one too.
+	 * 
+	 * @param element
+	 *            the node or edge whose attribute changed
+	 * @param event
+	 *            the kind of change, ADD or CHANGE
+	 * @param attribute
+	 *            the attribute key
+	 * @param oldValue
+	 *            the previous value, NaN for an addition
+	 * @param newValue
+	 *            the new value
+	 */
+	protected void numberChangedCallback(AbstractElement element,
+			AttributeChangeEvent event, String attribute, double oldValue,
+			double newValue) {
+	}
+
+	// *** Edge weights ***
+
+	/**
+	 * Designates the edge attribute giving the weight of the edges, read by
+	 * {@link #edgeWeight(int)}. Graphs able to store attributes in columns
+	 * store this one in a column of numbers, if it is not already declared,
+	 * so that the weights are read from an array indexed by edge index. The
+	 * column is the storage of the attribute, it is therefore always up to
+	 * date.
+	 * 
+	 * @param key
+	 *            The attribute key, or null if the edges are not weighted.
+	 */
+	public void setWeightAttribute(String key) {
+		weightAttribute = key;
+		weightColumn = key == null ? null : declareWeightColumn(key);
+	}
+
+	/**
+	 * The edge attribute giving the weight of the edges.
+	 * 
+	 * @return The attribute key, or null if no attribute was designated.
+	 */
+	public String getWeightAttribute() {
+		return weightAttribute;
+	}
+
+	/**
+	 * Weight of an edge. It is the value of the weight attribute of the edge
+	 * as a number, or 1 if the edge has no numeric weight or if no weight
+	 * attribute was designated.
+	 * 
+	 * @param index
+	 *            Index of the edge.
+	 * @return The weight.
+	 * @complexity O(1) when the weight is stored in a column.
+	 * @see #setWeightAttribute(String)
+	 */
+	public double edgeWeight(int index) {
+		AttributeColumns.Column c = weightColumn;
+
+		if (c != null && c.isSet(index)) {
+			if (c.type() != AttributeColumns.Type.OBJECT)
+				return c.getNumber(index);
+
+			// a column declared before may hold other objects
+			Object w = c.get(index);
+			return w instanceof Number ? ((Number) w).doubleValue() : 1;
+		}
+
+		if (weightAttribute == null)
+			return 1;
+
+		Edge edge = getEdge(index);
+
+		return edge.hasNumber(weightAttribute) ? edge
+				.getNumber(weightAttribute) : 1;
+	}
+
+	/**
+	 * Makes sure the weight attribute is stored in a column, if the graph
+	 * supports columns. The default implementation does nothing.
+	 * 
+	 * @return The column storing the weights, or null.
+	 */
+	AttributeColumns.Column declareWeightColumn(String key) {
+		return null;
+	}
+
 	// *** _ methods ***
 
 	// Why do we pass both the ids and the references of the endpoints here?
@@ -945,8 +1134,8 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 	 * @param node
 	 *            the node to be removed
 	 * @param graphCallback
-	 *            if {@code false}, {@code removeNodeCallback(node)} is not
-	 *            called
+	 *            if {@code false}, {@code removeNodeCallback(node)} and
+	 *            {@link #releaseNode(AbstractNode)} are not called
 	 */
 	protected void removeNode(AbstractNode node, boolean graphCallback) {
 		if (node == null)
@@ -955,8 +1144,10 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 		removeAllEdges(node);
 		listeners.sendNodeRemoved(node.getId());
 
-		if (graphCallback)
+		if (graphCallback) {
 			removeNodeCallback(node);
+			releaseNode(node);
+		}
 	}
 
 	/**
@@ -977,7 +1168,9 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 	 * @param targetCallback
 	 *            if {@code false},
 	 *            {@link AbstractNode#removeEdgeCallback(AbstractEdge)} is not
-	 *            called for the target node of the edge
+	 *            called for the target node of the edge. The edge is
+	 *            released with {@link #releaseEdge(AbstractEdge)} only if
+	 *            all the callbacks are called
 	 */
 	protected void removeEdge(AbstractEdge edge, boolean graphCallback,
 			boolean sourceCallback, boolean targetCallback) {
@@ -997,6 +1190,10 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 
 		if (graphCallback)
 			removeEdgeCallback(edge);
+
+		// iterators removing the edge by themselves release it when done
+		if (graphCallback && sourceCallback && targetCallback)
+			releaseEdge(edge);
 	}
 
 	class GraphReplayController extends SourceBase implements
@@ -1025,8 +1222,7 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 			for (String key : getAttributeKeySet())
 				sendGraphAttributeAdded(sourceId, key, getAttribute(key));
 
-			for (int i = 0; i < getNodeCount(); i++) {
-				Node node = getNode(i);
+			for (Node node : getEachNode()) {
 				String nodeId = node.getId();
 
 				sendNodeAdded(sourceId, nodeId);
@@ -1037,8 +1233,7 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 								node.getAttribute(key));
 			}
 
-			for (int i = 0; i < getEdgeCount(); i++) {
-				Edge edge = getEdge(i);
+			for (Edge edge : getEachEdge()) {
 				String edgeId = edge.getId();
 
 				sendEdgeAdded(sourceId, edgeId, edge.getNode0().getId(), edge
@@ -1051,4 +1246,36 @@ public abstract class AbstractGraph extends AbstractElement implements Graph,
 			}
 		}
 	}
+
+	private class NodeRange<T extends Node> extends SplittableIterator<T> {
+		NodeRange(int begin, int end) {
+			super(begin, end);
+		}
+
+		@Override
+		protected T get(int index) {
+			return getNode(index);
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new NodeRange<T>(begin, end);
+		}
+	}
+
+	private class EdgeRange<T extends Edge> extends SplittableIterator<T> {
+		EdgeRange(int begin, int end) {
+			super(begin, end);
+		}
+
+		@Override
+		protected T get(int index) {
+			return getEdge(index);
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new EdgeRange<T>(begin, end);
+		}
+	}
 }
@@ -42,6 +42,7 @@ import org.graphstream.graph.DepthFirstIterator;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
 import org.graphstream.stream.SourceBase;
 
 /**
@@ -91,11 +92,21 @@ public abstract class AbstractNode extends AbstractElement implements Node {
 	@Override
 	protected void attributeChanged(AttributeChangeEvent event,
 			String attribute, Object oldValue, Object newValue) {
+		graph.attributeChangedCallback(this, event, attribute, oldValue,
+				newValue);
 		graph.listeners.sendAttributeChangedEvent(id,
 				SourceBase.ElementType.NODE, attribute, event, oldValue,
 				newValue);
 	}
 
+	@Override
+	protected void numberChanged(AttributeChangeEvent event, String attribute,
+			double oldValue, double newValue) {
+		graph.numberChangedCallback(this, event, attribute, oldValue, newValue);
+		graph.listeners.sendNumberChangedEvent(id, SourceBase.ElementType.NODE,
+				attribute, event, oldValue, newValue);
+	}
+
 	/**
 	 * @return The id of the parent graph
 	 * @see org.graphstream.graph.implementations.AbstractElement#myGraphId()
@@ -123,6 +134,16 @@ public abstract class AbstractNode extends AbstractElement implements Node {
 		return graph.nullAttributesAreErrors();
 	}
 
+	/**
+	 * This implementation returns the node columns of the parent graph
+	 * 
+	 * @see org.graphstream.graph.implementations.AbstractElement#getAttributeColumns()
+	 */
+	@Override
+	protected AttributeColumns getAttributeColumns() {
+		return graph.nodeColumns;
+	}
+
 	// *** Inherited from Node ***
 
 	/**
@@ -481,6 +502,26 @@ public abstract class AbstractNode extends AbstractElement implements Node {
 		};
 	}
 
+	/**
+	 * This implementation splits the range of indices and uses
+	 * {@link #getEdge(int)}.
+	 * 
+	 * @see org.graphstream.graph.Node#edges()
+	 */
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new EdgeRange<T>(0, getDegree());
+	}
+
+	/**
+	 * This implementation splits the range of indices and uses
+	 * {@link #getEdge(int)}.
+	 * 
+	 * @see org.graphstream.graph.Node#neighborNodes()
+	 */
+	public <T extends Node> SplittableIterator<T> neighborNodes() {
+		return new NeighborRange<T>(0, getDegree());
+	}
+
 	// breadth- and depth-first iterator
 
 	/**
@@ -596,4 +637,36 @@ public abstract class AbstractNode extends AbstractElement implements Node {
 	public boolean isIncidentEdge(Edge e) {
 		return e.getSourceNode() == this || e.getTargetNode() == this;
 	}
+
+	private class EdgeRange<T extends Edge> extends SplittableIterator<T> {
+		EdgeRange(int begin, int end) {
+			super(begin, end);
+		}
+
+		@Override
+		protected T get(int index) {
+			return getEdge(index);
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new EdgeRange<T>(begin, end);
+		}
+	}
+
+	private class NeighborRange<T extends Node> extends SplittableIterator<T> {
+		NeighborRange(int begin, int end) {
+			super(begin, end);
+		}
+
+		@Override
+		protected T get(int index) {
+			return getEdge(index).getOpposite(AbstractNode.this);
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new NeighborRange<T>(begin, end);
+		}
+	}
 }
@@ -38,9 +38,11 @@ import java.util.NoSuchElementException;
 
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.EdgeFactory;
+import org.graphstream.graph.ElementNotFoundException;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.NodeFactory;
+import org.graphstream.graph.SplittableIterator;
 
 /**
  * <p>
@@ -67,9 +69,36 @@ public class AdjacencyListGraph extends AbstractGraph {
 	protected AbstractNode[] nodeArray;
 	protected AbstractEdge[] edgeArray;
 
+	/**
+	 * Number of node and edge indices in use. When indices are stable, this
+	 * includes the indices of the removed elements not compacted yet.
+	 */
 	protected int nodeCount;
 	protected int edgeCount;
 
+	/**
+	 * Are the indices of the elements kept when other elements are removed ?
+	 */
+	boolean stableIndices;
+
+	/**
+	 * Number of indices of removed nodes and edges, below nodeCount and
+	 * edgeCount, waiting for a compaction.
+	 */
+	int nodeHoles, edgeHoles;
+
+	/**
+	 * Stable handles of the nodes and edges, created on the first use of the
+	 * handle methods.
+	 */
+	ElementHandles nodeHandles;
+	ElementHandles edgeHandles;
+
+	/**
+	 * Pool receiving the removed elements, if any.
+	 */
+	ElementPool pool;
+
 	// *** Constructors ***
 
 	/**
@@ -166,6 +195,11 @@ public class AdjacencyListGraph extends AbstractGraph {
 		}
 		edgeArray[edgeCount] = edge;
 		edge.setIndex(edgeCount++);
+
+		if (edgeColumns != null)
+			edgeColumns.attach(edge);
+		if (edgeHandles != null)
+			edgeHandles.add(edge);
 	}
 
 	@Override
@@ -179,33 +213,109 @@ public class AdjacencyListGraph extends AbstractGraph {
 		}
 		nodeArray[nodeCount] = node;
 		node.setIndex(nodeCount++);
+
+		if (nodeColumns != null)
+			nodeColumns.attach(node);
+		if (nodeHandles != null)
+			nodeHandles.add(node);
 	}
 
 	@Override
 	protected void removeEdgeCallback(AbstractEdge edge) {
 		edgeMap.remove(edge.getId());
 		int i = edge.getIndex();
-		edgeArray[i] = edgeArray[--edgeCount];
-		edgeArray[i].setIndex(i);
-		edgeArray[edgeCount] = null;
+		int last = stableIndices ? i : edgeCount - 1;
+
+		if (edgeColumns != null) {
+			edgeColumns.detach(edge);
+			edgeColumns.move(last, i);
+		}
+
+		if (edgeHandles != null)
+			edgeHandles.remove(i, last);
+
+		if (stableIndices) {
+			edgeArray[i] = null;
+			edgeHoles++;
+
+			while (edgeCount > 0 && edgeArray[edgeCount - 1] == null) {
+				edgeCount--;
+				edgeHoles--;
+			}
+		} else {
+			edgeArray[i] = edgeArray[--edgeCount];
+			edgeArray[i].setIndex(i);
+			edgeArray[edgeCount] = null;
+		}
 	}
 
 	@Override
 	protected void removeNodeCallback(AbstractNode node) {
 		nodeMap.remove(node.getId());
 		int i = node.getIndex();
-		nodeArray[i] = nodeArray[--nodeCount];
-		nodeArray[i].setIndex(i);
-		nodeArray[nodeCount] = null;
+		int last = stableIndices ? i : nodeCount - 1;
+
+		if (nodeColumns != null) {
+			nodeColumns.detach(node);
+			nodeColumns.move(last, i);
+		}
+
+		if (nodeHandles != null)
+			nodeHandles.remove(i, last);
+
+		if (stableIndices) {
+			nodeArray[i] = null;
+			nodeHoles++;
+
+			while (nodeCount > 0 && nodeArray[nodeCount - 1] == null) {
+				nodeCount--;
+				nodeHoles--;
+			}
+		} else {
+			nodeArray[i] = nodeArray[--nodeCount];
+			nodeArray[i].setIndex(i);
+			nodeArray[nodeCount] = null;
+		}
+	}
+
+	@Override
+	protected void releaseNode(AbstractNode node) {
+		if (pool != null)
+			pool.release(node);
+	}
+
+	@Override
+	protected void releaseEdge(AbstractEdge edge) {
+		if (pool != null)
+			pool.release(edge);
 	}
 
 	@Override
 	protected void clearCallback() {
+		if (pool != null) {
+			for (int i = 0; i < edgeCount; i++)
+				if (edgeArray[i] != null)
+					pool.release(edgeArray[i]);
+			for (int i = 0; i < nodeCount; i++)
+				if (nodeArray[i] != null)
+					pool.release(nodeArray[i]);
+		}
+
 		nodeMap.clear();
 		edgeMap.clear();
 		Arrays.fill(nodeArray, 0, nodeCount, null);
 		Arrays.fill(edgeArray, 0, edgeCount, null);
 		nodeCount = edgeCount = 0;
+		nodeHoles = edgeHoles = 0;
+
+		if (nodeColumns != null)
+			nodeColumns.clear();
+		if (edgeColumns != null)
+			edgeColumns.clear();
+		if (nodeHandles != null)
+			nodeHandles.clear();
+		if (edgeHandles != null)
+			edgeHandles.clear();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -214,6 +324,12 @@ public class AdjacencyListGraph extends AbstractGraph {
 		return (T) edgeMap.get(id);
 	}
 
+	/**
+	 * {@inheritDoc} When indices are stable, this is the edge at the given
+	 * index or null if this edge has been removed.
+	 * 
+	 * @see #setStableIndices(boolean)
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Edge> T getEdge(int index) {
@@ -223,17 +339,41 @@ public class AdjacencyListGraph extends AbstractGraph {
 		return (T) edgeArray[index];
 	}
 
+	/**
+	 * {@inheritDoc} When indices are stable, this is the upper bound of the
+	 * edge indices, which counts the holes left by removed edges, so that
+	 * loops from 0 to this count reach all the edges.
+	 * 
+	 * @see #getLiveEdgeCount()
+	 */
 	@Override
 	public int getEdgeCount() {
 		return edgeCount;
 	}
 
+	/**
+	 * Number of edges in the graph, without the holes left by removed edges
+	 * when indices are stable.
+	 * 
+	 * @return The number of edges.
+	 * @see #setStableIndices(boolean)
+	 */
+	public int getLiveEdgeCount() {
+		return edgeCount - edgeHoles;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Node> T getNode(String id) {
 		return (T) nodeMap.get(id);
 	}
 
+	/**
+	 * {@inheritDoc} When indices are stable, this is the node at the given
+	 * index or null if this node has been removed.
+	 * 
+	 * @see #setStableIndices(boolean)
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Node> T getNode(int index) {
@@ -243,11 +383,813 @@ public class AdjacencyListGraph extends AbstractGraph {
 		return (T) nodeArray[index];
 	}
 
+	/**
+	 * {@inheritDoc} When indices are stable, this is the upper bound of the
+	 * node indices, which counts the holes left by removed nodes, so that
+	 * loops from 0 to this count reach all the nodes.
+	 * 
+	 * @see #getLiveNodeCount()
+	 */
 	@Override
 	public int getNodeCount() {
 		return nodeCount;
 	}
 
+	/**
+	 * Number of nodes in the graph, without the holes left by removed nodes
+	 * when indices are stable.
+	 * 
+	 * @return The number of nodes.
+	 * @see #setStableIndices(boolean)
+	 */
+	public int getLiveNodeCount() {
+		return nodeCount - nodeHoles;
+	}
+
+	/**
+	 * Builds a compressed, read-only copy of the structure of this graph. The
+	 * snapshot gives access to the adjacency of each node through primitive
+	 * indices only, which is much more cache friendly than following node and
+	 * edge references when the whole graph is swept several times.
+	 *
+	 * @return A new snapshot of the current structure.
+	 * @complexity O(n + m) with n the number of nodes and m the number of
+	 *             edges.
+	 * @see AdjacencySnapshot
+	 */
+	public AdjacencySnapshot snapshot() {
+		return new AdjacencySnapshot(this);
+	}
+
+	// *** Handles ***
+
+	/**
+	 * The node handle table, created and filled on first use.
+	 */
+	ElementHandles nodeHandles() {
+		if (nodeHandles == null) {
+			nodeHandles = new ElementHandles(nodeArray.length);
+
+			for (int i = 0; i < nodeCount; i++)
+				if (nodeArray[i] != null)
+					nodeHandles.add(nodeArray[i]);
+		}
+
+		return nodeHandles;
+	}
+
+	/**
+	 * The edge handle table, created and filled on first use.
+	 */
+	ElementHandles edgeHandles() {
+		if (edgeHandles == null) {
+			edgeHandles = new ElementHandles(edgeArray.length);
+
+			for (int i = 0; i < edgeCount; i++)
+				if (edgeArray[i] != null)
+					edgeHandles.add(edgeArray[i]);
+		}
+
+		return edgeHandles;
+	}
+
+	private AbstractNode nodeOfHandle(int handle) {
+		AbstractNode node = (AbstractNode) nodeHandles().get(handle);
+
+		if (node == null)
+			throw new ElementNotFoundException("Node handle " + handle
+					+ " is not in use");
+
+		return node;
+	}
+
+	private AbstractEdge edgeOfHandle(int handle) {
+		AbstractEdge edge = (AbstractEdge) edgeHandles().get(handle);
+
+		if (edge == null)
+			throw new ElementNotFoundException("Edge handle " + handle
+					+ " is not in use");
+
+		return edge;
+	}
+
+	/**
+	 * <p>
+	 * Handle of a node. Unlike its index, the handle of a node does not
+	 * change when other elements are removed. It can be used with the handle
+	 * methods of this graph to avoid looking nodes up by identifier in hot
+	 * loops.
+	 * </p>
+	 * 
+	 * <p>
+	 * Handles of removed nodes are reused for the next nodes added, so a
+	 * handle should not be kept after its node is removed. Handles are
+	 * maintained only once one of the handle methods has been called.
+	 * </p>
+	 * 
+	 * @param node
+	 *            A node of this graph.
+	 * @return The handle of the node, or -1 if the node is not in this graph.
+	 */
+	public int getNodeHandle(Node node) {
+		int i = node.getIndex();
+
+		if (i < 0 || i >= nodeCount || nodeArray[i] != node)
+			return -1;
+
+		return nodeHandles().handleOf[i];
+	}
+
+	/**
+	 * Handle of a node.
+	 * 
+	 * @param id
+	 *            Identifier of the node.
+	 * @return The handle of the node, or -1 if there is no such node.
+	 * @see #getNodeHandle(Node)
+	 */
+	public int getNodeHandle(String id) {
+		AbstractNode node = nodeMap.get(id);
+		return node == null ? -1 : getNodeHandle(node);
+	}
+
+	/**
+	 * Handle of an edge. Like node handles, edge handles do not change when
+	 * other elements are removed.
+	 * 
+	 * @param edge
+	 *            An edge of this graph.
+	 * @return The handle of the edge, or -1 if the edge is not in this graph.
+	 * @see #getNodeHandle(Node)
+	 */
+	public int getEdgeHandle(Edge edge) {
+		int i = edge.getIndex();
+
+		if (i < 0 || i >= edgeCount || edgeArray[i] != edge)
+			return -1;
+
+		return edgeHandles().handleOf[i];
+	}
+
+	/**
+	 * Node having a given handle.
+	 * 
+	 * @param handle
+	 *            A node handle.
+	 * @return The node, or null if the handle is not in use.
+	 * @complexity O(1)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Node> T getNodeByHandle(int handle) {
+		return (T) nodeHandles().get(handle);
+	}
+
+	/**
+	 * Edge having a given handle.
+	 * 
+	 * @param handle
+	 *            An edge handle.
+	 * @return The edge, or null if the handle is not in use.
+	 * @complexity O(1)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Edge> T getEdgeByHandle(int handle) {
+		return (T) edgeHandles().get(handle);
+	}
+
+	/**
+	 * Adds a node and returns its handle.
+	 * 
+	 * @param id
+	 *            Identifier of the node.
+	 * @return The handle of the new node, or of the existing node with the
+	 *         same identifier if strict checking is disabled.
+	 * @see #addNode(String)
+	 */
+	public int addNodeHandle(String id) {
+		Node node = addNode(id);
+		return getNodeHandle(node);
+	}
+
+	/**
+	 * Adds an edge between two nodes given by their handles and returns its
+	 * handle.
+	 * 
+	 * @param id
+	 *            Identifier of the edge.
+	 * @param from
+	 *            Handle of the source node.
+	 * @param to
+	 *            Handle of the target node.
+	 * @param directed
+	 *            True if the edge is directed.
+	 * @return The handle of the edge, or -1 if the edge was not added and
+	 *         strict checking is disabled.
+	 * @throws ElementNotFoundException
+	 *             If a handle is not in use.
+	 * @see #addEdge(String, Node, Node, boolean)
+	 */
+	public int addEdgeHandle(String id, int from, int to, boolean directed) {
+		Edge edge = addEdge(id, nodeOfHandle(from), nodeOfHandle(to), directed);
+		return edge == null ? -1 : getEdgeHandle(edge);
+	}
+
+	/**
+	 * Degree of a node given by its handle.
+	 * 
+	 * @param node
+	 *            A node handle.
+	 * @return The degree of the node.
+	 * @throws ElementNotFoundException
+	 *             If the handle is not in use.
+	 * @complexity O(1)
+	 */
+	public int degree(int node) {
+		return nodeOfHandle(node).getDegree();
+	}
+
+	/**
+	 * An edge between two nodes given by their handles.
+	 * 
+	 * @param node1
+	 *            A node handle.
+	 * @param node2
+	 *            Another node handle.
+	 * @return The handle of an edge between the two nodes, or -1 if there is
+	 *         none.
+	 * @throws ElementNotFoundException
+	 *             If a handle is not in use.
+	 * @complexity The same as {@link Node#getEdgeBetween(Node)}, without
+	 *             looking up any identifier.
+	 * @see Node#getEdgeBetween(Node)
+	 */
+	public int edgeBetween(int node1, int node2) {
+		Edge edge = nodeOfHandle(node1).getEdgeBetween(nodeOfHandle(node2));
+		return edge == null ? -1 : edgeHandles().handleOf[edge.getIndex()];
+	}
+
+	/**
+	 * The node at the other end of an edge.
+	 * 
+	 * @param edge
+	 *            An edge handle.
+	 * @param node
+	 *            Handle of one of the end points of the edge.
+	 * @return The handle of the other end point, or -1 if the node is not an
+	 *         end point of the edge.
+	 * @throws ElementNotFoundException
+	 *             If a handle is not in use.
+	 * @complexity O(1)
+	 * @see Edge#getOpposite(Node)
+	 */
+	public int opposite(int edge, int node) {
+		Node opposite = edgeOfHandle(edge).getOpposite(nodeOfHandle(node));
+		return opposite == null ? -1
+				: nodeHandles().handleOf[opposite.getIndex()];
+	}
+
+	// *** Bulk loading ***
+
+	/**
+	 * Creates a builder able to load many nodes and edges in this graph much
+	 * faster than {@link #addNode(String)} and
+	 * {@link #addEdge(String, String, String)}, by sizing the storage once
+	 * and by not sending events.
+	 * 
+	 * @return A new builder for this graph.
+	 * @see BulkBuilder
+	 */
+	public BulkBuilder bulk() {
+		return new BulkBuilder(this);
+	}
+
+	/**
+	 * Makes sure that the node storage of this graph can hold a given number
+	 * of nodes without being resized.
+	 * 
+	 * @param capacity
+	 *            The expected number of nodes.
+	 * @complexity O(n) with n the number of nodes if the storage has to
+	 *             grow, O(1) else.
+	 */
+	public void ensureNodeCapacity(int capacity) {
+		if (capacity <= nodeArray.length)
+			return;
+
+		nodeArray = Arrays.copyOf(nodeArray, capacity);
+
+		HashMap<String, AbstractNode> map = new HashMap<String, AbstractNode>(
+				4 * capacity / 3 + 1);
+		map.putAll(nodeMap);
+		nodeMap = map;
+
+		if (nodeColumns != null)
+			nodeColumns.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Makes sure that the edge storage of this graph can hold a given number
+	 * of edges without being resized.
+	 * 
+	 * @param capacity
+	 *            The expected number of edges.
+	 * @complexity O(m) with m the number of edges if the storage has to
+	 *             grow, O(1) else.
+	 */
+	public void ensureEdgeCapacity(int capacity) {
+		if (capacity <= edgeArray.length)
+			return;
+
+		edgeArray = Arrays.copyOf(edgeArray, capacity);
+
+		HashMap<String, AbstractEdge> map = new HashMap<String, AbstractEdge>(
+				4 * capacity / 3 + 1);
+		map.putAll(edgeMap);
+		edgeMap = map;
+
+		if (edgeColumns != null)
+			edgeColumns.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Tells if {@link Graphs#clone(Graph, boolean)} and
+	 * {@link Graphs#merge(Graph...)} may fill a graph of this class by writing
+	 * its storage directly. This is not the case of classes keeping a state
+	 * that depends on the callbacks, since they are not called. By default,
+	 * this is only allowed for the graph classes of this package that do not
+	 * redefine the callbacks. Subclasses whose callbacks do not matter to a
+	 * copy can redefine this method.
+	 * 
+	 * @return True if the storage of this graph can be copied directly.
+	 */
+	protected boolean allowsStorageCopy() {
+		Class<?> c = getClass();
+		return c == AdjacencyListGraph.class || c == SingleGraph.class
+				|| c == MultiGraph.class || c == DefaultGraph.class;
+	}
+
+	// *** Element pool ***
+
+	/**
+	 * Recycles the nodes and edges removed from this graph through a pool.
+	 * The node and edge factories of the graph are wrapped by the pool, so
+	 * they must be set before. A pool serves only one graph.
+	 * 
+	 * @param pool
+	 *            The pool, or null to stop recycling elements.
+	 * @see ElementPool
+	 */
+	public void setElementPool(ElementPool pool) {
+		if (this.pool != null)
+			this.pool.detach(this);
+
+		if (pool != null)
+			pool.attach(this);
+
+		this.pool = pool;
+	}
+
+	/**
+	 * The pool recycling the elements removed from this graph.
+	 * 
+	 * @return The pool or null if removed elements are not recycled.
+	 */
+	public ElementPool getElementPool() {
+		return pool;
+	}
+
+	// *** Attribute columns ***
+
+	/**
+	 * Stores the values of a node attribute in a column instead of in the map
+	 * of each node. This saves a lot of memory on big graphs where most of the
+	 * nodes carry the same attributes, and numeric values stored in a
+	 * {@link AttributeColumns.Type#DOUBLE} or
+	 * {@link AttributeColumns.Type#INT} column are not boxed. The attribute
+	 * is still read and written through the usual methods of the nodes and
+	 * events are generated as usual. Values already set on the nodes are
+	 * moved to the column.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @param type
+	 *            The type of the values. Values of another type are kept in
+	 *            the map of the nodes.
+	 * @complexity O(n) with n the number of nodes.
+	 * @see AttributeColumns
+	 */
+	public void declareNodeAttribute(String key, AttributeColumns.Type type) {
+		if (nodeColumns == null) {
+			nodeColumns = new AttributeColumns(nodeArray.length);
+
+			for (int i = 0; i < nodeCount; i++)
+				if (nodeArray[i] != null)
+					nodeColumns.attach(nodeArray[i]);
+		}
+
+		if (nodeColumns.declare(key, type))
+			for (int i = 0; i < nodeCount; i++)
+				if (nodeArray[i] != null)
+					nodeColumns.migrate(nodeArray[i], key);
+	}
+
+	/**
+	 * Stores the values of an edge attribute in a column instead of in the
+	 * map of each edge.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @param type
+	 *            The type of the values. Values of another type are kept in
+	 *            the map of the edges.
+	 * @complexity O(m) with m the number of edges.
+	 * @see #declareNodeAttribute(String, AttributeColumns.Type)
+	 */
+	public void declareEdgeAttribute(String key, AttributeColumns.Type type) {
+		if (edgeColumns == null) {
+			edgeColumns = new AttributeColumns(edgeArray.length);
+
+			for (int i = 0; i < edgeCount; i++)
+				if (edgeArray[i] != null)
+					edgeColumns.attach(edgeArray[i]);
+		}
+
+		if (edgeColumns.declare(key, type))
+			for (int i = 0; i < edgeCount; i++)
+				if (edgeArray[i] != null)
+					edgeColumns.migrate(edgeArray[i], key);
+	}
+
+	@Override
+	AttributeColumns.Column declareWeightColumn(String key) {
+		if (edgeColumns == null || edgeColumns.getType(key) == null)
+			declareEdgeAttribute(key, AttributeColumns.Type.DOUBLE);
+
+		return edgeColumns.get(key);
+	}
+
+	/**
+	 * The columns storing the declared node attributes.
+	 * 
+	 * @return The node columns, or null if no node attribute was declared.
+	 */
+	public AttributeColumns getNodeAttributeColumns() {
+		return nodeColumns;
+	}
+
+	/**
+	 * The columns storing the declared edge attributes.
+	 * 
+	 * @return The edge columns, or null if no edge attribute was declared.
+	 */
+	public AttributeColumns getEdgeAttributeColumns() {
+		return edgeColumns;
+	}
+
+	// *** Reordering ***
+
+	/**
+	 * Receives the permutation of the indices applied by
+	 * {@link AdjacencyListGraph#reorder(NodeOrdering, IndexRemapper...)}, to
+	 * update tables indexed by the indices of the nodes or of the edges.
+	 */
+	public static interface IndexRemapper {
+		/**
+		 * Called once the graph has been reordered.
+		 * 
+		 * @param nodePositions
+		 *            New index of the node of each old index, or -1 if the
+		 *            index was the one of a removed node.
+		 * @param edgePositions
+		 *            New index of the edge of each old index, or -1 if the
+		 *            index was the one of a removed edge.
+		 */
+		void remap(int[] nodePositions, int[] edgePositions);
+	}
+
+	/**
+	 * Changes the indices of the nodes so that neighbors are close in memory,
+	 * which speeds up traversals. The edges are then ordered by the smallest
+	 * index of their nodes and the edges of each node by index of their
+	 * opposite node. Nothing else changes and no event is sent. Handles,
+	 * attribute columns and the remappers follow the new indices, but
+	 * iterators and any other table indexed by the indices of the elements
+	 * are invalid after this call. If indices are stable, the graph is
+	 * compacted first and the remappers receive the combination of the two
+	 * changes.
+	 * 
+	 * @param ordering
+	 *            The order of the nodes.
+	 * @param remappers
+	 *            Objects to notify of the new indices.
+	 * @complexity O(n + m log(d)) with n the number of nodes, m the number of
+	 *             edges and d the maximum degree, plus the cost of the
+	 *             ordering.
+	 * @see NodeOrdering
+	 */
+	public void reorder(NodeOrdering ordering, IndexRemapper... remappers) {
+		IndexRemapping compaction = hasHoles() ? compact() : null;
+		int[] order = ordering.order(snapshot());
+		int[] nodePositions = new int[nodeCount];
+		int[] edgePositions = new int[edgeCount];
+
+		for (int i = 0; i < nodeCount; i++)
+			nodePositions[order[i]] = i;
+
+		// Counting sort of the edges by smallest node index.
+		int[] start = new int[nodeCount + 1];
+		int[] keys = new int[edgeCount];
+
+		for (int i = 0; i < edgeCount; i++) {
+			AbstractEdge e = edgeArray[i];
+			keys[i] = Math.min(nodePositions[e.source.getIndex()],
+					nodePositions[e.target.getIndex()]);
+			start[keys[i] + 1]++;
+		}
+
+		for (int i = 0; i < nodeCount; i++)
+			start[i + 1] += start[i];
+
+		for (int i = 0; i < edgeCount; i++)
+			edgePositions[i] = start[keys[i]]++;
+
+		permute(nodePositions, edgePositions);
+
+		if (compaction != null) {
+			nodePositions = compose(compaction.nodePositions, nodePositions);
+			edgePositions = compose(compaction.edgePositions, edgePositions);
+		}
+
+		for (IndexRemapper r : remappers)
+			r.remap(nodePositions, edgePositions);
+	}
+
+	/**
+	 * Moves the nodes and the edges to new indices.
+	 * 
+	 * @param nodePositions
+	 *            New index of the node of each old index.
+	 * @param edgePositions
+	 *            New index of the edge of each old index.
+	 */
+	protected void permute(int[] nodePositions, int[] edgePositions) {
+		relocate(nodePositions, edgePositions);
+
+		for (int i = 0; i < nodeCount; i++)
+			if (nodeArray[i] instanceof AdjacencyListNode)
+				((AdjacencyListNode) nodeArray[i]).sortEdges();
+	}
+
+	/**
+	 * Moves the nodes and the edges to new indices and releases the indices
+	 * of the removed elements, whose position is -1.
+	 */
+	private void relocate(int[] nodePositions, int[] edgePositions) {
+		AbstractNode[] nodes = new AbstractNode[nodeArray.length];
+		AbstractEdge[] edges = new AbstractEdge[edgeArray.length];
+
+		for (int i = 0; i < nodeCount; i++) {
+			if (nodePositions[i] >= 0) {
+				nodes[nodePositions[i]] = nodeArray[i];
+				nodeArray[i].setIndex(nodePositions[i]);
+			}
+		}
+
+		for (int i = 0; i < edgeCount; i++) {
+			if (edgePositions[i] >= 0) {
+				edges[edgePositions[i]] = edgeArray[i];
+				edgeArray[i].setIndex(edgePositions[i]);
+			}
+		}
+
+		nodeArray = nodes;
+		edgeArray = edges;
+
+		if (nodeColumns != null)
+			nodeColumns.permute(nodePositions, nodeCount);
+		if (edgeColumns != null)
+			edgeColumns.permute(edgePositions, edgeCount);
+		if (nodeHandles != null)
+			nodeHandles.permute(nodePositions, nodeCount);
+		if (edgeHandles != null)
+			edgeHandles.permute(edgePositions, edgeCount);
+
+		nodeCount -= nodeHoles;
+		edgeCount -= edgeHoles;
+		nodeHoles = edgeHoles = 0;
+	}
+
+	/**
+	 * Positions resulting of two successive moves.
+	 */
+	private static int[] compose(int[] first, int[] then) {
+		int[] positions = new int[first.length];
+
+		for (int i = 0; i < first.length; i++)
+			positions[i] = first[i] < 0 ? -1 : then[first[i]];
+
+		return positions;
+	}
+
+	// *** Stable indices ***
+
+	/**
+	 * Old and new indices of the elements after a call to
+	 * {@link AdjacencyListGraph#compact(IndexRemapper...)}.
+	 */
+	public static class IndexRemapping {
+		protected final int[] nodePositions, edgePositions;
+
+		protected IndexRemapping(int[] nodePositions, int[] edgePositions) {
+			this.nodePositions = nodePositions;
+			this.edgePositions = edgePositions;
+		}
+
+		/**
+		 * New index of a node.
+		 * 
+		 * @param index
+		 *            Index of the node before the compaction.
+		 * @return Its index after the compaction, or -1 if the index was
+		 *         the one of a removed node.
+		 */
+		public int getNodeIndex(int index) {
+			return nodePositions[index];
+		}
+
+		/**
+		 * New index of an edge.
+		 * 
+		 * @param index
+		 *            Index of the edge before the compaction.
+		 * @return Its index after the compaction, or -1 if the index was
+		 *         the one of a removed edge.
+		 */
+		public int getEdgeIndex(int index) {
+			return edgePositions[index];
+		}
+
+		/**
+		 * New index of the node of each old index, as given to the
+		 * {@link IndexRemapper}s. The array must not be modified.
+		 * 
+		 * @return The node positions.
+		 */
+		public int[] getNodePositions() {
+			return nodePositions;
+		}
+
+		/**
+		 * New index of the edge of each old index, as given to the
+		 * {@link IndexRemapper}s. The array must not be modified.
+		 * 
+		 * @return The edge positions.
+		 */
+		public int[] getEdgePositions() {
+			return edgePositions;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Keeps or not the indices of the elements when other elements are
+	 * removed. By default, the last node (or edge) takes the index of a
+	 * removed node, which invalidates any table indexed by the indices of
+	 * the elements. With stable indices, removed elements leave holes
+	 * instead: {@link #getNode(int)} and {@link #getEdge(int)} return null
+	 * for them and iterations skip them. {@link #getNodeCount()} and
+	 * {@link #getEdgeCount()} remain the bounds of the indices and count the
+	 * holes, so code looping over the indices must skip null elements;
+	 * {@link #getLiveNodeCount()} and {@link #getLiveEdgeCount()} give the
+	 * number of elements actually in the graph. New elements are always added
+	 * after the highest index in use.
+	 * </p>
+	 * 
+	 * <p>
+	 * The holes are removed by {@link #compact(IndexRemapper...)}, at the
+	 * time chosen by the user. Switching back to unstable indices compacts
+	 * the graph.
+	 * </p>
+	 * 
+	 * @param on
+	 *            True to keep the indices when elements are removed.
+	 */
+	public void setStableIndices(boolean on) {
+		if (!on && hasHoles())
+			compact();
+
+		stableIndices = on;
+	}
+
+	/**
+	 * Are the indices of the elements kept when other elements are removed ?
+	 * 
+	 * @return True if the indices are stable.
+	 * @see #setStableIndices(boolean)
+	 */
+	public boolean hasStableIndices() {
+		return stableIndices;
+	}
+
+	/**
+	 * Upper bound of the indices of the nodes. It is the number of nodes,
+	 * plus the holes left by removed nodes when indices are stable, that is
+	 * {@link #getNodeCount()}.
+	 * 
+	 * @return The highest node index plus one.
+	 */
+	public int getNodeIndexBound() {
+		return nodeCount;
+	}
+
+	/**
+	 * Upper bound of the indices of the edges.
+	 * 
+	 * @return The highest edge index plus one.
+	 * @see #getNodeIndexBound()
+	 */
+	public int getEdgeIndexBound() {
+		return edgeCount;
+	}
+
+	/**
+	 * Are there indices of removed elements waiting for a compaction ?
+	 */
+	boolean hasHoles() {
+		return nodeHoles > 0 || edgeHoles > 0;
+	}
+
+	/**
+	 * Gives consecutive indices to the nodes and the edges, in the order of
+	 * their current indices, and releases the storage left unused by the
+	 * removed elements. No event is sent. Handles, attribute columns and the
+	 * remappers follow the new indices.
+	 * 
+	 * @param remappers
+	 *            Objects to notify of the new indices.
+	 * @return The new index of each old index.
+	 * @complexity O(n + m) with n and m the index bounds of the nodes and of
+	 *             the edges.
+	 * @see #setStableIndices(boolean)
+	 */
+	public IndexRemapping compact(IndexRemapper... remappers) {
+		int[] nodePositions = positions(nodeArray, nodeCount);
+		int[] edgePositions = positions(edgeArray, edgeCount);
+
+		if (hasHoles())
+			relocate(nodePositions, edgePositions);
+
+		trimToSize();
+
+		for (IndexRemapper r : remappers)
+			r.remap(nodePositions, edgePositions);
+
+		return new IndexRemapping(nodePositions, edgePositions);
+	}
+
+	/**
+	 * Consecutive positions of the elements of an array, -1 for holes.
+	 */
+	private static int[] positions(Object[] elements, int count) {
+		int[] positions = new int[count];
+		int next = 0;
+
+		for (int i = 0; i < count; i++)
+			positions[i] = elements[i] == null ? -1 : next++;
+
+		return positions;
+	}
+
+	/**
+	 * Shrinks the node and edge storage to the number of elements, without
+	 * going under the default capacities.
+	 */
+	private void trimToSize() {
+		int capacity = Math.max(nodeCount, DEFAULT_NODE_CAPACITY);
+
+		if (capacity < nodeArray.length) {
+			nodeArray = Arrays.copyOf(nodeArray, capacity);
+			nodeMap = new HashMap<String, AbstractNode>(nodeMap);
+
+			if (nodeColumns != null)
+				nodeColumns.trimToSize(capacity);
+			if (nodeHandles != null)
+				nodeHandles.trimToSize(capacity);
+		}
+
+		capacity = Math.max(edgeCount, DEFAULT_EDGE_CAPACITY);
+
+		if (capacity < edgeArray.length) {
+			edgeArray = Arrays.copyOf(edgeArray, capacity);
+			edgeMap = new HashMap<String, AbstractEdge>(edgeMap);
+
+			if (edgeColumns != null)
+				edgeColumns.trimToSize(capacity);
+			if (edgeHandles != null)
+				edgeHandles.trimToSize(capacity);
+		}
+	}
+
 	// *** Iterators ***
 
 	protected class EdgeIterator<T extends Edge> implements Iterator<T> {
@@ -255,12 +1197,14 @@ public class AdjacencyListGraph extends AbstractGraph {
 		int iPrev = -1;
 
 		public boolean hasNext() {
+			while (iNext < edgeCount && edgeArray[iNext] == null)
+				iNext++;
 			return iNext < edgeCount;
 		}
 
 		@SuppressWarnings("unchecked")
 		public T next() {
-			if (iNext >= edgeCount)
+			if (!hasNext())
 				throw new NoSuchElementException();
 			iPrev = iNext++;
 			return (T) edgeArray[iPrev];
@@ -270,7 +1214,8 @@ public class AdjacencyListGraph extends AbstractGraph {
 			if (iPrev == -1)
 				throw new IllegalStateException();
 			removeEdge(edgeArray[iPrev], true, true, true);
-			iNext = iPrev;
+			if (!stableIndices)
+				iNext = iPrev;
 			iPrev = -1;
 		}
 	}
@@ -280,12 +1225,14 @@ public class AdjacencyListGraph extends AbstractGraph {
 		int iPrev = -1;
 
 		public boolean hasNext() {
+			while (iNext < nodeCount && nodeArray[iNext] == null)
+				iNext++;
 			return iNext < nodeCount;
 		}
 
 		@SuppressWarnings("unchecked")
 		public T next() {
-			if (iNext >= nodeCount)
+			if (!hasNext())
 				throw new NoSuchElementException();
 			iPrev = iNext++;
 			return (T) nodeArray[iPrev];
@@ -295,7 +1242,8 @@ public class AdjacencyListGraph extends AbstractGraph {
 			if (iPrev == -1)
 				throw new IllegalStateException();
 			removeNode(nodeArray[iPrev], true);
-			iNext = iPrev;
+			if (!stableIndices)
+				iNext = iPrev;
 			iPrev = -1;
 		}
 	}
@@ -310,6 +1258,45 @@ public class AdjacencyListGraph extends AbstractGraph {
 		return new NodeIterator<T>();
 	}
 
+	/**
+	 * {@inheritDoc} When indices are stable and edges have been removed, the
+	 * iterator works on a copy of the edges.
+	 */
+	@Override
+	public <T extends Edge> SplittableIterator<T> edges() {
+		if (edgeHoles > 0)
+			return new SplittableIterator.OfArray<T>(live(edgeArray,
+					edgeCount, edgeCount - edgeHoles));
+
+		return new SplittableIterator.OfArray<T>(edgeArray, 0, edgeCount);
+	}
+
+	/**
+	 * {@inheritDoc} When indices are stable and nodes have been removed, the
+	 * iterator works on a copy of the nodes.
+	 */
+	@Override
+	public <T extends Node> SplittableIterator<T> nodes() {
+		if (nodeHoles > 0)
+			return new SplittableIterator.OfArray<T>(live(nodeArray,
+					nodeCount, nodeCount - nodeHoles));
+
+		return new SplittableIterator.OfArray<T>(nodeArray, 0, nodeCount);
+	}
+
+	/**
+	 * The elements of an array with holes, without the holes.
+	 */
+	private static Object[] live(Object[] elements, int count, int size) {
+		Object[] live = new Object[size];
+
+		for (int i = 0, j = 0; i < count; i++)
+			if (elements[i] != null)
+				live[j++] = elements[i];
+
+		return live;
+	}
+
 	/*
 	 * For performance tuning
 	 * 
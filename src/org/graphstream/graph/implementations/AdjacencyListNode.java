@@ -38,6 +38,7 @@ import java.util.NoSuchElementException;
 
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
 
 /**
  * Nodes used with {@link AdjacencyListGraph}
@@ -57,6 +58,25 @@ public class AdjacencyListNode extends AbstractNode {
 		INITIAL_EDGE_CAPACITY = initialEdgeCapacity;
 	}
 
+	/**
+	 * Degree from which edges are looked up through a hashed index instead of
+	 * a linear scan. The index is dropped when the degree falls below half of
+	 * this value. Set with the system property
+	 * {@code org.graphstream.graph.node.edgeIndexThreshold}.
+	 */
+	protected static final int EDGE_INDEX_THRESHOLD;
+
+	static {
+		String p = "org.graphstream.graph.node.edgeIndexThreshold";
+		int threshold = 64;
+		try {
+			threshold = Integer.valueOf(System.getProperty(p, "64"));
+		} catch (AccessControlException e) {
+		} catch (NumberFormatException e) {
+		}
+		EDGE_INDEX_THRESHOLD = threshold;
+	}
+
 	protected static final char I_EDGE = 0;
 	protected static final char IO_EDGE = 1;
 	protected static final char O_EDGE = 2;
@@ -64,6 +84,12 @@ public class AdjacencyListNode extends AbstractNode {
 	protected AbstractEdge[] edges;
 	protected int ioStart, oStart, degree;
 
+	/**
+	 * Index of the edges by opposite node, built on the first look up once the
+	 * degree reaches {@link #EDGE_INDEX_THRESHOLD}. Null otherwise.
+	 */
+	EdgeIndex edgeIndex;
+
 	// *** Constructor ***
 
 	protected AdjacencyListNode(AbstractGraph graph, String id) {
@@ -80,6 +106,18 @@ public class AdjacencyListNode extends AbstractNode {
 		return e.source == this ? O_EDGE : I_EDGE;
 	}
 
+	/**
+	 * Tells if the same neighbor can be reached by several edges of a given
+	 * type. {@link NeighborCursor} skips duplicate detection when it cannot.
+	 * 
+	 * @param type
+	 *            The type of the edges followed.
+	 * @return True if neighbors may be repeated.
+	 */
+	protected boolean mayRepeatNeighbors(char type) {
+		return true;
+	}
+
 	@SuppressWarnings("unchecked")
 	protected <T extends Edge> T locateEdge(Node opposite, char type) {
 		// where to search ?
@@ -90,33 +128,108 @@ public class AdjacencyListNode extends AbstractNode {
 		else if (type == O_EDGE)
 			start = ioStart;
 
+		if (degree >= EDGE_INDEX_THRESHOLD) {
+			if (edgeIndex == null) {
+				edgeIndex = new EdgeIndex(this, degree);
+				for (int i = 0; i < degree; i++)
+					edgeIndex.put(edges[i], i);
+			}
+
+			int i = edgeIndex.find(opposite, start, end);
+			return i < 0 ? null : (T) edges[i];
+		}
+
 		for (int i = start; i < end; i++)
 			if (edges[i].getOpposite(this) == opposite)
 				return (T) edges[i];
 		return null;
 	}
 
+	/**
+	 * Stores an edge at a given position, keeping the index up to date.
+	 */
+	private void place(int i, AbstractEdge e) {
+		edges[i] = e;
+		if (edgeIndex != null && e != null)
+			edgeIndex.move(e, i);
+	}
+
 	protected void removeEdge(int i) {
+		if (edgeIndex != null) {
+			edgeIndex.remove(edges[i]);
+			if (degree <= EDGE_INDEX_THRESHOLD / 2)
+				edgeIndex = null;
+		}
+
 		if (i >= oStart) {
-			edges[i] = edges[--degree];
+			place(i, edges[--degree]);
 			edges[degree] = null;
 			return;
 		}
 
 		if (i >= ioStart) {
-			edges[i] = edges[--oStart];
-			edges[oStart] = edges[--degree];
+			place(i, edges[--oStart]);
+			place(oStart, edges[--degree]);
 			edges[degree] = null;
 			return;
 		}
 
-		edges[i] = edges[--ioStart];
-		edges[ioStart] = edges[--oStart];
-		edges[oStart] = edges[--degree];
+		place(i, edges[--ioStart]);
+		place(ioStart, edges[--oStart]);
+		place(oStart, edges[--degree]);
 		edges[degree] = null;
 
 	}
 
+	/**
+	 * Makes sure that this node can hold a given number of edges without
+	 * resizing its edge storage.
+	 * 
+	 * @param capacity
+	 *            The expected degree of the node.
+	 */
+	protected void ensureEdgeCapacity(int capacity) {
+		if (capacity > edges.length)
+			edges = Arrays.copyOf(edges, capacity);
+	}
+
+	/**
+	 * Drops the edge storage of a released node if it exceeds a given
+	 * capacity.
+	 */
+	void trimEdgeCapacity(int capacity) {
+		if (edges.length > capacity)
+			edges = new AbstractEdge[Math.min(capacity, INITIAL_EDGE_CAPACITY)];
+	}
+
+	/**
+	 * Sorts the entering, undirected and leaving edges of this node by index
+	 * of their opposite node, so that traversals read the neighbors in the
+	 * order of the node storage. Called after the nodes have been reordered.
+	 */
+	void sortEdges() {
+		sortEdges(0, ioStart);
+		sortEdges(ioStart, oStart);
+		sortEdges(oStart, degree);
+		edgeIndex = null;
+	}
+
+	private void sortEdges(int from, int to) {
+		if (to - from < 2)
+			return;
+
+		long[] keys = new long[to - from];
+		AbstractEdge[] range = Arrays.copyOfRange(edges, from, to);
+
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = ((long) range[i].getOpposite(this).getIndex() << 32) | i;
+
+		Arrays.sort(keys);
+
+		for (int i = 0; i < keys.length; i++)
+			edges[from + i] = range[(int) keys[i]];
+	}
+
 	// *** Callbacks ***
 
 	@Override
@@ -130,43 +243,55 @@ public class AdjacencyListNode extends AbstractNode {
 		}
 
 		char type = edgeType(edge);
+		int i;
 
 		if (type == O_EDGE) {
-			edges[degree++] = edge;
-			return true;
-		}
-
-		if (type == IO_EDGE) {
-			edges[degree++] = edges[oStart];
-			edges[oStart++] = edge;
-			return true;
+			i = degree++;
+		} else if (type == IO_EDGE) {
+			place(degree++, edges[oStart]);
+			i = oStart++;
+		} else {
+			place(degree++, edges[oStart]);
+			place(oStart++, edges[ioStart]);
+			i = ioStart++;
 		}
 
-		edges[degree++] = edges[oStart];
-		edges[oStart++] = edges[ioStart];
-		edges[ioStart++] = edge;
+		edges[i] = edge;
+		if (edgeIndex != null)
+			edgeIndex.put(edge, i);
 		return true;
 	}
 
 	@Override
 	protected void removeEdgeCallback(AbstractEdge edge) {
 		// locate the edge first
-		char type = edgeType(edge);
-		int i = 0;
-		if (type == IO_EDGE)
-			i = ioStart;
-		else if (type == O_EDGE)
-			i = oStart;
-		while (edges[i] != edge)
-			i++;
+		int i = edgeIndex == null ? -1 : edgeIndex.positionOf(edge);
+
+		if (i < 0) {
+			char type = edgeType(edge);
+			i = 0;
+			if (type == IO_EDGE)
+				i = ioStart;
+			else if (type == O_EDGE)
+				i = oStart;
+			while (edges[i] != edge)
+				i++;
+		}
 
 		removeEdge(i);
 	}
 
+	@Override
+	protected void release() {
+		super.release();
+		clearCallback();
+	}
+
 	@Override
 	protected void clearCallback() {
 		Arrays.fill(edges, 0, degree, null);
 		ioStart = oStart = degree = 0;
+		edgeIndex = null;
 	}
 
 	// *** Access methods ***
@@ -263,6 +388,7 @@ public class AdjacencyListNode extends AbstractNode {
 			graph.removeEdge(e, true, e.source != AdjacencyListNode.this,
 					e.target != AdjacencyListNode.this);
 			removeEdge(iPrev);
+			graph.releaseEdge(e);
 			iNext = iPrev;
 			iPrev = -1;
 			iEnd--;
@@ -283,4 +409,9 @@ public class AdjacencyListNode extends AbstractNode {
 	public <T extends Edge> Iterator<T> getLeavingEdgeIterator() {
 		return new EdgeIterator<T>(O_EDGE);
 	}
+
+	@Override
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new SplittableIterator.OfArray<T>(edges, 0, degree);
+	}
 }
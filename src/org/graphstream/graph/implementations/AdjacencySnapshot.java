@@ -0,0 +1,469 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * <p>
+ * A read-only, compressed sparse row (CSR) view of the structure of an
+ * {@link AdjacencyListGraph}.
+ * </p>
+ * 
+ * <p>
+ * The snapshot stores the adjacency of every node in a few flat {@code int}
+ * arrays. The neighborhood of the node of index {@code i} is the range
+ * {@code [getNeighborsBegin(i), getNeighborsEnd(i))} of positions. For each
+ * position, {@link #getNeighbor(int)} gives the index of the opposite node and
+ * {@link #getEdge(int)} the index of the edge. As in {@link AdjacencyListNode},
+ * the range of each node is split in three consecutive segments: entering
+ * edges, undirected (or loop) edges and leaving edges. Thus the entering edges
+ * of a node are given by {@code [getEnteringBegin(i), getEnteringEnd(i))} and
+ * the leaving edges by {@code [getLeavingBegin(i), getLeavingEnd(i))}, the
+ * undirected edges belonging to both ranges.
+ * </p>
+ * 
+ * <p>
+ * Traversals written on top of this class never allocate nor dereference node
+ * or edge objects:
+ * </p>
+ * 
+ * <pre>
+ * AdjacencySnapshot s = graph.snapshot();
+ * 
+ * for (int i = 0; i &lt; s.getNodeCount(); i++)
+ * 	for (int p = s.getNeighborsBegin(i); p &lt; s.getNeighborsEnd(i); p++)
+ * 		visit(i, s.getNeighbor(p));
+ * </pre>
+ * 
+ * <p>
+ * Node and edge indices are the ones of the graph at the time the snapshot was
+ * taken. The snapshot is a copy : later modifications of the graph are not
+ * reflected and may invalidate the correspondence between indices and
+ * elements. The indices of the removed elements of a graph with stable indices
+ * appear as nodes without neighbors and as edges whose end points are -1.
+ * </p>
+ */
+public class AdjacencySnapshot {
+	/**
+	 * Number of nodes and edges.
+	 */
+	protected final int nodeCount, edgeCount;
+
+	/**
+	 * First position of each node. The range of the node {@code i} ends at
+	 * {@code offsets[i + 1]}.
+	 */
+	protected final int[] offsets;
+
+	/**
+	 * Absolute position of the first undirected edge and of the first leaving
+	 * edge of each node.
+	 */
+	protected final int[] ioStarts, oStarts;
+
+	/**
+	 * Index of the opposite node and index of the edge, for each position.
+	 */
+	protected final int[] neighbors, edges;
+
+	/**
+	 * Index of the source and of the target node of each edge.
+	 */
+	protected final int[] sources, targets;
+
+	/**
+	 * Direction of each edge.
+	 */
+	protected final boolean[] directed;
+
+	// *** Constructor ***
+
+	/**
+	 * Builds the snapshot of a graph.
+	 * 
+	 * @param graph
+	 *            The graph to compress.
+	 * @complexity O(n + m) with n the number of nodes and m the number of
+	 *             edges.
+	 */
+	protected AdjacencySnapshot(AdjacencyListGraph graph) {
+		nodeCount = graph.nodeCount;
+		edgeCount = graph.edgeCount;
+
+		offsets = new int[nodeCount + 1];
+		ioStarts = new int[nodeCount];
+		oStarts = new int[nodeCount];
+		sources = new int[edgeCount];
+		targets = new int[edgeCount];
+		directed = new boolean[edgeCount];
+
+		int size = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			offsets[i] = size;
+
+			if (graph.nodeArray[i] != null)
+				size += graph.nodeArray[i].getDegree();
+		}
+		offsets[nodeCount] = size;
+
+		neighbors = new int[size];
+		edges = new int[size];
+
+		for (int i = 0; i < nodeCount; i++) {
+			AbstractNode node = graph.nodeArray[i];
+
+			if (node == null)
+				ioStarts[i] = oStarts[i] = offsets[i];
+			else if (node instanceof AdjacencyListNode)
+				copy(i, (AdjacencyListNode) node);
+			else
+				classify(i, node);
+		}
+
+		for (int i = 0; i < edgeCount; i++) {
+			AbstractEdge e = graph.edgeArray[i];
+
+			if (e == null) {
+				sources[i] = targets[i] = -1;
+				continue;
+			}
+
+			sources[i] = e.source.getIndex();
+			targets[i] = e.target.getIndex();
+			directed[i] = e.directed;
+		}
+	}
+
+	/**
+	 * Builds the snapshot of any graph, using only the {@link Graph} and
+	 * {@link Node} interfaces. The indices of the elements must range from 0
+	 * to the node and edge counts, see {@link Node#getIndex()}, the elements
+	 * missing at some indices being treated like removed elements.
+	 * 
+	 * @param graph
+	 *            The graph to compress.
+	 * @complexity O(n + m) with n the number of nodes and m the number of
+	 *             edges.
+	 */
+	public AdjacencySnapshot(Graph graph) {
+		nodeCount = graph.getNodeCount();
+		edgeCount = graph.getEdgeCount();
+
+		offsets = new int[nodeCount + 1];
+		ioStarts = new int[nodeCount];
+		oStarts = new int[nodeCount];
+		sources = new int[edgeCount];
+		targets = new int[edgeCount];
+		directed = new boolean[edgeCount];
+
+		int size = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = graph.getNode(i);
+			offsets[i] = size;
+
+			if (node != null)
+				size += node.getDegree();
+		}
+		offsets[nodeCount] = size;
+
+		neighbors = new int[size];
+		edges = new int[size];
+
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = graph.getNode(i);
+
+			if (node == null)
+				ioStarts[i] = oStarts[i] = offsets[i];
+			else if (node instanceof AdjacencyListNode)
+				copy(i, (AdjacencyListNode) node);
+			else
+				classify(i, node);
+		}
+
+		for (int i = 0; i < edgeCount; i++) {
+			Edge e = graph.getEdge(i);
+
+			if (e == null) {
+				sources[i] = targets[i] = -1;
+				continue;
+			}
+
+			sources[i] = e.getSourceNode().getIndex();
+			targets[i] = e.getTargetNode().getIndex();
+			directed[i] = e.isDirected();
+		}
+	}
+
+	// *** Helpers ***
+
+	/**
+	 * Copies the segments of a node as they are.
+	 */
+	private void copy(int i, AdjacencyListNode node) {
+		int p = offsets[i];
+		ioStarts[i] = p + node.ioStart;
+		oStarts[i] = p + node.oStart;
+
+		for (int j = 0; j < node.degree; j++, p++) {
+			AbstractEdge e = node.edges[j];
+			neighbors[p] = e.getOpposite(node).getIndex();
+			edges[p] = e.getIndex();
+		}
+	}
+
+	/**
+	 * Rebuilds the segments of a node that does not expose them, using only
+	 * the {@link Node} interface.
+	 */
+	private void classify(int i, Node node) {
+		int degree = node.getDegree();
+		int in = 0, io = 0;
+
+		for (int j = 0; j < degree; j++) {
+			Edge e = node.getEdge(j);
+
+			if (!e.isDirected() || e.isLoop())
+				io++;
+			else if (e.getTargetNode() == node)
+				in++;
+		}
+
+		int pI = offsets[i];
+		int pIO = pI + in;
+		int pO = pIO + io;
+		ioStarts[i] = pIO;
+		oStarts[i] = pO;
+
+		for (int j = 0; j < degree; j++) {
+			Edge e = node.getEdge(j);
+			int p;
+
+			if (!e.isDirected() || e.isLoop())
+				p = pIO++;
+			else if (e.getTargetNode() == node)
+				p = pI++;
+			else
+				p = pO++;
+
+			neighbors[p] = e.getOpposite(node).getIndex();
+			edges[p] = e.getIndex();
+		}
+	}
+
+	// *** Access methods ***
+
+	/**
+	 * Number of nodes of the snapshot.
+	 * 
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Number of edges of the snapshot.
+	 * 
+	 * @return The number of edges.
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Total number of positions, that is the sum of the degrees of all the
+	 * nodes.
+	 * 
+	 * @return The size of the adjacency arrays.
+	 */
+	public int getSize() {
+		return neighbors.length;
+	}
+
+	/**
+	 * Degree of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The number of edges incident to the node.
+	 */
+	public int getDegree(int node) {
+		return offsets[node + 1] - offsets[node];
+	}
+
+	/**
+	 * In-degree of a node, including undirected edges.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The number of edges entering the node.
+	 */
+	public int getInDegree(int node) {
+		return oStarts[node] - offsets[node];
+	}
+
+	/**
+	 * Out-degree of a node, including undirected edges.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The number of edges leaving the node.
+	 */
+	public int getOutDegree(int node) {
+		return offsets[node + 1] - ioStarts[node];
+	}
+
+	/**
+	 * First position of the neighborhood of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The first position (inclusive).
+	 */
+	public int getNeighborsBegin(int node) {
+		return offsets[node];
+	}
+
+	/**
+	 * End of the neighborhood of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The last position (exclusive).
+	 */
+	public int getNeighborsEnd(int node) {
+		return offsets[node + 1];
+	}
+
+	/**
+	 * First position of the entering edges of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The first position (inclusive).
+	 */
+	public int getEnteringBegin(int node) {
+		return offsets[node];
+	}
+
+	/**
+	 * End of the entering edges of a node. Undirected edges are included.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The last position (exclusive).
+	 */
+	public int getEnteringEnd(int node) {
+		return oStarts[node];
+	}
+
+	/**
+	 * First position of the leaving edges of a node. Undirected edges are
+	 * included.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The first position (inclusive).
+	 */
+	public int getLeavingBegin(int node) {
+		return ioStarts[node];
+	}
+
+	/**
+	 * End of the leaving edges of a node.
+	 * 
+	 * @param node
+	 *            Index of the node.
+	 * @return The last position (exclusive).
+	 */
+	public int getLeavingEnd(int node) {
+		return offsets[node + 1];
+	}
+
+	/**
+	 * Index of the opposite node at a given position.
+	 * 
+	 * @param position
+	 *            A position inside the range of some node.
+	 * @return The index of the neighbor.
+	 */
+	public int getNeighbor(int position) {
+		return neighbors[position];
+	}
+
+	/**
+	 * Index of the edge at a given position.
+	 * 
+	 * @param position
+	 *            A position inside the range of some node.
+	 * @return The index of the edge.
+	 */
+	public int getEdge(int position) {
+		return edges[position];
+	}
+
+	/**
+	 * Index of the source node of an edge.
+	 * 
+	 * @param edge
+	 *            Index of the edge.
+	 * @return The index of the source node.
+	 */
+	public int getSource(int edge) {
+		return sources[edge];
+	}
+
+	/**
+	 * Index of the target node of an edge.
+	 * 
+	 * @param edge
+	 *            Index of the edge.
+	 * @return The index of the target node.
+	 */
+	public int getTarget(int edge) {
+		return targets[edge];
+	}
+
+	/**
+	 * Direction of an edge.
+	 * 
+	 * @param edge
+	 *            Index of the edge.
+	 * @return True if the edge is directed.
+	 */
+	public boolean isDirected(int edge) {
+		return directed[edge];
+	}
+}
@@ -0,0 +1,728 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+
+/**
+ * <p>
+ * Column storage for the attributes of the nodes or of the edges of a graph.
+ * </p>
+ * 
+ * <p>
+ * By default each element keeps its attributes in its own map. When the graph
+ * holds millions of elements sharing the same attributes, this costs a map
+ * entry and often a boxed value per attribute and per element. A column
+ * stores the values of one attribute key for all the elements in a single
+ * array indexed by the element index: a {@code double[]}, an {@code int[]} or
+ * an {@code Object[]} depending on its {@link Type}.
+ * </p>
+ * 
+ * <p>
+ * Columns are transparent for the users of the
+ * {@link org.graphstream.graph.Element} interface: getters, setters and the
+ * attribute events work as usual. A value that does not fit the type of its
+ * column (for example an {@code Integer} given for a {@link Type#DOUBLE}
+ * column) is stored in the map of the element, so that its exact class is
+ * preserved.
+ * </p>
+ * 
+ * <p>
+ * The graph keeps the columns aligned with the indices of its elements. It
+ * calls {@link #attach(AbstractElement)} when an element is added,
+ * {@link #move(int, int)} when an element is re-indexed and
+ * {@link #detach(AbstractElement)} when an element is removed. A detached
+ * element gets back its column values in its own map.
+ * </p>
+ * 
+ * @see AdjacencyListGraph#declareNodeAttribute(String, Type)
+ * @see AdjacencyListGraph#declareEdgeAttribute(String, Type)
+ */
+public class AttributeColumns {
+	/**
+	 * Type of the values stored in a column.
+	 */
+	public static enum Type {
+		/**
+		 * Values are {@link Double}, stored in a {@code double[]}.
+		 */
+		DOUBLE,
+		/**
+		 * Values are {@link Integer}, stored in an {@code int[]}.
+		 */
+		INT,
+		/**
+		 * Values are any object, stored in an {@code Object[]}.
+		 */
+		OBJECT
+	}
+
+	/**
+	 * The columns, in declaration order.
+	 */
+	protected LinkedHashMap<String, Column> columns;
+
+	/**
+	 * Element owning each index. Only the owner of an index can read or write
+	 * the values stored at this index.
+	 */
+	protected AbstractElement[] owners;
+
+	/**
+	 * Creates an empty set of columns.
+	 * 
+	 * @param initialCapacity
+	 *            Initial number of elements.
+	 */
+	public AttributeColumns(int initialCapacity) {
+		columns = new LinkedHashMap<String, Column>();
+		owners = new AbstractElement[Math.max(initialCapacity, 1)];
+	}
+
+	// *** Declaration ***
+
+	/**
+	 * Declares a new column. Nothing is done if a column already exists for
+	 * this key.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @param type
+	 *            The type of the values.
+	 * @return True if the column was created.
+	 */
+	public boolean declare(String key, Type type) {
+		if (columns.containsKey(key))
+			return false;
+
+		Column c;
+
+		switch (type) {
+		case DOUBLE:
+			c = new DoubleColumn(key, owners.length);
+			break;
+		case INT:
+			c = new IntColumn(key, owners.length);
+			break;
+		default:
+			c = new ObjectColumn(key, owners.length);
+		}
+
+		columns.put(key, c);
+		return true;
+	}
+
+	/**
+	 * Type of the column storing an attribute.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @return The type, or null if there is no column for this key.
+	 */
+	public Type getType(String key) {
+		Column c = columns.get(key);
+		return c == null ? null : c.type();
+	}
+
+	/**
+	 * Keys having a column, in declaration order.
+	 * 
+	 * @return The declared keys.
+	 */
+	public Collection<String> getKeys() {
+		return columns.keySet();
+	}
+
+	// *** Index management ***
+
+	/**
+	 * Gives the index of an element to this element. The values previously
+	 * stored at this index are cleared.
+	 * 
+	 * @param element
+	 *            The element, already indexed.
+	 */
+	public void attach(AbstractElement element) {
+		int i = element.getIndex();
+		ensureCapacity(i + 1);
+
+		for (Column c : columns.values())
+			c.unset(i);
+
+		owners[i] = element;
+	}
+
+	/**
+	 * Moves the values stored at an index to another index. The owner of the
+	 * source index becomes the owner of the destination index.
+	 * 
+	 * @param from
+	 *            The old index of an element.
+	 * @param to
+	 *            Its new index.
+	 */
+	public void move(int from, int to) {
+		if (from == to)
+			return;
+
+		for (Column c : columns.values())
+			c.move(from, to);
+
+		owners[to] = owners[from];
+		owners[from] = null;
+	}
+
+	/**
+	 * Releases the index of an element. Its column values are put back in
+	 * its map, without generating events.
+	 * 
+	 * @param element
+	 *            The element being removed.
+	 */
+	public void detach(AbstractElement element) {
+		int i = element.getIndex();
+
+		if (!owns(element))
+			return;
+
+		for (Column c : columns.values()) {
+			if (c.isSet(i)) {
+				if (element.attributes == null)
+					element.attributes = element.createAttributeMap(1);
+
+				element.attributes.put(c.key, c.get(i));
+				c.unset(i);
+			}
+		}
+
+		owners[i] = null;
+	}
+
+	/**
+	 * Moves the value of an attribute from the map of an element to its
+	 * column, if the column accepts it. No event is generated since the value
+	 * does not change.
+	 * 
+	 * @param element
+	 *            An element owning its index.
+	 * @param key
+	 *            A declared key.
+	 */
+	public void migrate(AbstractElement element, String key) {
+		Column c = columns.get(key);
+
+		if (c == null || !owns(element) || element.attributes == null
+				|| !element.attributes.containsKey(key))
+			return;
+
+		Object value = element.attributes.get(key);
+
+		if (c.accepts(value)) {
+			c.set(element.getIndex(), value);
+			element.attributes.remove(key);
+		}
+	}
+
+	/**
+	 * Follows a permutation of the indices of the elements.
+	 * 
+	 * @param position
+	 *            New index of the element of each old index, or -1 for a
+	 *            released index.
+	 * @param count
+	 *            Number of elements.
+	 */
+	public void permute(int[] position, int count) {
+		AbstractElement[] o = new AbstractElement[owners.length];
+
+		for (int i = 0; i < count; i++)
+			if (position[i] >= 0)
+				o[position[i]] = owners[i];
+
+		owners = o;
+
+		for (Column c : columns.values())
+			c.permute(position, count);
+	}
+
+	/**
+	 * Releases all the indices. Values are lost.
+	 */
+	public void clear() {
+		for (Column c : columns.values())
+			c.clear();
+
+		Arrays.fill(owners, null);
+	}
+
+	/**
+	 * Checks if an element owns its index in these columns.
+	 * 
+	 * @param element
+	 *            An element.
+	 * @return True if the values at the index of the element belong to it.
+	 */
+	public boolean owns(AbstractElement element) {
+		int i = element.getIndex();
+		return i >= 0 && i < owners.length && owners[i] == element;
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity <= owners.length)
+			return;
+
+		capacity = Math.max(capacity,
+				(int) (owners.length * AdjacencyListGraph.GROW_FACTOR) + 1);
+		owners = Arrays.copyOf(owners, capacity);
+
+		for (Column c : columns.values())
+			c.resize(capacity);
+	}
+
+	/**
+	 * Releases the storage above a given number of elements.
+	 * 
+	 * @param capacity
+	 *            The new number of elements, larger than the highest index
+	 *            in use.
+	 */
+	protected void trimToSize(int capacity) {
+		capacity = Math.max(capacity, 1);
+
+		if (capacity >= owners.length)
+			return;
+
+		owners = Arrays.copyOf(owners, capacity);
+
+		for (Column c : columns.values())
+			c.resize(capacity);
+	}
+
+	/**
+	 * Copies the values of another set of columns whose elements have the
+	 * same indices as the elements here. Only the columns declared here with
+	 * the same type are copied. The values themselves are not copied.
+	 * 
+	 * @param source
+	 *            The columns of the original elements.
+	 * @param count
+	 *            The number of elements.
+	 */
+	void copyValues(AttributeColumns source, int count) {
+		ensureCapacity(count);
+
+		for (Column c : columns.values()) {
+			Column s = source.columns.get(c.key);
+
+			if (s != null && s.type() == c.type())
+				c.copyValues(s, count);
+		}
+	}
+
+	// *** Values ***
+
+	/**
+	 * Column of a given key.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @return The column or null if the key has not been declared.
+	 */
+	protected Column get(String key) {
+		return columns.get(key);
+	}
+
+	/**
+	 * Value of an attribute stored in a column, as a number.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @param index
+	 *            Index of the element.
+	 * @return The value, or NaN if there is no column for the key, if the
+	 *         column has no value at this index or if the value is not a
+	 *         number.
+	 */
+	public double getNumber(String key, int index) {
+		Column c = columns.get(key);
+
+		if (c == null || index < 0 || index >= owners.length || !c.isSet(index))
+			return Double.NaN;
+
+		return c.getNumber(index);
+	}
+
+	/**
+	 * Value of an attribute stored in a column.
+	 * 
+	 * @param key
+	 *            The attribute key.
+	 * @param index
+	 *            Index of the element.
+	 * @return The value, or null if there is no column for the key or if the
+	 *         column has no value at this index.
+	 */
+	public Object getValue(String key, int index) {
+		Column c = columns.get(key);
+
+		if (c == null || index < 0 || index >= owners.length || !c.isSet(index))
+			return null;
+
+		return c.get(index);
+	}
+
+	/**
+	 * Number of values stored for an index.
+	 * 
+	 * @param index
+	 *            Index of an element.
+	 * @return The number of columns having a value at this index.
+	 */
+	protected int count(int index) {
+		int n = 0;
+
+		for (Column c : columns.values())
+			if (c.isSet(index))
+				n++;
+
+		return n;
+	}
+
+	// *** Columns ***
+
+	/**
+	 * Base of the columns. The presence of a value at each index is stored in
+	 * a bit set, the values themselves in a typed array.
+	 */
+	protected static abstract class Column {
+		protected final String key;
+		protected long[] present;
+
+		protected Column(String key, int capacity) {
+			this.key = key;
+			this.present = new long[(capacity >> 6) + 1];
+		}
+
+		public boolean isSet(int i) {
+			return (present[i >> 6] & (1L << i)) != 0;
+		}
+
+		public void unset(int i) {
+			present[i >> 6] &= ~(1L << i);
+			release(i);
+		}
+
+		public void set(int i, Object value) {
+			present[i >> 6] |= 1L << i;
+			store(i, value);
+		}
+
+		public void move(int from, int to) {
+			if (isSet(from)) {
+				present[to >> 6] |= 1L << to;
+				copy(from, to);
+				unset(from);
+			} else {
+				unset(to);
+			}
+		}
+
+		public void clear() {
+			Arrays.fill(present, 0);
+
+			for (int i = 0; i < capacity(); i++)
+				release(i);
+		}
+
+		public void resize(int capacity) {
+			present = Arrays.copyOf(present, (capacity >> 6) + 1);
+		}
+
+		protected void permute(int[] position, int count) {
+			long[] p = new long[present.length];
+
+			for (int i = 0; i < count; i++)
+				if (position[i] >= 0 && isSet(i))
+					p[position[i] >> 6] |= 1L << position[i];
+
+			present = p;
+			permuteArray(position, count);
+		}
+
+		protected void copyValues(Column source, int count) {
+			System.arraycopy(source.present, 0, present, 0, (count >> 6) + 1);
+			copyArray(source, count);
+		}
+
+		public double getNumber(int i) {
+			Object o = get(i);
+			return o instanceof Number ? ((Number) o).doubleValue()
+					: Double.NaN;
+		}
+
+		public void setNumber(int i, double value) {
+			set(i, value);
+		}
+
+		public abstract Type type();
+
+		public abstract boolean accepts(Object value);
+
+		public abstract Object get(int i);
+
+		protected abstract void store(int i, Object value);
+
+		protected abstract void copy(int from, int to);
+
+		protected abstract void release(int i);
+
+		protected abstract int capacity();
+
+		protected abstract void copyArray(Column source, int count);
+
+		protected abstract void permuteArray(int[] position, int count);
+	}
+
+	protected static class DoubleColumn extends Column {
+		protected double[] values;
+
+		protected DoubleColumn(String key, int capacity) {
+			super(key, capacity);
+			values = new double[capacity];
+		}
+
+		@Override
+		public Type type() {
+			return Type.DOUBLE;
+		}
+
+		@Override
+		public boolean accepts(Object value) {
+			return value instanceof Double;
+		}
+
+		@Override
+		public Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		public double getNumber(int i) {
+			return values[i];
+		}
+
+		@Override
+		public void setNumber(int i, double value) {
+			present[i >> 6] |= 1L << i;
+			values[i] = value;
+		}
+
+		@Override
+		protected void store(int i, Object value) {
+			values[i] = (Double) value;
+		}
+
+		@Override
+		protected void copy(int from, int to) {
+			values[to] = values[from];
+		}
+
+		@Override
+		protected void release(int i) {
+		}
+
+		@Override
+		protected int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void permuteArray(int[] position, int count) {
+			double[] v = new double[values.length];
+
+			for (int i = 0; i < count; i++)
+				if (position[i] >= 0)
+					v[position[i]] = values[i];
+
+			values = v;
+		}
+
+		@Override
+		protected void copyArray(Column source, int count) {
+			System.arraycopy(((DoubleColumn) source).values, 0, values, 0, count);
+		}
+
+		@Override
+		public void resize(int capacity) {
+			super.resize(capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	protected static class IntColumn extends Column {
+		protected int[] values;
+
+		protected IntColumn(String key, int capacity) {
+			super(key, capacity);
+			values = new int[capacity];
+		}
+
+		@Override
+		public Type type() {
+			return Type.INT;
+		}
+
+		@Override
+		public boolean accepts(Object value) {
+			return value instanceof Integer;
+		}
+
+		@Override
+		public Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		public double getNumber(int i) {
+			return values[i];
+		}
+
+		@Override
+		protected void store(int i, Object value) {
+			values[i] = (Integer) value;
+		}
+
+		@Override
+		protected void copy(int from, int to) {
+			values[to] = values[from];
+		}
+
+		@Override
+		protected void release(int i) {
+		}
+
+		@Override
+		protected int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void permuteArray(int[] position, int count) {
+			int[] v = new int[values.length];
+
+			for (int i = 0; i < count; i++)
+				if (position[i] >= 0)
+					v[position[i]] = values[i];
+
+			values = v;
+		}
+
+		@Override
+		protected void copyArray(Column source, int count) {
+			System.arraycopy(((IntColumn) source).values, 0, values, 0, count);
+		}
+
+		@Override
+		public void resize(int capacity) {
+			super.resize(capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+
+	protected static class ObjectColumn extends Column {
+		protected Object[] values;
+
+		protected ObjectColumn(String key, int capacity) {
+			super(key, capacity);
+			values = new Object[capacity];
+		}
+
+		@Override
+		public Type type() {
+			return Type.OBJECT;
+		}
+
+		@Override
+		public boolean accepts(Object value) {
+			return true;
+		}
+
+		@Override
+		public Object get(int i) {
+			return values[i];
+		}
+
+		@Override
+		protected void store(int i, Object value) {
+			values[i] = value;
+		}
+
+		@Override
+		protected void copy(int from, int to) {
+			values[to] = values[from];
+		}
+
+		@Override
+		protected void release(int i) {
+			values[i] = null;
+		}
+
+		@Override
+		protected int capacity() {
+			return values.length;
+		}
+
+		@Override
+		protected void permuteArray(int[] position, int count) {
+			Object[] v = new Object[values.length];
+
+			for (int i = 0; i < count; i++)
+				if (position[i] >= 0)
+					v[position[i]] = values[i];
+
+			values = v;
+		}
+
+		@Override
+		protected void copyArray(Column source, int count) {
+			System.arraycopy(((ObjectColumn) source).values, 0, values, 0, count);
+		}
+
+		@Override
+		public void resize(int capacity) {
+			super.resize(capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+	}
+}
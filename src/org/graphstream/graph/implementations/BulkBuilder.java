@@ -0,0 +1,365 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.HashSet;
+
+import org.graphstream.graph.EdgeRejectedException;
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.IdAlreadyInUseException;
+
+/**
+ * <p>
+ * Fast loading of many elements in an {@link AdjacencyListGraph}.
+ * </p>
+ * 
+ * <p>
+ * Adding elements one by one with {@link AbstractGraph#addNode(String)} and
+ * {@link AbstractGraph#addEdge(String, String, String)} sends an event per
+ * element and makes the storage of the graph and of the nodes grow
+ * incrementally. A builder first sizes all these structures for the elements
+ * to add, then inserts them without sending any event. Edges are given as
+ * pairs of node indices in primitive arrays.
+ * </p>
+ * 
+ * <p>
+ * Once the elements are loaded, the sinks of the graph can be told about
+ * them with {@link #sendEvents()}, which replays a node added or edge added
+ * event for each element loaded by this builder. Sinks that only need the
+ * final state can also be synchronized with a
+ * {@link org.graphstream.stream.GraphReplay} of the graph.
+ * </p>
+ * 
+ * <pre>
+ * BulkBuilder bulk = graph.bulk();
+ * bulk.addNodes(ids);
+ * bulk.addEdges(null, sources, targets, false);
+ * bulk.sendEvents();
+ * </pre>
+ * 
+ * <p>
+ * The builder follows the strict checking and auto creation policy of the
+ * graph, except that nodes are never created implicitly for edges, since
+ * they are referenced by index.
+ * </p>
+ * 
+ * @see AdjacencyListGraph#bulk()
+ */
+public class BulkBuilder {
+	protected final AdjacencyListGraph graph;
+
+	/**
+	 * Index of the first node and of the first edge loaded by this builder.
+	 */
+	protected int nodeStart, edgeStart;
+
+	/**
+	 * Number of nodes and of edges loaded by this builder.
+	 */
+	protected int nodeLoaded, edgeLoaded;
+
+	protected BulkBuilder(AdjacencyListGraph graph) {
+		this.graph = graph;
+		this.nodeStart = graph.getNodeIndexBound();
+		this.edgeStart = graph.getEdgeIndexBound();
+	}
+
+	/**
+	 * The graph being loaded.
+	 * 
+	 * @return The graph.
+	 */
+	public AdjacencyListGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Adds nodes to the graph, without sending any event. The nodes get
+	 * consecutive indices, in the order of the given identifiers.
+	 * 
+	 * @param ids
+	 *            The identifiers of the nodes.
+	 * @return The index of the first node added.
+	 * @throws IdAlreadyInUseException
+	 *             If strict checking is enabled and a node with the same
+	 *             identifier already exists or is given twice. Nothing is
+	 *             added in this case. Else the existing node is kept and the
+	 *             identifier is ignored.
+	 * @complexity O(k) with k the number of nodes added.
+	 */
+	public int addNodes(String... ids) {
+		int first = graph.getNodeIndexBound();
+
+		if (nodeLoaded == 0)
+			nodeStart = first;
+
+		if (graph.isStrict()) {
+			HashSet<String> given = new HashSet<String>(
+					4 * ids.length / 3 + 1);
+
+			for (String id : ids)
+				if (graph.nodeMap.containsKey(id) || !given.add(id))
+					throw new IdAlreadyInUseException("id \"" + id
+							+ "\" already in use. Cannot create a node.");
+		}
+
+		graph.ensureNodeCapacity(first + ids.length);
+
+		for (String id : ids) {
+			if (graph.nodeMap.containsKey(id))
+				continue;
+
+			AbstractNode node = (AbstractNode) graph.nodeFactory()
+					.newInstance(id, graph);
+			graph.addNodeCallback(node);
+		}
+
+		nodeLoaded += graph.getNodeIndexBound() - first;
+		return first;
+	}
+
+	/**
+	 * Adds edges to the graph, without sending any event. The edge storage of
+	 * the graph and of each node is sized once from the degrees of the nodes.
+	 * 
+	 * @param ids
+	 *            The identifiers of the edges, or null to name them with
+	 *            their source and target node identifiers, like "A_B".
+	 * @param src
+	 *            Index of the source node of each edge.
+	 * @param dst
+	 *            Index of the target node of each edge.
+	 * @param directed
+	 *            True if the edges are directed.
+	 * @return The index of the first edge added.
+	 * @throws ElementNotFoundException
+	 *             If a node index is out of range. Nothing is added in this
+	 *             case.
+	 * @throws IdAlreadyInUseException
+	 *             If strict checking is enabled and an edge with the same
+	 *             identifier already exists. The edges added before by this
+	 *             call are removed. Else the edge is ignored.
+	 * @throws EdgeRejectedException
+	 *             If strict checking is enabled and a node rejects an edge,
+	 *             for example a second edge between two nodes of a
+	 *             {@link SingleGraph}. The edges added before by this call
+	 *             are removed. Else the edge is ignored.
+	 * @complexity O(n + k) with n the number of nodes of the graph and k the
+	 *             number of edges added.
+	 */
+	public int addEdges(String[] ids, int[] src, int[] dst, boolean directed) {
+		return addEdges(ids, src, dst, null, directed);
+	}
+
+	/**
+	 * Adds edges to the graph, without sending any event, each edge being
+	 * directed or not. The edges get consecutive indices, in the order of the
+	 * arrays, unless some of them are ignored.
+	 * 
+	 * @param ids
+	 *            The identifiers of the edges, or null to name them with
+	 *            their source and target node identifiers, like "A_B".
+	 * @param src
+	 *            Index of the source node of each edge.
+	 * @param dst
+	 *            Index of the target node of each edge.
+	 * @param directed
+	 *            True for each edge that is directed.
+	 * @return The index of the first edge added.
+	 * @see #addEdges(String[], int[], int[], boolean)
+	 * @complexity O(n + k) with n the number of nodes of the graph and k the
+	 *             number of edges added.
+	 */
+	public int addEdges(String[] ids, int[] src, int[] dst, boolean[] directed) {
+		if (directed.length != src.length)
+			throw new IllegalArgumentException(
+					"Direction and source arrays differ in length");
+
+		return addEdges(ids, src, dst, directed, false);
+	}
+
+	private int addEdges(String[] ids, int[] src, int[] dst,
+			boolean[] directedEach, boolean directed) {
+		int k = src.length;
+		int n = graph.getNodeIndexBound();
+		int first = graph.getEdgeIndexBound();
+
+		if (edgeLoaded == 0)
+			edgeStart = first;
+
+		if (dst.length != k || (ids != null && ids.length != k))
+			throw new IllegalArgumentException(
+					"Identifier, source and target arrays differ in length");
+
+		int[] degrees = new int[n];
+
+		for (int i = 0; i < k; i++) {
+			if (!exists(src[i], n) || !exists(dst[i], n))
+				throw new ElementNotFoundException(String.format(
+						"Cannot create edge #%d. Node #%d does not exist.", i,
+						exists(src[i], n) ? dst[i] : src[i]));
+
+			degrees[src[i]]++;
+
+			if (src[i] != dst[i])
+				degrees[dst[i]]++;
+		}
+
+		graph.ensureEdgeCapacity(first + k);
+
+		for (int i = 0; i < n; i++) {
+			if (degrees[i] > 0 && graph.nodeArray[i] instanceof AdjacencyListNode) {
+				AdjacencyListNode node = (AdjacencyListNode) graph.nodeArray[i];
+				node.ensureEdgeCapacity(node.degree + degrees[i]);
+			}
+		}
+
+		for (int i = 0; i < k; i++) {
+			AbstractNode from = graph.nodeArray[src[i]];
+			AbstractNode to = graph.nodeArray[dst[i]];
+			String id = ids != null ? ids[i] : from.getId() + "_" + to.getId();
+
+			if (graph.edgeMap.containsKey(id)) {
+				if (graph.isStrict()) {
+					removeEdgesFrom(first);
+					throw new IdAlreadyInUseException("id \"" + id
+							+ "\" already in use. Cannot create an edge.");
+				}
+				continue;
+			}
+
+			AbstractEdge edge = (AbstractEdge) graph.edgeFactory()
+					.newInstance(id, from, to,
+							directedEach != null ? directedEach[i] : directed);
+
+			if (!from.addEdgeCallback(edge)) {
+				if (graph.isStrict()) {
+					removeEdgesFrom(first);
+					throw new EdgeRejectedException("Edge " + edge
+							+ " was rejected by node " + from);
+				}
+				continue;
+			}
+
+			if (from != to && !to.addEdgeCallback(edge)) {
+				from.removeEdgeCallback(edge);
+
+				if (graph.isStrict()) {
+					removeEdgesFrom(first);
+					throw new EdgeRejectedException("Edge " + edge
+							+ " was rejected by node " + to);
+				}
+				continue;
+			}
+
+			graph.addEdgeCallback(edge);
+		}
+
+		edgeLoaded += graph.getEdgeIndexBound() - first;
+		return first;
+	}
+
+	/**
+	 * Removes without event the edges whose index is greater or equal to a
+	 * given index, last first so that no edge is moved.
+	 */
+	private void removeEdgesFrom(int first) {
+		for (int i = graph.getEdgeIndexBound() - 1; i >= first; i--) {
+			AbstractEdge edge = graph.edgeArray[i];
+
+			if (edge == null)
+				continue;
+
+			AbstractNode from = edge.getSourceNode();
+			AbstractNode to = edge.getTargetNode();
+
+			from.removeEdgeCallback(edge);
+
+			if (from != to)
+				to.removeEdgeCallback(edge);
+
+			graph.removeEdgeCallback(edge);
+			graph.releaseEdge(edge);
+		}
+	}
+
+	private boolean exists(int node, int n) {
+		return node >= 0 && node < n && graph.nodeArray[node] != null;
+	}
+
+	/**
+	 * Sends to the sinks of the graph a node added event for each node and
+	 * an edge added event for each edge loaded by this builder, nodes first.
+	 * Nothing is sent twice: after this call, the builder starts a new batch.
+	 * Elements should not be added to or removed from the graph by other
+	 * means between the load and this call.
+	 * 
+	 * @throws IllegalStateException
+	 *             If elements have been removed from the graph since they
+	 *             were loaded, in which case their indices are not
+	 *             consecutive anymore.
+	 */
+	public void sendEvents() {
+		if ((nodeLoaded > 0 && !loaded(graph.nodeArray, nodeStart,
+				nodeLoaded, graph.getNodeIndexBound()))
+				|| (edgeLoaded > 0 && !loaded(graph.edgeArray, edgeStart,
+						edgeLoaded, graph.getEdgeIndexBound())))
+			throw new IllegalStateException(
+					"Elements were removed since the bulk load");
+
+		for (int i = nodeStart; i < nodeStart + nodeLoaded; i++)
+			graph.listeners.sendNodeAdded(graph.nodeArray[i].getId());
+
+		for (int i = edgeStart; i < edgeStart + edgeLoaded; i++) {
+			AbstractEdge edge = graph.edgeArray[i];
+			graph.listeners.sendEdgeAdded(edge.getId(), edge.getSourceNode()
+					.getId(), edge.getTargetNode().getId(), edge.isDirected());
+		}
+
+		nodeLoaded = edgeLoaded = 0;
+	}
+
+	/**
+	 * Checks that the elements loaded are still at their indices.
+	 */
+	private static boolean loaded(Object[] elements, int start, int loaded,
+			int bound) {
+		if (start + loaded > bound)
+			return false;
+
+		for (int i = start; i < start + loaded; i++)
+			if (elements[i] == null)
+				return false;
+
+		return true;
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.security.AccessControlException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * A small map used to store the attributes of the elements.
+ * </p>
+ * 
+ * <p>
+ * Most elements only have a few attributes. A {@link HashMap} costs about a
+ * hundred bytes before storing anything, plus an entry object per attribute.
+ * This map stores its keys and values in two parallel arrays and finds a key
+ * with a linear scan, which is as fast as hashing for a few keys. Keys are
+ * interned when inserted, so that the scan first compares references and
+ * only falls back to {@link String#equals(Object)} for keys that were not
+ * interned by the caller.
+ * </p>
+ * 
+ * <p>
+ * When the number of keys exceeds a threshold, the map promotes itself to a
+ * {@link LinkedHashMap} and delegates everything to it. Keys are iterated in
+ * insertion order before and after the promotion, so the order of the
+ * attributes does not change when an element gains many of them. The
+ * promotion invalidates the iterators of the map. The threshold can be set
+ * with the system property
+ * {@code org.graphstream.graph.element.compactAttributeThreshold}.
+ * </p>
+ */
+public class CompactAttributeMap extends AbstractMap<String, Object> {
+	/**
+	 * Number of keys above which the map is promoted to a hash map.
+	 */
+	public static final int THRESHOLD;
+
+	static {
+		String p = "org.graphstream.graph.element.compactAttributeThreshold";
+		int t = 8;
+
+		try {
+			t = Integer.valueOf(System.getProperty(p, "8"));
+		} catch (AccessControlException e) {
+		} catch (NumberFormatException e) {
+		}
+
+		THRESHOLD = Math.max(t, 0);
+	}
+
+	protected String[] keys;
+	protected Object[] values;
+	protected int size;
+
+	/**
+	 * The hash map used once promoted, null before.
+	 */
+	protected LinkedHashMap<String, Object> map;
+
+	protected int modCount;
+
+	private transient Set<Map.Entry<String, Object>> entrySet;
+
+	/**
+	 * New empty map.
+	 */
+	public CompactAttributeMap() {
+		this(1);
+	}
+
+	/**
+	 * New empty map able to store a given number of keys without resizing.
+	 * 
+	 * @param expectedSize
+	 *            Expected number of keys.
+	 */
+	public CompactAttributeMap(int expectedSize) {
+		if (expectedSize > THRESHOLD) {
+			map = new LinkedHashMap<String, Object>(4 * expectedSize / 3 + 1);
+		} else {
+			expectedSize = Math.max(expectedSize, 1);
+			keys = new String[expectedSize];
+			values = new Object[expectedSize];
+		}
+	}
+
+	/**
+	 * Checks if this map has been promoted to a hash map.
+	 * 
+	 * @return True if the keys are hashed.
+	 */
+	public boolean isPromoted() {
+		return map != null;
+	}
+
+	/**
+	 * Position of a key in the arrays.
+	 */
+	protected int find(Object key) {
+		for (int i = 0; i < size; i++)
+			if (keys[i] == key)
+				return i;
+
+		if (key != null)
+			for (int i = 0; i < size; i++)
+				if (key.equals(keys[i]))
+					return i;
+
+		return -1;
+	}
+
+	protected void promote() {
+		map = new LinkedHashMap<String, Object>(4 * (size + 1) / 3 + 1);
+
+		for (int i = 0; i < size; i++)
+			map.put(keys[i], values[i]);
+
+		keys = null;
+		values = null;
+		size = 0;
+	}
+
+	protected void removeAt(int i) {
+		int n = size - i - 1;
+
+		if (n > 0) {
+			System.arraycopy(keys, i + 1, keys, i, n);
+			System.arraycopy(values, i + 1, values, i, n);
+		}
+
+		size--;
+		keys[size] = null;
+		values[size] = null;
+		modCount++;
+	}
+
+	// *** Map ***
+
+	@Override
+	public int size() {
+		return map != null ? map.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map != null ? map.containsKey(key) : find(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (map != null)
+			return map.get(key);
+
+		int i = find(key);
+		return i < 0 ? null : values[i];
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (map != null)
+			return map.put(key, value);
+
+		int i = find(key);
+
+		if (i >= 0) {
+			Object old = values[i];
+			values[i] = value;
+			return old;
+		}
+
+		if (size >= THRESHOLD) {
+			promote();
+			modCount++;
+			return map.put(key, value);
+		}
+
+		if (size == keys.length) {
+			int capacity = Math.min(Math.max(2 * size, 2), Math.max(THRESHOLD, 1));
+			keys = Arrays.copyOf(keys, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		keys[size] = key == null ? null : key.intern();
+		values[size] = value;
+		size++;
+		modCount++;
+
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (map != null)
+			return map.remove(key);
+
+		int i = find(key);
+
+		if (i < 0)
+			return null;
+
+		Object old = values[i];
+		removeAt(i);
+
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if (map != null) {
+			map.clear();
+		} else {
+			Arrays.fill(keys, 0, size, null);
+			Arrays.fill(values, 0, size, null);
+			size = 0;
+			modCount++;
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if (entrySet == null)
+			entrySet = new EntrySet();
+
+		return entrySet;
+	}
+
+	protected class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			if (map != null)
+				return map.entrySet().iterator();
+
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return CompactAttributeMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			CompactAttributeMap.this.clear();
+		}
+	}
+
+	protected class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		int next = 0;
+		int last = -1;
+		int expectedModCount = modCount;
+
+		public boolean hasNext() {
+			// the arrays are gone once promoted
+			if (map != null)
+				throw new ConcurrentModificationException();
+
+			return next < size;
+		}
+
+		public Map.Entry<String, Object> next() {
+			if (expectedModCount != modCount)
+				throw new ConcurrentModificationException();
+
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			last = next++;
+			return new Entry(last);
+		}
+
+		public void remove() {
+			if (last < 0)
+				throw new IllegalStateException();
+
+			if (expectedModCount != modCount)
+				throw new ConcurrentModificationException();
+
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	protected class Entry implements Map.Entry<String, Object> {
+		final String key;
+		Object value;
+
+		Entry(int i) {
+			key = keys[i];
+			value = values[i];
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		public Object setValue(Object value) {
+			Object old = this.value;
+			this.value = value;
+			put(key, value);
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+
+			return (key == null ? e.getKey() == null : key.equals(e.getKey()))
+					&& (value == null ? e.getValue() == null : value.equals(e
+							.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return (key == null ? 0 : key.hashCode())
+					^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Edges used with {@link ConcurrentGraph}. The structure of an edge never
+ * changes, only its attributes need to be protected.
+ */
+public class ConcurrentEdge extends AbstractEdge {
+	protected ConcurrentEdge(String id, AbstractNode source,
+			AbstractNode target, boolean directed) {
+		super(id, source, target, directed);
+	}
+
+	@Override
+	protected Map<String, Object> createAttributeMap(int expectedSize) {
+		return Collections.synchronizedMap(super
+				.createAttributeMap(expectedSize));
+	}
+
+	@Override
+	public void addAttribute(String attribute, Object... values) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.addAttribute(attribute, values);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void addAttributes(Map<String, Object> attributes) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.addAttributes(attributes);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void removeAttribute(String attribute) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.removeAttribute(attribute);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void clearAttributes() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.clearAttributes();
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void setNumber(String attribute, double value) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.setNumber(attribute, value);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void setNumbers(String attribute, double... values) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.setNumbers(attribute, values);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	/**
+	 * A copy of the attribute keys, taken under the event lock.
+	 */
+	@Override
+	public Collection<String> getAttributeKeySet() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			return Collections.unmodifiableCollection(new ArrayList<String>(
+					super.getAttributeKeySet()));
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public Iterator<String> getAttributeKeyIterator() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			return super.getAttributeKeyIterator() == null ? null
+					: getAttributeKeySet().iterator();
+		} finally {
+			l.unlock();
+		}
+	}
+}
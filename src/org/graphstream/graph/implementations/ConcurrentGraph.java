@@ -0,0 +1,854 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.EdgeFactory;
+import org.graphstream.graph.EdgeRejectedException;
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.IdAlreadyInUseException;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.NodeFactory;
+import org.graphstream.graph.SplittableIterator;
+
+/**
+ * <p>
+ * A graph that can be modified and queried by several threads at the same
+ * time.
+ * </p>
+ * 
+ * <p>
+ * Unlike {@link org.graphstream.graph.Graphs#synchronizedGraph(Graph)}, this
+ * graph does not serialize all the operations behind a single lock and does
+ * not wrap its elements. Each node is mapped to one of a fixed set of stripe
+ * locks which guards its edges, so that edges between disjoint nodes are
+ * inserted and removed in parallel. Identifiers are stored in concurrent
+ * maps. Two short global locks remain: one guards the arrays giving the
+ * elements by index, the other the sending of events.
+ * </p>
+ * 
+ * <h2>Events</h2>
+ * 
+ * <p>
+ * Events are sent one at a time, under the event lock, with a time id taken
+ * under the same lock, so the time ids received by sinks are strictly
+ * increasing. Events are sent in the order in which the operations take
+ * effect:
+ * </p>
+ * <ul>
+ * <li>the node added event of a node is sent before any event about its
+ * edges, and the node removed event after the edge removed events of all its
+ * edges;</li>
+ * <li>the events of an edge are queued while holding the stripe locks of
+ * its end points, and sent in the order of the queue once these locks are
+ * released, so the added event of an edge always precedes its removed event.
+ * An edge is already removed from the graph when its removed event is
+ * sent;</li>
+ * <li>attribute changes are made and sent under the event lock, so the order
+ * of the attribute events of an element is the order of the changes.</li>
+ * </ul>
+ * <p>
+ * Events of operations on unrelated elements done by different threads are
+ * interleaved in an unspecified order. Sinks are called while holding the
+ * event lock and no stripe lock, by the thread doing the modification or by
+ * another thread sending the queued edge events: they should be fast, and
+ * they may modify the graph from the thread calling them. Using this graph
+ * itself as the sink of another source is supported as long as no other
+ * thread modifies it at the same time.
+ * </p>
+ * 
+ * <h2>Iteration</h2>
+ * 
+ * <p>
+ * Iterators on the nodes and edges of the graph or of a node work on a copy
+ * taken when they are created. They do not throw
+ * {@link java.util.ConcurrentModificationException} and do not see later
+ * changes. Indices of elements change when elements are removed, like in
+ * {@link AdjacencyListGraph}, so accessing elements by index is only
+ * meaningful when no other thread removes elements.
+ * </p>
+ */
+public class ConcurrentGraph extends AbstractGraph {
+	public static final double GROW_FACTOR = 1.1;
+	public static final int DEFAULT_NODE_CAPACITY = 128;
+	public static final int DEFAULT_EDGE_CAPACITY = 1024;
+
+	/**
+	 * Default number of stripe locks.
+	 */
+	public static final int DEFAULT_STRIPES = 16 * Runtime.getRuntime()
+			.availableProcessors();
+
+	protected final ConcurrentHashMap<String, AbstractNode> nodeMap;
+	protected final ConcurrentHashMap<String, AbstractEdge> edgeMap;
+
+	/**
+	 * Elements by index, guarded by {@link #structureLock}.
+	 */
+	protected AbstractNode[] nodeArray;
+	protected AbstractEdge[] edgeArray;
+
+	protected volatile int nodeCount;
+	protected volatile int edgeCount;
+
+	/**
+	 * Locks guarding the edges of the nodes. The number of locks is a power
+	 * of two.
+	 */
+	protected final ReentrantLock[] stripes;
+
+	/**
+	 * Lock guarding the index arrays. No other lock is taken while holding
+	 * it.
+	 */
+	protected final ReentrantLock structureLock;
+
+	/**
+	 * Lock guarding the listeners and the attributes. It is never requested
+	 * while holding a stripe lock, so sinks called under it can modify the
+	 * graph.
+	 */
+	protected final ReentrantLock eventLock;
+
+	/**
+	 * Edge events waiting to be sent. They are queued under the stripe locks
+	 * of the edge, so the events of an edge are queued in the order of the
+	 * changes, and sent under the event lock in the order of the queue.
+	 */
+	protected final ConcurrentLinkedQueue<EdgeEvent> pendingEvents;
+
+	// *** Constructors ***
+
+	/**
+	 * Creates an empty graph.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 * @param strictChecking
+	 *            If true any non-fatal error throws an exception.
+	 * @param autoCreate
+	 *            If true (and strict checking is false), nodes are
+	 *            automatically created when referenced when creating a edge,
+	 *            even if not yet inserted in the graph.
+	 * @param initialNodeCapacity
+	 *            Initial capacity of the node storage data structures.
+	 * @param initialEdgeCapacity
+	 *            Initial capacity of the edge storage data structures.
+	 * @param stripeCount
+	 *            Number of stripe locks guarding the nodes, rounded up to a
+	 *            power of two. More locks means less contention between
+	 *            threads modifying different nodes.
+	 */
+	public ConcurrentGraph(String id, boolean strictChecking,
+			boolean autoCreate, int initialNodeCapacity,
+			int initialEdgeCapacity, int stripeCount) {
+		super(id, strictChecking, autoCreate);
+
+		setNodeFactory(new NodeFactory<ConcurrentNode>() {
+			public ConcurrentNode newInstance(String id, Graph graph) {
+				return new ConcurrentNode((ConcurrentGraph) graph, id);
+			}
+		});
+
+		setEdgeFactory(new EdgeFactory<ConcurrentEdge>() {
+			public ConcurrentEdge newInstance(String id, Node src, Node dst,
+					boolean directed) {
+				return new ConcurrentEdge(id, (AbstractNode) src,
+						(AbstractNode) dst, directed);
+			}
+		});
+
+		if (initialNodeCapacity < DEFAULT_NODE_CAPACITY)
+			initialNodeCapacity = DEFAULT_NODE_CAPACITY;
+		if (initialEdgeCapacity < DEFAULT_EDGE_CAPACITY)
+			initialEdgeCapacity = DEFAULT_EDGE_CAPACITY;
+
+		int n = 1;
+
+		while (n < stripeCount)
+			n <<= 1;
+
+		nodeMap = new ConcurrentHashMap<String, AbstractNode>(
+				4 * initialNodeCapacity / 3 + 1);
+		edgeMap = new ConcurrentHashMap<String, AbstractEdge>(
+				4 * initialEdgeCapacity / 3 + 1);
+		nodeArray = new AbstractNode[initialNodeCapacity];
+		edgeArray = new AbstractEdge[initialEdgeCapacity];
+		nodeCount = edgeCount = 0;
+
+		stripes = new ReentrantLock[n];
+
+		for (int i = 0; i < n; i++)
+			stripes[i] = new ReentrantLock();
+
+		structureLock = new ReentrantLock();
+		eventLock = new ReentrantLock();
+		pendingEvents = new ConcurrentLinkedQueue<EdgeEvent>();
+	}
+
+	/**
+	 * Creates an empty graph with default capacities and number of stripes.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 * @param strictChecking
+	 *            If true any non-fatal error throws an exception.
+	 * @param autoCreate
+	 *            If true (and strict checking is false), nodes are
+	 *            automatically created when referenced when creating a edge,
+	 *            even if not yet inserted in the graph.
+	 */
+	public ConcurrentGraph(String id, boolean strictChecking,
+			boolean autoCreate) {
+		this(id, strictChecking, autoCreate, DEFAULT_NODE_CAPACITY,
+				DEFAULT_EDGE_CAPACITY, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Creates an empty graph with strict checking and without auto-creation.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 */
+	public ConcurrentGraph(String id) {
+		this(id, true, false);
+	}
+
+	// *** Locks ***
+
+	/**
+	 * The stripe of a node.
+	 * 
+	 * @param nodeId
+	 *            Identifier of the node.
+	 * @return The index of the lock guarding the edges of the node.
+	 */
+	protected int stripeOf(String nodeId) {
+		int h = nodeId.hashCode();
+		h ^= (h >>> 20) ^ (h >>> 12);
+		h ^= (h >>> 7) ^ (h >>> 4);
+		return h & (stripes.length - 1);
+	}
+
+	/**
+	 * Locks the stripes of two nodes, always in increasing stripe order to
+	 * avoid dead locks.
+	 */
+	protected void lock(AbstractNode a, AbstractNode b) {
+		int i = ((ConcurrentNode) a).stripe;
+		int j = ((ConcurrentNode) b).stripe;
+
+		if (i > j) {
+			int t = i;
+			i = j;
+			j = t;
+		}
+
+		stripes[i].lock();
+
+		if (j != i)
+			stripes[j].lock();
+	}
+
+	protected void unlock(AbstractNode a, AbstractNode b) {
+		int i = ((ConcurrentNode) a).stripe;
+		int j = ((ConcurrentNode) b).stripe;
+
+		stripes[i].unlock();
+
+		if (j != i)
+			stripes[j].unlock();
+	}
+
+	// *** Edge events ***
+
+	/**
+	 * An edge added or removed event waiting to be sent.
+	 */
+	protected static class EdgeEvent {
+		final AbstractEdge edge;
+		final boolean added;
+
+		EdgeEvent(AbstractEdge edge, boolean added) {
+			this.edge = edge;
+			this.added = added;
+		}
+	}
+
+	/**
+	 * Sends the queued edge events. This must not be called while holding a
+	 * stripe lock, unless the event lock was taken before, as
+	 * {@link #clear()} does.
+	 */
+	protected void sendPendingEvents() {
+		eventLock.lock();
+		try {
+			EdgeEvent e;
+
+			while ((e = pendingEvents.poll()) != null) {
+				AbstractEdge edge = e.edge;
+
+				if (e.added)
+					listeners.sendEdgeAdded(edge.getId(), edge.getSourceNode()
+							.getId(), edge.getTargetNode().getId(), edge
+							.isDirected());
+				else
+					listeners.sendEdgeRemoved(edge.getId());
+			}
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	// *** Inherited from abstract element ***
+
+	@Override
+	protected Map<String, Object> createAttributeMap(int expectedSize) {
+		return Collections.synchronizedMap(super
+				.createAttributeMap(expectedSize));
+	}
+
+	@Override
+	public void addAttribute(String attribute, Object... values) {
+		eventLock.lock();
+		try {
+			super.addAttribute(attribute, values);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public void addAttributes(Map<String, Object> attributes) {
+		eventLock.lock();
+		try {
+			super.addAttributes(attributes);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public void removeAttribute(String attribute) {
+		eventLock.lock();
+		try {
+			super.removeAttribute(attribute);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public void clearAttributes() {
+		eventLock.lock();
+		try {
+			super.clearAttributes();
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public void setNumber(String attribute, double value) {
+		eventLock.lock();
+		try {
+			super.setNumber(attribute, value);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public void setNumbers(String attribute, double... values) {
+		eventLock.lock();
+		try {
+			super.setNumbers(attribute, values);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	/**
+	 * A copy of the attribute keys, taken under the event lock.
+	 */
+	@Override
+	public Collection<String> getAttributeKeySet() {
+		eventLock.lock();
+		try {
+			return Collections.unmodifiableCollection(new ArrayList<String>(
+					super.getAttributeKeySet()));
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	public Iterator<String> getAttributeKeyIterator() {
+		eventLock.lock();
+		try {
+			return super.getAttributeKeyIterator() == null ? null
+					: getAttributeKeySet().iterator();
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	// *** Callbacks ***
+
+	@Override
+	protected void addNodeCallback(AbstractNode node) {
+		structureLock.lock();
+		try {
+			nodeMap.put(node.getId(), node);
+
+			if (nodeCount == nodeArray.length)
+				nodeArray = Arrays.copyOf(nodeArray,
+						(int) (nodeArray.length * GROW_FACTOR) + 1);
+
+			nodeArray[nodeCount] = node;
+			node.setIndex(nodeCount++);
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@Override
+	protected void addEdgeCallback(AbstractEdge edge) {
+		structureLock.lock();
+		try {
+			if (edgeCount == edgeArray.length)
+				edgeArray = Arrays.copyOf(edgeArray,
+						(int) (edgeArray.length * GROW_FACTOR) + 1);
+
+			edgeArray[edgeCount] = edge;
+			edge.setIndex(edgeCount++);
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@Override
+	protected void removeNodeCallback(AbstractNode node) {
+		structureLock.lock();
+		try {
+			nodeMap.remove(node.getId());
+			int i = node.getIndex();
+			nodeArray[i] = nodeArray[--nodeCount];
+			nodeArray[i].setIndex(i);
+			nodeArray[nodeCount] = null;
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@Override
+	protected void removeEdgeCallback(AbstractEdge edge) {
+		structureLock.lock();
+		try {
+			edgeMap.remove(edge.getId());
+			int i = edge.getIndex();
+			edgeArray[i] = edgeArray[--edgeCount];
+			edgeArray[i].setIndex(i);
+			edgeArray[edgeCount] = null;
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@Override
+	protected void clearCallback() {
+		structureLock.lock();
+		try {
+			for (int i = 0; i < nodeCount; i++)
+				((ConcurrentNode) nodeArray[i]).removed = true;
+
+			nodeMap.clear();
+			edgeMap.clear();
+			Arrays.fill(nodeArray, 0, nodeCount, null);
+			Arrays.fill(edgeArray, 0, edgeCount, null);
+			nodeCount = edgeCount = 0;
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	// *** Access ***
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Node> T getNode(String id) {
+		return (T) nodeMap.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Node> T getNode(int index) {
+		structureLock.lock();
+		try {
+			if (index < 0 || index >= nodeCount)
+				throw new IndexOutOfBoundsException("Node " + index
+						+ " does not exist");
+			return (T) nodeArray[index];
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Edge> T getEdge(String id) {
+		return (T) edgeMap.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Edge> T getEdge(int index) {
+		structureLock.lock();
+		try {
+			if (index < 0 || index >= edgeCount)
+				throw new IndexOutOfBoundsException("Edge " + index
+						+ " does not exist");
+			return (T) edgeArray[index];
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	// *** Modification ***
+
+	@Override
+	public void stepBegins(double time) {
+		eventLock.lock();
+		try {
+			super.stepBegins(time);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all the elements. All the locks are taken, the event lock
+	 * first, so this waits for the operations in progress in other threads.
+	 */
+	@Override
+	public void clear() {
+		eventLock.lock();
+
+		for (ReentrantLock l : stripes)
+			l.lock();
+
+		try {
+			sendPendingEvents();
+			super.clear();
+		} finally {
+			for (ReentrantLock l : stripes)
+				l.unlock();
+
+			eventLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a node. Additions of nodes are serialized by the event lock, so
+	 * that the node added event is sent before any other thread can use the
+	 * node.
+	 */
+	@Override
+	public <T extends Node> T addNode(String id) {
+		eventLock.lock();
+		try {
+			return super.addNode(id);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected <T extends Edge> T addEdge(String edgeId, AbstractNode src,
+			String srcId, AbstractNode dst, String dstId, boolean directed) {
+		if (src == null || dst == null) {
+			if (isStrict())
+				throw new ElementNotFoundException(String.format(
+						"Cannot create edge %s[%s-%s%s]. Node '%s' does not exist.",
+						edgeId, srcId, directed ? ">" : "-", dstId,
+						src == null ? srcId : dstId));
+			if (!isAutoCreationEnabled())
+				return null;
+			if (src == null)
+				src = addNode(srcId);
+			if (dst == null)
+				dst = addNode(dstId);
+		}
+
+		AbstractEdge edge = (AbstractEdge) edgeFactory().newInstance(edgeId,
+				src, dst, directed);
+
+		lock(src, dst);
+
+		try {
+			if (((ConcurrentNode) src).removed
+					|| ((ConcurrentNode) dst).removed) {
+				if (isStrict())
+					throw new ElementNotFoundException(String.format(
+							"Cannot create edge %s[%s-%s%s]. Node '%s' was removed.",
+							edgeId, srcId, directed ? ">" : "-", dstId,
+							((ConcurrentNode) src).removed ? srcId : dstId));
+				return null;
+			}
+
+			AbstractEdge existing = edgeMap.putIfAbsent(edgeId, edge);
+
+			if (existing != null) {
+				if (isStrict())
+					throw new IdAlreadyInUseException("id \"" + edgeId
+							+ "\" already in use. Cannot create an edge.");
+				if ((existing.getSourceNode() == src && existing
+						.getTargetNode() == dst)
+						|| (!directed && existing.getTargetNode() == src && existing
+								.getSourceNode() == dst))
+					return (T) existing;
+				return null;
+			}
+
+			if (!src.addEdgeCallback(edge)) {
+				edgeMap.remove(edgeId, edge);
+				if (isStrict())
+					throw new EdgeRejectedException("Edge " + edge
+							+ " was rejected by node " + src);
+				return null;
+			}
+
+			if (src != dst && !dst.addEdgeCallback(edge)) {
+				src.removeEdgeCallback(edge);
+				edgeMap.remove(edgeId, edge);
+				if (isStrict())
+					throw new EdgeRejectedException("Edge " + edge
+							+ " was rejected by node " + dst);
+				return null;
+			}
+
+			addEdgeCallback(edge);
+			pendingEvents.add(new EdgeEvent(edge, true));
+		} finally {
+			unlock(src, dst);
+		}
+
+		sendPendingEvents();
+
+		return (T) edge;
+	}
+
+	/**
+	 * Removes a node. The node is first marked as removed so that no edge
+	 * can be attached to it anymore, then its edges are removed one by one,
+	 * then the node itself.
+	 */
+	@Override
+	protected void removeNode(AbstractNode node, boolean graphCallback) {
+		if (node == null)
+			return;
+
+		ConcurrentNode n = (ConcurrentNode) node;
+
+		n.lock.lock();
+		try {
+			if (n.removed)
+				return;
+			n.removed = true;
+		} finally {
+			n.lock.unlock();
+		}
+
+		while (true) {
+			AbstractEdge e;
+
+			n.lock.lock();
+			try {
+				e = n.degree > 0 ? n.edges[0] : null;
+			} finally {
+				n.lock.unlock();
+			}
+
+			if (e == null)
+				break;
+
+			removeEdge(e, true, true, true);
+		}
+
+		eventLock.lock();
+		try {
+			// the removed events of the edges come first
+			sendPendingEvents();
+			listeners.sendNodeRemoved(node.getId());
+
+			if (graphCallback)
+				removeNodeCallback(node);
+		} finally {
+			eventLock.unlock();
+		}
+	}
+
+	@Override
+	protected void removeEdge(AbstractEdge edge, boolean graphCallback,
+			boolean sourceCallback, boolean targetCallback) {
+		if (edge == null)
+			return;
+
+		AbstractNode src = edge.getSourceNode();
+		AbstractNode dst = edge.getTargetNode();
+
+		lock(src, dst);
+
+		try {
+			if (edgeMap.get(edge.getId()) != edge)
+				return;
+
+			pendingEvents.add(new EdgeEvent(edge, false));
+
+			if (sourceCallback)
+				src.removeEdgeCallback(edge);
+
+			if (src != dst && targetCallback)
+				dst.removeEdgeCallback(edge);
+
+			if (graphCallback)
+				removeEdgeCallback(edge);
+		} finally {
+			unlock(src, dst);
+		}
+
+		sendPendingEvents();
+	}
+
+	// *** Iterators ***
+
+	/**
+	 * Iterator over a copy of an array of elements. Removing an element
+	 * removes it from the graph.
+	 */
+	protected class CopyIterator<T> implements Iterator<T> {
+		protected final Object[] copy;
+		protected int iNext = 0;
+		protected int iPrev = -1;
+
+		protected CopyIterator(Object[] copy) {
+			this.copy = copy;
+		}
+
+		public boolean hasNext() {
+			return iNext < copy.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (iNext >= copy.length)
+				throw new NoSuchElementException();
+			iPrev = iNext++;
+			return (T) copy[iPrev];
+		}
+
+		public void remove() {
+			if (iPrev == -1)
+				throw new IllegalStateException();
+
+			Object o = copy[iPrev];
+
+			if (o instanceof AbstractNode)
+				removeNode((AbstractNode) o, true);
+			else
+				removeEdge((AbstractEdge) o, true, true, true);
+
+			iPrev = -1;
+		}
+	}
+
+	@Override
+	public <T extends Node> Iterator<T> getNodeIterator() {
+		return new CopyIterator<T>(copyNodes());
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getEdgeIterator() {
+		return new CopyIterator<T>(copyEdges());
+	}
+
+	@Override
+	public <T extends Node> SplittableIterator<T> nodes() {
+		return new SplittableIterator.OfArray<T>(copyNodes());
+	}
+
+	@Override
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new SplittableIterator.OfArray<T>(copyEdges());
+	}
+
+	private Object[] copyNodes() {
+		structureLock.lock();
+		try {
+			return Arrays.copyOf(nodeArray, nodeCount, Object[].class);
+		} finally {
+			structureLock.unlock();
+		}
+	}
+
+	private Object[] copyEdges() {
+		structureLock.lock();
+		try {
+			return Arrays.copyOf(edgeArray, edgeCount, Object[].class);
+		} finally {
+			structureLock.unlock();
+		}
+	}
+}
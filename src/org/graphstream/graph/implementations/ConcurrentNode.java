@@ -0,0 +1,333 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
+
+/**
+ * Nodes used with {@link ConcurrentGraph}.
+ * 
+ * <p>
+ * The adjacency of the node is guarded by the stripe lock of the graph the
+ * node is mapped to. Queries on the adjacency take this lock, and iterators
+ * work on a copy of the edges taken under the lock, so they never see a node
+ * being modified by another thread.
+ * </p>
+ */
+public class ConcurrentNode extends AdjacencyListNode {
+	/**
+	 * The stripe lock guarding the edges of this node, and its index.
+	 */
+	protected final ReentrantLock lock;
+	protected final int stripe;
+
+	/**
+	 * Set, under the stripe lock, when the node starts being removed. No edge
+	 * can be attached to the node afterwards.
+	 */
+	protected boolean removed;
+
+	protected ConcurrentNode(ConcurrentGraph graph, String id) {
+		super(graph, id);
+		stripe = graph.stripeOf(id);
+		lock = graph.stripes[stripe];
+		removed = false;
+	}
+
+	// *** Attributes ***
+
+	@Override
+	protected Map<String, Object> createAttributeMap(int expectedSize) {
+		return Collections.synchronizedMap(super
+				.createAttributeMap(expectedSize));
+	}
+
+	@Override
+	public void addAttribute(String attribute, Object... values) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.addAttribute(attribute, values);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void addAttributes(Map<String, Object> attributes) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.addAttributes(attributes);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void removeAttribute(String attribute) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.removeAttribute(attribute);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void clearAttributes() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.clearAttributes();
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void setNumber(String attribute, double value) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.setNumber(attribute, value);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public void setNumbers(String attribute, double... values) {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			super.setNumbers(attribute, values);
+		} finally {
+			l.unlock();
+		}
+	}
+
+	/**
+	 * A copy of the attribute keys, taken under the event lock.
+	 */
+	@Override
+	public Collection<String> getAttributeKeySet() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			return Collections.unmodifiableCollection(new ArrayList<String>(
+					super.getAttributeKeySet()));
+		} finally {
+			l.unlock();
+		}
+	}
+
+	@Override
+	public Iterator<String> getAttributeKeyIterator() {
+		ReentrantLock l = ((ConcurrentGraph) graph).eventLock;
+		l.lock();
+		try {
+			return super.getAttributeKeyIterator() == null ? null
+					: getAttributeKeySet().iterator();
+		} finally {
+			l.unlock();
+		}
+	}
+
+	// *** Adjacency ***
+
+	@Override
+	protected <T extends Edge> T locateEdge(Node opposite, char type) {
+		lock.lock();
+		try {
+			return super.<T> locateEdge(opposite, type);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int getDegree() {
+		lock.lock();
+		try {
+			return degree;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int getInDegree() {
+		lock.lock();
+		try {
+			return oStart;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int getOutDegree() {
+		lock.lock();
+		try {
+			return degree - ioStart;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public <T extends Edge> T getEdge(int i) {
+		lock.lock();
+		try {
+			return super.<T> getEdge(i);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public <T extends Edge> T getEnteringEdge(int i) {
+		lock.lock();
+		try {
+			return super.<T> getEnteringEdge(i);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public <T extends Edge> T getLeavingEdge(int i) {
+		lock.lock();
+		try {
+			return super.<T> getLeavingEdge(i);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Copies the edges of a given type under the lock.
+	 */
+	protected AbstractEdge[] copyEdges(char type) {
+		lock.lock();
+		try {
+			int start = 0;
+			int end = degree;
+
+			if (type == I_EDGE)
+				end = oStart;
+			else if (type == O_EDGE)
+				start = ioStart;
+
+			return Arrays.copyOfRange(edges, start, end);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Iterator over a copy of the edges. Removing an edge removes it from the
+	 * graph.
+	 */
+	protected class CopyEdgeIterator<T extends Edge> implements Iterator<T> {
+		protected final AbstractEdge[] copy;
+		protected int iNext = 0;
+		protected int iPrev = -1;
+
+		protected CopyEdgeIterator(char type) {
+			copy = copyEdges(type);
+		}
+
+		public boolean hasNext() {
+			return iNext < copy.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (iNext >= copy.length)
+				throw new NoSuchElementException();
+			iPrev = iNext++;
+			return (T) copy[iPrev];
+		}
+
+		public void remove() {
+			if (iPrev == -1)
+				throw new IllegalStateException();
+			graph.removeEdge(copy[iPrev], true, true, true);
+			iPrev = -1;
+		}
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getEdgeIterator() {
+		return new CopyEdgeIterator<T>(IO_EDGE);
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getEnteringEdgeIterator() {
+		return new CopyEdgeIterator<T>(I_EDGE);
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getLeavingEdgeIterator() {
+		return new CopyEdgeIterator<T>(O_EDGE);
+	}
+
+	@Override
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new SplittableIterator.OfArray<T>(copyEdges(IO_EDGE));
+	}
+
+	@Override
+	public <T extends Node> SplittableIterator<T> neighborNodes() {
+		AbstractEdge[] copy = copyEdges(IO_EDGE);
+		Node[] neighbors = new Node[copy.length];
+
+		for (int i = 0; i < copy.length; i++)
+			neighbors[i] = copy[i].getOpposite(this);
+
+		return new SplittableIterator.OfArray<T>(neighbors);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+/**
+ * Open addressing index of the edges of a high degree
+ * {@link AdjacencyListNode}, hashed by opposite node.
+ * 
+ * <p>
+ * The table stores each edge with its position in the edge array of the node.
+ * All the edges toward the same opposite node share the same probe sequence,
+ * so that they can be found without scanning the whole array. Positions are
+ * kept up to date by the node each time it moves an edge. Linear probing is
+ * used and removals shift back the following entries, so that no tombstone is
+ * needed.
+ * </p>
+ */
+final class EdgeIndex {
+	/**
+	 * The node whose edges are indexed.
+	 */
+	private final AdjacencyListNode node;
+
+	/**
+	 * Indexed edges, null for free slots.
+	 */
+	private AbstractEdge[] keys;
+
+	/**
+	 * Position of each indexed edge in the edge array of the node.
+	 */
+	private int[] positions;
+
+	/**
+	 * Number of indexed edges.
+	 */
+	private int size;
+
+	EdgeIndex(AdjacencyListNode node, int expectedSize) {
+		this.node = node;
+		allocate(expectedSize);
+	}
+
+	// *** Helpers ***
+
+	private void allocate(int expectedSize) {
+		int capacity = 16;
+
+		while (capacity < 2 * expectedSize)
+			capacity <<= 1;
+
+		keys = new AbstractEdge[capacity];
+		positions = new int[capacity];
+		size = 0;
+	}
+
+	private static int hash(Object opposite) {
+		int h = System.identityHashCode(opposite) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int slotOf(AbstractEdge edge) {
+		int mask = keys.length - 1;
+		int i = hash(edge.getOpposite(node)) & mask;
+
+		while (keys[i] != edge) {
+			if (keys[i] == null)
+				return -1;
+
+			i = (i + 1) & mask;
+		}
+
+		return i;
+	}
+
+	// *** Operations ***
+
+	void put(AbstractEdge edge, int position) {
+		if (2 * (size + 1) > keys.length) {
+			AbstractEdge[] oldKeys = keys;
+			int[] oldPositions = positions;
+			allocate(size + 1);
+
+			for (int i = 0; i < oldKeys.length; i++)
+				if (oldKeys[i] != null)
+					put(oldKeys[i], oldPositions[i]);
+		}
+
+		int mask = keys.length - 1;
+		int i = hash(edge.getOpposite(node)) & mask;
+
+		while (keys[i] != null)
+			i = (i + 1) & mask;
+
+		keys[i] = edge;
+		positions[i] = position;
+		size++;
+	}
+
+	/**
+	 * Records the new position of an edge. Edges that are not indexed are
+	 * ignored.
+	 */
+	void move(AbstractEdge edge, int position) {
+		int slot = slotOf(edge);
+
+		if (slot >= 0)
+			positions[slot] = position;
+	}
+
+	/**
+	 * Removes an edge from the index.
+	 */
+	void remove(AbstractEdge edge) {
+		int mask = keys.length - 1;
+		int hole = slotOf(edge);
+
+		if (hole < 0)
+			return;
+
+		keys[hole] = null;
+		size--;
+
+		// Shift back the entries whose probe sequence crosses the hole.
+		for (int i = (hole + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+			int home = hash(keys[i].getOpposite(node)) & mask;
+
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				keys[hole] = keys[i];
+				positions[hole] = positions[i];
+				keys[i] = null;
+				hole = i;
+			}
+		}
+	}
+
+	/**
+	 * Position of an edge in the edge array of the node.
+	 * 
+	 * @return The position or -1 if the edge is not indexed.
+	 */
+	int positionOf(AbstractEdge edge) {
+		int slot = slotOf(edge);
+		return slot < 0 ? -1 : positions[slot];
+	}
+
+	/**
+	 * Looks for the edge toward a node with the smallest position in a range,
+	 * as a scan of the range would do.
+	 * 
+	 * @return The position of the edge or -1 if there is none.
+	 */
+	int find(Object opposite, int begin, int end) {
+		int mask = keys.length - 1;
+		int found = -1;
+
+		for (int i = hash(opposite) & mask; keys[i] != null; i = (i + 1) & mask) {
+			int p = positions[i];
+
+			if (p >= begin && p < end && (found < 0 || p < found)
+					&& keys[i].getOpposite(node) == opposite)
+				found = p;
+		}
+
+		return found;
+	}
+
+	int size() {
+		return size;
+	}
+
+	int capacity() {
+		return keys.length;
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.Arrays;
+
+/**
+ * Stable integer handles of the nodes or of the edges of an
+ * {@link AdjacencyListGraph}.
+ * 
+ * <p>
+ * The index of an element changes when another element is removed, since the
+ * graph moves its last element into the freed slot. A handle does not change
+ * while the element stays in the graph. Handles of removed elements are put
+ * in a free list and given to the next elements added.
+ * </p>
+ */
+class ElementHandles {
+	/**
+	 * Handle of the element at each index.
+	 */
+	int[] handleOf;
+
+	/**
+	 * Element having each handle, null if the handle is free.
+	 */
+	AbstractElement[] elementOf;
+
+	/**
+	 * Stack of free handles.
+	 */
+	int[] free;
+	int freeCount;
+
+	/**
+	 * Number of handles ever given, free or not.
+	 */
+	int handleCount;
+
+	ElementHandles(int capacity) {
+		capacity = Math.max(capacity, 1);
+		handleOf = new int[capacity];
+		elementOf = new AbstractElement[capacity];
+		free = new int[16];
+		freeCount = handleCount = 0;
+	}
+
+	/**
+	 * Gives a handle to an element, already indexed.
+	 */
+	void add(AbstractElement element) {
+		int h;
+
+		if (freeCount > 0) {
+			h = free[--freeCount];
+		} else {
+			h = handleCount++;
+
+			if (h == elementOf.length)
+				elementOf = Arrays.copyOf(elementOf,
+						(int) (h * AdjacencyListGraph.GROW_FACTOR) + 1);
+		}
+
+		int i = element.getIndex();
+
+		if (i >= handleOf.length)
+			handleOf = Arrays.copyOf(handleOf, Math.max(i + 1,
+					(int) (handleOf.length * AdjacencyListGraph.GROW_FACTOR) + 1));
+
+		handleOf[i] = h;
+		elementOf[h] = element;
+	}
+
+	/**
+	 * Frees the handle of the element at index i and moves the handle of the
+	 * element at index last to index i.
+	 */
+	void remove(int i, int last) {
+		int h = handleOf[i];
+
+		elementOf[h] = null;
+
+		if (freeCount == free.length)
+			free = Arrays.copyOf(free, 2 * free.length);
+
+		free[freeCount++] = h;
+		handleOf[i] = handleOf[last];
+	}
+
+	/**
+	 * Follows a permutation of the indices of the elements, position[i] being
+	 * the new index of the element of index i, or -1 if this index is free.
+	 */
+	void permute(int[] position, int count) {
+		int[] h = new int[handleOf.length];
+
+		for (int i = 0; i < count; i++)
+			if (position[i] >= 0)
+				h[position[i]] = handleOf[i];
+
+		handleOf = h;
+	}
+
+	/**
+	 * Releases the index table above a given number of elements.
+	 */
+	void trimToSize(int capacity) {
+		if (capacity < handleOf.length)
+			handleOf = Arrays.copyOf(handleOf, Math.max(capacity, 1));
+	}
+
+	void clear() {
+		Arrays.fill(elementOf, 0, handleCount, null);
+		freeCount = handleCount = 0;
+	}
+
+	AbstractElement get(int handle) {
+		if (handle < 0 || handle >= handleCount)
+			return null;
+
+		return elementOf[handle];
+	}
+}
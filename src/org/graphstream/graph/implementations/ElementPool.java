@@ -0,0 +1,375 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.security.AccessControlException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.EdgeFactory;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.NodeFactory;
+
+/**
+ * <p>
+ * Recycles the nodes and edges removed from an {@link AdjacencyListGraph}.
+ * </p>
+ * 
+ * <p>
+ * A graph where elements are constantly added and removed, such as a sliding
+ * window over a stream of edges, creates a lot of short lived objects. Once a
+ * pool is set with {@link AdjacencyListGraph#setElementPool(ElementPool)},
+ * the elements removed from the graph are kept, up to a given number, and
+ * reused by the node and edge factories of the graph instead of creating new
+ * objects. The attributes of a released element are dropped, its attribute
+ * map being kept, and the edge storage of a released node is dropped if it
+ * holds more than a given number of edges.
+ * </p>
+ * 
+ * <p>
+ * An element must not be used anymore once it is removed from the graph,
+ * since the same object may come back with another identifier. This includes
+ * the element returned by the {@code removeNode()} and {@code removeEdge()}
+ * methods. Each release increments the generation of the element, see
+ * {@link AbstractElement#getGeneration()}: code keeping references to
+ * elements across removals can record their generation and check it with
+ * {@link #check(Element, int)}. In debug mode, enabled by the constructor or
+ * by the system property {@code org.graphstream.graph.pool.debug}, these
+ * checks are done, elements released twice are detected, even when the
+ * pool was full and did not keep them, and recycled elements are verified
+ * before their reuse.
+ * </p>
+ */
+public class ElementPool {
+	/**
+	 * Default maximum number of nodes and of edges kept.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * Default maximum number of edges of the storage of a released node.
+	 */
+	public static final int DEFAULT_EDGE_CAPACITY = 64;
+
+	protected static final boolean DEBUG;
+
+	static {
+		String p = "org.graphstream.graph.pool.debug";
+		boolean debug = false;
+		try {
+			debug = Boolean.valueOf(System.getProperty(p, "false"));
+		} catch (AccessControlException e) {
+		}
+		DEBUG = debug;
+	}
+
+	protected final int capacity;
+	protected final int edgeCapacity;
+	protected final boolean debug;
+
+	/**
+	 * Stacks of released elements.
+	 */
+	protected AbstractNode[] nodes;
+	protected AbstractEdge[] edges;
+	protected int nodeCount, edgeCount;
+
+	/**
+	 * Number of elements created and reused by the factories.
+	 */
+	protected long created, reused;
+
+	/**
+	 * In debug mode, the elements currently in the pool.
+	 */
+	protected Set<AbstractElement> released;
+
+	/**
+	 * In debug mode, the released elements that were not kept, because the
+	 * pool was full or cleared. They are weakly referenced, so that they are
+	 * only tracked while the user can still release them again.
+	 */
+	protected Set<AbstractElement> discarded;
+
+	/**
+	 * The graph served, and its factories.
+	 */
+	protected AdjacencyListGraph graph;
+	protected NodeFactory<? extends Node> nodeFactory;
+	protected EdgeFactory<? extends Edge> edgeFactory;
+
+	/**
+	 * Creates a pool.
+	 * 
+	 * @param capacity
+	 *            Maximum number of nodes and of edges kept.
+	 * @param edgeCapacity
+	 *            Maximum number of edges of the storage of a released node.
+	 * @param debug
+	 *            If true, the use of released elements is checked.
+	 */
+	public ElementPool(int capacity, int edgeCapacity, boolean debug) {
+		this.capacity = capacity;
+		this.edgeCapacity = edgeCapacity;
+		this.debug = debug || DEBUG;
+		this.nodes = new AbstractNode[Math.min(capacity, 1024)];
+		this.edges = new AbstractEdge[Math.min(capacity, 1024)];
+
+		if (this.debug) {
+			released = Collections
+					.newSetFromMap(new IdentityHashMap<AbstractElement, Boolean>());
+			discarded = Collections
+					.newSetFromMap(new WeakHashMap<AbstractElement, Boolean>());
+		}
+	}
+
+	/**
+	 * Creates a pool with default capacities.
+	 */
+	public ElementPool() {
+		this(DEFAULT_CAPACITY, DEFAULT_EDGE_CAPACITY, false);
+	}
+
+	// *** Access ***
+
+	/**
+	 * Number of nodes currently kept for reuse.
+	 * 
+	 * @return The number of released nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Number of edges currently kept for reuse.
+	 * 
+	 * @return The number of released edges.
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Number of elements created by the factories since the pool was
+	 * attached.
+	 * 
+	 * @return The number of new elements.
+	 */
+	public long getCreatedCount() {
+		return created;
+	}
+
+	/**
+	 * Number of elements reused by the factories since the pool was attached.
+	 * 
+	 * @return The number of recycled elements.
+	 */
+	public long getReusedCount() {
+		return reused;
+	}
+
+	/**
+	 * Tells if the use of released elements is checked.
+	 * 
+	 * @return True in debug mode.
+	 */
+	public boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * In debug mode, checks that a reference to an element is not stale.
+	 * Nothing is done else.
+	 * 
+	 * @param element
+	 *            An element.
+	 * @param generation
+	 *            The generation of the element when the reference was taken.
+	 * @throws IllegalStateException
+	 *             If the element has been released since.
+	 */
+	public void check(Element element, int generation) {
+		if (debug && ((AbstractElement) element).getGeneration() != generation)
+			throw new IllegalStateException(String.format(
+					"Stale reference: element \"%s\" was released %d times",
+					element.getId(), ((AbstractElement) element)
+							.getGeneration() - generation));
+	}
+
+	/**
+	 * Drops all the released elements.
+	 */
+	public void clear() {
+		Arrays.fill(nodes, 0, nodeCount, null);
+		Arrays.fill(edges, 0, edgeCount, null);
+		nodeCount = edgeCount = 0;
+
+		if (released != null) {
+			discarded.addAll(released);
+			released.clear();
+		}
+	}
+
+	// *** Graph ***
+
+	/**
+	 * Starts serving a graph, by wrapping its factories.
+	 */
+	void attach(AdjacencyListGraph graph) {
+		if (this.graph != null && this.graph != graph)
+			throw new IllegalStateException(
+					"An element pool serves only one graph");
+
+		this.graph = graph;
+		nodeFactory = graph.nodeFactory();
+		edgeFactory = graph.edgeFactory();
+		graph.setNodeFactory(new PooledNodeFactory());
+		graph.setEdgeFactory(new PooledEdgeFactory());
+	}
+
+	/**
+	 * Stops serving a graph, giving it its factories back.
+	 */
+	void detach(AdjacencyListGraph graph) {
+		if (graph.nodeFactory() instanceof PooledNodeFactory)
+			graph.setNodeFactory(nodeFactory);
+		if (graph.edgeFactory() instanceof PooledEdgeFactory)
+			graph.setEdgeFactory(edgeFactory);
+
+		clear();
+		this.graph = null;
+	}
+
+	/**
+	 * Releases a node removed from the graph.
+	 */
+	void release(AbstractNode node) {
+		checkRelease(node);
+		node.release();
+
+		if (node instanceof AdjacencyListNode)
+			((AdjacencyListNode) node).trimEdgeCapacity(edgeCapacity);
+
+		if (nodeCount < capacity) {
+			if (nodeCount == nodes.length)
+				nodes = Arrays.copyOf(nodes,
+						Math.min(capacity, 2 * nodes.length));
+
+			nodes[nodeCount++] = node;
+		} else if (released != null) {
+			released.remove(node);
+			discarded.add(node);
+		}
+	}
+
+	/**
+	 * Releases an edge removed from the graph.
+	 */
+	void release(AbstractEdge edge) {
+		checkRelease(edge);
+		edge.release();
+
+		if (edgeCount < capacity) {
+			if (edgeCount == edges.length)
+				edges = Arrays.copyOf(edges,
+						Math.min(capacity, 2 * edges.length));
+
+			edges[edgeCount++] = edge;
+		} else if (released != null) {
+			released.remove(edge);
+			discarded.add(edge);
+		}
+	}
+
+	protected void checkRelease(AbstractElement element) {
+		if (released != null
+				&& (discarded.contains(element) || !released.add(element)))
+			throw new IllegalStateException(String.format(
+					"Element \"%s\" released twice", element.getId()));
+	}
+
+	protected void checkReuse(AbstractElement element) {
+		if (released != null) {
+			released.remove(element);
+
+			if (element.getIndex() != -1
+					|| element.getAttributeCount() != 0
+					|| (element instanceof Node && ((Node) element)
+							.getDegree() != 0))
+				throw new IllegalStateException(String.format(
+						"Released element \"%s\" was modified",
+						element.getId()));
+		}
+	}
+
+	// *** Factories ***
+
+	protected class PooledNodeFactory implements NodeFactory<Node> {
+		public Node newInstance(String id, Graph graph) {
+			if (nodeCount == 0 || graph != ElementPool.this.graph) {
+				created++;
+				return nodeFactory.newInstance(id, graph);
+			}
+
+			AbstractNode node = nodes[--nodeCount];
+			nodes[nodeCount] = null;
+			checkReuse(node);
+			node.recycle(id);
+			reused++;
+			return node;
+		}
+	}
+
+	protected class PooledEdgeFactory implements EdgeFactory<Edge> {
+		public Edge newInstance(String id, Node src, Node dst,
+				boolean directed) {
+			if (edgeCount == 0 || src.getGraph() != graph) {
+				created++;
+				return edgeFactory.newInstance(id, src, dst, directed);
+			}
+
+			AbstractEdge edge = edges[--edgeCount];
+			edges[edgeCount] = null;
+			checkReuse(edge);
+			edge.recycle(id, (AbstractNode) src, (AbstractNode) dst, directed);
+			reused++;
+			return edge;
+		}
+	}
+}
@@ -0,0 +1,669 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.VersionedGraph.EdgeRecord;
+import org.graphstream.graph.implementations.VersionedGraph.NodeRecord;
+import org.graphstream.graph.implementations.VersionedGraph.Record;
+
+/**
+ * <p>
+ * An immutable view of a {@link VersionedGraph} at a given version.
+ * </p>
+ * 
+ * <p>
+ * A snapshot is a read-only {@link org.graphstream.graph.Graph}: all the
+ * methods modifying the graph or the attributes of its elements throw an
+ * {@link UnsupportedOperationException}. Its nodes and edges are created
+ * lazily, when they are first accessed, from the records of the versioned
+ * graph. Indices of the elements are consecutive, like in any graph, but they
+ * differ from the indices in the versioned graph.
+ * </p>
+ * 
+ * <p>
+ * Looking up an element by identifier or by index builds an index of the
+ * whole snapshot the first time, in O(n). A snapshot is meant to be used by
+ * one thread; opening one snapshot per reader thread is cheap.
+ * </p>
+ * 
+ * @see VersionedGraph#openSnapshot()
+ */
+public class GraphSnapshot extends AbstractGraph {
+	protected final long version;
+
+	protected NodeRecord[][] nodePages;
+	protected EdgeRecord[][] edgePages;
+	protected final int nodeSlots, edgeSlots;
+	protected final int nodeCount, edgeCount;
+
+	/**
+	 * Elements by slot, created on demand.
+	 */
+	protected SnapshotNode[] nodes;
+	protected SnapshotEdge[] edges;
+
+	/**
+	 * Dense indices, computed on demand.
+	 */
+	protected int[] nodeSlotOf, nodeIndexOf, edgeSlotOf, edgeIndexOf;
+
+	/**
+	 * Identifier lookup, computed on demand.
+	 */
+	protected HashMap<String, SnapshotNode> nodeIds;
+	protected HashMap<String, SnapshotEdge> edgeIds;
+
+	protected GraphSnapshot(String id, long version, NodeRecord[][] nodePages,
+			int nodeSlots, int nodeCount, EdgeRecord[][] edgePages,
+			int edgeSlots, int edgeCount, Record graphRecord) {
+		super(id, false, false);
+
+		this.version = version;
+		this.nodePages = nodePages;
+		this.nodeSlots = nodeSlots;
+		this.nodeCount = nodeCount;
+		this.edgePages = edgePages;
+		this.edgeSlots = edgeSlots;
+		this.edgeCount = edgeCount;
+		this.attributes = graphRecord.attributes;
+		this.nodes = new SnapshotNode[nodeSlots];
+		this.edges = new SnapshotEdge[edgeSlots];
+	}
+
+	/**
+	 * The version of the graph captured by this snapshot.
+	 * 
+	 * @return The value of {@link VersionedGraph#getVersion()} when the
+	 *         snapshot was opened.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Releases the data of this snapshot, so that the versions it references
+	 * can be reclaimed even if the snapshot itself is still referenced. The
+	 * snapshot cannot be used afterwards.
+	 */
+	public void close() {
+		nodePages = null;
+		edgePages = null;
+		nodes = null;
+		edges = null;
+		nodeSlotOf = nodeIndexOf = edgeSlotOf = edgeIndexOf = null;
+		nodeIds = null;
+		edgeIds = null;
+		attributes = null;
+	}
+
+	/**
+	 * Checks if this snapshot has been closed.
+	 * 
+	 * @return True if {@link #close()} has been called.
+	 */
+	public boolean isClosed() {
+		return nodePages == null;
+	}
+
+	protected void checkOpen() {
+		if (nodePages == null)
+			throw new IllegalStateException("Snapshot " + getId()
+					+ " is closed");
+	}
+
+	// *** Elements ***
+
+	protected NodeRecord nodeRecord(int slot) {
+		NodeRecord[] page = nodePages[slot >> VersionedGraph.PAGE_SHIFT];
+		return page == null ? null : page[slot & VersionedGraph.PAGE_MASK];
+	}
+
+	protected EdgeRecord edgeRecord(int slot) {
+		EdgeRecord[] page = edgePages[slot >> VersionedGraph.PAGE_SHIFT];
+		return page == null ? null : page[slot & VersionedGraph.PAGE_MASK];
+	}
+
+	protected SnapshotNode node(int slot) {
+		checkOpen();
+
+		SnapshotNode node = nodes[slot];
+
+		if (node == null) {
+			NodeRecord r = nodeRecord(slot);
+
+			if (r == null)
+				return null;
+
+			node = nodes[slot] = new SnapshotNode(slot, r);
+		}
+
+		return node;
+	}
+
+	protected SnapshotEdge edge(int slot) {
+		checkOpen();
+
+		SnapshotEdge edge = edges[slot];
+
+		if (edge == null) {
+			EdgeRecord r = edgeRecord(slot);
+
+			if (r == null)
+				return null;
+
+			edge = edges[slot] = new SnapshotEdge(slot, r, node(r.source),
+					node(r.target));
+		}
+
+		return edge;
+	}
+
+	protected void indexNodes() {
+		checkOpen();
+
+		if (nodeSlotOf != null)
+			return;
+
+		nodeSlotOf = new int[nodeCount];
+		nodeIndexOf = new int[nodeSlots];
+
+		for (int s = 0, i = 0; s < nodeSlots; s++) {
+			if (nodeRecord(s) != null) {
+				nodeSlotOf[i] = s;
+				nodeIndexOf[s] = i++;
+			} else {
+				nodeIndexOf[s] = -1;
+			}
+		}
+	}
+
+	protected void indexEdges() {
+		checkOpen();
+
+		if (edgeSlotOf != null)
+			return;
+
+		edgeSlotOf = new int[edgeCount];
+		edgeIndexOf = new int[edgeSlots];
+
+		for (int s = 0, i = 0; s < edgeSlots; s++) {
+			if (edgeRecord(s) != null) {
+				edgeSlotOf[i] = s;
+				edgeIndexOf[s] = i++;
+			} else {
+				edgeIndexOf[s] = -1;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Node> T getNode(String id) {
+		checkOpen();
+
+		if (nodeIds == null) {
+			nodeIds = new HashMap<String, SnapshotNode>(4 * nodeCount / 3 + 1);
+
+			for (int s = 0; s < nodeSlots; s++) {
+				NodeRecord r = nodeRecord(s);
+
+				if (r != null)
+					nodeIds.put(r.id, node(s));
+			}
+		}
+
+		return (T) nodeIds.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Node> T getNode(int index) {
+		if (index < 0 || index >= nodeCount)
+			throw new IndexOutOfBoundsException("Node " + index
+					+ " does not exist");
+
+		indexNodes();
+		return (T) node(nodeSlotOf[index]);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Edge> T getEdge(String id) {
+		checkOpen();
+
+		if (edgeIds == null) {
+			edgeIds = new HashMap<String, SnapshotEdge>(4 * edgeCount / 3 + 1);
+
+			for (int s = 0; s < edgeSlots; s++) {
+				EdgeRecord r = edgeRecord(s);
+
+				if (r != null)
+					edgeIds.put(r.id, edge(s));
+			}
+		}
+
+		return (T) edgeIds.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends Edge> T getEdge(int index) {
+		if (index < 0 || index >= edgeCount)
+			throw new IndexOutOfBoundsException("Edge " + index
+					+ " does not exist");
+
+		indexEdges();
+		return (T) edge(edgeSlotOf[index]);
+	}
+
+	@Override
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	protected static class ArrayIterator<T> implements Iterator<T> {
+		protected final Object[] array;
+		protected int i = 0;
+
+		protected ArrayIterator(Object[] array) {
+			this.array = array;
+		}
+
+		public boolean hasNext() {
+			return i < array.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (i >= array.length)
+				throw new NoSuchElementException();
+			return (T) array[i++];
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+	}
+
+	protected class SlotIterator<T> implements Iterator<T> {
+		protected final boolean nodes;
+		protected int i = 0;
+
+		protected SlotIterator(boolean nodes) {
+			this.nodes = nodes;
+
+			if (nodes)
+				indexNodes();
+			else
+				indexEdges();
+		}
+
+		public boolean hasNext() {
+			return i < (nodes ? nodeCount : edgeCount);
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return (T) (nodes ? node(nodeSlotOf[i++]) : edge(edgeSlotOf[i++]));
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+	}
+
+	@Override
+	public <T extends Node> Iterator<T> getNodeIterator() {
+		return new SlotIterator<T>(true);
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getEdgeIterator() {
+		return new SlotIterator<T>(false);
+	}
+
+	// *** Read-only ***
+
+	protected static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("Snapshots are read-only");
+	}
+
+	@Override
+	public void addAttribute(String attribute, Object... values) {
+		throw readOnly();
+	}
+
+	@Override
+	public void addAttributes(Map<String, Object> attributes) {
+		throw readOnly();
+	}
+
+	@Override
+	public void removeAttribute(String attribute) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clearAttributes() {
+		throw readOnly();
+	}
+
+	@Override
+	public void stepBegins(double time) {
+		throw readOnly();
+	}
+
+	@Override
+	public void clear() {
+		throw readOnly();
+	}
+
+	@Override
+	public <T extends Node> T addNode(String id) {
+		throw readOnly();
+	}
+
+	@Override
+	protected <T extends Edge> T addEdge(String edgeId, AbstractNode src,
+			String srcId, AbstractNode dst, String dstId, boolean directed) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeNode(AbstractNode node, boolean graphCallback) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeEdge(AbstractEdge edge, boolean graphCallback,
+			boolean sourceCallback, boolean targetCallback) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void addNodeCallback(AbstractNode node) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void addEdgeCallback(AbstractEdge edge) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeNodeCallback(AbstractNode node) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeEdgeCallback(AbstractEdge edge) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void clearCallback() {
+		throw readOnly();
+	}
+
+	// *** Nodes and edges ***
+
+	/**
+	 * A node of a snapshot.
+	 */
+	protected class SnapshotNode extends AbstractNode {
+		protected final int slot;
+		protected final NodeRecord record;
+
+		/**
+		 * All, entering and leaving edges, computed on demand.
+		 */
+		protected SnapshotEdge[] all, entering, leaving;
+
+		protected SnapshotNode(int slot, NodeRecord record) {
+			super(GraphSnapshot.this, record.id);
+			this.slot = slot;
+			this.record = record;
+			this.attributes = record.attributes;
+		}
+
+		@Override
+		public int getIndex() {
+			indexNodes();
+			return nodeIndexOf[slot];
+		}
+
+		protected void computeEdges() {
+			if (all != null)
+				return;
+
+			int in = 0, out = 0;
+			all = new SnapshotEdge[record.degree];
+
+			for (int i = 0; i < record.degree; i++) {
+				SnapshotEdge e = all[i] = edge(record.edges[i]);
+
+				if (!e.isDirected() || e.getTargetNode() == this)
+					in++;
+				if (!e.isDirected() || e.getSourceNode() == this)
+					out++;
+			}
+
+			entering = new SnapshotEdge[in];
+			leaving = new SnapshotEdge[out];
+			in = out = 0;
+
+			for (SnapshotEdge e : all) {
+				if (!e.isDirected() || e.getTargetNode() == this)
+					entering[in++] = e;
+				if (!e.isDirected() || e.getSourceNode() == this)
+					leaving[out++] = e;
+			}
+		}
+
+		@Override
+		public int getDegree() {
+			return record.degree;
+		}
+
+		@Override
+		public int getInDegree() {
+			computeEdges();
+			return entering.length;
+		}
+
+		@Override
+		public int getOutDegree() {
+			computeEdges();
+			return leaving.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		protected <T extends Edge> T find(SnapshotEdge[] edges, Node node) {
+			for (SnapshotEdge e : edges)
+				if (e.getOpposite(this) == node)
+					return (T) e;
+
+			return null;
+		}
+
+		@Override
+		public <T extends Edge> T getEdgeToward(Node node) {
+			computeEdges();
+			return find(leaving, node);
+		}
+
+		@Override
+		public <T extends Edge> T getEdgeFrom(Node node) {
+			computeEdges();
+			return find(entering, node);
+		}
+
+		@Override
+		public <T extends Edge> T getEdgeBetween(Node node) {
+			computeEdges();
+			return find(all, node);
+		}
+
+		@Override
+		public <T extends Edge> Iterator<T> getEdgeIterator() {
+			computeEdges();
+			return new ArrayIterator<T>(all);
+		}
+
+		@Override
+		public <T extends Edge> Iterator<T> getEnteringEdgeIterator() {
+			computeEdges();
+			return new ArrayIterator<T>(entering);
+		}
+
+		@Override
+		public <T extends Edge> Iterator<T> getLeavingEdgeIterator() {
+			computeEdges();
+			return new ArrayIterator<T>(leaving);
+		}
+
+		@SuppressWarnings("unchecked")
+		protected <T extends Edge> T get(SnapshotEdge[] edges, int i) {
+			if (i < 0 || i >= edges.length)
+				throw new IndexOutOfBoundsException("Node \"" + this + "\""
+						+ " has no edge " + i);
+			return (T) edges[i];
+		}
+
+		@Override
+		public <T extends Edge> T getEdge(int i) {
+			computeEdges();
+			return get(all, i);
+		}
+
+		@Override
+		public <T extends Edge> T getEnteringEdge(int i) {
+			computeEdges();
+			return get(entering, i);
+		}
+
+		@Override
+		public <T extends Edge> T getLeavingEdge(int i) {
+			computeEdges();
+			return get(leaving, i);
+		}
+
+		@Override
+		protected boolean addEdgeCallback(AbstractEdge edge) {
+			throw readOnly();
+		}
+
+		@Override
+		protected void removeEdgeCallback(AbstractEdge edge) {
+			throw readOnly();
+		}
+
+		@Override
+		protected void clearCallback() {
+			throw readOnly();
+		}
+
+		@Override
+		public void addAttribute(String attribute, Object... values) {
+			throw readOnly();
+		}
+
+		@Override
+		public void addAttributes(Map<String, Object> attributes) {
+			throw readOnly();
+		}
+
+		@Override
+		public void removeAttribute(String attribute) {
+			throw readOnly();
+		}
+
+		@Override
+		public void clearAttributes() {
+			throw readOnly();
+		}
+	}
+
+	/**
+	 * An edge of a snapshot.
+	 */
+	protected class SnapshotEdge extends AbstractEdge {
+		protected final int slot;
+
+		protected SnapshotEdge(int slot, EdgeRecord record,
+				SnapshotNode source, SnapshotNode target) {
+			super(record.id, source, target, record.directed);
+			this.slot = slot;
+			this.attributes = record.attributes;
+		}
+
+		@Override
+		public int getIndex() {
+			indexEdges();
+			return edgeIndexOf[slot];
+		}
+
+		@Override
+		public void addAttribute(String attribute, Object... values) {
+			throw readOnly();
+		}
+
+		@Override
+		public void addAttributes(Map<String, Object> attributes) {
+			throw readOnly();
+		}
+
+		@Override
+		public void removeAttribute(String attribute) {
+			throw readOnly();
+		}
+
+		@Override
+		public void clearAttributes() {
+			throw readOnly();
+		}
+	}
+}
@@ -40,6 +40,8 @@ import org.graphstream.graph.Graph;
 import org.graphstream.graph.IdAlreadyInUseException;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.NodeFactory;
+import org.graphstream.graph.ParallelAggregation;
+import org.graphstream.graph.SplittableIterator;
 import org.graphstream.stream.AttributeSink;
 import org.graphstream.stream.ElementSink;
 import org.graphstream.stream.GraphParseException;
@@ -111,7 +113,19 @@ public class Graphs {
 			result = new MultiGraph(id);
 		}
 
-		mergeIn(result, graphs);
+		if (allowStorageCopy(result, graphs)) {
+			AdjacencyListGraph target = (AdjacencyListGraph) result;
+			boolean strict = target.isStrict();
+
+			target.setStrict(false);
+
+			for (Graph g : graphs)
+				copyIn((AdjacencyListGraph) g, target, false);
+
+			target.setStrict(strict);
+		} else {
+			mergeIn(result, graphs);
+		}
 
 		return result;
 	}
@@ -147,8 +161,41 @@ public class Graphs {
 	 * @param g
 	 *            the graph to clone
 	 * @return a copy of g
+	 * @see #clone(Graph, boolean)
 	 */
 	public static Graph clone(Graph g) {
+		return clone(g, false);
+	}
+
+	/**
+	 * <p>
+	 * Clone a given graph with same node/edge structure and same attributes.
+	 * </p>
+	 * 
+	 * <p>
+	 * When the graph is an {@link AdjacencyListGraph}, the copy is loaded
+	 * with a {@link BulkBuilder} and the attribute maps and columns are copied
+	 * directly, the maps of the nodes and of the edges being copied by several
+	 * threads. No event is sent to the sinks of the copy in this case. Other
+	 * graphs are copied element by element through the {@link Graph}
+	 * interface.
+	 * </p>
+	 * 
+	 * <p>
+	 * Arrays and collections stored as attribute values are copied, other
+	 * values are shared by the two graphs. If the values are never modified
+	 * in place, arrays and collections can be shared too, which makes the
+	 * copy much cheaper.
+	 * </p>
+	 * 
+	 * @param g
+	 *            the graph to clone
+	 * @param shareValues
+	 *            If true, arrays and collections are shared instead of being
+	 *            copied.
+	 * @return a copy of g
+	 */
+	public static Graph clone(Graph g, boolean shareValues) {
 		Graph copy;
 
 		try {
@@ -159,22 +206,26 @@ public class Graphs {
 			copy = new AdjacencyListGraph(g.getId());
 		}
 
-		copyAttributes(g, copy);
+		if (allowStorageCopy(copy, g)) {
+			copyIn((AdjacencyListGraph) g, (AdjacencyListGraph) copy,
+					shareValues);
+			return copy;
+		}
+
+		copyAttributes(g, copy, shareValues);
 
-		for (int i = 0; i < g.getNodeCount(); i++) {
-			Node source = g.getNode(i);
+		for (Node source : g.getEachNode()) {
 			Node target = copy.addNode(source.getId());
 
-			copyAttributes(source, target);
+			copyAttributes(source, target, shareValues);
 		}
 
-		for (int i = 0; i < g.getEdgeCount(); i++) {
-			Edge source = g.getEdge(i);
+		for (Edge source : g.getEachEdge()) {
 			Edge target = copy.addEdge(source.getId(), source.getSourceNode()
 					.getId(), source.getTargetNode().getId(), source
 					.isDirected());
 
-			copyAttributes(source, target);
+			copyAttributes(source, target, shareValues);
 		}
 
 		return copy;
@@ -186,14 +237,239 @@ public class Graphs {
 	 * @param target
 	 */
 	public static void copyAttributes(Element source, Element target) {
+		copyAttributes(source, target, false);
+	}
+
+	private static void copyAttributes(Element source, Element target,
+			boolean shareValues) {
 		for (String key : source.getAttributeKeySet()) {
 			Object value = source.getAttribute(key);
-			value = checkedArrayOrCollectionCopy(value);
+
+			if (!shareValues)
+				value = checkedArrayOrCollectionCopy(value);
 
 			target.setAttribute(key, value);
 		}
 	}
 
+	/**
+	 * Checks that a graph can be filled with {@link #copyIn} from other
+	 * graphs, that is if they all are adjacency list graphs of the same class
+	 * whose storage can be written directly, without holes left by removed
+	 * elements.
+	 */
+	private static boolean allowStorageCopy(Graph result, Graph... graphs) {
+		if (!(result instanceof AdjacencyListGraph)
+				|| !((AdjacencyListGraph) result).allowsStorageCopy()
+				|| graphs == null)
+			return false;
+
+		for (Graph g : graphs)
+			if (g == null || g.getClass() != result.getClass()
+					|| ((AdjacencyListGraph) g).hasHoles())
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Copies the elements and the attributes of a graph in another, without
+	 * sending any event. Elements whose identifier is already used in the
+	 * target are not created again, but they receive the attributes of the
+	 * source elements. When the target is empty, the elements keep their
+	 * indices so the attribute maps are created directly and the columns are
+	 * copied as a whole.
+	 */
+	private static void copyIn(AdjacencyListGraph source,
+			AdjacencyListGraph target, boolean shareValues) {
+		boolean empty = target.getNodeCount() == 0
+				&& target.getEdgeCount() == 0;
+		int n = source.getNodeCount();
+		int m = source.getEdgeCount();
+
+		if (source.nodeColumns != null)
+			for (String key : source.nodeColumns.getKeys())
+				target.declareNodeAttribute(key,
+						source.nodeColumns.getType(key));
+
+		if (source.edgeColumns != null)
+			for (String key : source.edgeColumns.getKeys())
+				target.declareEdgeAttribute(key,
+						source.edgeColumns.getType(key));
+
+		BulkBuilder bulk = target.bulk();
+		String[] ids = new String[n];
+
+		for (int i = 0; i < n; i++)
+			ids[i] = source.nodeArray[i].getId();
+
+		bulk.addNodes(ids);
+
+		AbstractElement[] nodes = new AbstractElement[n];
+
+		for (int i = 0; i < n; i++)
+			nodes[i] = target.nodeMap.get(ids[i]);
+
+		ids = new String[m];
+		int[] src = new int[m];
+		int[] dst = new int[m];
+		boolean[] directed = new boolean[m];
+
+		for (int i = 0; i < m; i++) {
+			AbstractEdge e = source.edgeArray[i];
+
+			ids[i] = e.getId();
+			src[i] = nodes[e.source.getIndex()].getIndex();
+			dst[i] = nodes[e.target.getIndex()].getIndex();
+			directed[i] = e.directed;
+		}
+
+		bulk.addEdges(ids, src, dst, directed);
+
+		AbstractElement[] edges = new AbstractElement[m];
+
+		for (int i = 0; i < m; i++)
+			edges[i] = target.edgeMap.get(ids[i]);
+
+		if (source.attributes != null)
+			for (Map.Entry<String, Object> e : source.attributes.entrySet())
+				target.storeWithNoEvent(e.getKey(),
+						copyValue(e.getValue(), shareValues));
+
+		copyAttributes(source.<Node> nodes(), nodes, source.nodeColumns,
+				target.nodeColumns, empty, shareValues);
+		copyAttributes(source.<Edge> edges(), edges, source.edgeColumns,
+				target.edgeColumns, empty, shareValues);
+	}
+
+	/**
+	 * Copies the attributes of a kind of elements. In an empty target, the
+	 * maps are copied by several threads and the columns as a whole. Else the
+	 * values are stored one by one, by several threads only if there is no
+	 * column in the target since neighboring elements share the words of the
+	 * presence bit sets of the columns.
+	 */
+	private static void copyAttributes(
+			SplittableIterator<? extends Element> elements,
+			AbstractElement[] targets, AttributeColumns sourceColumns,
+			AttributeColumns targetColumns, boolean empty,
+			boolean shareValues) {
+		if (empty && sourceColumns != null)
+			targetColumns.copyValues(sourceColumns, targets.length);
+
+		if (empty || targetColumns == null) {
+			new AttributeCopy(targets, empty ? targetColumns : null, empty,
+					shareValues).compute(elements);
+		} else {
+			AttributeCopy copy = new AttributeCopy(targets, null, false,
+					shareValues);
+
+			while (elements.hasNext())
+				copy.accumulate(0, elements.next());
+		}
+
+		if (empty || sourceColumns == null)
+			return;
+
+		for (int i = 0; i < targets.length; i++) {
+			if (targets[i] == null)
+				continue;
+
+			for (String key : sourceColumns.getKeys()) {
+				AttributeColumns.Column c = sourceColumns.get(key);
+
+				if (c.isSet(i))
+					targets[i].storeWithNoEvent(key,
+							copyValue(c.get(i), shareValues));
+			}
+		}
+	}
+
+	private static Object copyValue(Object value, boolean shareValues) {
+		return shareValues ? value : checkedArrayOrCollectionCopy(value);
+	}
+
+	/**
+	 * Copies the attributes of each element to the element of the same index
+	 * in an array of targets. Each element only writes to its target, so
+	 * elements can be handled by several threads. The result is the number of
+	 * values copied.
+	 */
+	private static class AttributeCopy extends
+			ParallelAggregation<Element, Integer> {
+		final AbstractElement[] targets;
+		final AttributeColumns columns;
+		final boolean empty;
+		final boolean shareValues;
+
+		AttributeCopy(AbstractElement[] targets, AttributeColumns columns,
+				boolean empty, boolean shareValues) {
+			this.targets = targets;
+			this.columns = columns;
+			this.empty = empty;
+			this.shareValues = shareValues;
+		}
+
+		@Override
+		protected Integer identity() {
+			return 0;
+		}
+
+		@Override
+		protected Integer accumulate(Integer count, Element element) {
+			AbstractElement source = (AbstractElement) element;
+			AbstractElement target = targets[source.getIndex()];
+			int copied = 0;
+
+			if (target == null)
+				return count;
+
+			if (source.attributes != null && !source.attributes.isEmpty()) {
+				Map<String, Object> map = empty ? target
+						.createAttributeMap(source.attributes.size()) : null;
+
+				for (Map.Entry<String, Object> e : source.attributes
+						.entrySet()) {
+					Object value = copyValue(e.getValue(), shareValues);
+
+					if (map != null)
+						map.put(e.getKey(), value);
+					else
+						target.storeWithNoEvent(e.getKey(), value);
+
+					copied++;
+				}
+
+				if (map != null)
+					target.attributes = map;
+			}
+
+			// Values of the object columns are copied after the columns
+			// themselves, in place.
+			if (columns != null && !shareValues) {
+				int i = target.getIndex();
+
+				for (String key : columns.getKeys()) {
+					AttributeColumns.Column c = columns.get(key);
+
+					if (c instanceof AttributeColumns.ObjectColumn
+							&& c.isSet(i)) {
+						Object[] values = ((AttributeColumns.ObjectColumn) c).values;
+						values[i] = checkedArrayOrCollectionCopy(values[i]);
+						copied++;
+					}
+				}
+			}
+
+			return count + copied;
+		}
+
+		@Override
+		protected Integer combine(Integer a, Integer b) {
+			return a + b;
+		}
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private static Object checkedArrayOrCollectionCopy(Object o) {
 		if (o == null)
@@ -477,7 +753,19 @@ public class Graphs {
 			attributeLock.lock();
 			wrappedElement.setAttribute(attribute, values);
 			attributeLock.unlock();
-		}		
+		}
+
+		public void setNumber(String attribute, double value) {
+			attributeLock.lock();
+			wrappedElement.setNumber(attribute, value);
+			attributeLock.unlock();
+		}
+
+		public void setNumbers(String attribute, double... values) {
+			attributeLock.lock();
+			wrappedElement.setNumbers(attribute, values);
+			attributeLock.unlock();
+		}
 	}
 
 	static class SynchronizedGraph extends SynchronizedElement<Graph> implements
@@ -784,6 +1072,14 @@ public class Graphs {
 			return l;
 		}
 
+		public <T extends Node> SplittableIterator<T> nodes() {
+			return new SplittableIterator.OfArray<T>(getNodeSet().toArray());
+		}
+
+		public <T extends Edge> SplittableIterator<T> edges() {
+			return new SplittableIterator.OfArray<T>(getEdgeSet().toArray());
+		}
+
 		public double getStep() {
 			double s;
 
@@ -992,6 +1288,18 @@ public class Graphs {
 			elementLock.unlock();
 		}
 
+		public void beginTransaction() {
+			elementLock.lock();
+			wrappedElement.beginTransaction();
+			elementLock.unlock();
+		}
+
+		public void commit() {
+			elementLock.lock();
+			wrappedElement.commit();
+			elementLock.unlock();
+		}
+
 		public void write(String filename) throws IOException {
 			elementLock.lock();
 			wrappedElement.write(filename);
@@ -1443,6 +1751,21 @@ public class Graphs {
 			return l.iterator();
 		}
 
+		public <T extends Edge> SplittableIterator<T> edges() {
+			return new SplittableIterator.OfArray<T>(getEdgeSet().toArray());
+		}
+
+		public <T extends Node> SplittableIterator<T> neighborNodes() {
+			Collection<Edge> edges = getEdgeSet();
+			Node[] neighbors = new Node[edges.size()];
+			int i = 0;
+
+			for (Edge e : edges)
+				neighbors[i++] = e.getOpposite(this);
+
+			return new SplittableIterator.OfArray<T>(neighbors);
+		}
+
 		public int getOutDegree() {
 			int d;
 
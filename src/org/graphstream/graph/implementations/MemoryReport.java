@@ -0,0 +1,469 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.AccessControlException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graphstream.graph.Element;
+import org.graphstream.stream.AttributeSink;
+import org.graphstream.stream.ElementSink;
+
+/**
+ * <p>
+ * An estimate of the heap retained by a graph, split by category.
+ * </p>
+ * 
+ * <p>
+ * The report is computed by {@link AbstractGraph#getMemoryReport()} from the
+ * layout of the objects of the graph: the shallow size of each class is
+ * derived from its fields, and the size of arrays, strings and hash maps from
+ * their length. Object headers, reference sizes and alignment follow the usual
+ * HotSpot layout, with compressed references when the maximum heap is smaller
+ * than 32 GB. Attribute values are counted with their own shallow size only.
+ * The figures are thus estimates, but they are cheap to obtain and precise
+ * enough to compare data structures or tune capacities, for instance the
+ * {@code org.graphstream.graph.node.initialEdgeCapacity} property from the
+ * {@link Category#EDGE_ARRAY_SLACK} category.
+ * </p>
+ * 
+ * <pre>
+ * MemoryReport report = graph.getMemoryReport();
+ * System.out.println(report);
+ * report.store(graph); // as attributes &quot;memory.nodes&quot;, ...
+ * </pre>
+ */
+public class MemoryReport {
+	/**
+	 * Prefix of the attributes set by {@link #store(Element)}.
+	 */
+	public static final String ATTRIBUTE_PREFIX = "memory.";
+
+	/**
+	 * Categories of the report.
+	 */
+	public static enum Category {
+		/**
+		 * Node objects.
+		 */
+		NODES,
+		/**
+		 * Edge objects.
+		 */
+		EDGES,
+		/**
+		 * Identifier strings of the graph, the nodes and the edges.
+		 */
+		IDS,
+		/**
+		 * Maps and arrays used to find elements by identifier or by index.
+		 */
+		INDEX,
+		/**
+		 * Per node edge arrays, neighbor tables and edge indices, including
+		 * their unused slots.
+		 */
+		EDGE_ARRAYS,
+		/**
+		 * Unused slots of the per node edge arrays. This part is already
+		 * counted in {@link #EDGE_ARRAYS} and not added to the total.
+		 */
+		EDGE_ARRAY_SLACK,
+		/**
+		 * Attribute maps, attribute columns and attribute values.
+		 */
+		ATTRIBUTES,
+		/**
+		 * Sink lists and event queue of the graph.
+		 */
+		SINKS
+	}
+
+	// *** Memory layout ***
+
+	protected static final int REFERENCE, HEADER, ARRAY_HEADER;
+
+	static {
+		String model = "64";
+		try {
+			model = System.getProperty("sun.arch.data.model", "64");
+		} catch (AccessControlException e) {
+		}
+
+		boolean is64 = !"32".equals(model);
+		boolean compressed = is64
+				&& Runtime.getRuntime().maxMemory() < (32L << 30);
+
+		REFERENCE = is64 && !compressed ? 8 : 4;
+		HEADER = is64 ? (compressed ? 12 : 16) : 8;
+		ARRAY_HEADER = HEADER + 4;
+	}
+
+	private static final HashMap<Class<?>, Long> shallowSizes = new HashMap<Class<?>, Long>();
+
+	/**
+	 * Estimated size of the instances of a class, without the objects they
+	 * reference.
+	 * 
+	 * @param c
+	 *            A class.
+	 * @return The size in bytes.
+	 */
+	public static synchronized long shallowSize(Class<?> c) {
+		Long size = shallowSizes.get(c);
+
+		if (size == null) {
+			long s = HEADER;
+
+			try {
+				for (Class<?> k = c; k != null; k = k.getSuperclass())
+					for (Field f : k.getDeclaredFields())
+						if (!Modifier.isStatic(f.getModifiers()))
+							s += fieldSize(f.getType());
+			} catch (SecurityException e) {
+				s += 4 * REFERENCE;
+			}
+
+			size = align(s);
+			shallowSizes.put(c, size);
+		}
+
+		return size;
+	}
+
+	private static int fieldSize(Class<?> type) {
+		if (type == long.class || type == double.class)
+			return 8;
+		if (type == int.class || type == float.class)
+			return 4;
+		if (type == short.class || type == char.class)
+			return 2;
+		if (type == byte.class || type == boolean.class)
+			return 1;
+		return REFERENCE;
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	/**
+	 * Estimated size of an array.
+	 * 
+	 * @param length
+	 *            Number of cells.
+	 * @param cell
+	 *            Size of a cell in bytes.
+	 * @return The size in bytes.
+	 */
+	public static long arraySize(int length, int cell) {
+		return align(ARRAY_HEADER + (long) length * cell);
+	}
+
+	/**
+	 * Estimated size of a string and of its characters.
+	 * 
+	 * @param s
+	 *            A string.
+	 * @return The size in bytes.
+	 */
+	public static long stringSize(String s) {
+		return shallowSize(String.class) + arraySize(s.length(), 2);
+	}
+
+	/**
+	 * Estimated size of a {@link HashMap} and of its entries, without the keys
+	 * and values.
+	 * 
+	 * @param size
+	 *            Number of entries.
+	 * @return The size in bytes.
+	 */
+	public static long hashMapSize(int size) {
+		int capacity = 16;
+		while (3 * capacity < 4 * size)
+			capacity <<= 1;
+
+		return shallowSize(HashMap.class) + arraySize(capacity, REFERENCE)
+				+ size * align(HEADER + 3 * REFERENCE + 4);
+	}
+
+	/**
+	 * Estimated size of an attribute value, without the objects it references.
+	 */
+	private static long valueSize(Object value) {
+		if (value == null)
+			return 0;
+		if (value instanceof String)
+			return stringSize((String) value);
+
+		Class<?> c = value.getClass();
+
+		if (c.isArray()) {
+			Class<?> t = c.getComponentType();
+			return arraySize(java.lang.reflect.Array.getLength(value),
+					t.isPrimitive() ? fieldSize(t) : REFERENCE);
+		}
+
+		return shallowSize(c);
+	}
+
+	// *** Report ***
+
+	protected final EnumMap<Category, Long> bytes;
+
+	/**
+	 * Computes the report of a graph.
+	 * 
+	 * @param graph
+	 *            The graph.
+	 * @complexity O(n + m + a) with n the number of nodes, m the number of
+	 *             edges and a the number of attributes.
+	 */
+	protected MemoryReport(AbstractGraph graph) {
+		bytes = new EnumMap<Category, Long>(Category.class);
+
+		for (Category c : Category.values())
+			bytes.put(c, 0L);
+
+		int nodeCount = graph.getNodeCount();
+		int edgeCount = graph.getEdgeCount();
+
+		add(Category.IDS, stringSize(graph.getId()));
+		add(Category.ATTRIBUTES, attributesSize(graph));
+
+		for (AbstractNode node : graph.<AbstractNode> getEachNode()) {
+			add(Category.NODES, shallowSize(node.getClass()));
+			add(Category.IDS, stringSize(node.getId()));
+			add(Category.ATTRIBUTES, attributesSize(node));
+
+			if (node instanceof AdjacencyListNode)
+				adjacency((AdjacencyListNode) node);
+		}
+
+		for (AbstractEdge edge : graph.<AbstractEdge> getEachEdge()) {
+			add(Category.EDGES, shallowSize(edge.getClass()));
+			add(Category.IDS, stringSize(edge.getId()));
+			add(Category.ATTRIBUTES, attributesSize(edge));
+		}
+
+		if (graph instanceof AdjacencyListGraph) {
+			AdjacencyListGraph g = (AdjacencyListGraph) graph;
+
+			add(Category.INDEX,
+					hashMapSize(nodeCount) + hashMapSize(edgeCount)
+							+ arraySize(g.nodeArray.length, REFERENCE)
+							+ arraySize(g.edgeArray.length, REFERENCE)
+							+ handlesSize(g.nodeHandles)
+							+ handlesSize(g.edgeHandles));
+		} else {
+			add(Category.INDEX,
+					hashMapSize(nodeCount) + hashMapSize(edgeCount)
+							+ arraySize(nodeCount, REFERENCE)
+							+ arraySize(edgeCount, REFERENCE));
+		}
+
+		add(Category.ATTRIBUTES, columnsSize(graph.nodeColumns));
+		add(Category.ATTRIBUTES, columnsSize(graph.edgeColumns));
+
+		int sinks = 0;
+		for (AttributeSink sink : graph.attributeSinks())
+			sinks++;
+		for (ElementSink sink : graph.elementSinks())
+			sinks++;
+
+		// Two sink lists and an event queue.
+		add(Category.SINKS, shallowSize(graph.listeners.getClass()) + 3
+				* shallowSize(java.util.ArrayList.class)
+				+ arraySize(sinks, REFERENCE));
+	}
+
+	private void add(Category category, long size) {
+		bytes.put(category, bytes.get(category) + size);
+	}
+
+	private void adjacency(AdjacencyListNode node) {
+		add(Category.EDGE_ARRAYS, arraySize(node.edges.length, REFERENCE));
+		add(Category.EDGE_ARRAY_SLACK, (long) (node.edges.length - node.degree)
+				* REFERENCE);
+
+		if (node.edgeIndex != null)
+			add(Category.EDGE_ARRAYS,
+					arraySize(node.edgeIndex.capacity(), REFERENCE)
+							+ arraySize(node.edgeIndex.capacity(), 4));
+
+		if (node instanceof SingleNode) {
+			add(Category.EDGE_ARRAYS, arraySize(
+					((SingleNode) node).neighbors.length, REFERENCE));
+		} else if (node instanceof MultiNode) {
+			Map<AbstractNode, List<AbstractEdge>> map = ((MultiNode) node).neighborMap;
+			long lists = map.size()
+					* shallowSize(java.util.LinkedList.class)
+					+ node.degree * align(HEADER + 3 * REFERENCE);
+			add(Category.EDGE_ARRAYS, hashMapSize(map.size()) + lists);
+		}
+	}
+
+	private static long handlesSize(ElementHandles handles) {
+		if (handles == null)
+			return 0;
+
+		return shallowSize(ElementHandles.class)
+				+ arraySize(handles.handleOf.length, 4)
+				+ arraySize(handles.elementOf.length, REFERENCE)
+				+ arraySize(handles.free.length, 4);
+	}
+
+	private static long attributesSize(AbstractElement element) {
+		Map<String, Object> attributes = element.attributes;
+
+		if (attributes == null)
+			return 0;
+
+		long size;
+
+		if (attributes instanceof CompactAttributeMap) {
+			CompactAttributeMap map = (CompactAttributeMap) attributes;
+			size = shallowSize(CompactAttributeMap.class);
+
+			if (map.keys != null)
+				size += arraySize(map.keys.length, REFERENCE)
+						+ arraySize(map.values.length, REFERENCE);
+			if (map.map != null)
+				size += hashMapSize(map.map.size());
+		} else {
+			size = hashMapSize(attributes.size());
+		}
+
+		// Keys are interned and shared, only values are counted.
+		for (Object value : attributes.values())
+			size += valueSize(value);
+
+		return size;
+	}
+
+	private static long columnsSize(AttributeColumns columns) {
+		if (columns == null)
+			return 0;
+
+		long size = shallowSize(AttributeColumns.class)
+				+ arraySize(columns.owners.length, REFERENCE)
+				+ hashMapSize(columns.columns.size());
+
+		for (AttributeColumns.Column c : columns.columns.values()) {
+			int capacity = c.capacity();
+			size += shallowSize(c.getClass())
+					+ arraySize(c.present.length, 8);
+
+			switch (c.type()) {
+			case DOUBLE:
+				size += arraySize(capacity, 8);
+				break;
+			case INT:
+				size += arraySize(capacity, 4);
+				break;
+			default:
+				size += arraySize(capacity, REFERENCE);
+
+				for (int i = 0; i < capacity; i++)
+					if (c.isSet(i))
+						size += valueSize(c.get(i));
+			}
+		}
+
+		return size;
+	}
+
+	// *** Access methods ***
+
+	/**
+	 * Estimated size of a category.
+	 * 
+	 * @param category
+	 *            The category.
+	 * @return The size in bytes.
+	 */
+	public long get(Category category) {
+		return bytes.get(category);
+	}
+
+	/**
+	 * Estimated size of the whole graph, that is the sum of all the categories
+	 * but {@link Category#EDGE_ARRAY_SLACK}, which is part of
+	 * {@link Category#EDGE_ARRAYS}.
+	 * 
+	 * @return The size in bytes.
+	 */
+	public long getTotal() {
+		long total = 0;
+
+		for (Category c : Category.values())
+			if (c != Category.EDGE_ARRAY_SLACK)
+				total += bytes.get(c);
+
+		return total;
+	}
+
+	/**
+	 * Stores the report as attributes of an element, usually the graph
+	 * itself. Each category is stored as a {@code Long} attribute named
+	 * {@code "memory."} followed by the lower case name of the category, the
+	 * total as {@code "memory.total"}.
+	 * 
+	 * @param element
+	 *            The element receiving the attributes.
+	 */
+	public void store(Element element) {
+		for (Category c : Category.values())
+			element.setAttribute(ATTRIBUTE_PREFIX + c.name().toLowerCase(),
+					bytes.get(c));
+
+		element.setAttribute(ATTRIBUTE_PREFIX + "total", getTotal());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+
+		for (Category c : Category.values())
+			builder.append(String.format("%-16s %12d%n", c.name(),
+					bytes.get(c)));
+
+		builder.append(String.format("%-16s %12d%n", "TOTAL", getTotal()));
+		return builder.toString();
+	}
+}
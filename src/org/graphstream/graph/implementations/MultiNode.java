@@ -104,6 +104,16 @@ public class MultiNode extends AdjacencyListNode {
 		super.clearCallback();
 	}
 
+	@Override
+	void trimEdgeCapacity(int capacity) {
+		// A hash map does not shrink.
+		if (edges.length > capacity)
+			neighborMap = new HashMap<AbstractNode, List<AbstractEdge>>(
+					4 * INITIAL_EDGE_CAPACITY / 3 + 1);
+
+		super.trimEdgeCapacity(capacity);
+	}
+
 	// *** Others ***
 
 	@SuppressWarnings("unchecked")
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
+
+/**
+ * <p>
+ * A reusable cursor over the neighbors of the nodes of an
+ * {@link AdjacencyListGraph}.
+ * </p>
+ * 
+ * <p>
+ * {@link Node#getNeighborNodeIterator()} creates an iterator and a hash set
+ * each time it is called. In inner loops, a single cursor can be created once
+ * and reset on each node instead:
+ * </p>
+ * 
+ * <pre>
+ * NeighborCursor cursor = new NeighborCursor();
+ * 
+ * for (Node node : graph) {
+ * 	cursor.reset(node);
+ * 
+ * 	while (cursor.next())
+ * 		visit(node, cursor.getNode());
+ * }
+ * </pre>
+ * 
+ * <p>
+ * Each neighbor is given once, even when it is connected by several edges. To
+ * detect duplicates without allocating, the cursor stamps each visited
+ * neighbor in an array indexed by node index with a number changed at each
+ * reset. The array belongs to the cursor, so that several cursors can be
+ * nested or used by different threads. It grows with the graph and is never
+ * cleared. The stamps are skipped altogether when the node guarantees that its
+ * neighbors are distinct, as {@link SingleNode} does for entering or leaving
+ * edges.
+ * </p>
+ * 
+ * <p>
+ * The graph must not be modified while a traversal is in progress.
+ * </p>
+ */
+public class NeighborCursor {
+	/**
+	 * The node whose neighbors are visited.
+	 */
+	protected AdjacencyListNode node;
+
+	/**
+	 * Position of the current edge and end of the range in the edges of the
+	 * node.
+	 */
+	protected int position, end;
+
+	/**
+	 * Are the stamps needed for the current traversal ?
+	 */
+	protected boolean dedup;
+
+	/**
+	 * Stamp of the last traversal in which each node has been visited.
+	 */
+	protected int[] marks = new int[0];
+
+	/**
+	 * Stamp of the current traversal.
+	 */
+	protected int stamp;
+
+	// *** Traversal ***
+
+	/**
+	 * Starts the traversal of all the neighbors of a node.
+	 * 
+	 * @param node
+	 *            A node of an {@link AdjacencyListGraph}.
+	 * @return This cursor.
+	 * @throws ClassCastException
+	 *             If the node is not an {@link AdjacencyListNode}.
+	 */
+	public NeighborCursor reset(Node node) {
+		AdjacencyListNode n = (AdjacencyListNode) node;
+		return reset(n, 0, n.degree, AdjacencyListNode.IO_EDGE);
+	}
+
+	/**
+	 * Starts the traversal of the nodes connected to a node by entering or
+	 * undirected edges.
+	 * 
+	 * @param node
+	 *            A node of an {@link AdjacencyListGraph}.
+	 * @return This cursor.
+	 */
+	public NeighborCursor resetEntering(Node node) {
+		AdjacencyListNode n = (AdjacencyListNode) node;
+		return reset(n, 0, n.oStart, AdjacencyListNode.I_EDGE);
+	}
+
+	/**
+	 * Starts the traversal of the nodes connected to a node by leaving or
+	 * undirected edges.
+	 * 
+	 * @param node
+	 *            A node of an {@link AdjacencyListGraph}.
+	 * @return This cursor.
+	 */
+	public NeighborCursor resetLeaving(Node node) {
+		AdjacencyListNode n = (AdjacencyListNode) node;
+		return reset(n, n.ioStart, n.degree, AdjacencyListNode.O_EDGE);
+	}
+
+	protected NeighborCursor reset(AdjacencyListNode node, int begin, int end,
+			char type) {
+		this.node = node;
+		this.position = begin - 1;
+		this.end = end;
+		this.dedup = node.mayRepeatNeighbors(type);
+
+		if (dedup) {
+			int n = ((AdjacencyListGraph) node.graph).getNodeIndexBound();
+
+			if (marks.length < n)
+				marks = new int[Math.max(n, 2 * marks.length)];
+
+			if (++stamp == 0) {
+				Arrays.fill(marks, 0);
+				stamp = 1;
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Moves to the next neighbor.
+	 * 
+	 * @return False if all the neighbors have been visited.
+	 */
+	public boolean next() {
+		if (!dedup)
+			return ++position < end;
+
+		while (++position < end) {
+			int i = node.edges[position].getOpposite(node).getIndex();
+
+			if (marks[i] != stamp) {
+				marks[i] = stamp;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	// *** Access methods ***
+
+	/**
+	 * The current neighbor.
+	 * 
+	 * @return The neighbor, valid after {@link #next()} returned true.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Node> T getNode() {
+		return (T) node.edges[position].getOpposite(node);
+	}
+
+	/**
+	 * The first edge linking the node to the current neighbor.
+	 * 
+	 * @return The edge, valid after {@link #next()} returned true.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Edge> T getEdge() {
+		return (T) node.edges[position];
+	}
+
+	/**
+	 * Weight of the edge given by {@link #getEdge()}.
+	 * 
+	 * @return The weight, valid after {@link #next()} returned true.
+	 * @see AbstractGraph#edgeWeight(int)
+	 */
+	public double getWeight() {
+		return node.graph.edgeWeight(node.edges[position].getIndex());
+	}
+}
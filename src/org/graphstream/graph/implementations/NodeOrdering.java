@@ -0,0 +1,198 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Orders of the nodes of a graph keeping close in memory the nodes that are
+ * close in the graph, see {@link AdjacencyListGraph#reorder(NodeOrdering,
+ * AdjacencyListGraph.IndexRemapper...)}.
+ * </p>
+ * 
+ * <p>
+ * The indices of the nodes of an {@link AdjacencyListGraph} follow their
+ * insertion order, and removals move the last node into the freed index, so
+ * the neighbors of a node are usually scattered in the node storage. A
+ * traversal then reads the memory at random. Once the nodes are reordered,
+ * neighbors mostly have close indices and traversals are more cache
+ * friendly. Directed edges are followed in both directions.
+ * </p>
+ */
+public enum NodeOrdering {
+	/**
+	 * Breadth-first order, each connected component being explored from its
+	 * node of lowest index.
+	 */
+	BREADTH_FIRST {
+		@Override
+		int[] order(AdjacencySnapshot s) {
+			int n = s.getNodeCount();
+			int[] order = new int[n];
+			boolean[] seen = new boolean[n];
+			int tail = 0;
+
+			for (int root = 0; root < n; root++)
+				if (!seen[root])
+					tail = explore(s, root, order, tail, seen, false);
+
+			return order;
+		}
+	},
+
+	/**
+	 * Reverse Cuthill-McKee order. Each connected component is explored
+	 * breadth-first from one of its nodes of minimal degree, the neighbors of
+	 * each node being visited by increasing degree, then the whole order is
+	 * reversed. This minimizes the bandwidth of the adjacency matrix, that is
+	 * the distance between the indices of neighbors.
+	 */
+	REVERSE_CUTHILL_MCKEE {
+		@Override
+		int[] order(AdjacencySnapshot s) {
+			int n = s.getNodeCount();
+			int[] order = new int[n];
+			boolean[] seen = new boolean[n];
+			int tail = 0;
+
+			for (int root : byDegree(s, true))
+				if (!seen[root])
+					tail = explore(s, root, order, tail, seen, true);
+
+			for (int i = 0, j = n - 1; i < j; i++, j--) {
+				int t = order[i];
+				order[i] = order[j];
+				order[j] = t;
+			}
+
+			return order;
+		}
+	},
+
+	/**
+	 * Nodes by decreasing degree, so that the hubs of the graph, which are
+	 * the most visited, share the same part of the storage.
+	 */
+	DEGREE {
+		@Override
+		int[] order(AdjacencySnapshot s) {
+			return byDegree(s, false);
+		}
+	};
+
+	/**
+	 * Computes the order of the nodes.
+	 * 
+	 * @param s
+	 *            The structure of the graph.
+	 * @return The current index of the node to put at each index.
+	 */
+	abstract int[] order(AdjacencySnapshot s);
+
+	/**
+	 * Appends to an order the nodes of the connected component of a root, in
+	 * breadth-first order.
+	 * 
+	 * @return The new size of the order.
+	 */
+	static int explore(AdjacencySnapshot s, int root, int[] order, int tail,
+			boolean[] seen, boolean byDegree) {
+		int head = tail;
+		long[] keys = byDegree ? new long[16] : null;
+
+		seen[root] = true;
+		order[tail++] = root;
+
+		while (head < tail) {
+			int u = order[head++];
+			int first = tail;
+
+			for (int p = s.getNeighborsBegin(u); p < s.getNeighborsEnd(u); p++) {
+				int v = s.getNeighbor(p);
+
+				if (!seen[v]) {
+					seen[v] = true;
+					order[tail++] = v;
+				}
+			}
+
+			if (byDegree && tail - first > 1) {
+				if (keys.length < tail - first)
+					keys = new long[tail - first];
+
+				for (int i = first; i < tail; i++)
+					keys[i - first] = ((long) s.getDegree(order[i]) << 32)
+							| order[i];
+
+				Arrays.sort(keys, 0, tail - first);
+
+				for (int i = first; i < tail; i++)
+					order[i] = (int) keys[i - first];
+			}
+		}
+
+		return tail;
+	}
+
+	/**
+	 * Nodes sorted by degree, nodes of the same degree keeping their relative
+	 * order.
+	 */
+	static int[] byDegree(AdjacencySnapshot s, boolean increasing) {
+		int n = s.getNodeCount();
+		int max = 0;
+
+		for (int i = 0; i < n; i++)
+			max = Math.max(max, s.getDegree(i));
+
+		int[] start = new int[max + 2];
+
+		for (int i = 0; i < n; i++)
+			start[key(s, i, max, increasing) + 1]++;
+
+		for (int d = 0; d <= max; d++)
+			start[d + 1] += start[d];
+
+		int[] order = new int[n];
+
+		for (int i = 0; i < n; i++)
+			order[start[key(s, i, max, increasing)]++] = i;
+
+		return order;
+	}
+
+	private static int key(AdjacencySnapshot s, int i, int max,
+			boolean increasing) {
+		return increasing ? s.getDegree(i) : max - s.getDegree(i);
+	}
+}
@@ -31,9 +31,9 @@
  */
 package org.graphstream.graph.implementations;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Node;
@@ -44,18 +44,123 @@ import org.graphstream.graph.Node;
  */
 
 public class SingleNode extends AdjacencyListNode {
-	protected static class TwoEdges {
-		protected AbstractEdge in, out;
-	}
-	
-	protected HashMap<AbstractNode, TwoEdges> neighborMap;
+	/**
+	 * Neighbor table. Each slot takes three consecutive cells: the neighbor,
+	 * the edge entering this node from it and the edge leaving this node
+	 * toward it. An undirected edge is both entering and leaving. The table
+	 * uses open addressing with linear probing and neighbors are compared by
+	 * identity, so that no entry object is created per neighbor.
+	 */
+	protected Object[] neighbors;
+
+	/**
+	 * Number of neighbors in the table.
+	 */
+	protected int neighborCount;
 
 	// *** Constructor ***
 
 	protected SingleNode(AbstractGraph graph, String id) {
 		super(graph, id);
-		neighborMap = new HashMap<AbstractNode, TwoEdges>(
-				4 * INITIAL_EDGE_CAPACITY / 3 + 1);
+		neighbors = new Object[3 * capacityFor(INITIAL_EDGE_CAPACITY)];
+	}
+
+	// *** Neighbor table ***
+
+	/**
+	 * Smallest power of two number of slots holding a number of neighbors
+	 * with a load factor of at most 2/3.
+	 */
+	private static int capacityFor(int size) {
+		int capacity = 4;
+		while (2 * capacity < 3 * size)
+			capacity <<= 1;
+		return capacity;
+	}
+
+	private static int hash(Object node) {
+		int h = System.identityHashCode(node) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Cell of the slot of a neighbor.
+	 * 
+	 * @return The first cell of the slot or -1 if the node is not a neighbor.
+	 */
+	private int find(Object opposite) {
+		int mask = neighbors.length / 3 - 1;
+
+		for (int i = hash(opposite) & mask;; i = (i + 1) & mask) {
+			Object key = neighbors[3 * i];
+
+			if (key == opposite)
+				return 3 * i;
+			if (key == null)
+				return -1;
+		}
+	}
+
+	/**
+	 * Cell of the slot of a neighbor, the slot being created if needed.
+	 */
+	private int insert(Object opposite) {
+		int c = find(opposite);
+
+		if (c >= 0)
+			return c;
+
+		if (2 * neighbors.length < 3 * 3 * (neighborCount + 1))
+			resize(capacityFor(neighborCount + 1));
+
+		int mask = neighbors.length / 3 - 1;
+		int i = hash(opposite) & mask;
+
+		while (neighbors[3 * i] != null)
+			i = (i + 1) & mask;
+
+		neighbors[3 * i] = opposite;
+		neighborCount++;
+		return 3 * i;
+	}
+
+	/**
+	 * Frees a slot, shifting back the following slots of the same cluster.
+	 */
+	private void delete(int c) {
+		int mask = neighbors.length / 3 - 1;
+		int hole = c / 3;
+
+		neighbors[c] = neighbors[c + 1] = neighbors[c + 2] = null;
+		neighborCount--;
+
+		for (int i = (hole + 1) & mask; neighbors[3 * i] != null; i = (i + 1)
+				& mask) {
+			int home = hash(neighbors[3 * i]) & mask;
+
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				System.arraycopy(neighbors, 3 * i, neighbors, 3 * hole, 3);
+				Arrays.fill(neighbors, 3 * i, 3 * i + 3, null);
+				hole = i;
+			}
+		}
+	}
+
+	private void resize(int capacity) {
+		Object[] old = neighbors;
+		int mask = capacity - 1;
+		neighbors = new Object[3 * capacity];
+
+		for (int c = 0; c < old.length; c += 3) {
+			if (old[c] == null)
+				continue;
+
+			int i = hash(old[c]) & mask;
+			while (neighbors[3 * i] != null)
+				i = (i + 1) & mask;
+
+			System.arraycopy(old, c, neighbors, 3 * i, 3);
+		}
 	}
 
 	// *** Helpers ***
@@ -63,66 +168,127 @@ public class SingleNode extends AdjacencyListNode {
 	@SuppressWarnings("unchecked")
 	@Override
 	protected <T extends Edge> T locateEdge(Node opposite, char type) {
-		TwoEdges ee = neighborMap.get(opposite);
+		int c = find(opposite);
 
-		if (ee == null)
+		if (c < 0)
 			return null;
 
+		Object in = neighbors[c + 1];
+		Object out = neighbors[c + 2];
+
 		if (type == IO_EDGE)
-			return (T)(ee.in == null ? ee.out : ee.in);
+			return (T) (in == null ? out : in);
+
+		return (T) (type == I_EDGE ? in : out);
+	}
 
-		return (T)(type == I_EDGE ? ee.in : ee.out);
+	/**
+	 * There is at most one entering and one leaving edge toward each neighbor,
+	 * so only a traversal of all edges may meet a neighbor twice.
+	 */
+	@Override
+	protected boolean mayRepeatNeighbors(char type) {
+		return type == IO_EDGE;
 	}
 
 	@Override
 	protected void removeEdge(int i) {
-		AbstractNode opposite = edges[i].getOpposite(this);
-		TwoEdges ee = neighborMap.get(opposite);
+		int c = find(edges[i].getOpposite(this));
 		char type = edgeType(edges[i]);
 		if (type != O_EDGE)
-			ee.in = null;
+			neighbors[c + 1] = null;
 		if (type != I_EDGE)
-			ee.out = null;
-		if (ee.in == null && ee.out == null)
-			neighborMap.remove(opposite);
+			neighbors[c + 2] = null;
+		if (neighbors[c + 1] == null && neighbors[c + 2] == null)
+			delete(c);
 		super.removeEdge(i);
 	}
 
+	@Override
+	protected void ensureEdgeCapacity(int capacity) {
+		super.ensureEdgeCapacity(capacity);
+
+		int slots = capacityFor(capacity);
+		if (3 * slots > neighbors.length)
+			resize(slots);
+	}
+
 	// *** Callbacks ***
 
 	@Override
 	protected boolean addEdgeCallback(AbstractEdge edge) {
 		AbstractNode opposite = edge.getOpposite(this);
-		TwoEdges ee = neighborMap.get(opposite);
-		if (ee == null)
-			ee = new TwoEdges();
 		char type = edgeType(edge);
-		if (type != O_EDGE) {
-			if (ee.in != null)
+		int c = find(opposite);
+
+		if (c >= 0) {
+			if (type != O_EDGE && neighbors[c + 1] != null)
 				return false;
-			ee.in = edge;
-		}
-		if (type != I_EDGE) {
-			if (ee.out != null)
+			if (type != I_EDGE && neighbors[c + 2] != null)
 				return false;
-			ee.out = edge;
 		}
-		neighborMap.put(opposite, ee);
+
+		if (c < 0)
+			c = insert(opposite);
+		if (type != O_EDGE)
+			neighbors[c + 1] = edge;
+		if (type != I_EDGE)
+			neighbors[c + 2] = edge;
 		return super.addEdgeCallback(edge);
 	}
 
 	@Override
 	protected void clearCallback() {
-		neighborMap.clear();
+		Arrays.fill(neighbors, null);
+		neighborCount = 0;
 		super.clearCallback();
 	}
 
+	@Override
+	void trimEdgeCapacity(int capacity) {
+		super.trimEdgeCapacity(capacity);
+
+		if (neighbors.length > 3 * capacityFor(edges.length))
+			neighbors = new Object[3 * capacityFor(edges.length)];
+	}
+
 	// *** Others ***
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends Node> Iterator<T> getNeighborNodeIterator() {
-		return (Iterator<T>) Collections.unmodifiableSet(neighborMap.keySet())
-				.iterator();
+		return new NeighborIterator<T>();
+	}
+
+	protected class NeighborIterator<T extends Node> implements Iterator<T> {
+		protected int next = -3;
+
+		protected NeighborIterator() {
+			advance();
+		}
+
+		private void advance() {
+			do
+				next += 3;
+			while (next < neighbors.length && neighbors[next] == null);
+		}
+
+		public boolean hasNext() {
+			return next < neighbors.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (next >= neighbors.length)
+				throw new NoSuchElementException();
+
+			T node = (T) neighbors[next];
+			advance();
+			return node;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException(
+					"This iterator does not support remove");
+		}
 	}
 }
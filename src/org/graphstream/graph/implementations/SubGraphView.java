@@ -0,0 +1,947 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
+import org.graphstream.stream.AttributeSink;
+import org.graphstream.stream.ElementSink;
+import org.graphstream.util.Filter;
+import org.graphstream.util.FilteredEdgeIterator;
+
+/**
+ * <p>
+ * A live, read-only view of the part of a graph accepted by a node filter and
+ * an edge filter.
+ * </p>
+ * 
+ * <p>
+ * The filters are evaluated once per element and their results are kept in
+ * two bit sets indexed by the indices of the elements in the parent graph.
+ * The view listens to the parent and evaluates again the filters only for the
+ * elements that are added or whose attributes change, so algorithms iterating
+ * many times over the subgraph do not pay the cost of the filters each time,
+ * unlike {@link org.graphstream.util.FilteredNodeIterator} and
+ * {@link org.graphstream.util.FilteredEdgeIterator}. An edge belongs to the
+ * view if it is accepted by the edge filter and if its two nodes belong to
+ * the view. When the filters depend on something else than the attributes of
+ * the elements, {@link #refresh()} evaluates them again for all the elements.
+ * </p>
+ * 
+ * <p>
+ * The elements of the view are the elements of the parent graph, nothing is
+ * copied. Their own methods, such as {@link Node#getDegree()}, still describe
+ * the parent graph: use the methods of the view taking a node, such as
+ * {@link #getDegree(Node)} or {@link #getNeighborNodeIterator(Node)}, to stay
+ * inside the subgraph. The elements keep the indices of the parent graph,
+ * while the indices given to {@link #getNode(int)} and {@link #getEdge(int)}
+ * are ranks in the view. Accessing the elements by rank in increasing order
+ * is O(1) per element, random accesses are O(n / 64).
+ * </p>
+ * 
+ * <p>
+ * All the methods modifying the view throw an
+ * {@link UnsupportedOperationException}, the parent graph must be modified
+ * instead. The view relies on the fact that the parent graph gives the index
+ * of a removed element to its last element, as all the graph implementations
+ * do. It must be closed with {@link #close()} when it is not used anymore.
+ * When the parent graph is reordered with
+ * {@link AdjacencyListGraph#reorder(NodeOrdering, AdjacencyListGraph.IndexRemapper...)}
+ * the view must be given as a remapper.
+ * </p>
+ */
+public class SubGraphView extends AbstractGraph implements
+		AdjacencyListGraph.IndexRemapper {
+	protected final Graph parent;
+	protected final Filter<Node> nodeFilter;
+	protected final Filter<Edge> edgeFilter;
+
+	/**
+	 * Indices in the parent graph of the nodes and of the edges of the view.
+	 */
+	protected final IndexSet nodeSet, edgeSet;
+
+	protected final ParentListener listener;
+
+	/**
+	 * Last element of the parent graph before a removal, whose index has to
+	 * be updated once the removal is done, and its index before the removal.
+	 */
+	protected Element movedNode, movedEdge;
+	protected int movedNodeFrom, movedEdgeFrom;
+
+	/**
+	 * Elements of the parent graph losing an attribute. The parent sends the
+	 * event before removing the attribute, so their filters are evaluated
+	 * again once the removal is done.
+	 */
+	protected Node pendingNode;
+	protected Edge pendingEdge;
+
+	/**
+	 * Membership of the edges, as a filter.
+	 */
+	protected final Filter<Edge> edgeMembership = new Filter<Edge>() {
+		public boolean isAvailable(Edge e) {
+			return edgeSet.get(e.getIndex());
+		}
+	};
+
+	// *** Constructors ***
+
+	/**
+	 * Creates a view of the elements of a graph accepted by two filters. The
+	 * filters are evaluated for all the elements of the graph.
+	 * 
+	 * @param id
+	 *            Identifier of the view.
+	 * @param parent
+	 *            The graph.
+	 * @param nodeFilter
+	 *            The filter of the nodes, or null to accept all of them.
+	 * @param edgeFilter
+	 *            The filter of the edges, or null to accept all the edges
+	 *            between the nodes of the view.
+	 * @complexity O(n + m) evaluations of the filters.
+	 */
+	public SubGraphView(String id, Graph parent, Filter<Node> nodeFilter,
+			Filter<Edge> edgeFilter) {
+		super(id, false, false);
+
+		this.parent = parent;
+		this.nodeFilter = nodeFilter;
+		this.edgeFilter = edgeFilter;
+		this.nodeSet = new IndexSet(nodeIndexBound());
+		this.edgeSet = new IndexSet(edgeIndexBound());
+		this.listener = new ParentListener();
+
+		refresh();
+
+		parent.addElementSink(listener);
+		parent.addAttributeSink(listener);
+	}
+
+	/**
+	 * Creates a view of the nodes of a graph accepted by a filter and of all
+	 * the edges between them.
+	 * 
+	 * @param id
+	 *            Identifier of the view.
+	 * @param parent
+	 *            The graph.
+	 * @param nodeFilter
+	 *            The filter of the nodes.
+	 */
+	public SubGraphView(String id, Graph parent, Filter<Node> nodeFilter) {
+		this(id, parent, nodeFilter, null);
+	}
+
+	// *** Access ***
+
+	/**
+	 * The graph of which this is a view.
+	 * 
+	 * @return The parent graph.
+	 */
+	public Graph getParent() {
+		return parent;
+	}
+
+	/**
+	 * Evaluates again the filters for all the elements of the parent graph.
+	 * 
+	 * @complexity O(n + m) evaluations of the filters.
+	 */
+	public void refresh() {
+		movedNode = movedEdge = null;
+		pendingNode = null;
+		pendingEdge = null;
+		nodeSet.reset(nodeIndexBound());
+		edgeSet.reset(edgeIndexBound());
+
+		for (int i = 0; i < nodeIndexBound(); i++) {
+			Node node = parent.getNode(i);
+
+			if (node != null && acceptNode(node))
+				nodeSet.set(i);
+		}
+
+		for (int i = 0; i < edgeIndexBound(); i++) {
+			Edge edge = parent.getEdge(i);
+
+			if (edge != null && acceptEdge(edge))
+				edgeSet.set(i);
+		}
+	}
+
+	/**
+	 * Upper bound of the node indices of the parent graph. It is larger than
+	 * the number of nodes when the parent is an {@link AdjacencyListGraph}
+	 * with stable indices.
+	 */
+	protected int nodeIndexBound() {
+		return parent instanceof AdjacencyListGraph ? ((AdjacencyListGraph) parent)
+				.getNodeIndexBound() : parent.getNodeCount();
+	}
+
+	/**
+	 * Upper bound of the edge indices of the parent graph.
+	 */
+	protected int edgeIndexBound() {
+		return parent instanceof AdjacencyListGraph ? ((AdjacencyListGraph) parent)
+				.getEdgeIndexBound() : parent.getEdgeCount();
+	}
+
+	/**
+	 * Does the parent graph give the index of a removed element to another
+	 * element ?
+	 */
+	protected boolean parentMovesElements() {
+		return !(parent instanceof AdjacencyListGraph && ((AdjacencyListGraph) parent)
+				.hasStableIndices());
+	}
+
+	/**
+	 * Stops following the changes of the parent graph. The content of the
+	 * view is not meaningful anymore after this call.
+	 */
+	public void close() {
+		parent.removeElementSink(listener);
+		parent.removeAttributeSink(listener);
+	}
+
+	/**
+	 * Follows the new indices of a reordered or compacted parent graph.
+	 * 
+	 * @see AdjacencyListGraph#reorder(NodeOrdering,
+	 *      AdjacencyListGraph.IndexRemapper...)
+	 */
+	public void remap(int[] nodePositions, int[] edgePositions) {
+		sync();
+		nodeSet.permute(nodePositions);
+		edgeSet.permute(edgePositions);
+	}
+
+	/**
+	 * Checks if a node of the parent graph belongs to this view.
+	 * 
+	 * @param node
+	 *            A node.
+	 * @return True if the node is in the view.
+	 * @complexity O(1)
+	 */
+	public boolean contains(Node node) {
+		sync();
+		int i = node.getIndex();
+		return nodeSet.get(i) && parent.getNode(i) == node;
+	}
+
+	/**
+	 * Checks if an edge of the parent graph belongs to this view.
+	 * 
+	 * @param edge
+	 *            An edge.
+	 * @return True if the edge is in the view.
+	 * @complexity O(1)
+	 */
+	public boolean contains(Edge edge) {
+		sync();
+		int i = edge.getIndex();
+		return edgeSet.get(i) && parent.getEdge(i) == edge;
+	}
+
+	@Override
+	public <T extends Node> T getNode(String id) {
+		T node = parent.getNode(id);
+		return node != null && contains(node) ? node : null;
+	}
+
+	@Override
+	public <T extends Node> T getNode(int index) {
+		sync();
+		int i = nodeSet.select(index);
+
+		if (i < 0)
+			throw new IndexOutOfBoundsException("Node " + index
+					+ " does not exist");
+
+		return parent.getNode(i);
+	}
+
+	@Override
+	public <T extends Edge> T getEdge(String id) {
+		T edge = parent.getEdge(id);
+		return edge != null && contains(edge) ? edge : null;
+	}
+
+	@Override
+	public <T extends Edge> T getEdge(int index) {
+		sync();
+		int i = edgeSet.select(index);
+
+		if (i < 0)
+			throw new IndexOutOfBoundsException("Edge " + index
+					+ " does not exist");
+
+		return parent.getEdge(i);
+	}
+
+	@Override
+	public int getNodeCount() {
+		sync();
+		return nodeSet.size();
+	}
+
+	@Override
+	public int getEdgeCount() {
+		sync();
+		return edgeSet.size();
+	}
+
+	@Override
+	public <T extends Node> Iterator<T> getNodeIterator() {
+		return this.<T> nodes();
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getEdgeIterator() {
+		return this.<T> edges();
+	}
+
+	@Override
+	public <T extends Node> SplittableIterator<T> nodes() {
+		sync();
+		return new Range<T>(nodeSet, true, 0, nodeSet.capacity());
+	}
+
+	@Override
+	public <T extends Edge> SplittableIterator<T> edges() {
+		sync();
+		return new Range<T>(edgeSet, false, 0, edgeSet.capacity());
+	}
+
+	// *** Restricted node operations ***
+
+	/**
+	 * Number of edges of the view incident to a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return The degree of the node in the view.
+	 * @complexity O(d) with d the degree of the node in the parent graph.
+	 */
+	public int getDegree(Node node) {
+		sync();
+		return count(node.getEdgeIterator());
+	}
+
+	/**
+	 * Number of edges of the view entering a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return The in-degree of the node in the view.
+	 * @complexity O(d) with d the in-degree of the node in the parent graph.
+	 */
+	public int getInDegree(Node node) {
+		sync();
+		return count(node.getEnteringEdgeIterator());
+	}
+
+	/**
+	 * Number of edges of the view leaving a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return The out-degree of the node in the view.
+	 * @complexity O(d) with d the out-degree of the node in the parent graph.
+	 */
+	public int getOutDegree(Node node) {
+		sync();
+		return count(node.getLeavingEdgeIterator());
+	}
+
+	/**
+	 * Iterator on the edges of the view incident to a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return An iterator on the edges of the node in the view.
+	 */
+	public <T extends Edge> Iterator<T> getEdgeIterator(Node node) {
+		sync();
+		return new FilteredEdgeIterator<T>(node.<T> getEdgeIterator(),
+				edgeMembership);
+	}
+
+	/**
+	 * Iterator on the edges of the view entering a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return An iterator on the entering edges of the node in the view.
+	 */
+	public <T extends Edge> Iterator<T> getEnteringEdgeIterator(Node node) {
+		sync();
+		return new FilteredEdgeIterator<T>(node.<T> getEnteringEdgeIterator(),
+				edgeMembership);
+	}
+
+	/**
+	 * Iterator on the edges of the view leaving a node.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return An iterator on the leaving edges of the node in the view.
+	 */
+	public <T extends Edge> Iterator<T> getLeavingEdgeIterator(Node node) {
+		sync();
+		return new FilteredEdgeIterator<T>(node.<T> getLeavingEdgeIterator(),
+				edgeMembership);
+	}
+
+	/**
+	 * Iterator on the neighbors of a node in the view, each neighbor being
+	 * given once.
+	 * 
+	 * @param node
+	 *            A node of the view.
+	 * @return An iterator on the nodes linked to the node by an edge of the
+	 *         view.
+	 */
+	public <T extends Node> Iterator<T> getNeighborNodeIterator(final Node node) {
+		final Iterator<Edge> edges = getEdgeIterator(node);
+
+		return new Iterator<T>() {
+			HashSet<T> visited = new HashSet<T>();
+			T next;
+			{
+				gotoNext();
+			}
+
+			private void gotoNext() {
+				while (edges.hasNext()) {
+					next = edges.next().getOpposite(node);
+
+					if (visited.add(next))
+						return;
+				}
+
+				next = null;
+			}
+
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			public T next() {
+				if (next == null)
+					throw new NoSuchElementException();
+
+				T current = next;
+				gotoNext();
+				return current;
+			}
+
+			public void remove() {
+				throw readOnly();
+			}
+		};
+	}
+
+	protected int count(Iterator<? extends Edge> edges) {
+		int d = 0;
+
+		while (edges.hasNext())
+			if (edgeSet.get(edges.next().getIndex()))
+				d++;
+
+		return d;
+	}
+
+	// *** Membership ***
+
+	protected boolean acceptNode(Node node) {
+		return nodeFilter == null || nodeFilter.isAvailable(node);
+	}
+
+	protected boolean acceptEdge(Edge edge) {
+		return nodeSet.get(edge.getNode0().getIndex())
+				&& nodeSet.get(edge.getNode1().getIndex())
+				&& (edgeFilter == null || edgeFilter.isAvailable(edge));
+	}
+
+	/**
+	 * Evaluates again the filter for a node and, if its membership changes,
+	 * for its edges.
+	 */
+	protected void updateNode(Node node) {
+		int i = node.getIndex();
+		boolean in = acceptNode(node);
+
+		if (in == nodeSet.get(i))
+			return;
+
+		if (in)
+			nodeSet.set(i);
+		else
+			nodeSet.clear(i);
+
+		for (Edge e : node.getEachEdge())
+			updateEdge(e);
+	}
+
+	protected void updateEdge(Edge edge) {
+		int i = edge.getIndex();
+
+		if (acceptEdge(edge))
+			edgeSet.set(i);
+		else
+			edgeSet.clear(i);
+	}
+
+	/**
+	 * Updates the index of the elements moved by the last removal and the
+	 * membership of the elements that lost an attribute, once the parent
+	 * graph has done it.
+	 */
+	protected void sync() {
+		if (movedNode != null && parent.getNodeCount() == movedNodeFrom) {
+			nodeSet.move(movedNodeFrom, movedNode.getIndex());
+			movedNode = null;
+		}
+
+		if (movedEdge != null && parent.getEdgeCount() == movedEdgeFrom) {
+			edgeSet.move(movedEdgeFrom, movedEdge.getIndex());
+			movedEdge = null;
+		}
+
+		if (pendingNode != null) {
+			Node node = pendingNode;
+			pendingNode = null;
+
+			if (parent.getNode(node.getId()) == node)
+				updateNode(node);
+		}
+
+		if (pendingEdge != null) {
+			Edge edge = pendingEdge;
+			pendingEdge = null;
+
+			if (parent.getEdge(edge.getId()) == edge)
+				updateEdge(edge);
+		}
+	}
+
+	/**
+	 * Listens to the parent graph.
+	 */
+	protected class ParentListener implements ElementSink, AttributeSink {
+		public void nodeAdded(String sourceId, long timeId, String nodeId) {
+			sync();
+			Node node = parent.getNode(nodeId);
+
+			if (node != null) {
+				nodeSet.ensure(nodeIndexBound());
+				updateNode(node);
+			}
+		}
+
+		public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+			sync();
+			Node node = parent.getNode(nodeId);
+
+			if (node == null) {
+				refresh();
+				return;
+			}
+
+			int last = parent.getNodeCount() - 1;
+
+			nodeSet.clear(node.getIndex());
+
+			if (node.getIndex() != last && parentMovesElements()) {
+				movedNode = parent.getNode(last);
+				movedNodeFrom = last;
+			}
+		}
+
+		public void edgeAdded(String sourceId, long timeId, String edgeId,
+				String fromNodeId, String toNodeId, boolean directed) {
+			sync();
+			Edge edge = parent.getEdge(edgeId);
+
+			if (edge != null) {
+				edgeSet.ensure(edgeIndexBound());
+				updateEdge(edge);
+			}
+		}
+
+		public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+			sync();
+			Edge edge = parent.getEdge(edgeId);
+
+			if (edge == null) {
+				refresh();
+				return;
+			}
+
+			int last = parent.getEdgeCount() - 1;
+
+			edgeSet.clear(edge.getIndex());
+
+			if (edge.getIndex() != last && parentMovesElements()) {
+				movedEdge = parent.getEdge(last);
+				movedEdgeFrom = last;
+			}
+		}
+
+		public void graphCleared(String sourceId, long timeId) {
+			movedNode = movedEdge = null;
+			pendingNode = null;
+			pendingEdge = null;
+			nodeSet.reset(0);
+			edgeSet.reset(0);
+		}
+
+		public void stepBegins(String sourceId, long timeId, double step) {
+		}
+
+		public void graphAttributeAdded(String sourceId, long timeId,
+				String attribute, Object value) {
+		}
+
+		public void graphAttributeChanged(String sourceId, long timeId,
+				String attribute, Object oldValue, Object newValue) {
+		}
+
+		public void graphAttributeRemoved(String sourceId, long timeId,
+				String attribute) {
+		}
+
+		public void nodeAttributeAdded(String sourceId, long timeId,
+				String nodeId, String attribute, Object value) {
+			nodeAttributeChanged(nodeId);
+		}
+
+		public void nodeAttributeChanged(String sourceId, long timeId,
+				String nodeId, String attribute, Object oldValue,
+				Object newValue) {
+			nodeAttributeChanged(nodeId);
+		}
+
+		public void nodeAttributeRemoved(String sourceId, long timeId,
+				String nodeId, String attribute) {
+			sync();
+			pendingNode = parent.getNode(nodeId);
+		}
+
+		public void edgeAttributeAdded(String sourceId, long timeId,
+				String edgeId, String attribute, Object value) {
+			edgeAttributeChanged(edgeId);
+		}
+
+		public void edgeAttributeChanged(String sourceId, long timeId,
+				String edgeId, String attribute, Object oldValue,
+				Object newValue) {
+			edgeAttributeChanged(edgeId);
+		}
+
+		public void edgeAttributeRemoved(String sourceId, long timeId,
+				String edgeId, String attribute) {
+			sync();
+			pendingEdge = parent.getEdge(edgeId);
+		}
+
+		protected void nodeAttributeChanged(String nodeId) {
+			sync();
+			Node node = parent.getNode(nodeId);
+
+			if (node != null)
+				updateNode(node);
+		}
+
+		protected void edgeAttributeChanged(String edgeId) {
+			sync();
+			Edge edge = parent.getEdge(edgeId);
+
+			if (edge != null)
+				updateEdge(edge);
+		}
+	}
+
+	// *** Iteration ***
+
+	/**
+	 * Range of indices of the parent graph, giving only the indices of the
+	 * view. The number of remaining elements is an upper bound.
+	 */
+	protected class Range<T> extends SplittableIterator<T> {
+		final IndexSet set;
+		final boolean nodes;
+
+		Range(IndexSet set, boolean nodes, int begin, int end) {
+			super(begin, end);
+			this.set = set;
+			this.nodes = nodes;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected T get(int index) {
+			return (T) (nodes ? parent.getNode(index) : parent.getEdge(index));
+		}
+
+		@Override
+		protected SplittableIterator<T> range(int begin, int end) {
+			return new Range<T>(set, nodes, begin, end);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (index < end)
+				index = set.next(index, end);
+
+			return index < end;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			return get(index++);
+		}
+	}
+
+	/**
+	 * Set of indices stored as a bit set, with its size and the position of
+	 * the last rank looked up, so that ranks can be enumerated in constant
+	 * time.
+	 */
+	protected static class IndexSet {
+		long[] words;
+		int size;
+		int lastRank = -1, lastIndex = -1;
+
+		IndexSet(int capacity) {
+			words = new long[(capacity >> 6) + 1];
+		}
+
+		int capacity() {
+			return words.length << 6;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void ensure(int capacity) {
+			if ((capacity >> 6) + 1 > words.length)
+				words = Arrays.copyOf(words,
+						Math.max((capacity >> 6) + 1, 2 * words.length));
+		}
+
+		void reset(int capacity) {
+			words = new long[(capacity >> 6) + 1];
+			size = 0;
+			lastRank = -1;
+		}
+
+		boolean get(int i) {
+			return i >= 0 && (i >> 6) < words.length
+					&& (words[i >> 6] & (1L << i)) != 0;
+		}
+
+		void set(int i) {
+			ensure(i + 1);
+
+			if (!get(i)) {
+				words[i >> 6] |= 1L << i;
+				size++;
+				lastRank = -1;
+			}
+		}
+
+		void clear(int i) {
+			if (get(i)) {
+				words[i >> 6] &= ~(1L << i);
+				size--;
+				lastRank = -1;
+			}
+		}
+
+		void move(int from, int to) {
+			if (get(from)) {
+				clear(from);
+				set(to);
+			}
+		}
+
+		void permute(int[] position) {
+			long[] w = new long[Math.max(words.length,
+					(position.length >> 6) + 1)];
+
+			for (int i = 0; i < position.length; i++)
+				if (position[i] >= 0 && get(i))
+					w[position[i] >> 6] |= 1L << position[i];
+
+			words = w;
+			lastRank = -1;
+		}
+
+		/**
+		 * First index of the set at or after a given index, or end if there
+		 * is none before end.
+		 */
+		int next(int from, int end) {
+			int w = from >> 6;
+
+			if (w >= words.length)
+				return end;
+
+			long word = words[w] & (-1L << from);
+
+			while (true) {
+				if (word != 0)
+					return Math.min(end, (w << 6)
+							+ Long.numberOfTrailingZeros(word));
+
+				if (++w >= words.length || (w << 6) >= end)
+					return end;
+
+				word = words[w];
+			}
+		}
+
+		/**
+		 * Index of the element of a given rank, or -1 if the rank is out of
+		 * range.
+		 */
+		int select(int rank) {
+			if (rank < 0 || rank >= size)
+				return -1;
+
+			if (rank == lastRank)
+				return lastIndex;
+
+			int i;
+
+			if (lastRank >= 0 && rank == lastRank + 1) {
+				i = next(lastIndex + 1, Integer.MAX_VALUE);
+			} else {
+				int w = 0, r = rank;
+
+				while (Long.bitCount(words[w]) <= r)
+					r -= Long.bitCount(words[w++]);
+
+				long word = words[w];
+
+				for (; r > 0; r--)
+					word &= word - 1;
+
+				i = (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+
+			lastRank = rank;
+			lastIndex = i;
+			return i;
+		}
+	}
+
+	// *** Read-only ***
+
+	protected static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException(
+				"Subgraph views are read-only, modify the parent graph");
+	}
+
+	@Override
+	public void clear() {
+		throw readOnly();
+	}
+
+	@Override
+	public <T extends Node> T addNode(String id) {
+		throw readOnly();
+	}
+
+	@Override
+	protected <T extends Edge> T addEdge(String edgeId, AbstractNode src,
+			String srcId, AbstractNode dst, String dstId, boolean directed) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeNode(AbstractNode node, boolean graphCallback) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeEdge(AbstractEdge edge, boolean graphCallback,
+			boolean sourceCallback, boolean targetCallback) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void addNodeCallback(AbstractNode node) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void addEdgeCallback(AbstractEdge edge) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeNodeCallback(AbstractNode node) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void removeEdgeCallback(AbstractEdge edge) {
+		throw readOnly();
+	}
+
+	@Override
+	protected void clearCallback() {
+		throw readOnly();
+	}
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.graph.implementations;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.graphstream.graph.Graph;
+
+/**
+ * <p>
+ * An {@link AdjacencyListGraph} from which consistent read-only views can be
+ * taken while it keeps being modified.
+ * </p>
+ * 
+ * <p>
+ * Besides its usual data structures, this graph keeps an immutable record of
+ * each node, each edge and of itself: its identifier, its attributes and, for
+ * nodes, its edges. Records are stored in pages indexed by the stable handles
+ * of the elements (see {@link #getNodeHandle(org.graphstream.graph.Node)}).
+ * {@link #openSnapshot()} only copies the table of pages and starts a new
+ * version: after that, the first change of a record or of a page copies it
+ * instead of modifying it in place (copy-on-write at the granularity of a
+ * node). So taking a snapshot costs O(n / 1024) with n the number of nodes,
+ * and the cost of the copies is paid once per record and per snapshot, only
+ * for the elements that actually change.
+ * </p>
+ * 
+ * <p>
+ * The records are the only storage of the attributes: the attribute map of a
+ * node, an edge or of the graph itself reads and writes the record of the
+ * element. An element removed from the graph gets back a map of its own.
+ * Attributes cannot be stored in columns (see
+ * {@link #declareNodeAttribute(String, AttributeColumns.Type)}).
+ * </p>
+ * 
+ * <p>
+ * A {@link GraphSnapshot} is a regular, read-only {@link Graph}: it can be
+ * handed to algorithms, iterated and queried from another thread while this
+ * graph is modified. Readers never block the writer; the writer only waits
+ * while a snapshot is being opened. Old versions are reclaimed by the garbage
+ * collector as soon as no snapshot references them anymore.
+ * {@link GraphSnapshot#close()} drops the references of a snapshot at once.
+ * </p>
+ * 
+ * <p>
+ * This graph itself is not thread-safe: it must be modified by one thread at
+ * a time. Attribute values are not copied, mutable values (like arrays)
+ * should be replaced rather than modified in place to keep snapshots
+ * consistent.
+ * </p>
+ */
+public class VersionedGraph extends AdjacencyListGraph {
+	protected static final int PAGE_SHIFT = 10;
+	protected static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	protected static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * Lock taken by the writer while it changes the records and by
+	 * {@link #openSnapshot()}.
+	 */
+	protected final ReentrantLock versionLock = new ReentrantLock();
+
+	/**
+	 * Current epoch. Records and pages of an older epoch are shared with a
+	 * snapshot and must be copied before being modified.
+	 */
+	protected int epoch;
+
+	/**
+	 * Number of modifications of the records.
+	 */
+	protected long version;
+
+	protected NodeRecord[][] nodePages;
+	protected int[] nodePageEpochs;
+	protected EdgeRecord[][] edgePages;
+	protected int[] edgePageEpochs;
+	protected Record graphRecord;
+
+	/**
+	 * Number of live records and number of slots ever used.
+	 */
+	protected int liveNodes, liveEdges, nodeSlots, edgeSlots;
+
+	// *** Constructors ***
+
+	/**
+	 * Creates an empty graph.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 * @param strictChecking
+	 *            If true any non-fatal error throws an exception.
+	 * @param autoCreate
+	 *            If true (and strict checking is false), nodes are
+	 *            automatically created when referenced when creating a edge,
+	 *            even if not yet inserted in the graph.
+	 * @param initialNodeCapacity
+	 *            Initial capacity of the node storage data structures.
+	 * @param initialEdgeCapacity
+	 *            Initial capacity of the edge storage data structures.
+	 */
+	public VersionedGraph(String id, boolean strictChecking,
+			boolean autoCreate, int initialNodeCapacity,
+			int initialEdgeCapacity) {
+		super(id, strictChecking, autoCreate, initialNodeCapacity,
+				initialEdgeCapacity);
+
+		nodeHandles();
+		edgeHandles();
+		resetRecords();
+		attributes = new RecordAttributes(false, -1);
+	}
+
+	/**
+	 * Creates an empty graph with default edge and node capacity.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 * @param strictChecking
+	 *            If true any non-fatal error throws an exception.
+	 * @param autoCreate
+	 *            If true (and strict checking is false), nodes are
+	 *            automatically created when referenced when creating a edge,
+	 *            even if not yet inserted in the graph.
+	 */
+	public VersionedGraph(String id, boolean strictChecking,
+			boolean autoCreate) {
+		this(id, strictChecking, autoCreate, DEFAULT_NODE_CAPACITY,
+				DEFAULT_EDGE_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty graph with strict checking and without auto-creation.
+	 * 
+	 * @param id
+	 *            Unique identifier of the graph.
+	 */
+	public VersionedGraph(String id) {
+		this(id, true, false);
+	}
+
+	// *** Snapshots ***
+
+	/**
+	 * Opens a read-only view of the current state of this graph. The view
+	 * does not change when this graph is modified afterwards.
+	 * 
+	 * @return A new snapshot.
+	 * @complexity O(n / 1024 + m / 1024) with n the number of nodes and m
+	 *             the number of edges.
+	 */
+	public GraphSnapshot openSnapshot() {
+		versionLock.lock();
+		try {
+			GraphSnapshot snapshot = new GraphSnapshot(getId(), version,
+					nodePages.clone(), nodeSlots, liveNodes, edgePages.clone(),
+					edgeSlots, liveEdges, graphRecord);
+			epoch++;
+			return snapshot;
+		} finally {
+			versionLock.unlock();
+		}
+	}
+
+	/**
+	 * The current version. It changes each time the structure or an attribute
+	 * changes.
+	 * 
+	 * @return The number of modifications since the creation of this graph.
+	 */
+	public long getVersion() {
+		versionLock.lock();
+		try {
+			return version;
+		} finally {
+			versionLock.unlock();
+		}
+	}
+
+	// *** Records ***
+
+	/**
+	 * State of an element in a version. A record of the current epoch is only
+	 * referenced by the writer and can be modified in place.
+	 */
+	static class Record {
+		final int epoch;
+		final String id;
+		HashMap<String, Object> attributes;
+
+		Record(int epoch, String id, HashMap<String, Object> attributes) {
+			this.epoch = epoch;
+			this.id = id;
+			this.attributes = attributes;
+		}
+
+		Record copy(int epoch) {
+			return new Record(epoch, id, copyAttributes());
+		}
+
+		HashMap<String, Object> copyAttributes() {
+			return attributes == null ? null : new HashMap<String, Object>(
+					attributes);
+		}
+	}
+
+	static class NodeRecord extends Record {
+		int[] edges;
+		int degree;
+
+		NodeRecord(int epoch, String id, HashMap<String, Object> attributes,
+				int[] edges, int degree) {
+			super(epoch, id, attributes);
+			this.edges = edges;
+			this.degree = degree;
+		}
+
+		@Override
+		NodeRecord copy(int epoch) {
+			return new NodeRecord(epoch, id, copyAttributes(),
+					Arrays.copyOf(edges, Math.max(degree + 1, edges.length)),
+					degree);
+		}
+
+		void addEdge(int edge) {
+			if (degree == edges.length)
+				edges = Arrays.copyOf(edges, (int) (degree * GROW_FACTOR) + 2);
+
+			edges[degree++] = edge;
+		}
+
+		void removeEdge(int edge) {
+			for (int i = 0; i < degree; i++) {
+				if (edges[i] == edge) {
+					edges[i] = edges[--degree];
+					return;
+				}
+			}
+		}
+	}
+
+	static class EdgeRecord extends Record {
+		final int source, target;
+		final boolean directed;
+
+		EdgeRecord(int epoch, String id, HashMap<String, Object> attributes,
+				int source, int target, boolean directed) {
+			super(epoch, id, attributes);
+			this.source = source;
+			this.target = target;
+			this.directed = directed;
+		}
+
+		@Override
+		EdgeRecord copy(int epoch) {
+			return new EdgeRecord(epoch, id, copyAttributes(), source, target,
+					directed);
+		}
+	}
+
+	protected void resetRecords() {
+		versionLock.lock();
+		try {
+			nodePages = new NodeRecord[1][];
+			nodePageEpochs = new int[1];
+			edgePages = new EdgeRecord[1][];
+			edgePageEpochs = new int[1];
+			graphRecord = new Record(epoch, getId(), null);
+			liveNodes = liveEdges = nodeSlots = edgeSlots = 0;
+			version++;
+		} finally {
+			versionLock.unlock();
+		}
+	}
+
+	/**
+	 * The page of a node slot, copied first if it is shared.
+	 */
+	private NodeRecord[] nodePage(int slot) {
+		int p = slot >> PAGE_SHIFT;
+
+		if (p >= nodePages.length) {
+			int n = Math.max(p + 1, 2 * nodePages.length);
+			nodePages = Arrays.copyOf(nodePages, n);
+			nodePageEpochs = Arrays.copyOf(nodePageEpochs, n);
+		}
+
+		if (nodePages[p] == null) {
+			nodePages[p] = new NodeRecord[PAGE_SIZE];
+			nodePageEpochs[p] = epoch;
+		} else if (nodePageEpochs[p] != epoch) {
+			nodePages[p] = nodePages[p].clone();
+			nodePageEpochs[p] = epoch;
+		}
+
+		return nodePages[p];
+	}
+
+	private EdgeRecord[] edgePage(int slot) {
+		int p = slot >> PAGE_SHIFT;
+
+		if (p >= edgePages.length) {
+			int n = Math.max(p + 1, 2 * edgePages.length);
+			edgePages = Arrays.copyOf(edgePages, n);
+			edgePageEpochs = Arrays.copyOf(edgePageEpochs, n);
+		}
+
+		if (edgePages[p] == null) {
+			edgePages[p] = new EdgeRecord[PAGE_SIZE];
+			edgePageEpochs[p] = epoch;
+		} else if (edgePageEpochs[p] != epoch) {
+			edgePages[p] = edgePages[p].clone();
+			edgePageEpochs[p] = epoch;
+		}
+
+		return edgePages[p];
+	}
+
+	/**
+	 * The record of a node, copied first if it is shared.
+	 */
+	private NodeRecord writableNode(int slot) {
+		NodeRecord[] page = nodePage(slot);
+		NodeRecord r = page[slot & PAGE_MASK];
+
+		if (r != null && r.epoch != epoch)
+			page[slot & PAGE_MASK] = r = r.copy(epoch);
+
+		return r;
+	}
+
+	private EdgeRecord writableEdge(int slot) {
+		EdgeRecord[] page = edgePage(slot);
+		EdgeRecord r = page[slot & PAGE_MASK];
+
+		if (r != null && r.epoch != epoch)
+			page[slot & PAGE_MASK] = r = r.copy(epoch);
+
+		return r;
+	}
+
+	/**
+	 * Attributes of a live element, or of the graph if the slot is negative,
+	 * stored in its record. The record is copied before being modified if it
+	 * is shared with a snapshot.
+	 */
+	protected class RecordAttributes extends AbstractMap<String, Object> {
+		protected final boolean edge;
+		protected final int slot;
+
+		protected RecordAttributes(boolean edge, int slot) {
+			this.edge = edge;
+			this.slot = slot;
+		}
+
+		/**
+		 * The attributes of the current record, may be null.
+		 */
+		private HashMap<String, Object> read() {
+			if (slot < 0)
+				return graphRecord.attributes;
+
+			Record r = edge ? edgePages[slot >> PAGE_SHIFT][slot & PAGE_MASK]
+					: nodePages[slot >> PAGE_SHIFT][slot & PAGE_MASK];
+
+			return r.attributes;
+		}
+
+		/**
+		 * The record, copied first if it is shared. The version lock must be
+		 * held.
+		 */
+		private Record write() {
+			version++;
+
+			if (slot < 0) {
+				if (graphRecord.epoch != epoch)
+					graphRecord = graphRecord.copy(epoch);
+
+				return graphRecord;
+			}
+
+			return edge ? writableEdge(slot) : writableNode(slot);
+		}
+
+		@Override
+		public Object get(Object key) {
+			HashMap<String, Object> a = read();
+			return a == null ? null : a.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			HashMap<String, Object> a = read();
+			return a != null && a.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			HashMap<String, Object> a = read();
+			return a == null ? 0 : a.size();
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			versionLock.lock();
+			try {
+				Record r = write();
+
+				if (r.attributes == null)
+					r.attributes = new HashMap<String, Object>(4);
+
+				return r.attributes.put(key, value);
+			} finally {
+				versionLock.unlock();
+			}
+		}
+
+		@Override
+		public Object remove(Object key) {
+			if (!containsKey(key))
+				return null;
+
+			versionLock.lock();
+			try {
+				return write().attributes.remove(key);
+			} finally {
+				versionLock.unlock();
+			}
+		}
+
+		@Override
+		public void clear() {
+			if (size() == 0)
+				return;
+
+			versionLock.lock();
+			try {
+				write().attributes = null;
+			} finally {
+				versionLock.unlock();
+			}
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			HashMap<String, Object> a = read();
+
+			if (a == null)
+				return Collections.emptySet();
+
+			return Collections.unmodifiableMap(a).entrySet();
+		}
+	}
+
+	/**
+	 * Gives an element leaving the graph a map of its own, holding the
+	 * attributes of its record. The map of the record is taken as is if no
+	 * snapshot shares it.
+	 */
+	private void detach(AbstractElement element, Record r) {
+		element.attributes = r.epoch == epoch ? r.attributes : r
+				.copyAttributes();
+	}
+
+	// *** Callbacks ***
+
+	@Override
+	protected void addNodeCallback(AbstractNode node) {
+		super.addNodeCallback(node);
+
+		int slot = nodeHandles.handleOf[node.getIndex()];
+
+		versionLock.lock();
+		try {
+			nodePage(slot)[slot & PAGE_MASK] = new NodeRecord(epoch,
+					node.getId(), null, new int[4], 0);
+			nodeSlots = Math.max(nodeSlots, slot + 1);
+			liveNodes++;
+			version++;
+		} finally {
+			versionLock.unlock();
+		}
+
+		node.attributes = new RecordAttributes(false, slot);
+	}
+
+	@Override
+	protected void addEdgeCallback(AbstractEdge edge) {
+		super.addEdgeCallback(edge);
+
+		int slot = edgeHandles.handleOf[edge.getIndex()];
+		int src = nodeHandles.handleOf[edge.getSourceNode().getIndex()];
+		int dst = nodeHandles.handleOf[edge.getTargetNode().getIndex()];
+
+		versionLock.lock();
+		try {
+			edgePage(slot)[slot & PAGE_MASK] = new EdgeRecord(epoch,
+					edge.getId(), null, src, dst, edge.isDirected());
+			writableNode(src).addEdge(slot);
+
+			if (dst != src)
+				writableNode(dst).addEdge(slot);
+
+			edgeSlots = Math.max(edgeSlots, slot + 1);
+			liveEdges++;
+			version++;
+		} finally {
+			versionLock.unlock();
+		}
+
+		edge.attributes = new RecordAttributes(true, slot);
+	}
+
+	@Override
+	protected void removeNodeCallback(AbstractNode node) {
+		int slot = nodeHandles.handleOf[node.getIndex()];
+
+		versionLock.lock();
+		try {
+			detach(node, nodePages[slot >> PAGE_SHIFT][slot & PAGE_MASK]);
+			nodePage(slot)[slot & PAGE_MASK] = null;
+			liveNodes--;
+			version++;
+		} finally {
+			versionLock.unlock();
+		}
+
+		super.removeNodeCallback(node);
+	}
+
+	@Override
+	protected void removeEdgeCallback(AbstractEdge edge) {
+		int slot = edgeHandles.handleOf[edge.getIndex()];
+
+		versionLock.lock();
+		try {
+			EdgeRecord r = edgePages[slot >> PAGE_SHIFT][slot & PAGE_MASK];
+
+			detach(edge, r);
+			writableNode(r.source).removeEdge(slot);
+
+			if (r.target != r.source)
+				writableNode(r.target).removeEdge(slot);
+
+			edgePage(slot)[slot & PAGE_MASK] = null;
+			liveEdges--;
+			version++;
+		} finally {
+			versionLock.unlock();
+		}
+
+		super.removeEdgeCallback(edge);
+	}
+
+	@Override
+	protected void clearCallback() {
+		versionLock.lock();
+		try {
+			for (int i = 0; i < edgeCount; i++)
+				if (edgeArray[i] != null) {
+					int slot = edgeHandles.handleOf[i];
+					detach(edgeArray[i],
+							edgePages[slot >> PAGE_SHIFT][slot & PAGE_MASK]);
+				}
+
+			for (int i = 0; i < nodeCount; i++)
+				if (nodeArray[i] != null) {
+					int slot = nodeHandles.handleOf[i];
+					detach(nodeArray[i],
+							nodePages[slot >> PAGE_SHIFT][slot & PAGE_MASK]);
+				}
+		} finally {
+			versionLock.unlock();
+		}
+
+		super.clearCallback();
+		resetRecords();
+	}
+
+	/**
+	 * The attribute maps of the elements are bound to their records by the
+	 * callbacks.
+	 */
+	@Override
+	protected boolean allowsStorageCopy() {
+		return false;
+	}
+
+	/**
+	 * Not supported, the attributes are stored in the records.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             Always.
+	 */
+	@Override
+	public void declareNodeAttribute(String key, AttributeColumns.Type type) {
+		throw new UnsupportedOperationException(
+				"The attributes of a versioned graph are stored in its records");
+	}
+
+	/**
+	 * Not supported, the attributes are stored in the records.
+	 * 
+	 * @throws UnsupportedOperationException
+	 *             Always.
+	 */
+	@Override
+	public void declareEdgeAttribute(String key, AttributeColumns.Type type) {
+		throw new UnsupportedOperationException(
+				"The attributes of a versioned graph are stored in its records");
+	}
+
+	@Override
+	AttributeColumns.Column declareWeightColumn(String key) {
+		return null;
+	}
+}
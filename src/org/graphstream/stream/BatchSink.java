@@ -0,0 +1,65 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream;
+
+/**
+ * Sink able to receive a whole sequence of events at once.
+ * 
+ * <p>
+ * When a source dispatches an {@link EventBatch} (for example the net delta of
+ * a graph transaction, see
+ * {@link org.graphstream.graph.Graph#beginTransaction()}), sinks implementing
+ * this interface receive the batch in a single call to
+ * {@link #batchReceived(EventBatch)} instead of one call per event. Other
+ * sinks still see the events one by one, in the batch order. Events that are
+ * not part of a batch are sent to batch sinks through the usual
+ * {@link ElementSink} and {@link AttributeSink} methods.
+ * </p>
+ * 
+ * <p>
+ * A batch sink receives the whole batch, element and attribute events, even
+ * if it was registered only as an element or attribute sink. The batch must
+ * be considered read-only and may only be used during the call.
+ * </p>
+ * 
+ * @see EventBatch
+ * @see SourceBase#sendBatch(EventBatch)
+ */
+public interface BatchSink extends Sink {
+	/**
+	 * A sequence of events was sent by a source.
+	 * 
+	 * @param batch
+	 *            The events, in the order they must be applied.
+	 */
+	void batchReceived(EventBatch batch);
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.implementations.AbstractElement.AttributeChangeEvent;
+import org.graphstream.stream.SourceBase.ElementType;
+import org.graphstream.stream.sync.SourceTime;
+
+/**
+ * An ordered sequence of graph events stored in flat arrays.
+ * 
+ * <p>
+ * A batch is filled by using it as a {@link Sink}: each event received is
+ * appended at the end of the batch. It can then be sent at once to
+ * {@link BatchSink}s with {@link SourceBase#sendBatch(EventBatch)}, or
+ * replayed event by event toward any sink with {@link #replay(Sink)}.
+ * </p>
+ * 
+ * <p>
+ * Events are not stored as objects. Each event is a slot in a set of parallel
+ * arrays, so appending an event does not allocate anything once the arrays
+ * are large enough.
+ * </p>
+ * 
+ * @see EventCoalescer
+ */
+public class EventBatch implements Sink {
+	/**
+	 * Kind of the events stored in a batch.
+	 */
+	public static enum EventType {
+		NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED, GRAPH_CLEARED, STEP_BEGINS, GRAPH_ATTRIBUTE_ADDED, GRAPH_ATTRIBUTE_CHANGED, GRAPH_ATTRIBUTE_REMOVED, NODE_ATTRIBUTE_ADDED, NODE_ATTRIBUTE_CHANGED, NODE_ATTRIBUTE_REMOVED, EDGE_ATTRIBUTE_ADDED, EDGE_ATTRIBUTE_CHANGED, EDGE_ATTRIBUTE_REMOVED
+	}
+
+	/**
+	 * Default number of slots.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * Number of events in the batch.
+	 */
+	protected int size;
+
+	// The slots. For an "edge added" event, the source node is stored in
+	// attributes, the target node in newValues and the direction in oldValues.
+	// For a "step begins" event, the step is stored in newValues.
+
+	protected EventType[] types;
+	protected String[] sourceIds;
+	protected long[] timeIds;
+	protected String[] elementIds;
+	protected String[] attributes;
+	protected Object[] oldValues;
+	protected Object[] newValues;
+
+	/**
+	 * New empty batch.
+	 */
+	public EventBatch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * New empty batch.
+	 * 
+	 * @param capacity
+	 *            Initial number of slots.
+	 */
+	public EventBatch(int capacity) {
+		capacity = Math.max(capacity, 1);
+
+		types = new EventType[capacity];
+		sourceIds = new String[capacity];
+		timeIds = new long[capacity];
+		elementIds = new String[capacity];
+		attributes = new String[capacity];
+		oldValues = new Object[capacity];
+		newValues = new Object[capacity];
+		size = 0;
+	}
+
+	/**
+	 * New batch holding a copy of the events of another one.
+	 * 
+	 * @param other
+	 *            The batch to copy.
+	 */
+	public EventBatch(EventBatch other) {
+		this(other.size);
+		append(other);
+	}
+
+	// *** Access ***
+
+	/**
+	 * Number of events in the batch.
+	 * 
+	 * @return The batch size.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * True if the batch contains no event.
+	 * 
+	 * @return True if empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Kind of the i-th event.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The event type.
+	 */
+	public EventType getType(int i) {
+		checkIndex(i);
+		return types[i];
+	}
+
+	/**
+	 * Identifier of the source of the i-th event.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The source identifier.
+	 */
+	public String getSourceId(int i) {
+		checkIndex(i);
+		return sourceIds[i];
+	}
+
+	/**
+	 * Time identifier of the i-th event.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The time identifier.
+	 */
+	public long getTimeId(int i) {
+		checkIndex(i);
+		return timeIds[i];
+	}
+
+	/**
+	 * Identifier of the node or edge concerned by the i-th event, null for
+	 * graph events.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The element identifier.
+	 */
+	public String getElementId(int i) {
+		checkIndex(i);
+		return elementIds[i];
+	}
+
+	/**
+	 * Name of the attribute concerned by the i-th event, null if it is not an
+	 * attribute event.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The attribute name.
+	 */
+	public String getAttribute(int i) {
+		checkIndex(i);
+		return isAttributeEvent(types[i]) ? attributes[i] : null;
+	}
+
+	/**
+	 * New value of the attribute concerned by the i-th event, null if it is
+	 * not an attribute event or if the attribute is removed.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @return The attribute value.
+	 */
+	public Object getValue(int i) {
+		checkIndex(i);
+		return isAttributeEvent(types[i]) ? newValues[i] : null;
+	}
+
+	// *** Replay ***
+
+	/**
+	 * Send all the events of the batch to a sink, in order.
+	 * 
+	 * @param sink
+	 *            The receiver.
+	 */
+	public void replay(Sink sink) {
+		for (int i = 0; i < size; i++)
+			replay(i, sink, sink);
+	}
+
+	/**
+	 * Send the i-th event to the sink able to handle it. Element events go to
+	 * the element sink and attribute events to the attribute sink, either of
+	 * them can be null.
+	 * 
+	 * @param i
+	 *            Position of the event.
+	 * @param elementSink
+	 *            Receiver of element events, or null.
+	 * @param attributeSink
+	 *            Receiver of attribute events, or null.
+	 */
+	public void replay(int i, ElementSink elementSink,
+			AttributeSink attributeSink) {
+		checkIndex(i);
+
+		String sid = sourceIds[i];
+		long tid = timeIds[i];
+		String eid = elementIds[i];
+
+		if (isAttributeEvent(types[i])) {
+			if (attributeSink == null)
+				return;
+
+			String a = attributes[i];
+
+			switch (types[i]) {
+			case GRAPH_ATTRIBUTE_ADDED:
+				attributeSink.graphAttributeAdded(sid, tid, a, newValues[i]);
+				break;
+			case GRAPH_ATTRIBUTE_CHANGED:
+				attributeSink.graphAttributeChanged(sid, tid, a, oldValues[i],
+						newValues[i]);
+				break;
+			case GRAPH_ATTRIBUTE_REMOVED:
+				attributeSink.graphAttributeRemoved(sid, tid, a);
+				break;
+			case NODE_ATTRIBUTE_ADDED:
+				attributeSink.nodeAttributeAdded(sid, tid, eid, a,
+						newValues[i]);
+				break;
+			case NODE_ATTRIBUTE_CHANGED:
+				attributeSink.nodeAttributeChanged(sid, tid, eid, a,
+						oldValues[i], newValues[i]);
+				break;
+			case NODE_ATTRIBUTE_REMOVED:
+				attributeSink.nodeAttributeRemoved(sid, tid, eid, a);
+				break;
+			case EDGE_ATTRIBUTE_ADDED:
+				attributeSink.edgeAttributeAdded(sid, tid, eid, a,
+						newValues[i]);
+				break;
+			case EDGE_ATTRIBUTE_CHANGED:
+				attributeSink.edgeAttributeChanged(sid, tid, eid, a,
+						oldValues[i], newValues[i]);
+				break;
+			default:
+				attributeSink.edgeAttributeRemoved(sid, tid, eid, a);
+				break;
+			}
+		} else if (elementSink != null) {
+			switch (types[i]) {
+			case NODE_ADDED:
+				elementSink.nodeAdded(sid, tid, eid);
+				break;
+			case NODE_REMOVED:
+				elementSink.nodeRemoved(sid, tid, eid);
+				break;
+			case EDGE_ADDED:
+				elementSink.edgeAdded(sid, tid, eid, attributes[i],
+						(String) newValues[i], (Boolean) oldValues[i]);
+				break;
+			case EDGE_REMOVED:
+				elementSink.edgeRemoved(sid, tid, eid);
+				break;
+			case GRAPH_CLEARED:
+				elementSink.graphCleared(sid, tid);
+				break;
+			default:
+				elementSink.stepBegins(sid, tid, (Double) newValues[i]);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Remove all the events. The slots are kept for reuse.
+	 */
+	public void clear() {
+		Arrays.fill(sourceIds, 0, size, null);
+		Arrays.fill(elementIds, 0, size, null);
+		Arrays.fill(attributes, 0, size, null);
+		Arrays.fill(oldValues, 0, size, null);
+		Arrays.fill(newValues, 0, size, null);
+		Arrays.fill(types, 0, size, null);
+		size = 0;
+	}
+
+	// *** Slot management ***
+
+	/**
+	 * True if the given type is one of the attribute event types.
+	 */
+	static boolean isAttributeEvent(EventType type) {
+		return type.ordinal() >= EventType.GRAPH_ATTRIBUTE_ADDED.ordinal();
+	}
+
+	/**
+	 * Append a slot and return its position.
+	 */
+	int append(EventType type, String sourceId, long timeId, String elementId,
+			String attribute, Object oldValue, Object newValue) {
+		if (size == types.length)
+			grow();
+
+		types[size] = type;
+		sourceIds[size] = sourceId;
+		timeIds[size] = timeId;
+		elementIds[size] = elementId;
+		attributes[size] = attribute;
+		oldValues[size] = oldValue;
+		newValues[size] = newValue;
+
+		return size++;
+	}
+
+	/**
+	 * Append all the events of another batch, in order.
+	 */
+	void append(EventBatch other) {
+		int n = other.size;
+
+		while (size + n > types.length)
+			grow();
+
+		System.arraycopy(other.types, 0, types, size, n);
+		System.arraycopy(other.sourceIds, 0, sourceIds, size, n);
+		System.arraycopy(other.timeIds, 0, timeIds, size, n);
+		System.arraycopy(other.elementIds, 0, elementIds, size, n);
+		System.arraycopy(other.attributes, 0, attributes, size, n);
+		System.arraycopy(other.oldValues, 0, oldValues, size, n);
+		System.arraycopy(other.newValues, 0, newValues, size, n);
+		size += n;
+	}
+
+	/**
+	 * Append an attribute event given as in
+	 * {@link SourceBase#sendAttributeChangedEvent(String, long, String, ElementType, String, AttributeChangeEvent, Object, Object)}
+	 * .
+	 */
+	void appendAttribute(String sourceId, long timeId, String eltId,
+			ElementType eltType, String attribute, AttributeChangeEvent event,
+			Object oldValue, Object newValue) {
+		EventType added;
+
+		if (eltType == ElementType.NODE)
+			added = EventType.NODE_ATTRIBUTE_ADDED;
+		else if (eltType == ElementType.EDGE)
+			added = EventType.EDGE_ATTRIBUTE_ADDED;
+		else {
+			added = EventType.GRAPH_ATTRIBUTE_ADDED;
+			eltId = null;
+		}
+
+		append(EventCoalescer.type(added, event), sourceId, timeId, eltId,
+				attribute, event == AttributeChangeEvent.CHANGE ? oldValue
+						: null,
+				event == AttributeChangeEvent.REMOVE ? null : newValue);
+	}
+
+	/**
+	 * Overwrite the kind and values of the i-th slot, keeping its position.
+	 */
+	void set(int i, EventType type, Object oldValue, Object newValue) {
+		types[i] = type;
+		oldValues[i] = oldValue;
+		newValues[i] = newValue;
+	}
+
+	/**
+	 * Mark the i-th slot as cancelled. Cancelled slots are removed by
+	 * {@link #compact()}.
+	 */
+	void cancel(int i) {
+		types[i] = null;
+		oldValues[i] = null;
+		newValues[i] = null;
+	}
+
+	/**
+	 * Remove cancelled slots, keeping the order of the others.
+	 */
+	void compact() {
+		int j = 0;
+
+		for (int i = 0; i < size; i++) {
+			if (types[i] != null) {
+				if (i != j) {
+					types[j] = types[i];
+					sourceIds[j] = sourceIds[i];
+					timeIds[j] = timeIds[i];
+					elementIds[j] = elementIds[i];
+					attributes[j] = attributes[i];
+					oldValues[j] = oldValues[i];
+					newValues[j] = newValues[i];
+				}
+
+				j++;
+			}
+		}
+
+		Arrays.fill(types, j, size, null);
+		Arrays.fill(sourceIds, j, size, null);
+		Arrays.fill(elementIds, j, size, null);
+		Arrays.fill(attributes, j, size, null);
+		Arrays.fill(oldValues, j, size, null);
+		Arrays.fill(newValues, j, size, null);
+		size = j;
+	}
+
+	/**
+	 * Give all the events the same source identifier and new increasing time
+	 * identifiers.
+	 */
+	void stamp(String sourceId, SourceTime sourceTime) {
+		for (int i = 0; i < size; i++) {
+			sourceIds[i] = sourceId;
+			timeIds[i] = sourceTime.newEvent();
+		}
+	}
+
+	protected void grow() {
+		int capacity = types.length * 2;
+
+		types = Arrays.copyOf(types, capacity);
+		sourceIds = Arrays.copyOf(sourceIds, capacity);
+		timeIds = Arrays.copyOf(timeIds, capacity);
+		elementIds = Arrays.copyOf(elementIds, capacity);
+		attributes = Arrays.copyOf(attributes, capacity);
+		oldValues = Arrays.copyOf(oldValues, capacity);
+		newValues = Arrays.copyOf(newValues, capacity);
+	}
+
+	protected void checkIndex(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("event " + i + " of " + size);
+	}
+
+	// *** Sink ***
+
+	public void graphAttributeAdded(String sourceId, long timeId,
+			String attribute, Object value) {
+		append(EventType.GRAPH_ATTRIBUTE_ADDED, sourceId, timeId, null,
+				attribute, null, value);
+	}
+
+	public void graphAttributeChanged(String sourceId, long timeId,
+			String attribute, Object oldValue, Object newValue) {
+		append(EventType.GRAPH_ATTRIBUTE_CHANGED, sourceId, timeId, null,
+				attribute, oldValue, newValue);
+	}
+
+	public void graphAttributeRemoved(String sourceId, long timeId,
+			String attribute) {
+		append(EventType.GRAPH_ATTRIBUTE_REMOVED, sourceId, timeId, null,
+				attribute, null, null);
+	}
+
+	public void nodeAttributeAdded(String sourceId, long timeId, String nodeId,
+			String attribute, Object value) {
+		append(EventType.NODE_ATTRIBUTE_ADDED, sourceId, timeId, nodeId,
+				attribute, null, value);
+	}
+
+	public void nodeAttributeChanged(String sourceId, long timeId,
+			String nodeId, String attribute, Object oldValue, Object newValue) {
+		append(EventType.NODE_ATTRIBUTE_CHANGED, sourceId, timeId, nodeId,
+				attribute, oldValue, newValue);
+	}
+
+	public void nodeAttributeRemoved(String sourceId, long timeId,
+			String nodeId, String attribute) {
+		append(EventType.NODE_ATTRIBUTE_REMOVED, sourceId, timeId, nodeId,
+				attribute, null, null);
+	}
+
+	public void edgeAttributeAdded(String sourceId, long timeId, String edgeId,
+			String attribute, Object value) {
+		append(EventType.EDGE_ATTRIBUTE_ADDED, sourceId, timeId, edgeId,
+				attribute, null, value);
+	}
+
+	public void edgeAttributeChanged(String sourceId, long timeId,
+			String edgeId, String attribute, Object oldValue, Object newValue) {
+		append(EventType.EDGE_ATTRIBUTE_CHANGED, sourceId, timeId, edgeId,
+				attribute, oldValue, newValue);
+	}
+
+	public void edgeAttributeRemoved(String sourceId, long timeId,
+			String edgeId, String attribute) {
+		append(EventType.EDGE_ATTRIBUTE_REMOVED, sourceId, timeId, edgeId,
+				attribute, null, null);
+	}
+
+	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		append(EventType.NODE_ADDED, sourceId, timeId, nodeId, null, null,
+				null);
+	}
+
+	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		append(EventType.NODE_REMOVED, sourceId, timeId, nodeId, null, null,
+				null);
+	}
+
+	public void edgeAdded(String sourceId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		append(EventType.EDGE_ADDED, sourceId, timeId, edgeId, fromNodeId,
+				directed, toNodeId);
+	}
+
+	public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+		append(EventType.EDGE_REMOVED, sourceId, timeId, edgeId, null, null,
+				null);
+	}
+
+	public void graphCleared(String sourceId, long timeId) {
+		append(EventType.GRAPH_CLEARED, sourceId, timeId, null, null, null,
+				null);
+	}
+
+	public void stepBegins(String sourceId, long timeId, double step) {
+		append(EventType.STEP_BEGINS, sourceId, timeId, null, null, null, step);
+	}
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream;
+
+import java.util.HashMap;
+
+import org.graphstream.graph.implementations.AbstractElement.AttributeChangeEvent;
+import org.graphstream.stream.EventBatch.EventType;
+import org.graphstream.stream.SourceBase.ElementType;
+import org.graphstream.stream.sync.SourceTime;
+
+/**
+ * Sink reducing the events it receives to their net effect.
+ * 
+ * <p>
+ * The coalescer records the events in an {@link EventBatch}, merging them on
+ * the fly:
+ * <ul>
+ * <li>successive changes of the same attribute of the same element are merged
+ * in a single event carrying the first old value and the last new value, an
+ * attribute added then removed disappears and an attribute removed then added
+ * becomes a change;</li>
+ * <li>a node or edge added then removed disappears, with all the attribute
+ * events it received;</li>
+ * <li>attribute events of an element that is removed are dropped;</li>
+ * <li>a "graph cleared" event drops everything that was recorded before it.</li>
+ * </ul>
+ * Merged events keep the position of the first one. A "step begins" event is
+ * a barrier: attribute changes are never merged across steps.
+ * </p>
+ * 
+ * <p>
+ * {@link #flush(String, SourceTime)} returns the net delta and starts a new
+ * one.
+ * </p>
+ */
+public class EventCoalescer implements Sink {
+	/**
+	 * Events recorded on one element since it was added, or since the
+	 * beginning.
+	 */
+	protected static class Pending {
+		/**
+		 * Position of the "added" event of the element, -1 if the element was
+		 * not added since the beginning.
+		 */
+		int added = -1;
+
+		/**
+		 * Position of the last event of each attribute.
+		 */
+		HashMap<String, Integer> attributes;
+	}
+
+	/**
+	 * The net delta being built.
+	 */
+	protected EventBatch batch;
+
+	protected HashMap<String, Pending> nodes;
+
+	protected HashMap<String, Pending> edges;
+
+	protected Pending graph;
+
+	public EventCoalescer() {
+		batch = new EventBatch();
+		nodes = new HashMap<String, Pending>();
+		edges = new HashMap<String, Pending>();
+		graph = new Pending();
+	}
+
+	/**
+	 * Number of events recorded. Events cancelled by later ones are counted
+	 * until the next flush, so this is an upper bound of the size of the net
+	 * delta.
+	 * 
+	 * @return The number of recorded events.
+	 */
+	public int size() {
+		return batch.size();
+	}
+
+	/**
+	 * Return the net delta of the events received since the last flush and
+	 * start a new one.
+	 * 
+	 * @param sourceId
+	 *            If not null, all the events of the delta are given this source
+	 *            identifier and new time identifiers taken from the source
+	 *            time. Merged events otherwise keep the identifiers of their
+	 *            first event.
+	 * @param sourceTime
+	 *            Source of the new time identifiers, used only if sourceId is
+	 *            not null.
+	 * @return The net delta.
+	 */
+	public EventBatch flush(String sourceId, SourceTime sourceTime) {
+		EventBatch delta = batch;
+
+		delta.compact();
+
+		if (sourceId != null)
+			delta.stamp(sourceId, sourceTime);
+
+		batch = new EventBatch();
+		reset();
+
+		return delta;
+	}
+
+	/**
+	 * Drop all the events received since the last flush.
+	 */
+	public void clear() {
+		batch.clear();
+		reset();
+	}
+
+	protected void reset() {
+		nodes.clear();
+		edges.clear();
+		graph = new Pending();
+	}
+
+	/**
+	 * Record an attribute event, given in the form used by
+	 * {@link SourceBase#sendAttributeChangedEvent(String, long, String, ElementType, String, AttributeChangeEvent, Object, Object)}
+	 * .
+	 */
+	public void attributeChanged(String sourceId, long timeId, String eltId,
+			ElementType eltType, String attribute, AttributeChangeEvent event,
+			Object oldValue, Object newValue) {
+		switch (eltType) {
+		case NODE:
+			attributeChanged(pending(nodes, eltId),
+					EventType.NODE_ATTRIBUTE_ADDED, sourceId, timeId, eltId,
+					attribute, event, oldValue, newValue);
+			break;
+		case EDGE:
+			attributeChanged(pending(edges, eltId),
+					EventType.EDGE_ATTRIBUTE_ADDED, sourceId, timeId, eltId,
+					attribute, event, oldValue, newValue);
+			break;
+		default:
+			attributeChanged(graph, EventType.GRAPH_ATTRIBUTE_ADDED, sourceId,
+					timeId, null, attribute, event, oldValue, newValue);
+			break;
+		}
+	}
+
+	protected Pending pending(HashMap<String, Pending> map, String id) {
+		Pending p = map.get(id);
+
+		if (p == null) {
+			p = new Pending();
+			map.put(id, p);
+		}
+
+		return p;
+	}
+
+	/**
+	 * Merge an attribute event with the previous event of the same attribute,
+	 * if any.
+	 * 
+	 * @param p
+	 *            Events of the element.
+	 * @param added
+	 *            The "attribute added" type for the kind of element. The
+	 *            "changed" and "removed" types follow it.
+	 */
+	protected void attributeChanged(Pending p, EventType added,
+			String sourceId, long timeId, String eltId, String attribute,
+			AttributeChangeEvent event, Object oldValue, Object newValue) {
+		Integer last = p.attributes == null ? null : p.attributes
+				.get(attribute);
+
+		if (last == null) {
+			if (p.attributes == null)
+				p.attributes = new HashMap<String, Integer>();
+
+			p.attributes.put(attribute, batch.append(type(added, event),
+					sourceId, timeId, eltId, attribute, oldValue, newValue));
+			return;
+		}
+
+		int i = last;
+		AttributeChangeEvent first = AttributeChangeEvent.values()[batch.types[i]
+				.ordinal() - added.ordinal()];
+
+		switch (event) {
+		case REMOVE:
+			if (first == AttributeChangeEvent.ADD) {
+				batch.cancel(i);
+				p.attributes.remove(attribute);
+			} else {
+				batch.set(i, type(added, AttributeChangeEvent.REMOVE),
+						batch.oldValues[i], null);
+			}
+			break;
+		default:
+			if (first == AttributeChangeEvent.REMOVE)
+				first = AttributeChangeEvent.CHANGE;
+
+			batch.set(i, type(added, first), batch.oldValues[i], newValue);
+			break;
+		}
+	}
+
+	/**
+	 * The attribute event types are declared in the order added, changed,
+	 * removed, like the attribute change events.
+	 */
+	protected static EventType type(EventType added, AttributeChangeEvent event) {
+		return EventType.values()[added.ordinal() + event.ordinal()];
+	}
+
+	protected void elementAdded(HashMap<String, Pending> map, EventType type,
+			String sourceId, long timeId, String id, String from, String to,
+			boolean directed) {
+		Pending p = pending(map, id);
+		p.added = batch.append(type, sourceId, timeId, id, from,
+				from == null ? null : (Object) directed, to);
+		p.attributes = null;
+	}
+
+	protected void elementRemoved(HashMap<String, Pending> map, EventType type,
+			String sourceId, long timeId, String id) {
+		Pending p = map.remove(id);
+
+		if (p != null) {
+			if (p.attributes != null) {
+				for (int i : p.attributes.values())
+					batch.cancel(i);
+			}
+
+			if (p.added >= 0) {
+				batch.cancel(p.added);
+				return;
+			}
+		}
+
+		batch.append(type, sourceId, timeId, id, null, null, null);
+	}
+
+	// *** Sink ***
+
+	public void graphAttributeAdded(String sourceId, long timeId,
+			String attribute, Object value) {
+		attributeChanged(sourceId, timeId, null, ElementType.GRAPH, attribute,
+				AttributeChangeEvent.ADD, null, value);
+	}
+
+	public void graphAttributeChanged(String sourceId, long timeId,
+			String attribute, Object oldValue, Object newValue) {
+		attributeChanged(sourceId, timeId, null, ElementType.GRAPH, attribute,
+				AttributeChangeEvent.CHANGE, oldValue, newValue);
+	}
+
+	public void graphAttributeRemoved(String sourceId, long timeId,
+			String attribute) {
+		attributeChanged(sourceId, timeId, null, ElementType.GRAPH, attribute,
+				AttributeChangeEvent.REMOVE, null, null);
+	}
+
+	public void nodeAttributeAdded(String sourceId, long timeId, String nodeId,
+			String attribute, Object value) {
+		attributeChanged(sourceId, timeId, nodeId, ElementType.NODE, attribute,
+				AttributeChangeEvent.ADD, null, value);
+	}
+
+	public void nodeAttributeChanged(String sourceId, long timeId,
+			String nodeId, String attribute, Object oldValue, Object newValue) {
+		attributeChanged(sourceId, timeId, nodeId, ElementType.NODE, attribute,
+				AttributeChangeEvent.CHANGE, oldValue, newValue);
+	}
+
+	public void nodeAttributeRemoved(String sourceId, long timeId,
+			String nodeId, String attribute) {
+		attributeChanged(sourceId, timeId, nodeId, ElementType.NODE, attribute,
+				AttributeChangeEvent.REMOVE, null, null);
+	}
+
+	public void edgeAttributeAdded(String sourceId, long timeId, String edgeId,
+			String attribute, Object value) {
+		attributeChanged(sourceId, timeId, edgeId, ElementType.EDGE, attribute,
+				AttributeChangeEvent.ADD, null, value);
+	}
+
+	public void edgeAttributeChanged(String sourceId, long timeId,
+			String edgeId, String attribute, Object oldValue, Object newValue) {
+		attributeChanged(sourceId, timeId, edgeId, ElementType.EDGE, attribute,
+				AttributeChangeEvent.CHANGE, oldValue, newValue);
+	}
+
+	public void edgeAttributeRemoved(String sourceId, long timeId,
+			String edgeId, String attribute) {
+		attributeChanged(sourceId, timeId, edgeId, ElementType.EDGE, attribute,
+				AttributeChangeEvent.REMOVE, null, null);
+	}
+
+	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		elementAdded(nodes, EventType.NODE_ADDED, sourceId, timeId, nodeId,
+				null, null, false);
+	}
+
+	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		elementRemoved(nodes, EventType.NODE_REMOVED, sourceId, timeId, nodeId);
+	}
+
+	public void edgeAdded(String sourceId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		elementAdded(edges, EventType.EDGE_ADDED, sourceId, timeId, edgeId,
+				fromNodeId, toNodeId, directed);
+	}
+
+	public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+		elementRemoved(edges, EventType.EDGE_REMOVED, sourceId, timeId, edgeId);
+	}
+
+	public void graphCleared(String sourceId, long timeId) {
+		batch.clear();
+		reset();
+		batch.graphCleared(sourceId, timeId);
+	}
+
+	public void stepBegins(String sourceId, long timeId, double step) {
+		graph.attributes = null;
+
+		for (Pending p : nodes.values())
+			p.attributes = null;
+
+		for (Pending p : edges.values())
+			p.attributes = null;
+
+		batch.stepBegins(sourceId, timeId, step);
+	}
+}
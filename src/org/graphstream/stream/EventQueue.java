@@ -0,0 +1,191 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.graphstream.graph.implementations.AbstractElement.AttributeChangeEvent;
+import org.graphstream.stream.SourceBase.ElementType;
+
+/**
+ * <p>
+ * Queue of the events a {@link SourceBase} receives while it is already
+ * sending an event, for example when a sink of a graph modifies this graph.
+ * </p>
+ * 
+ * <p>
+ * The queue is a ring buffer of reusable slots that grows when it is full.
+ * Each slot holds the fields of any kind of event, so that queuing and
+ * draining events does not allocate once the queue has reached its working
+ * size.
+ * </p>
+ */
+final class EventQueue {
+	/**
+	 * Kinds of the queued events.
+	 */
+	static enum Kind {
+		NODE_ADDED, NODE_REMOVED, EDGE_ADDED, EDGE_REMOVED, GRAPH_CLEARED, STEP_BEGINS, ATTRIBUTE_CHANGED, BATCH, ADD_SINK, REMOVE_SINK, CLEAR_SINKS
+	}
+
+	/**
+	 * A queued event. Only the fields of its kind are meaningful.
+	 */
+	static final class Event {
+		Kind kind;
+		String sourceId;
+		long timeId;
+		String elementId;
+		ElementType elementType;
+		String attribute;
+		AttributeChangeEvent event;
+		Object oldValue;
+		Object newValue;
+		String fromNodeId;
+		String toNodeId;
+		boolean directed;
+		double step;
+		EventBatch batch;
+		List<?> sinks;
+		Object sink;
+
+		Event set(Kind kind, String sourceId, long timeId, String elementId) {
+			this.kind = kind;
+			this.sourceId = sourceId;
+			this.timeId = timeId;
+			this.elementId = elementId;
+			return this;
+		}
+
+		/**
+		 * Drops the references held by this event.
+		 */
+		void clear() {
+			sourceId = elementId = attribute = fromNodeId = toNodeId = null;
+			elementType = null;
+			event = null;
+			oldValue = newValue = null;
+			batch = null;
+			sinks = null;
+			sink = null;
+		}
+	}
+
+	/**
+	 * The slots, the queued events being at positions head to head + size
+	 * (modulo the length). Slots out of this range are kept for reuse.
+	 */
+	private Event[] slots;
+	private int head, size;
+
+	/**
+	 * Slots taken out of the ring by {@link #poll()} and given back by
+	 * {@link #recycle(Event)}, ready for reuse.
+	 */
+	private Event[] free;
+	private int freeCount;
+
+	EventQueue() {
+		slots = new Event[16];
+		free = new Event[16];
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an event at the end of the queue.
+	 * 
+	 * @return The slot of the event, to be filled by the caller.
+	 */
+	Event add() {
+		if (size == slots.length)
+			grow();
+
+		int i = (head + size++) & (slots.length - 1);
+		Event e = slots[i];
+
+		if (e == null)
+			e = slots[i] = freeCount > 0 ? free[--freeCount] : new Event();
+
+		return e;
+	}
+
+	/**
+	 * Takes the first event out of the queue. The event stays valid while
+	 * events are added, until it is given back with {@link #recycle(Event)}.
+	 * 
+	 * @return The first event.
+	 */
+	Event poll() {
+		Event e = slots[head];
+
+		slots[head] = null;
+		head = (head + 1) & (slots.length - 1);
+		size--;
+
+		return e;
+	}
+
+	/**
+	 * Gives back the slot of an event taken by {@link #poll()}, once the
+	 * event has been handled.
+	 */
+	void recycle(Event e) {
+		e.clear();
+
+		if (freeCount == free.length)
+			free = Arrays.copyOf(free, 2 * free.length);
+
+		free[freeCount++] = e;
+	}
+
+	/**
+	 * Doubles the number of slots, keeping the order of the events. The
+	 * length stays a power of two.
+	 */
+	private void grow() {
+		Event[] s = new Event[slots.length * 2];
+		int n = slots.length - head;
+
+		System.arraycopy(slots, head, s, 0, n);
+		System.arraycopy(slots, 0, s, n, head);
+		slots = s;
+		head = 0;
+	}
+}
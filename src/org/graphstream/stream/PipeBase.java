@@ -43,8 +43,32 @@ package org.graphstream.stream;
  * Another use of this pipe is to duplicate a stream of events from one input
  * toward several outputs.
  * </p>
+ * 
+ * <p>
+ * Batches of events are replayed event by event toward the pipe itself, so
+ * that subclasses refining the event methods see every event. Pipes that do
+ * not modify the events can forward the batches as is to their sinks by
+ * redefining {@link #forwardsBatches()}.
+ * </p>
  */
-public class PipeBase extends SourceBase implements Pipe {
+public class PipeBase extends SourceBase implements Pipe, BatchSink {
+	public void batchReceived(EventBatch batch) {
+		if (forwardsBatches())
+			sendBatch(batch);
+		else
+			batch.replay(this);
+	}
+
+	/**
+	 * Tells if the batches received are sent as is to the sinks of this pipe,
+	 * without going through its event methods. This is false by default.
+	 * 
+	 * @return True if batches are forwarded, false if they are replayed.
+	 */
+	protected boolean forwardsBatches() {
+		return false;
+	}
+
 	public void edgeAttributeAdded(String graphId, long timeId, String edgeId,
 			String attribute, Object value) {
 		sendEdgeAttributeAdded(graphId, timeId, edgeId, attribute, value);
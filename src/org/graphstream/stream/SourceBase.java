@@ -32,10 +32,10 @@
 package org.graphstream.stream;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.graphstream.graph.implementations.AbstractElement.AttributeChangeEvent;
+import org.graphstream.stream.EventQueue.Kind;
 import org.graphstream.stream.sync.SourceTime;
 
 /**
@@ -81,7 +81,7 @@ public abstract class SourceBase implements Source {
 	 * A queue that allow the management of events (nodes/edge
 	 * add/delete/change) in the right order.
 	 */
-	protected LinkedList<GraphEvent> eventQueue = new LinkedList<GraphEvent>();
+	EventQueue eventQueue = new EventQueue();
 
 	/**
 	 * A boolean that indicates whether or not an Sink event is being sent
@@ -99,6 +99,17 @@ public abstract class SourceBase implements Source {
 	 */
 	protected SourceTime sourceTime;
 
+	/**
+	 * Events waiting to be sent as one batch, null if events are sent one by
+	 * one. The spare is swapped in while a chunk is dispatched.
+	 */
+	private EventBatch chunk, chunkSpare;
+
+	/**
+	 * Number of events per chunk.
+	 */
+	private int chunkSize;
+
 	// Construction
 
 	protected SourceBase() {
@@ -130,6 +141,8 @@ public abstract class SourceBase implements Source {
 	}
 
 	public void addAttributeSink(AttributeSink sink) {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -139,11 +152,13 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new AddToListEvent<AttributeSink>(attrSinks, sink));
+			sinkEvent(Kind.ADD_SINK, attrSinks, sink);
 		}
 	}
 
 	public void addElementSink(ElementSink sink) {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -153,7 +168,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new AddToListEvent<ElementSink>(eltsSinks, sink));
+			sinkEvent(Kind.ADD_SINK, eltsSinks, sink);
 		}
 	}
 
@@ -163,6 +178,8 @@ public abstract class SourceBase implements Source {
 	}
 
 	public void clearElementSinks() {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -172,11 +189,13 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new ClearListEvent<ElementSink>(eltsSinks));
+			sinkEvent(Kind.CLEAR_SINKS, eltsSinks, null);
 		}
 	}
 
 	public void clearAttributeSinks() {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -186,7 +205,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new ClearListEvent<AttributeSink>(attrSinks));
+			sinkEvent(Kind.CLEAR_SINKS, attrSinks, null);
 		}
 	}
 
@@ -196,6 +215,8 @@ public abstract class SourceBase implements Source {
 	}
 
 	public void removeAttributeSink(AttributeSink sink) {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -205,12 +226,13 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new RemoveFromListEvent<AttributeSink>(attrSinks,
-					sink));
+			sinkEvent(Kind.REMOVE_SINK, attrSinks, sink);
 		}
 	}
 
 	public void removeElementSink(ElementSink sink) {
+		flushChunk();
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -220,8 +242,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue
-					.add(new RemoveFromListEvent<ElementSink>(eltsSinks, sink));
+			sinkEvent(Kind.REMOVE_SINK, eltsSinks, sink);
 		}
 	}
 
@@ -243,6 +264,12 @@ public abstract class SourceBase implements Source {
 	 * @param timeId
 	 */
 	public void sendGraphCleared(String sourceId, long timeId) {
+		if (chunk != null) {
+			chunk.graphCleared(sourceId, timeId);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -253,7 +280,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new BeforeGraphClearEvent(sourceId, timeId));
+			eventQueue.add().set(Kind.GRAPH_CLEARED, sourceId, timeId, null);
 		}
 	}
 
@@ -279,6 +306,12 @@ public abstract class SourceBase implements Source {
 	 *            The step time stamp.
 	 */
 	public void sendStepBegins(String sourceId, long timeId, double step) {
+		if (chunk != null) {
+			chunk.stepBegins(sourceId, timeId, step);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -289,7 +322,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new StepBeginsEvent(sourceId, timeId, step));
+			eventQueue.add().set(Kind.STEP_BEGINS, sourceId, timeId, null).step = step;
 		}
 	}
 
@@ -315,6 +348,12 @@ public abstract class SourceBase implements Source {
 	 *            The node identifier.
 	 */
 	public void sendNodeAdded(String sourceId, long timeId, String nodeId) {
+		if (chunk != null) {
+			chunk.nodeAdded(sourceId, timeId, nodeId);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -325,7 +364,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new AfterNodeAddEvent(sourceId, timeId, nodeId));
+			eventQueue.add().set(Kind.NODE_ADDED, sourceId, timeId, nodeId);
 		}
 	}
 
@@ -351,6 +390,12 @@ public abstract class SourceBase implements Source {
 	 *            The node identifier.
 	 */
 	public void sendNodeRemoved(String sourceId, long timeId, String nodeId) {
+		if (chunk != null) {
+			chunk.nodeRemoved(sourceId, timeId, nodeId);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -361,7 +406,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new BeforeNodeRemoveEvent(sourceId, timeId, nodeId));
+			eventQueue.add().set(Kind.NODE_REMOVED, sourceId, timeId, nodeId);
 		}
 	}
 
@@ -402,6 +447,13 @@ public abstract class SourceBase implements Source {
 	 */
 	public void sendEdgeAdded(String sourceId, long timeId, String edgeId,
 			String fromNodeId, String toNodeId, boolean directed) {
+		if (chunk != null) {
+			chunk.edgeAdded(sourceId, timeId, edgeId, fromNodeId, toNodeId,
+					directed);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -413,8 +465,11 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new AfterEdgeAddEvent(sourceId, timeId, edgeId,
-					fromNodeId, toNodeId, directed));
+			EventQueue.Event e = eventQueue.add().set(Kind.EDGE_ADDED,
+					sourceId, timeId, edgeId);
+			e.fromNodeId = fromNodeId;
+			e.toNodeId = toNodeId;
+			e.directed = directed;
 		}
 	}
 
@@ -440,6 +495,12 @@ public abstract class SourceBase implements Source {
 	 *            The edge identifier.
 	 */
 	public void sendEdgeRemoved(String sourceId, long timeId, String edgeId) {
+		if (chunk != null) {
+			chunk.edgeRemoved(sourceId, timeId, edgeId);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -450,7 +511,7 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new BeforeEdgeRemoveEvent(sourceId, timeId, edgeId));
+			eventQueue.add().set(Kind.EDGE_REMOVED, sourceId, timeId, edgeId);
 		}
 	}
 
@@ -805,6 +866,13 @@ public abstract class SourceBase implements Source {
 	public void sendAttributeChangedEvent(String sourceId, long timeId,
 			String eltId, ElementType eltType, String attribute,
 			AttributeChangeEvent event, Object oldValue, Object newValue) {
+		if (chunk != null) {
+			chunk.appendAttribute(sourceId, timeId, eltId, eltType, attribute,
+					event, oldValue, newValue);
+			chunked();
+			return;
+		}
+
 		if (!eventProcessing) {
 			eventProcessing = true;
 			manageEvents();
@@ -856,254 +924,406 @@ public abstract class SourceBase implements Source {
 			manageEvents();
 			eventProcessing = false;
 		} else {
-			eventQueue.add(new AttributeChangedEvent(sourceId, timeId, eltId,
-					eltType, attribute, event, oldValue, newValue));
+			attributeEvent(sourceId, timeId, eltId, eltType, attribute, event,
+					oldValue, newValue);
 		}
 	}
 
-	// Deferred event management
-
 	/**
-	 * If in "event processing mode", ensure all pending events are processed.
+	 * Send a "number added" or "number changed" event to all attribute sinks.
+	 * Sinks implementing {@link PrimitiveAttributeSink} receive the values as
+	 * is, the others receive them boxed.
+	 * 
+	 * @param sourceId
+	 *            The source identifier.
+	 * @param timeId
+	 * @param eltId
+	 *            The element identifier, ignored for graph attributes.
+	 * @param eltType
+	 *            The element type.
+	 * @param attribute
+	 *            The attribute name.
+	 * @param event
+	 *            The add or change action.
+	 * @param oldValue
+	 *            The old attribute value, ignored for an addition.
+	 * @param newValue
+	 *            The new attribute value.
 	 */
-	protected void manageEvents() {
-		if (eventProcessing) {
-			while (!eventQueue.isEmpty())
-				eventQueue.remove().trigger();
+	public void sendNumberChangedEvent(String sourceId, long timeId,
+			String eltId, ElementType eltType, String attribute,
+			AttributeChangeEvent event, double oldValue, double newValue) {
+		if (chunk != null) {
+			chunk.appendAttribute(sourceId, timeId, eltId, eltType, attribute,
+					event, oldValue, newValue);
+			chunked();
+			return;
 		}
-	}
 
-	// Events Management
+		if (!eventProcessing) {
+			eventProcessing = true;
+			manageEvents();
 
-	/**
-	 * Interface that provide general purpose classification for evens involved
-	 * in graph modifications
-	 */
-	abstract class GraphEvent {
-		String sourceId;
-		long timeId;
+			boolean added = event == AttributeChangeEvent.ADD;
+			Object oldBoxed = null, newBoxed = null;
+
+			for (int i = 0; i < attrSinks.size(); i++) {
+				AttributeSink sink = attrSinks.get(i);
+
+				if (sink instanceof PrimitiveAttributeSink) {
+					PrimitiveAttributeSink p = (PrimitiveAttributeSink) sink;
+
+					if (eltType == ElementType.NODE) {
+						if (added)
+							p.nodeAttributeAdded(sourceId, timeId, eltId,
+									attribute, newValue);
+						else
+							p.nodeAttributeChanged(sourceId, timeId, eltId,
+									attribute, oldValue, newValue);
+					} else if (eltType == ElementType.EDGE) {
+						if (added)
+							p.edgeAttributeAdded(sourceId, timeId, eltId,
+									attribute, newValue);
+						else
+							p.edgeAttributeChanged(sourceId, timeId, eltId,
+									attribute, oldValue, newValue);
+					} else {
+						if (added)
+							p.graphAttributeAdded(sourceId, timeId, attribute,
+									newValue);
+						else
+							p.graphAttributeChanged(sourceId, timeId,
+									attribute, oldValue, newValue);
+					}
+				} else {
+					if (newBoxed == null) {
+						newBoxed = newValue;
+						oldBoxed = added ? null : (Object) oldValue;
+					}
+
+					if (eltType == ElementType.NODE) {
+						if (added)
+							sink.nodeAttributeAdded(sourceId, timeId, eltId,
+									attribute, newBoxed);
+						else
+							sink.nodeAttributeChanged(sourceId, timeId, eltId,
+									attribute, oldBoxed, newBoxed);
+					} else if (eltType == ElementType.EDGE) {
+						if (added)
+							sink.edgeAttributeAdded(sourceId, timeId, eltId,
+									attribute, newBoxed);
+						else
+							sink.edgeAttributeChanged(sourceId, timeId, eltId,
+									attribute, oldBoxed, newBoxed);
+					} else {
+						if (added)
+							sink.graphAttributeAdded(sourceId, timeId,
+									attribute, newBoxed);
+						else
+							sink.graphAttributeChanged(sourceId, timeId,
+									attribute, oldBoxed, newBoxed);
+					}
+				}
+			}
 
-		GraphEvent(String sourceId, long timeId) {
-			this.sourceId = sourceId;
-			this.timeId = timeId;
+			manageEvents();
+			eventProcessing = false;
+		} else {
+			attributeEvent(sourceId, timeId, eltId, eltType, attribute, event,
+					event == AttributeChangeEvent.ADD ? null
+							: (Object) oldValue, newValue);
 		}
-
-		abstract void trigger();
 	}
 
-	class AfterEdgeAddEvent extends GraphEvent {
-		String edgeId;
-		String fromNodeId;
-		String toNodeId;
-		boolean directed;
-
-		AfterEdgeAddEvent(String sourceId, long timeId, String edgeId,
-				String fromNodeId, String toNodeId, boolean directed) {
-			super(sourceId, timeId);
-			this.edgeId = edgeId;
-			this.fromNodeId = fromNodeId;
-			this.toNodeId = toNodeId;
-			this.directed = directed;
-		}
-
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).edgeAdded(sourceId, timeId, edgeId,
-						fromNodeId, toNodeId, directed);
+	/**
+	 * Send a sequence of events. Sinks implementing {@link BatchSink} receive
+	 * the whole batch in one call, the other sinks receive the events one by
+	 * one in the batch order. If events are sent in chunks (see
+	 * {@link #setChunkSize(int)}), the events are appended to the current
+	 * chunk.
+	 *
+	 * @param batch
+	 *            The events, with their source and time identifiers.
+	 */
+	public void sendBatch(EventBatch batch) {
+		if (chunk != null) {
+			chunk.append(batch);
+			chunked();
+			return;
 		}
-	}
 
-	class BeforeEdgeRemoveEvent extends GraphEvent {
-		String edgeId;
+		if (!eventProcessing) {
+			eventProcessing = true;
+			manageEvents();
 
-		BeforeEdgeRemoveEvent(String sourceId, long timeId, String edgeId) {
-			super(sourceId, timeId);
-			this.edgeId = edgeId;
-		}
+			dispatchBatch(batch);
 
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).edgeRemoved(sourceId, timeId, edgeId);
+			manageEvents();
+			eventProcessing = false;
+		} else {
+			eventQueue.add().set(Kind.BATCH, null, -1, null).batch = new EventBatch(
+					batch);
 		}
 	}
 
-	class AfterNodeAddEvent extends GraphEvent {
-		String nodeId;
-
-		AfterNodeAddEvent(String sourceId, long timeId, String nodeId) {
-			super(sourceId, timeId);
-			this.nodeId = nodeId;
-		}
+	// Chunked delivery
 
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).nodeAdded(sourceId, timeId, nodeId);
-		}
+	/**
+	 * Number of events gathered before they are sent as one batch, 1 if
+	 * events are sent one by one.
+	 * 
+	 * @return The chunk size.
+	 */
+	public int getChunkSize() {
+		return chunk == null ? 1 : chunkSize;
 	}
 
-	class BeforeNodeRemoveEvent extends GraphEvent {
-		String nodeId;
+	/**
+	 * Send the events in chunks. Instead of being delivered at once, events are
+	 * gathered in an {@link EventBatch} and sent with
+	 * {@link #sendBatch(EventBatch)} each time the given number of events is
+	 * reached, or when {@link #flushChunk()} is called. {@link BatchSink}s
+	 * then receive a whole chunk per call, the other sinks still receive the
+	 * events one by one. The order of events is kept.
+	 * 
+	 * <p>
+	 * Sinks do not see the events of an incomplete chunk, the source must
+	 * call {@link #flushChunk()} when it has finished a sequence of events.
+	 * Adding or removing a sink flushes the current chunk.
+	 * </p>
+	 * 
+	 * @param size
+	 *            Number of events per chunk. A value of 1 or less sends the
+	 *            events one by one, which is the default.
+	 */
+	public void setChunkSize(int size) {
+		flushChunk();
 
-		BeforeNodeRemoveEvent(String sourceId, long timeId, String nodeId) {
-			super(sourceId, timeId);
-			this.nodeId = nodeId;
-		}
+		if (size > 1) {
+			if (chunk == null) {
+				chunk = new EventBatch(size);
+				chunkSpare = new EventBatch(size);
+			}
 
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).nodeRemoved(sourceId, timeId, nodeId);
+			chunkSize = size;
+		} else if (chunk != null) {
+			EventBatch pending = chunk;
+			chunk = chunkSpare = null;
+
+			// Only possible while a chunk is being dispatched.
+			if (!pending.isEmpty())
+				sendBatch(pending);
 		}
 	}
 
-	class BeforeGraphClearEvent extends GraphEvent {
-		BeforeGraphClearEvent(String sourceId, long timeId) {
-			super(sourceId, timeId);
-		}
+	/**
+	 * Send the events of the current chunk, if any. Nothing is done while
+	 * the source is dispatching events, the chunk is then sent once the
+	 * dispatch is done.
+	 */
+	public void flushChunk() {
+		while (chunk != null && !chunk.isEmpty() && !eventProcessing) {
+			EventBatch batch = chunk;
 
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).graphCleared(sourceId, timeId);
-		}
-	}
+			// Events sent by the sinks during the dispatch go to the spare.
+			chunk = chunkSpare;
+			chunkSpare = null;
 
-	class StepBeginsEvent extends GraphEvent {
-		double step;
+			eventProcessing = true;
+			manageEvents();
 
-		StepBeginsEvent(String sourceId, long timeId, double step) {
-			super(sourceId, timeId);
-			this.step = step;
-		}
+			dispatchBatch(batch);
 
-		void trigger() {
-			for (int i = 0; i < eltsSinks.size(); i++)
-				eltsSinks.get(i).stepBegins(sourceId, timeId, step);
-		}
-	}
+			manageEvents();
+			eventProcessing = false;
 
-	class AttributeChangedEvent extends GraphEvent {
-		ElementType eltType;
+			batch.clear();
 
-		String eltId;
+			if (chunk == null)
+				break;
 
-		String attribute;
+			chunkSpare = batch;
+		}
+	}
 
-		AttributeChangeEvent event;
+	private void chunked() {
+		if (chunk.size() >= chunkSize)
+			flushChunk();
+	}
 
-		Object oldValue;
+	void dispatchBatch(EventBatch batch) {
+		for (int i = 0; i < eltsSinks.size(); i++) {
+			if (eltsSinks.get(i) instanceof BatchSink)
+				((BatchSink) eltsSinks.get(i)).batchReceived(batch);
+		}
 
-		Object newValue;
+		for (int i = 0; i < attrSinks.size(); i++) {
+			AttributeSink sink = attrSinks.get(i);
 
-		AttributeChangedEvent(String sourceId, long timeId, String eltId,
-				ElementType eltType, String attribute,
-				AttributeChangeEvent event, Object oldValue, Object newValue) {
-			super(sourceId, timeId);
-			this.eltType = eltType;
-			this.eltId = eltId;
-			this.attribute = attribute;
-			this.event = event;
-			this.oldValue = oldValue;
-			this.newValue = newValue;
+			if (sink instanceof BatchSink && !eltsSinks.contains(sink))
+				((BatchSink) sink).batchReceived(batch);
 		}
 
-		void trigger() {
-			switch (event) {
-			case ADD:
-				switch (eltType) {
-				case NODE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).nodeAttributeAdded(sourceId, timeId,
-								eltId, attribute, newValue);
-					break;
-				case EDGE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).edgeAttributeAdded(sourceId, timeId,
-								eltId, attribute, newValue);
-					break;
-				default:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).graphAttributeAdded(sourceId, timeId,
-								attribute, newValue);
-				}
-				break;
-			case REMOVE:
-				switch (eltType) {
-				case NODE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).nodeAttributeRemoved(sourceId, timeId,
-								eltId, attribute);
-					break;
-				case EDGE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).edgeAttributeRemoved(sourceId, timeId,
-								eltId, attribute);
-					break;
-				default:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).graphAttributeRemoved(sourceId,
-								timeId, attribute);
-				}
-				break;
-			default:
-				switch (eltType) {
-				case NODE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).nodeAttributeChanged(sourceId, timeId,
-								eltId, attribute, oldValue, newValue);
-					break;
-				case EDGE:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).edgeAttributeChanged(sourceId, timeId,
-								eltId, attribute, oldValue, newValue);
-					break;
-				default:
-					for (int i = 0; i < attrSinks.size(); i++)
-						attrSinks.get(i).graphAttributeChanged(sourceId,
-								timeId, attribute, oldValue, newValue);
-				}
+		for (int j = 0; j < batch.size(); j++) {
+			for (int i = 0; i < eltsSinks.size(); i++) {
+				if (!(eltsSinks.get(i) instanceof BatchSink))
+					batch.replay(j, eltsSinks.get(i), null);
+			}
+
+			for (int i = 0; i < attrSinks.size(); i++) {
+				if (!(attrSinks.get(i) instanceof BatchSink))
+					batch.replay(j, null, attrSinks.get(i));
 			}
 		}
 	}
 
-	class AddToListEvent<T> extends GraphEvent {
-		List<T> l;
-		T obj;
-
-		AddToListEvent(List<T> l, T obj) {
-			super(null, -1);
-			this.l = l;
-			this.obj = obj;
-		}
+	// Deferred event management
 
-		void trigger() {
-			l.add(obj);
+	/**
+	 * If in "event processing mode", ensure all pending events are processed.
+	 */
+	protected void manageEvents() {
+		if (eventProcessing) {
+			while (!eventQueue.isEmpty()) {
+				EventQueue.Event e = eventQueue.poll();
+				trigger(e);
+				eventQueue.recycle(e);
+			}
 		}
 	}
 
-	class RemoveFromListEvent<T> extends GraphEvent {
-		List<T> l;
-		T obj;
-
-		RemoveFromListEvent(List<T> l, T obj) {
-			super(null, -1);
-			this.l = l;
-			this.obj = obj;
-		}
+	private void sinkEvent(Kind kind, List<?> sinks, Object sink) {
+		EventQueue.Event e = eventQueue.add().set(kind, null, -1, null);
+		e.sinks = sinks;
+		e.sink = sink;
+	}
 
-		void trigger() {
-			l.remove(obj);
-		}
+	private void attributeEvent(String sourceId, long timeId, String eltId,
+			ElementType eltType, String attribute, AttributeChangeEvent event,
+			Object oldValue, Object newValue) {
+		EventQueue.Event e = eventQueue.add().set(Kind.ATTRIBUTE_CHANGED,
+				sourceId, timeId, eltId);
+		e.elementType = eltType;
+		e.attribute = attribute;
+		e.event = event;
+		e.oldValue = oldValue;
+		e.newValue = newValue;
 	}
 
-	class ClearListEvent<T> extends GraphEvent {
-		List<T> l;
+	/**
+	 * Sends a deferred event to the sinks.
+	 */
+	@SuppressWarnings("unchecked")
+	private void trigger(EventQueue.Event e) {
+		String sourceId = e.sourceId;
+		long timeId = e.timeId;
 
-		ClearListEvent(List<T> l) {
-			super(null, -1);
-			this.l = l;
+		switch (e.kind) {
+		case NODE_ADDED:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).nodeAdded(sourceId, timeId, e.elementId);
+			break;
+		case NODE_REMOVED:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).nodeRemoved(sourceId, timeId, e.elementId);
+			break;
+		case EDGE_ADDED:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).edgeAdded(sourceId, timeId, e.elementId,
+						e.fromNodeId, e.toNodeId, e.directed);
+			break;
+		case EDGE_REMOVED:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).edgeRemoved(sourceId, timeId, e.elementId);
+			break;
+		case GRAPH_CLEARED:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).graphCleared(sourceId, timeId);
+			break;
+		case STEP_BEGINS:
+			for (int i = 0; i < eltsSinks.size(); i++)
+				eltsSinks.get(i).stepBegins(sourceId, timeId, e.step);
+			break;
+		case ATTRIBUTE_CHANGED:
+			triggerAttribute(e);
+			break;
+		case BATCH:
+			dispatchBatch(e.batch);
+			break;
+		case ADD_SINK:
+			((List<Object>) e.sinks).add(e.sink);
+			break;
+		case REMOVE_SINK:
+			e.sinks.remove(e.sink);
+			break;
+		case CLEAR_SINKS:
+			e.sinks.clear();
+			break;
 		}
+	}
 
-		void trigger() {
-			l.clear();
+	private void triggerAttribute(EventQueue.Event e) {
+		String sourceId = e.sourceId;
+		long timeId = e.timeId;
+		String eltId = e.elementId;
+		String attribute = e.attribute;
+		Object oldValue = e.oldValue;
+		Object newValue = e.newValue;
+
+		switch (e.event) {
+		case ADD:
+			switch (e.elementType) {
+			case NODE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).nodeAttributeAdded(sourceId, timeId,
+							eltId, attribute, newValue);
+				break;
+			case EDGE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).edgeAttributeAdded(sourceId, timeId,
+							eltId, attribute, newValue);
+				break;
+			default:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).graphAttributeAdded(sourceId, timeId,
+							attribute, newValue);
+			}
+			break;
+		case REMOVE:
+			switch (e.elementType) {
+			case NODE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).nodeAttributeRemoved(sourceId, timeId,
+							eltId, attribute);
+				break;
+			case EDGE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).edgeAttributeRemoved(sourceId, timeId,
+							eltId, attribute);
+				break;
+			default:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).graphAttributeRemoved(sourceId, timeId,
+							attribute);
+			}
+			break;
+		default:
+			switch (e.elementType) {
+			case NODE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).nodeAttributeChanged(sourceId, timeId,
+							eltId, attribute, oldValue, newValue);
+				break;
+			case EDGE:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).edgeAttributeChanged(sourceId, timeId,
+							eltId, attribute, oldValue, newValue);
+				break;
+			default:
+				for (int i = 0; i < attrSinks.size(); i++)
+					attrSinks.get(i).graphAttributeChanged(sourceId, timeId,
+							attribute, oldValue, newValue);
+			}
 		}
 	}
-}
\ No newline at end of file
+}
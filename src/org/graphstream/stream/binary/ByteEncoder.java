@@ -66,7 +66,7 @@ public interface ByteEncoder extends Sink {
      */
     interface Transport {
         /**
-         * Called by the encoder once an event has been encoded.
+         * Called by the encoder once an event, or a batch of events, has been encoded.
          * The buffer's position and limit should be correctly set so the Transport just has to read it.
          *
          * @param buffer buffer that has to be transported
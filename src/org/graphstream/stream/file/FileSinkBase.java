@@ -39,6 +39,9 @@ import java.io.Writer;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.PrimitiveAttributeSink;
 
 /**
  * Base implementation for graph output to files.
@@ -77,7 +80,8 @@ import org.graphstream.graph.Node;
  * </ul>
  * </p>
  */
-public abstract class FileSinkBase implements FileSink {
+public abstract class FileSinkBase implements FileSink,
+		PrimitiveAttributeSink, BatchSink {
 	// Attribute
 
 	/**
@@ -274,4 +278,56 @@ public abstract class FileSinkBase implements FileSink {
 
 		return new PrintWriter(writer);
 	}
-}
\ No newline at end of file
+
+	// Batches
+
+	/**
+	 * Write all the events of a batch, in order, with the event methods of the
+	 * format. The source only makes one call per batch instead of one per
+	 * event and sink.
+	 */
+	public void batchReceived(EventBatch batch) {
+		batch.replay(this);
+	}
+
+	// Numbers
+
+	/**
+	 * By default, numbers are boxed and written by
+	 * {@link #graphAttributeAdded(String, long, String, Object)}. Formats able
+	 * to write them directly should override the methods of
+	 * {@link PrimitiveAttributeSink}.
+	 */
+	public void graphAttributeAdded(String sourceId, long timeId,
+			String attribute, double value) {
+		graphAttributeAdded(sourceId, timeId, attribute, (Object) value);
+	}
+
+	public void graphAttributeChanged(String sourceId, long timeId,
+			String attribute, double oldValue, double newValue) {
+		graphAttributeChanged(sourceId, timeId, attribute, (Object) oldValue,
+				(Object) newValue);
+	}
+
+	public void nodeAttributeAdded(String sourceId, long timeId, String nodeId,
+			String attribute, double value) {
+		nodeAttributeAdded(sourceId, timeId, nodeId, attribute, (Object) value);
+	}
+
+	public void nodeAttributeChanged(String sourceId, long timeId,
+			String nodeId, String attribute, double oldValue, double newValue) {
+		nodeAttributeChanged(sourceId, timeId, nodeId, attribute,
+				(Object) oldValue, (Object) newValue);
+	}
+
+	public void edgeAttributeAdded(String sourceId, long timeId, String edgeId,
+			String attribute, double value) {
+		edgeAttributeAdded(sourceId, timeId, edgeId, attribute, (Object) value);
+	}
+
+	public void edgeAttributeChanged(String sourceId, long timeId,
+			String edgeId, String attribute, double oldValue, double newValue) {
+		edgeAttributeChanged(sourceId, timeId, edgeId, attribute,
+				(Object) oldValue, (Object) newValue);
+	}
+}
@@ -35,6 +35,9 @@ import java.awt.Color;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Array;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.util.HashMap;
 import java.util.Locale;
 
@@ -53,6 +56,11 @@ public class FileSinkDGS extends FileSinkBase {
 
 	protected String graphName = "";
 
+	/**
+	 * Writes numbers as the "%f" format does, without boxing them.
+	 */
+	protected DecimalFormat numberFormat;
+
 	// Command
 
 	@Override
@@ -121,6 +129,77 @@ public class FileSinkDGS extends FileSinkBase {
 				FileSinkDGSUtility.attributeString(attribute, null, true));
 	}
 
+	@Override
+	public void graphAttributeAdded(String graphId, long timeId,
+			String attribute, double value) {
+		outputNumber("cg", null, attribute, value);
+	}
+
+	@Override
+	public void graphAttributeChanged(String graphId, long timeId,
+			String attribute, double oldValue, double newValue) {
+		outputNumber("cg", null, attribute, newValue);
+	}
+
+	@Override
+	public void nodeAttributeAdded(String graphId, long timeId, String nodeId,
+			String attribute, double value) {
+		outputNumber("cn", nodeId, attribute, value);
+	}
+
+	@Override
+	public void nodeAttributeChanged(String graphId, long timeId,
+			String nodeId, String attribute, double oldValue, double newValue) {
+		outputNumber("cn", nodeId, attribute, newValue);
+	}
+
+	@Override
+	public void edgeAttributeAdded(String graphId, long timeId, String edgeId,
+			String attribute, double value) {
+		outputNumber("ce", edgeId, attribute, value);
+	}
+
+	@Override
+	public void edgeAttributeChanged(String graphId, long timeId,
+			String edgeId, String attribute, double oldValue, double newValue) {
+		outputNumber("ce", edgeId, attribute, newValue);
+	}
+
+	/**
+	 * Output a change of a numeric attribute, as the other attribute changes
+	 * but without going through a format string.
+	 */
+	protected void outputNumber(String command, String elementId,
+			String attribute, double value) {
+		if (attribute == null || attribute.length() == 0)
+			return;
+
+		if (numberFormat == null) {
+			numberFormat = new DecimalFormat("0.000000",
+					DecimalFormatSymbols.getInstance(Locale.US));
+			numberFormat.setRoundingMode(RoundingMode.HALF_UP);
+		}
+
+		out.print(command);
+
+		if (elementId != null) {
+			out.print(" \"");
+			out.print(FileSinkDGSUtility.formatStringForQuoting(elementId));
+			out.print('"');
+		}
+
+		out.print("  \""); // Same spacing as attributeString().
+		out.print(attribute);
+		out.print("\":");
+
+		if (Double.isNaN(value) || Double.isInfinite(value))
+			out.print(value);
+		else
+			out.print(numberFormat.format(value));
+
+		out.println();
+	}
+
 	public void edgeAdded(String graphId, long timeId, String edgeId,
 			String fromNodeId, String toNodeId, boolean directed) {
 		edgeId = FileSinkDGSUtility.formatStringForQuoting(edgeId);
@@ -56,8 +56,34 @@ public class NetStreamDecoder extends SourceBase implements ByteDecoder {
         return false;
     }
 
+    /**
+     * Decode the messages of the buffer. A buffer may hold several messages one after the other, as sent by
+     * {@link NetStreamEncoder#batchReceived(org.graphstream.stream.EventBatch)}. Decoding stops at the first message
+     * that is not complete.
+     */
     @Override
     public void decode(ByteBuffer bb) {
+        int start = bb.position();
+
+        decodeMessage(bb);
+
+        while (bb.limit() - start >= 4) {
+            int size = bb.getInt(start);
+
+            if (size < 4 || size > bb.limit() - start)
+                break;
+
+            start += size;
+            bb.position(start);
+
+            if (bb.remaining() < 4 || bb.getInt(start) > bb.remaining())
+                break;
+
+            decodeMessage(bb);
+        }
+    }
+
+    protected void decodeMessage(ByteBuffer bb) {
         try {
             int size = bb.getInt();
             String streamId = NetStreamUtils.decodeString(bb);
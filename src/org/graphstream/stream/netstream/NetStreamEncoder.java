@@ -31,19 +31,29 @@
  */
 package org.graphstream.stream.netstream;
 
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.PrimitiveAttributeSink;
 import org.graphstream.stream.binary.ByteEncoder;
 
 import static org.graphstream.stream.netstream.NetStreamUtils.*;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Logger;
 
 /**
+ * Encode events using the NetStream protocol.
+ * <p/>
+ * Each event is sent to the transports as one message. The events of a batch received with
+ * {@link #batchReceived(EventBatch)} are sent as one buffer holding the messages one after the other. Since each
+ * message starts with its size, the receiving {@link NetStreamDecoder} splits them back.
+ *
  * @since 22/01/16.
  */
-public class NetStreamEncoder implements ByteEncoder {
+public class NetStreamEncoder implements ByteEncoder, PrimitiveAttributeSink, BatchSink {
     private static final Logger LOGGER = Logger.getLogger(NetStreamEncoder.class.getName());
 
     protected final List<Transport> transportList;
@@ -51,6 +61,11 @@ public class NetStreamEncoder implements ByteEncoder {
     protected ByteBuffer sourceIdBuff;
     protected ByteBuffer streamBuffer;
 
+    /**
+     * Messages of the batch being encoded, null outside of a batch.
+     */
+    protected ArrayList<ByteBuffer> batchMessages;
+
     public NetStreamEncoder(Transport... transports) {
         this("default", transports);
     }
@@ -88,12 +103,57 @@ public class NetStreamEncoder implements ByteEncoder {
 
 
     protected void doSend(ByteBuffer event) {
+        if (batchMessages != null) {
+            batchMessages.add(event);
+            return;
+        }
+
         for (Transport transport : transportList) {
             event.rewind();
             transport.send(event);
         }
     }
 
+    /**
+     * Encode all the events of the batch and hand them to the transports in a single buffer.
+     *
+     * @param batch the events
+     */
+    public void batchReceived(EventBatch batch) {
+        if (batchMessages != null) {
+            batch.replay(this);
+            return;
+        }
+
+        ArrayList<ByteBuffer> messages = new ArrayList<>(batch.size());
+        batchMessages = messages;
+
+        try {
+            batch.replay(this);
+        } finally {
+            batchMessages = null;
+        }
+
+        if (messages.size() == 1) {
+            doSend(messages.get(0));
+        } else if (messages.size() > 1) {
+            int size = 0;
+
+            for (ByteBuffer message : messages)
+                size += message.capacity();
+
+            ByteBuffer buff = ByteBuffer.allocate(size);
+
+            for (ByteBuffer message : messages) {
+                message.rewind();
+                buff.put(message);
+            }
+
+            buff.flip();
+            doSend(buff);
+        }
+    }
+
     protected ByteBuffer getAndPrepareBuffer(String sourceId, long timeId, int eventType, int messageSize) {
         if (!sourceId.equals(this.sourceId)) {
             this.sourceId = sourceId;
@@ -121,6 +181,70 @@ public class NetStreamEncoder implements ByteEncoder {
         return bb;
     }
 
+    /**
+     * Write an attribute event whose values are numbers, without boxing them.
+     *
+     * @param elementId the node or edge id, null for a graph attribute
+     * @param changed   if true the old value is written before the new one
+     */
+    protected void sendNumber(String sourceId, long timeId, int eventType, String elementId, String attribute,
+                              boolean changed, double oldValue, double newValue) {
+        ByteBuffer idBuff = elementId == null ? null : encodeString(elementId);
+        ByteBuffer attrBuff = encodeString(attribute);
+
+        int innerSize = (idBuff == null ? 0 : idBuff.capacity()) + // element id
+                attrBuff.capacity() + // attribute
+                (changed ? 2 : 1) * (1 + 8); // value types and values
+
+        ByteBuffer buff = getAndPrepareBuffer(sourceId, timeId, eventType, innerSize);
+
+        if (idBuff != null)
+            buff.put(idBuff);
+
+        buff.put(attrBuff);
+
+        if (changed)
+            buff
+                    .put((byte) NetStreamConstants.TYPE_DOUBLE)
+                    .putDouble(oldValue);
+
+        buff
+                .put((byte) NetStreamConstants.TYPE_DOUBLE)
+                .putDouble(newValue);
+
+        doSend(buff);
+    }
+
+    public void graphAttributeAdded(String sourceId, long timeId, String attribute, double value) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_ADD_GRAPH_ATTR, null, attribute, false, 0, value);
+    }
+
+    public void graphAttributeChanged(String sourceId, long timeId, String attribute, double oldValue,
+                                      double newValue) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_CHG_GRAPH_ATTR, null, attribute, true, oldValue,
+                newValue);
+    }
+
+    public void nodeAttributeAdded(String sourceId, long timeId, String nodeId, String attribute, double value) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_ADD_NODE_ATTR, nodeId, attribute, false, 0, value);
+    }
+
+    public void nodeAttributeChanged(String sourceId, long timeId, String nodeId, String attribute,
+                                     double oldValue, double newValue) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_CHG_NODE_ATTR, nodeId, attribute, true, oldValue,
+                newValue);
+    }
+
+    public void edgeAttributeAdded(String sourceId, long timeId, String edgeId, String attribute, double value) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_ADD_EDGE_ATTR, edgeId, attribute, false, 0, value);
+    }
+
+    public void edgeAttributeChanged(String sourceId, long timeId, String edgeId, String attribute,
+                                     double oldValue, double newValue) {
+        sendNumber(sourceId, timeId, NetStreamConstants.EVENT_CHG_EDGE_ATTR, edgeId, attribute, true, oldValue,
+                newValue);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -274,6 +274,20 @@ public class NetStreamUtils {
     }
 
     public static ByteBuffer encodeDoubleArray(Object in) {
+        if (in instanceof double[]) {
+            double[] data = (double[]) in;
+            int ssize = getVarintSize(data.length);
+            ByteBuffer b = ByteBuffer.allocate(ssize + data.length * 8);
+
+            putVarint(b, data.length, ssize);
+
+            for (int i = 0; i < data.length; i++)
+                b.putDouble(data[i]);
+
+            b.rewind();
+            return b;
+        }
+
         Object[] data = (Object[]) in;
 
         int ssize = getVarintSize(data.length);
@@ -0,0 +1,672 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.stream.thread;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventBatch.EventType;
+import org.graphstream.stream.ProxyPipe;
+import org.graphstream.stream.Replayable;
+import org.graphstream.stream.Replayable.Controller;
+import org.graphstream.stream.Source;
+import org.graphstream.stream.SourceBase;
+
+/**
+ * Proxy pipe passing events between threads through a ring buffer.
+ * 
+ * <p>
+ * This pipe plays the same role as {@link ThreadProxyPipe}: it is registered
+ * as a sink of a source in one or more input threads, and its own sinks
+ * receive the events in the sink thread when it calls {@link #pump()}. It
+ * differs by the way events cross the thread boundary:
+ * </p>
+ * 
+ * <ul>
+ * <li>events are copied into slots allocated once with the pipe, so posting
+ * an event does not allocate anything;</li>
+ * <li>no lock is taken, neither by the input threads nor by the sink thread.
+ * With {@link Producers#SINGLE} the input side does not even use atomic
+ * operations, but then only one thread at a time may send events to the
+ * pipe;</li>
+ * <li>{@link #pump()} dispatches all the available events in one go and
+ * releases their slots by groups.</li>
+ * </ul>
+ * 
+ * <p>
+ * The buffer has a fixed capacity. When it is full, input threads wait for
+ * the sink thread to pump events. The way threads wait, for free slots or in
+ * {@link #blockingPump()}, is given by a {@link WaitStrategy}.
+ * </p>
+ * 
+ * <p>
+ * Like with {@link ThreadProxyPipe}, only one thread may pump the pipe.
+ * </p>
+ */
+public class RingBufferProxyPipe extends SourceBase implements ProxyPipe,
+		BatchSink {
+	/**
+	 * Number of threads that may send events to the pipe.
+	 */
+	public static enum Producers {
+		/**
+		 * Only one input thread at a time.
+		 */
+		SINGLE,
+		/**
+		 * Any number of concurrent input threads.
+		 */
+		MULTIPLE
+	}
+
+	/**
+	 * How a thread waits for events or for free slots.
+	 */
+	public static enum WaitStrategy {
+		/**
+		 * Busy wait, yielding the processor every {@link #SPIN_TRIES} tries.
+		 * Lowest latency, but the waiting thread keeps a core busy.
+		 */
+		SPIN,
+		/**
+		 * Park the thread until it is woken up by the other side. The sink
+		 * thread spins a little before parking.
+		 */
+		PARK
+	}
+
+	/**
+	 * Default number of slots.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * Number of events dispatched by {@link #pump()} before their slots are
+	 * given back to the input threads.
+	 */
+	protected static final int RELEASE_INTERVAL = 64;
+
+	/**
+	 * Number of busy tries before a spinning thread yields.
+	 */
+	protected static final int SPIN_TRIES = 100;
+
+	/**
+	 * How long an input thread parks when the buffer is full, in nanoseconds.
+	 */
+	protected static final long FULL_PARK_NANOS = 10000;
+
+	/**
+	 * A preallocated event. Events are stored as in an {@link EventBatch}, a
+	 * slot holding a batch has a null type.
+	 */
+	protected static class Slot {
+		/**
+		 * Sequence number of the event in the slot, written last by the
+		 * input thread. The slot is readable when it equals the sequence
+		 * expected by the sink thread.
+		 */
+		volatile long sequence = -1;
+
+		EventType type;
+		String sourceId;
+		long timeId;
+		String elementId;
+		String attribute;
+		Object oldValue;
+		Object newValue;
+		EventBatch batch;
+
+		void clear() {
+			type = null;
+			sourceId = null;
+			elementId = null;
+			attribute = null;
+			oldValue = null;
+			newValue = null;
+			batch = null;
+		}
+	}
+
+	protected final Slot[] slots;
+
+	protected final int mask;
+
+	protected final Producers producers;
+
+	protected final WaitStrategy waitStrategy;
+
+	/**
+	 * Next sequence to claim, used with {@link Producers#MULTIPLE}.
+	 */
+	protected final AtomicLong claimed = new AtomicLong();
+
+	/**
+	 * Next sequence to claim, used with {@link Producers#SINGLE}.
+	 */
+	protected long next;
+
+	/**
+	 * Sequences below this one have been dispatched and their slots can be
+	 * reused.
+	 */
+	protected final AtomicLong released = new AtomicLong();
+
+	/**
+	 * Next sequence to dispatch. Only used by the sink thread.
+	 */
+	protected long cursor;
+
+	/**
+	 * Sink thread parked in {@link #blockingPump(long)}, if any.
+	 */
+	protected volatile Thread waiting;
+
+	/**
+	 * The event sender name, usually the graph name.
+	 */
+	protected String from;
+
+	/**
+	 * Used only to remove the listener. We ensure this is done in the source
+	 * thread.
+	 */
+	protected Source input;
+
+	/**
+	 * Signals that this proxy must be removed from the source input.
+	 */
+	protected volatile boolean unregisterWhenPossible = false;
+
+	/**
+	 * New pipe with {@link #DEFAULT_CAPACITY} slots, accepting events from
+	 * several threads and parking waiting threads.
+	 */
+	public RingBufferProxyPipe() {
+		this(DEFAULT_CAPACITY, Producers.MULTIPLE, WaitStrategy.PARK);
+	}
+
+	/**
+	 * New pipe.
+	 * 
+	 * @param capacity
+	 *            Number of slots, rounded up to a power of two.
+	 * @param producers
+	 *            Whether one or several threads send events to the pipe.
+	 * @param waitStrategy
+	 *            How threads wait for events or free slots.
+	 */
+	public RingBufferProxyPipe(int capacity, Producers producers,
+			WaitStrategy waitStrategy) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+
+		this.slots = new Slot[size];
+		this.mask = size - 1;
+		this.producers = producers;
+		this.waitStrategy = waitStrategy;
+		this.from = "<in>";
+
+		for (int i = 0; i < size; i++)
+			slots[i] = new Slot();
+	}
+
+	/**
+	 * Number of slots of the buffer.
+	 * 
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	public void init() {
+		init(null, false);
+	}
+
+	/**
+	 * Init the proxy, replaying the source if it is {@link Replayable}.
+	 * 
+	 * @param source
+	 *            source of the events
+	 */
+	public void init(Source source) {
+		init(source, source instanceof Replayable);
+	}
+
+	/**
+	 * Init the proxy. Contrary to {@link ThreadProxyPipe}, events posted
+	 * before are not cleared, they are still dispatched by the next pump.
+	 * With {@link Producers#SINGLE}, this must be called by the input thread.
+	 * 
+	 * @param source
+	 *            source of the events
+	 * @param replay
+	 *            true if the source should be replayed. You need a
+	 *            {@link org.graphstream.stream.Replayable} source to enable
+	 *            replay, else nothing happens.
+	 */
+	public void init(Source source, boolean replay) {
+		if (this.input != null)
+			this.input.removeSink(this);
+
+		this.input = source;
+
+		if (source != null) {
+			if (source instanceof Graph)
+				this.from = ((Graph) source).getId();
+
+			this.input.addSink(this);
+
+			if (replay && source instanceof Replayable) {
+				Replayable r = (Replayable) source;
+				Controller rc = r.getReplayController();
+
+				rc.addSink(this);
+				rc.replay();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		String dest = "nil";
+
+		if (attrSinks.size() > 0)
+			dest = attrSinks.get(0).toString();
+
+		return String.format("ring-proxy(from %s to %s)", from, dest);
+	}
+
+	/**
+	 * Ask the proxy to unregister from the event input source (stop receive
+	 * events) as soon as possible (when the next event will occur in the
+	 * graph).
+	 */
+	public void unregisterFromSource() {
+		unregisterWhenPossible = true;
+	}
+
+	protected boolean maybeUnregister() {
+		if (unregisterWhenPossible) {
+			if (input != null)
+				input.removeSink(this);
+			return true;
+		}
+
+		return false;
+	}
+
+	// *** Sink thread ***
+
+	/**
+	 * Dispatch all the events available to the sinks of this pipe. Must be
+	 * called regularly by the sink thread.
+	 */
+	public void pump() {
+		drain();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.stream.ProxyPipe#blockingPump()
+	 */
+	public void blockingPump() throws InterruptedException {
+		blockingPump(0);
+	}
+
+	/**
+	 * Wait for events and dispatch them. The wait is done with the
+	 * {@link WaitStrategy} of the pipe.
+	 * 
+	 * @param timeout
+	 *            Maximum time to wait in milliseconds, zero to wait without
+	 *            limit. If no event arrives in time, nothing is dispatched.
+	 */
+	public void blockingPump(long timeout) throws InterruptedException {
+		long deadline = timeout > 0 ? System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+
+		int tries = 0;
+
+		while (!hasPostRemaining()) {
+			if (Thread.interrupted())
+				throw new InterruptedException();
+
+			long remaining = deadline - System.nanoTime();
+
+			if (timeout > 0 && remaining <= 0)
+				return;
+
+			if (waitStrategy == WaitStrategy.SPIN) {
+				tries = spin(tries);
+			} else if (tries < SPIN_TRIES) {
+				tries++;
+			} else {
+				waiting = Thread.currentThread();
+
+				// Checked again once the input threads can see we wait.
+				if (!hasPostRemaining()) {
+					if (timeout > 0)
+						LockSupport.parkNanos(this, remaining);
+					else
+						LockSupport.park(this);
+				}
+
+				waiting = null;
+			}
+		}
+
+		drain();
+	}
+
+	/**
+	 * One busy try of {@link WaitStrategy#SPIN}.
+	 * 
+	 * @return The number of tries since the last yield.
+	 */
+	protected static int spin(int tries) {
+		if (++tries < SPIN_TRIES)
+			return tries;
+
+		Thread.yield();
+		return 0;
+	}
+
+	/**
+	 * True if events are ready to be dispatched. Only meaningful in the sink
+	 * thread.
+	 */
+	public boolean hasPostRemaining() {
+		return slots[(int) cursor & mask].sequence == cursor;
+	}
+
+	/**
+	 * Dispatch the published events in sequence order. Slots are given back
+	 * to the input threads every {@link #RELEASE_INTERVAL} events and at the
+	 * end.
+	 * 
+	 * @return The number of events dispatched.
+	 */
+	protected int drain() {
+		long start = cursor;
+		Slot slot = slots[(int) cursor & mask];
+
+		while (slot.sequence == cursor) {
+			dispatch(slot);
+			slot.clear();
+
+			if ((++cursor & (RELEASE_INTERVAL - 1)) == 0)
+				released.lazySet(cursor);
+
+			slot = slots[(int) cursor & mask];
+		}
+
+		if (cursor != start)
+			released.lazySet(cursor);
+
+		return (int) (cursor - start);
+	}
+
+	protected void dispatch(Slot slot) {
+		String sid = slot.sourceId;
+		long tid = slot.timeId;
+		String eid = slot.elementId;
+
+		if (slot.type == null) {
+			sendBatch(slot.batch);
+			return;
+		}
+
+		switch (slot.type) {
+		case NODE_ADDED:
+			sendNodeAdded(sid, tid, eid);
+			break;
+		case NODE_REMOVED:
+			sendNodeRemoved(sid, tid, eid);
+			break;
+		case EDGE_ADDED:
+			sendEdgeAdded(sid, tid, eid, slot.attribute,
+					(String) slot.newValue, (Boolean) slot.oldValue);
+			break;
+		case EDGE_REMOVED:
+			sendEdgeRemoved(sid, tid, eid);
+			break;
+		case GRAPH_CLEARED:
+			sendGraphCleared(sid, tid);
+			break;
+		case STEP_BEGINS:
+			sendStepBegins(sid, tid, (Double) slot.newValue);
+			break;
+		case GRAPH_ATTRIBUTE_ADDED:
+			sendGraphAttributeAdded(sid, tid, slot.attribute, slot.newValue);
+			break;
+		case GRAPH_ATTRIBUTE_CHANGED:
+			sendGraphAttributeChanged(sid, tid, slot.attribute,
+					slot.oldValue, slot.newValue);
+			break;
+		case GRAPH_ATTRIBUTE_REMOVED:
+			sendGraphAttributeRemoved(sid, tid, slot.attribute);
+			break;
+		case NODE_ATTRIBUTE_ADDED:
+			sendNodeAttributeAdded(sid, tid, eid, slot.attribute,
+					slot.newValue);
+			break;
+		case NODE_ATTRIBUTE_CHANGED:
+			sendNodeAttributeChanged(sid, tid, eid, slot.attribute,
+					slot.oldValue, slot.newValue);
+			break;
+		case NODE_ATTRIBUTE_REMOVED:
+			sendNodeAttributeRemoved(sid, tid, eid, slot.attribute);
+			break;
+		case EDGE_ATTRIBUTE_ADDED:
+			sendEdgeAttributeAdded(sid, tid, eid, slot.attribute,
+					slot.newValue);
+			break;
+		case EDGE_ATTRIBUTE_CHANGED:
+			sendEdgeAttributeChanged(sid, tid, eid, slot.attribute,
+					slot.oldValue, slot.newValue);
+			break;
+		case EDGE_ATTRIBUTE_REMOVED:
+			sendEdgeAttributeRemoved(sid, tid, eid, slot.attribute);
+			break;
+		}
+	}
+
+	// *** Input threads ***
+
+	/**
+	 * Claim the next slot, waiting for the sink thread if the buffer is full.
+	 * 
+	 * @return The sequence of the claimed slot.
+	 */
+	protected long claim() {
+		long sequence;
+
+		if (producers == Producers.SINGLE)
+			sequence = next++;
+		else
+			sequence = claimed.getAndIncrement();
+
+		long wrap = sequence - slots.length;
+		int tries = 0;
+
+		while (wrap >= released.get()) {
+			if (waitStrategy == WaitStrategy.PARK)
+				LockSupport.parkNanos(this, FULL_PARK_NANOS);
+			else
+				tries = spin(tries);
+		}
+
+		return sequence;
+	}
+
+	/**
+	 * Make a filled slot visible to the sink thread and wake it up if it is
+	 * parked.
+	 */
+	protected void publish(Slot slot, long sequence) {
+		slot.sequence = sequence;
+
+		if (waitStrategy == WaitStrategy.PARK) {
+			Thread t = waiting;
+
+			// Cleared so that following events do not wake it up again.
+			if (t != null) {
+				waiting = null;
+				LockSupport.unpark(t);
+			}
+		}
+	}
+
+	protected void post(EventType type, String sourceId, long timeId,
+			String elementId, String attribute, Object oldValue,
+			Object newValue) {
+		if (maybeUnregister())
+			return;
+
+		long sequence = claim();
+		Slot slot = slots[(int) sequence & mask];
+
+		slot.type = type;
+		slot.sourceId = sourceId;
+		slot.timeId = timeId;
+		slot.elementId = elementId;
+		slot.attribute = attribute;
+		slot.oldValue = oldValue;
+		slot.newValue = newValue;
+
+		publish(slot, sequence);
+	}
+
+	/**
+	 * The batch is copied and takes a single slot. It is delivered as a batch
+	 * in the sink thread.
+	 */
+	public void batchReceived(EventBatch batch) {
+		if (maybeUnregister())
+			return;
+
+		EventBatch copy = new EventBatch(batch);
+		long sequence = claim();
+		Slot slot = slots[(int) sequence & mask];
+
+		slot.batch = copy;
+		publish(slot, sequence);
+	}
+
+	public void edgeAttributeAdded(String graphId, long timeId, String edgeId,
+			String attribute, Object value) {
+		post(EventType.EDGE_ATTRIBUTE_ADDED, graphId, timeId, edgeId,
+				attribute, null, value);
+	}
+
+	public void edgeAttributeChanged(String graphId, long timeId,
+			String edgeId, String attribute, Object oldValue, Object newValue) {
+		post(EventType.EDGE_ATTRIBUTE_CHANGED, graphId, timeId, edgeId,
+				attribute, oldValue, newValue);
+	}
+
+	public void edgeAttributeRemoved(String graphId, long timeId,
+			String edgeId, String attribute) {
+		post(EventType.EDGE_ATTRIBUTE_REMOVED, graphId, timeId, edgeId,
+				attribute, null, null);
+	}
+
+	public void graphAttributeAdded(String graphId, long timeId,
+			String attribute, Object value) {
+		post(EventType.GRAPH_ATTRIBUTE_ADDED, graphId, timeId, null,
+				attribute, null, value);
+	}
+
+	public void graphAttributeChanged(String graphId, long timeId,
+			String attribute, Object oldValue, Object newValue) {
+		post(EventType.GRAPH_ATTRIBUTE_CHANGED, graphId, timeId, null,
+				attribute, oldValue, newValue);
+	}
+
+	public void graphAttributeRemoved(String graphId, long timeId,
+			String attribute) {
+		post(EventType.GRAPH_ATTRIBUTE_REMOVED, graphId, timeId, null,
+				attribute, null, null);
+	}
+
+	public void nodeAttributeAdded(String graphId, long timeId, String nodeId,
+			String attribute, Object value) {
+		post(EventType.NODE_ATTRIBUTE_ADDED, graphId, timeId, nodeId,
+				attribute, null, value);
+	}
+
+	public void nodeAttributeChanged(String graphId, long timeId,
+			String nodeId, String attribute, Object oldValue, Object newValue) {
+		post(EventType.NODE_ATTRIBUTE_CHANGED, graphId, timeId, nodeId,
+				attribute, oldValue, newValue);
+	}
+
+	public void nodeAttributeRemoved(String graphId, long timeId,
+			String nodeId, String attribute) {
+		post(EventType.NODE_ATTRIBUTE_REMOVED, graphId, timeId, nodeId,
+				attribute, null, null);
+	}
+
+	public void edgeAdded(String graphId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		post(EventType.EDGE_ADDED, graphId, timeId, edgeId, fromNodeId,
+				directed, toNodeId);
+	}
+
+	public void edgeRemoved(String graphId, long timeId, String edgeId) {
+		post(EventType.EDGE_REMOVED, graphId, timeId, edgeId, null, null,
+				null);
+	}
+
+	public void graphCleared(String graphId, long timeId) {
+		post(EventType.GRAPH_CLEARED, graphId, timeId, null, null, null, null);
+	}
+
+	public void nodeAdded(String graphId, long timeId, String nodeId) {
+		post(EventType.NODE_ADDED, graphId, timeId, nodeId, null, null, null);
+	}
+
+	public void nodeRemoved(String graphId, long timeId, String nodeId) {
+		post(EventType.NODE_REMOVED, graphId, timeId, nodeId, null, null,
+				null);
+	}
+
+	public void stepBegins(String graphId, long timeId, double step) {
+		post(EventType.STEP_BEGINS, graphId, timeId, null, null, null, step);
+	}
+}
@@ -32,6 +32,8 @@
 package org.graphstream.stream.thread;
 
 import org.graphstream.graph.Graph;
+import org.graphstream.stream.BatchSink;
+import org.graphstream.stream.EventBatch;
 import org.graphstream.stream.ProxyPipe;
 import org.graphstream.stream.Replayable;
 import org.graphstream.stream.Replayable.Controller;
@@ -39,6 +41,7 @@ import org.graphstream.stream.Sink;
 import org.graphstream.stream.Source;
 import org.graphstream.stream.SourceBase;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -81,8 +84,23 @@ import java.util.logging.Logger;
  * the graph. This is the default behavior if this filter is constructed with a
  * graph as input.
  * </p>
+ * 
+ * <p>
+ * When the sink thread is slower than the source, the pipe can be put in
+ * coalescing mode with {@link #setCoalescing(boolean)}. An attribute change
+ * posted while a change of the same attribute of the same element is still
+ * waiting is merged in the waiting event instead of being queued: it keeps
+ * its position and first old value and takes the new value. Other events
+ * keep their order, and changes are never merged across them when they
+ * concern the same attribute, the same element, or the whole graph (graph
+ * cleared, step begins or batches). The queue then grows with the number of
+ * changed attributes rather than the number of changes.
+ * </p>
+ * 
+ * @see RingBufferProxyPipe
  */
-public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
+public class ThreadProxyPipe extends SourceBase implements ProxyPipe,
+		BatchSink {
 
     /**
      * class level logger
@@ -119,6 +137,22 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 	 */
 	protected boolean unregisterWhenPossible = false;
 
+	/**
+	 * Whether attribute changes are merged while they wait.
+	 */
+	protected boolean coalescing = false;
+
+	/**
+	 * In coalescing mode, the data of the waiting attribute changes, by
+	 * element and attribute. Guarded by the lock.
+	 */
+	protected HashMap<String, HashMap<String, Object[]>> nodeChanges, edgeChanges;
+
+	/**
+	 * In coalescing mode, the data of the waiting graph attribute changes.
+	 */
+	protected HashMap<String, Object[]> graphChanges;
+
 	public ThreadProxyPipe() {
 		this.events = new LinkedList<GraphEvents>();
 		this.eventsData = new LinkedList<Object[]>();
@@ -208,6 +242,9 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 
 			this.events.clear();
 			this.eventsData.clear();
+
+			if (coalescing)
+				forgetChanges();
 		} finally {
 			lock.unlock();
 		}
@@ -238,6 +275,42 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 		return String.format("thread-proxy(from %s to %s)", from, dest);
 	}
 
+	/**
+	 * Enable or disable the coalescing mode. In this mode, an attribute change
+	 * is merged in the waiting change of the same attribute of the same
+	 * element, if any. Events already waiting are not merged.
+	 * 
+	 * @param on
+	 *            True to merge attribute changes.
+	 */
+	public void setCoalescing(boolean on) {
+		lock.lock();
+
+		try {
+			if (on && !coalescing) {
+				nodeChanges = new HashMap<String, HashMap<String, Object[]>>();
+				edgeChanges = new HashMap<String, HashMap<String, Object[]>>();
+				graphChanges = new HashMap<String, Object[]>();
+			} else if (!on) {
+				nodeChanges = edgeChanges = null;
+				graphChanges = null;
+			}
+
+			coalescing = on;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * True if the pipe merges attribute changes.
+	 * 
+	 * @return The coalescing mode.
+	 */
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
 	/**
 	 * Ask the proxy to unregister from the event input source (stop receive
 	 * events) as soon as possible (when the next event will occur in the
@@ -262,6 +335,9 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 			try {
 				e = events.poll();
 				data = eventsData.poll();
+
+				if (coalescing && e != null)
+					consumed(e, data);
 			} finally {
 				lock.unlock();
 			}
@@ -303,6 +379,9 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 			try {
 				e = events.poll();
 				data = eventsData.poll();
+
+				if (coalescing && e != null)
+					consumed(e, data);
 			} finally {
 				lock.unlock();
 			}
@@ -329,7 +408,7 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 	 * Set of events sent via the message box.
 	 */
 	protected static enum GraphEvents {
-		ADD_NODE, DEL_NODE, ADD_EDGE, DEL_EDGE, STEP, CLEARED, ADD_GRAPH_ATTR, CHG_GRAPH_ATTR, DEL_GRAPH_ATTR, ADD_NODE_ATTR, CHG_NODE_ATTR, DEL_NODE_ATTR, ADD_EDGE_ATTR, CHG_EDGE_ATTR, DEL_EDGE_ATTR
+		ADD_NODE, DEL_NODE, ADD_EDGE, DEL_EDGE, STEP, CLEARED, ADD_GRAPH_ATTR, CHG_GRAPH_ATTR, DEL_GRAPH_ATTR, ADD_NODE_ATTR, CHG_NODE_ATTR, DEL_NODE_ATTR, ADD_EDGE_ATTR, CHG_EDGE_ATTR, DEL_EDGE_ATTR, BATCH
 	};
 
 	protected boolean maybeUnregister() {
@@ -346,6 +425,9 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 		lock.lock();
 
 		try {
+			if (coalescing && coalesce(e, data))
+				return;
+
 			events.add(e);
 			eventsData.add(data);
 
@@ -355,6 +437,130 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 		}
 	}
 
+	// Coalescing, called with the lock held.
+
+	/**
+	 * Merge an event in a waiting one if possible, else update the waiting
+	 * changes that can no longer be merged with.
+	 * 
+	 * @return True if the event was merged and must not be queued.
+	 */
+	protected boolean coalesce(GraphEvents e, Object[] data) {
+		switch (e) {
+		case CHG_GRAPH_ATTR:
+			return merge(graphChanges, data, 2, 4);
+		case CHG_NODE_ATTR:
+			return merge(changes(nodeChanges, (String) data[2]), data, 3, 5);
+		case CHG_EDGE_ATTR:
+			return merge(changes(edgeChanges, (String) data[2]), data, 3, 5);
+		case ADD_GRAPH_ATTR:
+		case DEL_GRAPH_ATTR:
+			graphChanges.remove(data[2]);
+			break;
+		case ADD_NODE_ATTR:
+		case DEL_NODE_ATTR:
+			forget(nodeChanges, (String) data[2], (String) data[3]);
+			break;
+		case ADD_EDGE_ATTR:
+		case DEL_EDGE_ATTR:
+			forget(edgeChanges, (String) data[2], (String) data[3]);
+			break;
+		case ADD_NODE:
+		case DEL_NODE:
+			nodeChanges.remove(data[2]);
+			break;
+		case ADD_EDGE:
+		case DEL_EDGE:
+			edgeChanges.remove(data[2]);
+			break;
+		default:
+			forgetChanges();
+			break;
+		}
+
+		return false;
+	}
+
+	/**
+	 * An event left the queue, it can no longer be merged with.
+	 */
+	protected void consumed(GraphEvents e, Object[] data) {
+		switch (e) {
+		case CHG_GRAPH_ATTR:
+			if (graphChanges.get(data[2]) == data)
+				graphChanges.remove(data[2]);
+			break;
+		case CHG_NODE_ATTR:
+			consumed(nodeChanges, data);
+			break;
+		case CHG_EDGE_ATTR:
+			consumed(edgeChanges, data);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private static void consumed(
+			HashMap<String, HashMap<String, Object[]>> changes, Object[] data) {
+		HashMap<String, Object[]> c = changes.get(data[2]);
+
+		if (c != null && c.get(data[3]) == data) {
+			c.remove(data[3]);
+
+			if (c.isEmpty())
+				changes.remove(data[2]);
+		}
+	}
+
+	private static HashMap<String, Object[]> changes(
+			HashMap<String, HashMap<String, Object[]>> changes, String id) {
+		HashMap<String, Object[]> c = changes.get(id);
+
+		if (c == null) {
+			c = new HashMap<String, Object[]>();
+			changes.put(id, c);
+		}
+
+		return c;
+	}
+
+	/**
+	 * Give the new value of a change to the waiting change of the same
+	 * attribute, or record it as the waiting one.
+	 */
+	private static boolean merge(HashMap<String, Object[]> changes,
+			Object[] data, int attribute, int newValue) {
+		Object[] waiting = changes.get(data[attribute]);
+
+		if (waiting != null) {
+			waiting[newValue] = data[newValue];
+			return true;
+		}
+
+		changes.put((String) data[attribute], data);
+		return false;
+	}
+
+	private static void forget(
+			HashMap<String, HashMap<String, Object[]>> changes, String id,
+			String attribute) {
+		HashMap<String, Object[]> c = changes.get(id);
+
+		if (c != null) {
+			c.remove(attribute);
+
+			if (c.isEmpty())
+				changes.remove(id);
+		}
+	}
+
+	protected void forgetChanges() {
+		nodeChanges.clear();
+		edgeChanges.clear();
+		graphChanges.clear();
+	}
+
 	public void edgeAttributeAdded(String graphId, long timeId, String edgeId,
 			String attribute, Object value) {
 		if (maybeUnregister())
@@ -476,6 +682,17 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 		post(GraphEvents.STEP, graphId, timeId, step);
 	}
 
+	/**
+	 * The batch is copied and crosses the thread boundary as a single message.
+	 * It is delivered as a batch in the sink thread.
+	 */
+	public void batchReceived(EventBatch batch) {
+		if (maybeUnregister())
+			return;
+
+		post(GraphEvents.BATCH, new EventBatch(batch));
+	}
+
 	// MBoxListener
 
 	protected void processMessage(GraphEvents e, Object[] data) {
@@ -613,6 +830,9 @@ public class ThreadProxyPipe extends SourceBase implements ProxyPipe {
 
 			sendGraphCleared(graphId, timeId);
 			break;
+		case BATCH:
+			sendBatch((EventBatch) data[0]);
+			break;
 		default:
             logger.warning(String.format("Unknown message %s.", e));
 			break;
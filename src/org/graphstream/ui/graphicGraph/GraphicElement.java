@@ -315,4 +315,16 @@ public abstract class GraphicElement extends AbstractElement {
 		if (matcher.matches())
 			super.addAttribute(attribute, values);
 	}
+
+	@Override
+	public void setNumber(String attribute, double value) {
+		if (acceptedAttribute.matcher(attribute).matches())
+			super.setNumber(attribute, value);
+	}
+
+	@Override
+	public void setNumbers(String attribute, double... values) {
+		if (acceptedAttribute.matcher(attribute).matches())
+			super.setNumbers(attribute, values);
+	}
 }
\ No newline at end of file
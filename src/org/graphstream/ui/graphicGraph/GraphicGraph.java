@@ -39,9 +39,11 @@ import org.graphstream.graph.Graph;
 import org.graphstream.graph.IdAlreadyInUseException;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.NodeFactory;
+import org.graphstream.graph.SplittableIterator;
 import org.graphstream.graph.implementations.AbstractElement;
 import org.graphstream.stream.AttributeSink;
 import org.graphstream.stream.ElementSink;
+import org.graphstream.stream.PrimitiveAttributeSink;
 import org.graphstream.stream.Sink;
 import org.graphstream.stream.SourceBase.ElementType;
 import org.graphstream.stream.file.FileSink;
@@ -135,7 +137,7 @@ import java.util.logging.Logger;
  * TODO : this graph cannot handle modification inside event listener methods !!
  */
 public class GraphicGraph extends AbstractElement implements Graph,
-		StyleGroupListener {
+		PrimitiveAttributeSink, StyleGroupListener {
 
 	/**
 	 * class level logger
@@ -879,6 +881,14 @@ public class GraphicGraph extends AbstractElement implements Graph,
 		this.step = step;
 	}
 
+	public void beginTransaction() {
+		listeners.beginTransaction();
+	}
+
+	public void commit() {
+		listeners.commit();
+	}
+
 	public EdgeFactory<? extends Edge> edgeFactory() {
 		throw new RuntimeException("GraphicGraph does not support EdgeFactory");
 	}
@@ -1087,6 +1097,83 @@ public class GraphicGraph extends AbstractElement implements Graph,
 		listeners.nodeAttributeRemoved(sourceId, timeId, nodeId, attribute);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#graphAttributeAdded(java
+	 * .lang.String, long, java.lang.String, double)
+	 */
+	public void graphAttributeAdded(String sourceId, long timeId,
+			String attribute, double value) {
+		listeners.graphAttributeAdded(sourceId, timeId, attribute, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#graphAttributeChanged(java
+	 * .lang.String, long, java.lang.String, double, double)
+	 */
+	public void graphAttributeChanged(String sourceId, long timeId,
+			String attribute, double oldValue, double newValue) {
+		listeners.graphAttributeChanged(sourceId, timeId, attribute, oldValue,
+				newValue);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#nodeAttributeAdded(java
+	 * .lang.String, long, java.lang.String, java.lang.String, double)
+	 */
+	public void nodeAttributeAdded(String sourceId, long timeId, String nodeId,
+			String attribute, double value) {
+		listeners
+				.nodeAttributeAdded(sourceId, timeId, nodeId, attribute, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#nodeAttributeChanged(java
+	 * .lang.String, long, java.lang.String, java.lang.String, double, double)
+	 */
+	public void nodeAttributeChanged(String sourceId, long timeId,
+			String nodeId, String attribute, double oldValue, double newValue) {
+		listeners.nodeAttributeChanged(sourceId, timeId, nodeId, attribute,
+				oldValue, newValue);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#edgeAttributeAdded(java
+	 * .lang.String, long, java.lang.String, java.lang.String, double)
+	 */
+	public void edgeAttributeAdded(String sourceId, long timeId, String edgeId,
+			String attribute, double value) {
+		listeners
+				.edgeAttributeAdded(sourceId, timeId, edgeId, attribute, value);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.stream.PrimitiveAttributeSink#edgeAttributeChanged(java
+	 * .lang.String, long, java.lang.String, java.lang.String, double, double)
+	 */
+	public void edgeAttributeChanged(String sourceId, long timeId,
+			String edgeId, String attribute, double oldValue, double newValue) {
+		listeners.edgeAttributeChanged(sourceId, timeId, edgeId, attribute,
+				oldValue, newValue);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -1377,6 +1464,14 @@ public class GraphicGraph extends AbstractElement implements Graph,
 		throw new RuntimeException("not implemented !");
 	}
 
+	public <T extends Node> SplittableIterator<T> nodes() {
+		return new SplittableIterator.OfArray<T>(getNodeSet().toArray());
+	}
+
+	public <T extends Edge> SplittableIterator<T> edges() {
+		return new SplittableIterator.OfArray<T>(getEdgeSet().toArray());
+	}
+
 	public <T extends Edge> T removeEdge(int index) {
 		throw new RuntimeException("not implemented !");
 	}
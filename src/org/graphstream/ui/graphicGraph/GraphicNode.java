@@ -34,6 +34,7 @@ package org.graphstream.ui.graphicGraph;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
+import org.graphstream.graph.SplittableIterator;
 import org.graphstream.stream.SourceBase.ElementType;
 import org.graphstream.ui.geom.Point3;
 import org.graphstream.ui.graphicGraph.stylesheet.Selector;
@@ -344,6 +345,26 @@ public class GraphicNode extends GraphicElement implements Node {
 		return null;
 	}
 
+	public <T extends Edge> SplittableIterator<T> edges() {
+		List<GraphicEdge> edges = mygraph.connectivity.get(this);
+
+		if (edges == null)
+			return new SplittableIterator.OfArray<T>(new Object[0]);
+
+		return new SplittableIterator.OfArray<T>(edges.toArray());
+	}
+
+	public <T extends Node> SplittableIterator<T> neighborNodes() {
+		List<GraphicEdge> edges = mygraph.connectivity.get(this);
+		int degree = edges == null ? 0 : edges.size();
+		Node[] neighbors = new Node[degree];
+
+		for (int i = 0; i < degree; i++)
+			neighbors[i] = edges.get(i).getOpposite(this);
+
+		return new SplittableIterator.OfArray<T>(neighbors);
+	}
+
 	public int getOutDegree() {
 		return getDegree();
 	}
@@ -506,6 +506,16 @@ public class Sprite implements Element {
 				String.format("%s.%s", completeId, attribute), values);
 	}
 
+	public void setNumber(String attribute, double value) {
+		manager.graph.setNumber(String.format("%s.%s", completeId, attribute),
+				value);
+	}
+
+	public void setNumbers(String attribute, double... values) {
+		manager.graph.setNumbers(
+				String.format("%s.%s", completeId, attribute), values);
+	}
+
 	public void clearAttributes() {
 		String start = String.format("%s.", completeId);
 		ArrayList<String> keys = new ArrayList<String>();
@@ -32,10 +32,14 @@
 package org.graphstream.util;
 
 import org.graphstream.graph.Edge;
+import org.graphstream.graph.Element;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.AbstractElement.AttributeChangeEvent;
+import org.graphstream.stream.EventBatch;
+import org.graphstream.stream.EventCoalescer;
 import org.graphstream.stream.Pipe;
+import org.graphstream.stream.PrimitiveAttributeSink;
 import org.graphstream.stream.SourceBase;
 import org.graphstream.stream.sync.SinkTime;
 
@@ -43,7 +47,7 @@ import org.graphstream.stream.sync.SinkTime;
  * Helper object to handle events producted by a graph.
  * 
  */
-public class GraphListeners extends SourceBase implements Pipe {
+public class GraphListeners extends SourceBase implements Pipe, PrimitiveAttributeSink {
 
 	SinkTime sinkTime;
 	boolean passYourWay, passYourWayAE;
@@ -52,6 +56,12 @@ public class GraphListeners extends SourceBase implements Pipe {
 
 	Graph g;
 
+	/**
+	 * Events of the current transaction, if any.
+	 */
+	EventCoalescer transaction;
+	int transactionDepth;
+
 	public GraphListeners(Graph g) {
 		super(g.getId());
 
@@ -79,6 +89,14 @@ public class GraphListeners extends SourceBase implements Pipe {
 		sendAttributeChangedEvent(sourceId, newEvent(), eltId, eltType, attribute, event, oldValue, newValue);
 	}
 
+	public void sendNumberChangedEvent(String eltId, ElementType eltType, String attribute,
+			AttributeChangeEvent event, double oldValue, double newValue) {
+		if (passYourWay || attribute.charAt(0) == '.')
+			return;
+
+		sendNumberChangedEvent(sourceId, newEvent(), eltId, eltType, attribute, event, oldValue, newValue);
+	}
+
 	public void sendNodeAdded(String nodeId) {
 		if (passYourWay)
 			return;
@@ -122,6 +140,111 @@ public class GraphListeners extends SourceBase implements Pipe {
 		sendStepBegins(sourceId, newEvent(), step);
 	}
 
+	// Transactions
+
+	/**
+	 * Start buffering events. Until the matching {@link #commit()}, events are
+	 * not sent but merged to their net effect. Transactions can be nested,
+	 * only the outermost commit sends the events.
+	 */
+	public void beginTransaction() {
+		if (transactionDepth++ == 0)
+			transaction = new EventCoalescer();
+	}
+
+	/**
+	 * End a transaction. If it is the outermost one, the net effect of the
+	 * buffered events is sent as a single batch.
+	 * 
+	 * @throws IllegalStateException
+	 *             If no transaction is open.
+	 */
+	public void commit() {
+		if (transactionDepth == 0)
+			throw new IllegalStateException("no transaction to commit");
+
+		if (--transactionDepth == 0) {
+			EventBatch delta = transaction.flush(sourceId, sourceTime);
+			transaction = null;
+
+			if (!delta.isEmpty())
+				sendBatch(delta);
+		}
+	}
+
+	public boolean isInTransaction() {
+		return transactionDepth > 0;
+	}
+
+	@Override
+	public void sendNodeAdded(String sourceId, long timeId, String nodeId) {
+		if (transaction != null)
+			transaction.nodeAdded(sourceId, timeId, nodeId);
+		else
+			super.sendNodeAdded(sourceId, timeId, nodeId);
+	}
+
+	@Override
+	public void sendNodeRemoved(String sourceId, long timeId, String nodeId) {
+		if (transaction != null)
+			transaction.nodeRemoved(sourceId, timeId, nodeId);
+		else
+			super.sendNodeRemoved(sourceId, timeId, nodeId);
+	}
+
+	@Override
+	public void sendEdgeAdded(String sourceId, long timeId, String edgeId, String fromNodeId, String toNodeId,
+			boolean directed) {
+		if (transaction != null)
+			transaction.edgeAdded(sourceId, timeId, edgeId, fromNodeId, toNodeId, directed);
+		else
+			super.sendEdgeAdded(sourceId, timeId, edgeId, fromNodeId, toNodeId, directed);
+	}
+
+	@Override
+	public void sendEdgeRemoved(String sourceId, long timeId, String edgeId) {
+		if (transaction != null)
+			transaction.edgeRemoved(sourceId, timeId, edgeId);
+		else
+			super.sendEdgeRemoved(sourceId, timeId, edgeId);
+	}
+
+	@Override
+	public void sendGraphCleared(String sourceId, long timeId) {
+		if (transaction != null)
+			transaction.graphCleared(sourceId, timeId);
+		else
+			super.sendGraphCleared(sourceId, timeId);
+	}
+
+	@Override
+	public void sendStepBegins(String sourceId, long timeId, double step) {
+		if (transaction != null)
+			transaction.stepBegins(sourceId, timeId, step);
+		else
+			super.sendStepBegins(sourceId, timeId, step);
+	}
+
+	@Override
+	public void sendNumberChangedEvent(String sourceId, long timeId, String eltId, ElementType eltType,
+			String attribute, AttributeChangeEvent event, double oldValue, double newValue) {
+		if (transaction != null)
+			transaction.attributeChanged(sourceId, timeId, eltId, eltType, attribute, event,
+					event == AttributeChangeEvent.ADD ? null : (Object) oldValue, newValue);
+		else
+			super.sendNumberChangedEvent(sourceId, timeId, eltId, eltType, attribute, event, oldValue, newValue);
+	}
+
+	@Override
+	public void sendAttributeChangedEvent(String sourceId, long timeId, String eltId, ElementType eltType,
+			String attribute, AttributeChangeEvent event, Object oldValue, Object newValue) {
+		if (transaction != null)
+			transaction.attributeChanged(sourceId, timeId, eltId, eltType, attribute, event, oldValue, newValue);
+		else
+			super.sendAttributeChangedEvent(sourceId, timeId, eltId, eltType, attribute, event, oldValue,
+					newValue);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -196,6 +319,56 @@ public class GraphListeners extends SourceBase implements Pipe {
 		}
 	}
 
+	// Numbers
+
+	public void graphAttributeAdded(String sourceId, long timeId, String attribute, double value) {
+		numberChanged(sourceId, timeId, g, ElementType.GRAPH, attribute, AttributeChangeEvent.ADD, Double.NaN, value);
+	}
+
+	public void graphAttributeChanged(String sourceId, long timeId, String attribute, double oldValue,
+			double newValue) {
+		numberChanged(sourceId, timeId, g, ElementType.GRAPH, attribute, AttributeChangeEvent.CHANGE, oldValue,
+				newValue);
+	}
+
+	public void nodeAttributeAdded(String sourceId, long timeId, String nodeId, String attribute, double value) {
+		numberChanged(sourceId, timeId, g.getNode(nodeId), ElementType.NODE, attribute, AttributeChangeEvent.ADD,
+				Double.NaN, value);
+	}
+
+	public void nodeAttributeChanged(String sourceId, long timeId, String nodeId, String attribute,
+			double oldValue, double newValue) {
+		numberChanged(sourceId, timeId, g.getNode(nodeId), ElementType.NODE, attribute, AttributeChangeEvent.CHANGE,
+				oldValue, newValue);
+	}
+
+	public void edgeAttributeAdded(String sourceId, long timeId, String edgeId, String attribute, double value) {
+		numberChanged(sourceId, timeId, g.getEdge(edgeId), ElementType.EDGE, attribute, AttributeChangeEvent.ADD,
+				Double.NaN, value);
+	}
+
+	public void edgeAttributeChanged(String sourceId, long timeId, String edgeId, String attribute,
+			double oldValue, double newValue) {
+		numberChanged(sourceId, timeId, g.getEdge(edgeId), ElementType.EDGE, attribute, AttributeChangeEvent.CHANGE,
+				oldValue, newValue);
+	}
+
+	protected void numberChanged(String sourceId, long timeId, Element e, ElementType eltType, String attribute,
+			AttributeChangeEvent event, double oldValue, double newValue) {
+		if (sinkTime.isNewEvent(sourceId, timeId) && e != null) {
+			passYourWay = true;
+
+			try {
+				e.setNumber(attribute, newValue);
+			} finally {
+				passYourWay = false;
+			}
+
+			sendNumberChangedEvent(sourceId, timeId, eltType == ElementType.GRAPH ? null : e.getId(), eltType,
+					attribute, event, oldValue, newValue);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 